@@ -3,19 +3,13 @@ package pl.qprogramming.themplay;
 import static androidx.preference.PreferenceManager.getDefaultSharedPreferences;
 import static pl.qprogramming.themplay.settings.Property.COPY_PLAYLIST;
 import static pl.qprogramming.themplay.settings.Property.LAST_LAUNCH_VERSION;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.PLAYLIST;
-import static pl.qprogramming.themplay.util.Utils.PRESET;
-import static pl.qprogramming.themplay.util.Utils.SONG;
 import static pl.qprogramming.themplay.util.Utils.isEmpty;
 import static pl.qprogramming.themplay.util.Utils.navigateToFragment;
 
 import android.Manifest;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.content.SharedPreferences;
 import android.content.pm.PackageInfo;
@@ -38,7 +32,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+import androidx.lifecycle.Lifecycle;
 import androidx.media3.common.util.UnstableApi;
 import androidx.preference.PreferenceManager;
 
@@ -46,17 +40,17 @@ import com.google.android.material.color.MaterialColors;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
+import io.reactivex.disposables.Disposable;
 import lombok.val;
 import pl.qprogramming.themplay.domain.Playlist;
-import pl.qprogramming.themplay.domain.Preset;
-import pl.qprogramming.themplay.domain.Song;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.player.PlaybackProgressPublisher;
 import pl.qprogramming.themplay.player.PlayerService;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.EventType;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNameExistsException;
@@ -68,6 +62,7 @@ import pl.qprogramming.themplay.views.PlaylistFragment;
 import pl.qprogramming.themplay.views.PlaylistSettingsFragment;
 import pl.qprogramming.themplay.views.PresetsFragment;
 import pl.qprogramming.themplay.views.SettingsFragment;
+import pl.qprogramming.themplay.views.SongSearchDialog;
 @UnstableApi
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = MainActivity.class.getSimpleName();
@@ -75,8 +70,11 @@ public class MainActivity extends AppCompatActivity {
     private PlayerService playerService;
     private boolean serviceIsBound;
     private boolean playerServiceIsBound;
+    private Disposable eventSubscription;
     private int activeColor;
     private ProgressBar loader;
+    private ProgressBar progressBar;
+    private final PlaybackProgressPublisher.ProgressListener progressListener = this::renderProgress;
 
     private ActivityResultLauncher<String[]> multiplePermissionsLauncher;
 
@@ -251,6 +249,10 @@ public class MainActivity extends AppCompatActivity {
                 val itemId = item.getItemId();
                 if (itemId == R.id.addPlaylist) {
                     addPlaylist();
+                } else if (itemId == R.id.searchSongs) {
+                    if (playlistService != null) {
+                        new SongSearchDialog(this, playlistService).show();
+                    }
                 } else if (itemId == R.id.settings) {
                     navigateToFragment(getSupportFragmentManager(), new SettingsFragment(), "settings");
                 } else if (itemId == R.id.preset) {
@@ -287,23 +289,26 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Setup receiver for events
+     * Subscribe to events
      */
     private void setupReceiver() {
-        Logger.d(TAG, "Setting up receiver");
-        val filter = new IntentFilter(EventType.PLAYLIST_NOTIFICATION_ACTIVE.getCode());
-        filter.addAction(EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE.getCode());
-        filter.addAction(EventType.PLAYLIST_NOTIFICATION_DELETE.getCode());
-        filter.addAction(EventType.PLAYBACK_NOTIFICATION_PLAY.getCode());
-        filter.addAction(EventType.PLAYBACK_NOTIFICATION_STOP.getCode());
-        filter.addAction(EventType.PLAYBACK_NOTIFICATION_PAUSE.getCode());
-        filter.addAction(EventType.PRESET_ACTIVATED.getCode());
-        filter.addAction(EventType.PRESET_REMOVED.getCode());
-        filter.addAction(EventType.OPERATION_STARTED.getCode());
-        filter.addAction(EventType.OPERATION_FINISHED.getCode());
-        filter.addAction(EventType.PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND.getCode());
-        filter.addAction(EventType.PLAYLIST_NOTIFICATION_PLAY_NO_SONGS.getCode());
-        LocalBroadcastManager.getInstance(this).registerReceiver(receiver, filter);
+        Logger.d(TAG, "Subscribing to events");
+        if (eventSubscription != null) {
+            eventSubscription.dispose();
+        }
+        eventSubscription = EventBus.get().subscribe(this::onEvent,
+                EventType.PLAYLIST_NOTIFICATION_ACTIVE,
+                EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE,
+                EventType.PLAYLIST_NOTIFICATION_DELETE,
+                EventType.PLAYBACK_NOTIFICATION_PLAY,
+                EventType.PLAYBACK_NOTIFICATION_STOP,
+                EventType.PLAYBACK_NOTIFICATION_PAUSE,
+                EventType.PRESET_ACTIVATED,
+                EventType.PRESET_REMOVED,
+                EventType.OPERATION_STARTED,
+                EventType.OPERATION_FINISHED,
+                EventType.PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND,
+                EventType.PLAYLIST_NOTIFICATION_PLAY_NO_SONGS);
     }
 
 
@@ -368,11 +373,8 @@ public class MainActivity extends AppCompatActivity {
 
     }
 
-    private void populateAndSend(EventType playbackNotificationNext) {
-        val notify = new Intent(playbackNotificationNext.getCode());
-        val args = new Bundle();
-        notify.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(notify);
+    private void populateAndSend(EventType type) {
+        EventBus.get().post(Event.of(type));
     }
 
     public void repaintMediaControls() {
@@ -487,7 +489,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Binds to services and creates receiver upon starting of activity
+     * Binds to services and subscribes to events upon starting of activity
      */
     @Override
     protected void onStart() {
@@ -495,6 +497,9 @@ public class MainActivity extends AppCompatActivity {
         setupServices();
         setupReceiver();
         repaintMediaControls();
+        if (playerService != null) {
+            playerService.getProgressPublisher().subscribe(progressListener);
+        }
         super.onStart();
     }
 
@@ -505,15 +510,17 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Unbinds from services upon stopping of activity
+     * Unsubscribes from events and stops progress updates upon stopping of activity
      */
     @Override
     protected void onStop() {
         Logger.d(TAG, "Stopping main activity");
-        try {
-            LocalBroadcastManager.getInstance(this).unregisterReceiver(receiver);
-        } catch (IllegalArgumentException e) {
-            Logger.d(TAG, "Receiver not registered");
+        if (playerService != null) {
+            playerService.getProgressPublisher().unsubscribe(progressListener);
+        }
+        if (eventSubscription != null) {
+            eventSubscription.dispose();
+            eventSubscription = null;
         }
         super.onStop();
     }
@@ -563,8 +570,10 @@ public class MainActivity extends AppCompatActivity {
                 }
             });
             val playBtn = (ImageView) findViewById(R.id.play_pause);
-            val progressBar = (ProgressBar) findViewById(R.id.progressBar);
-            playerService.setProgressBar(progressBar);
+            progressBar = findViewById(R.id.progressBar);
+            if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+                playerService.getProgressPublisher().subscribe(progressListener);
+            }
             if (playerService.isPlaying()) {
                 renderPauseButton();
             } else {
@@ -577,72 +586,68 @@ public class MainActivity extends AppCompatActivity {
         }
     };
 
+    /**
+     * Animates progress bar to new progress, publisher ticks are sparse so the bar interpolates between them
+     *
+     * @param percentage progress of current song
+     */
+    private void renderProgress(int percentage) {
+        if (progressBar != null) {
+            progressBar.setProgress(percentage, true);
+        }
+    }
+
 
     /**
      * If playlist was activated , toggle play_pause button properly
      */
-    private final BroadcastReceiver receiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Logger.d(TAG, "[EVENT] Received event " + intent.getAction());
-            val event = EventType.getType(intent.getAction());
-            Bundle args = intent.getBundleExtra(ARGS);
-            switch (event) {
-                case OPERATION_STARTED:
-                    loader.setVisibility(View.VISIBLE);
-                    break;
-                case OPERATION_FINISHED:
-                    loader.setVisibility(View.GONE);
-                    break;
-                case PRESET_ACTIVATED:
-                    playlistService.resetActiveFromPreset();
-                    renderPlayButton();
-                    break;
-                case PRESET_REMOVED:
-                    Optional.ofNullable(args.getSerializable(PRESET))
-                            .ifPresent(object -> {
-                                val preset = (Preset) object;
-                                playlistService.removePreset(preset.getName());
-                            });
-                    break;
-                case PLAYBACK_NOTIFICATION_PLAY:
-                case PLAYLIST_NOTIFICATION_ACTIVE:
+    private void onEvent(Event event) {
+        Logger.d(TAG, "[EVENT] Received event {}", event.getType());
+        switch (event.getType()) {
+            case OPERATION_STARTED:
+                loader.setVisibility(View.VISIBLE);
+                break;
+            case OPERATION_FINISHED:
+                loader.setVisibility(View.GONE);
+                break;
+            case PRESET_ACTIVATED:
+                playlistService.resetActiveFromPreset();
+                renderPlayButton();
+                break;
+            case PRESET_REMOVED:
+                if (event.getPresetName() != null) {
+                    playlistService.removePreset(event.getPresetName());
+                }
+                break;
+            case PLAYBACK_NOTIFICATION_PLAY:
+            case PLAYLIST_NOTIFICATION_ACTIVE:
 //                case PLAYLIST_NOTIFICATION_NEW_ACTIVE:
-                    renderPauseButton();
-                    break;
-                case PLAYBACK_NOTIFICATION_STOP:
-                case PLAYBACK_NOTIFICATION_PAUSE:
+                renderPauseButton();
+                break;
+            case PLAYBACK_NOTIFICATION_STOP:
+            case PLAYBACK_NOTIFICATION_PAUSE:
+                renderPlayButton();
+                break;
+            case PLAYLIST_NOTIFICATION_PLAY_NO_SONGS:
+                if (event.getPlaylistName() != null) {
+                    val notActiveMsg = MessageFormat.format(getString(R.string.playlist_active_no_songs), event.getPlaylistName());
+                    Toast.makeText(getApplicationContext(), notActiveMsg, Toast.LENGTH_LONG).show();
+                }
+                break;
+            case PLAYLIST_NOTIFICATION_DELETE:
+                if (playerService != null && playerService.isActivePlaylist(event.getPlaylistId())) {
                     renderPlayButton();
-                    break;
-                case PLAYLIST_NOTIFICATION_PLAY_NO_SONGS:
-                    Optional.ofNullable(args.getSerializable(PLAYLIST))
-                            .ifPresent(object -> {
-                                        val playlist = (Playlist) object;
-                                        val notActiveMsg = MessageFormat.format(getString(R.string.playlist_active_no_songs), playlist.getName());
-                                        Toast.makeText(getApplicationContext(), notActiveMsg, Toast.LENGTH_LONG).show();
-                                    }
-                            );
-                    break;
-                case PLAYLIST_NOTIFICATION_DELETE:
-                    Optional.ofNullable(args.getSerializable(PLAYLIST))
-                            .ifPresent((playlist -> {
-                                if (playerService.isActivePlaylist((Playlist) playlist)) {
-                                    renderPlayButton();
-                                }
-                            }));
-                    break;
-                case PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND:
-                    Optional.ofNullable(args.getSerializable(PLAYLIST))
-                            .ifPresent((object -> {
-                                val playlist = (Playlist) object;
-                                val song = (Song) args.getSerializable(SONG);
-                                playlistService.removeSongsFromPlaylist(playlist.getId(), Collections.singletonList(song),
-                                        updated -> Logger.w(TAG, "Song deleted from playlist as it was not found: " + playlist.getName()),
-                                        throwable -> Logger.e(TAG, "Error while deleting not found song from playlist" + song.getFilename() + " from playlist: " + playlist.getName(), throwable));
-                            }));
-                    break;
-            }
+                }
+                break;
+            case PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND:
+                if (event.getPlaylistId() != null && event.getSongId() != null) {
+                    val playlistName = event.getPlaylistName();
+                    playlistService.removeSongFromPlaylist(event.getPlaylistId(), event.getSongId(),
+                            updated -> Logger.w(TAG, "Song deleted from playlist as it was not found: " + playlistName),
+                            throwable -> Logger.e(TAG, "Error while deleting not found song " + event.getSongFilename() + " from playlist: " + playlistName, throwable));
+                }
+                break;
         }
-    };
+    }
 
-}
\ No newline at end of file
+}
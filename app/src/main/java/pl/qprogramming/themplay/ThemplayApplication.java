@@ -17,6 +17,7 @@ import java.util.Locale;
 
 import lombok.val;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.settings.AppSettings;
 
 public class ThemplayApplication extends Application  {
 
@@ -30,6 +31,7 @@ public class ThemplayApplication extends Application  {
     public void onCreate() {
         super.onCreate();
         Logger.initialize(this);
+        AppSettings.initialize(this);
         Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
             // Get the stack trace.
             val sw = new StringWriter();
@@ -19,13 +19,11 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.IBinder;
 import android.provider.MediaStore;
-import android.util.Base64;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.canhub.cropper.CropImageContract;
 import com.canhub.cropper.CropImageContractOptions;
@@ -38,10 +36,12 @@ import java.io.IOException;
 import lombok.val;
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 
 /**
- * Activity to load image from gallery, crop it and save it as base64 string into playlist
+ * Activity to load image from gallery, crop it and save it into image store as playlist background
  */
 public class ChangeBackgroundActivity extends AppCompatActivity {
     private static final String TAG = ChangeBackgroundActivity.class.getSimpleName();
@@ -161,10 +161,8 @@ public class ChangeBackgroundActivity extends AppCompatActivity {
             Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, targetWidth, targetHeight, false);
             scaledBitmap.compress(Bitmap.CompressFormat.JPEG, 75, baos);
             byte[] imageBytes = baos.toByteArray();
-            String imageString = Base64.encodeToString(imageBytes, Base64.DEFAULT);
             if (playlist != null) {
-                playlist.setBackgroundImage(imageString);
-                playlistService.save(playlist,
+                playlistService.changeBackground(playlist, imageBytes,
                         updated -> {
                             Logger.d(TAG, "Playlist background updated successfully for  " + updated.getName());
                             sendUpdateBroadcast();
@@ -178,18 +176,14 @@ public class ChangeBackgroundActivity extends AppCompatActivity {
                 finish();
             }
         } catch (Exception e) {
-            Logger.e(TAG, "Error processing cropped image for Base64 conversion", e);
+            Logger.e(TAG, "Error storing cropped image", e);
             finish();
         }
     }
 
     private void sendUpdateBroadcast() {
-        Intent intent = new Intent(PLAYLIST_CHANGE_BACKGROUND.getCode()); // Use defined action string
-        Bundle argsBundle = new Bundle();
-        argsBundle.putInt(POSITION, itemPosition);
-        intent.putExtra(ARGS, argsBundle);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
-        Logger.d(TAG, "Playlist change background broadcast sent for position: " + itemPosition);
+        EventBus.get().post(Event.of(PLAYLIST_CHANGE_BACKGROUND, itemPosition));
+        Logger.d(TAG, "Playlist change background event sent for position: {}", itemPosition);
     }
 
     private final ServiceConnection mConnection = new ServiceConnection() {
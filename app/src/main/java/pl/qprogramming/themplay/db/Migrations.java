@@ -0,0 +1,137 @@
+package pl.qprogramming.themplay.db;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.io.IOException;
+
+import lombok.val;
+import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.image.ImageStore;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Room migrations between database versions
+ */
+public class Migrations {
+    private static final String TAG = Migrations.class.getSimpleName();
+    private static final String LEGACY_BACKGROUND = "background";
+
+    /**
+     * Adds playback queue cursor to playlists
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + Playlist.PLAYLIST_TABLE_NAME
+                    + " ADD COLUMN " + Playlist.CURRENT_SONG_INDEX + " INTEGER NOT NULL DEFAULT -1");
+        }
+    };
+
+    /**
+     * Moves base64 encoded playlist backgrounds out of playlists table into image store.
+     * Every background is decoded and written as file, its reference replaces the blob in the same column,
+     * which is then renamed. Background which can't be moved is dropped, so that migration never blocks
+     * opening the database.
+     *
+     * @param imageStore store receiving images
+     * @return migration from version 2 to 3
+     */
+    public static Migration migration2to3(ImageStore imageStore) {
+        return new Migration(2, 3) {
+            @Override
+            public void migrate(@NonNull SupportSQLiteDatabase db) {
+                int moved = 0;
+                try (val cursor = db.query("SELECT " + Playlist.COLUMN_ID + ", " + LEGACY_BACKGROUND
+                        + " FROM " + Playlist.PLAYLIST_TABLE_NAME
+                        + " WHERE " + LEGACY_BACKGROUND + " IS NOT NULL")) {
+                    while (cursor.moveToNext()) {
+                        val id = cursor.getLong(0);
+                        String ref = null;
+                        try {
+                            val blob = cursor.getString(1);
+                            if (!blob.isEmpty()) {
+                                ref = imageStore.put(Base64.decode(blob, Base64.DEFAULT));
+                                moved++;
+                            }
+                        } catch (IOException | IllegalArgumentException e) {
+                            Logger.e(TAG, "Failed to move background of playlist " + id + ", dropping it", e);
+                        }
+                        val values = new ContentValues();
+                        values.put(LEGACY_BACKGROUND, ref);
+                        db.update(Playlist.PLAYLIST_TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, values,
+                                Playlist.COLUMN_ID + " = ?", new Object[]{id});
+                    }
+                }
+                db.execSQL("ALTER TABLE " + Playlist.PLAYLIST_TABLE_NAME
+                        + " RENAME COLUMN " + LEGACY_BACKGROUND + " TO " + Playlist.BACKGROUND_REF);
+                Logger.d(TAG, "Moved " + moved + " playlist backgrounds into image store");
+            }
+        };
+    }
+
+    /**
+     * Adds duration and audio format of songs. Values are filled in background by
+     * {@link pl.qprogramming.themplay.playlist.SongMetadataProber}, for songs which have no encoding yet
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.DURATION + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.SAMPLE_RATE + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.CHANNELS + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.ENCODING + " TEXT");
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.BITRATE + " INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Adds full-text index of songs, fills it with existing songs and creates triggers keeping it in sync
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(SearchIndex.CREATE_TABLE);
+            SearchIndex.rebuild(db);
+            SearchIndex.createTriggers(db);
+        }
+    };
+
+    /**
+     * Adds cached content hash of song files, computed on first export
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.CONTENT_HASH + " TEXT");
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.CONTENT_SIZE + " INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Adds modification time of song file to cached content hash, hashes cached without it are recomputed
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + Song.SONG_TABLE_NAME + " ADD COLUMN " + Song.CONTENT_MODIFIED + " INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * @param imageStore store used by migrations moving images out of database
+     * @return all migrations in order
+     */
+    public static Migration[] all(ImageStore imageStore) {
+        return new Migration[]{MIGRATION_1_2, migration2to3(imageStore), MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7};
+    }
+
+    private Migrations() {
+    }
+}
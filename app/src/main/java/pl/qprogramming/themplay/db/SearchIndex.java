@@ -0,0 +1,142 @@
+package pl.qprogramming.themplay.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.val;
+import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongSearch;
+
+/**
+ * Maintenance and querying helpers of {@link SongSearch} full-text index.
+ * <p>
+ * Index is kept in sync with songs and playlists by triggers, so that no write path needs to know about it.
+ * Search terms are matched as prefixes, hits are ranked by share of term occurrences they contain,
+ * with file name weighted above playlist name.
+ */
+public class SearchIndex {
+    private static final String SONG = Song.SONG_TABLE_NAME;
+    private static final String PLAYLISTS = Playlist.PLAYLIST_TABLE_NAME;
+    private static final String INDEX = SongSearch.SONG_SEARCH_TABLE_NAME;
+    private static final String INDEX_COLUMNS = "(" + SongSearch.ROW_ID + ", " + SongSearch.FILENAME + ", " + SongSearch.PLAYLIST_NAME + ")";
+    private static final String PLAYLIST_NAME_OF_NEW = "(SELECT " + Playlist.NAME + " FROM " + PLAYLISTS
+            + " WHERE " + Playlist.COLUMN_ID + " = new." + Song.COLUMN_PLAYLIST_OWNER_ID + ")";
+    private static final String INSERT_NEW = "INSERT INTO " + INDEX + INDEX_COLUMNS
+            + " VALUES (new." + Song.COLUMN_ID + ", new." + Song.FILENAME + ", " + PLAYLIST_NAME_OF_NEW + ");";
+    private static final String DELETE_OLD = "DELETE FROM " + INDEX + " WHERE " + SongSearch.ROW_ID + " = old." + Song.COLUMN_ID + ";";
+
+    /**
+     * Same statement as generated by Room for {@link SongSearch}
+     */
+    static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS `" + INDEX + "` USING FTS4(`"
+            + SongSearch.FILENAME + "` TEXT, `" + SongSearch.PLAYLIST_NAME + "` TEXT, tokenize=unicode61)";
+
+    static final String[] TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS song_search_after_insert AFTER INSERT ON " + SONG + " BEGIN "
+                    + "DELETE FROM " + INDEX + " WHERE " + SongSearch.ROW_ID + " = new." + Song.COLUMN_ID + "; "
+                    + INSERT_NEW + " END",
+            "CREATE TRIGGER IF NOT EXISTS song_search_after_update AFTER UPDATE OF "
+                    + Song.FILENAME + ", " + Song.COLUMN_PLAYLIST_OWNER_ID + " ON " + SONG + " BEGIN "
+                    + DELETE_OLD + " " + INSERT_NEW + " END",
+            "CREATE TRIGGER IF NOT EXISTS song_search_after_delete AFTER DELETE ON " + SONG + " BEGIN "
+                    + DELETE_OLD + " END",
+            "CREATE TRIGGER IF NOT EXISTS song_search_after_playlist_rename AFTER UPDATE OF " + Playlist.NAME
+                    + " ON " + PLAYLISTS + " BEGIN "
+                    + "UPDATE " + INDEX + " SET " + SongSearch.PLAYLIST_NAME + " = new." + Playlist.NAME
+                    + " WHERE " + SongSearch.ROW_ID + " IN (SELECT " + Song.COLUMN_ID + " FROM " + SONG
+                    + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = new." + Playlist.COLUMN_ID + "); END"
+    };
+
+    /**
+     * Column weights, in order of {@link SongSearch} columns
+     */
+    private static final double[] WEIGHTS = {1.0, 0.5};
+    private static final char PREFIX = '*';
+
+    /**
+     * Creates triggers keeping index in sync. Table itself is created by Room or migration
+     */
+    public static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        for (String trigger : TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    /**
+     * Fills index with all existing songs, replacing what was indexed before
+     */
+    public static void rebuild(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + INDEX);
+        db.execSQL("INSERT INTO " + INDEX + INDEX_COLUMNS
+                + " SELECT s." + Song.COLUMN_ID + ", s." + Song.FILENAME + ", p." + Playlist.NAME
+                + " FROM " + SONG + " s LEFT JOIN " + PLAYLISTS + " p ON p." + Playlist.COLUMN_ID
+                + " = s." + Song.COLUMN_PLAYLIST_OWNER_ID);
+    }
+
+    /**
+     * Builds FTS match expression where every word of text has to be present as prefix of some word.
+     * Words are lower cased, so that they are never taken for query operators (OR, NOT, NEAR)
+     *
+     * @param text text typed by user
+     * @return match expression or null if text contains no searchable word
+     */
+    @Nullable
+    public static String matchQuery(@Nullable String text) {
+        if (text == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        val term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                term.append(text.charAt(i));
+            } else if (term.length() > 0) {
+                terms.add(term.toString().toLowerCase(Locale.ROOT) + PREFIX);
+                term.setLength(0);
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * Ranks hit by its FTS {@code matchinfo(table, 'pcx')} blob. For every phrase and column,
+     * share of all occurrences of the phrase which are in this row is added, weighted by column
+     *
+     * @param matchInfo matchinfo blob of hit
+     * @return rank, higher is better
+     */
+    public static double rank(@Nullable byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) {
+            return 0;
+        }
+        val info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        val phrases = info.get(0);
+        val columns = info.get(1);
+        double rank = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns && column < WEIGHTS.length; column++) {
+                val offset = 2 + 3 * (phrase * columns + column);
+                if (offset + 1 >= info.limit()) {
+                    return rank;
+                }
+                val hitsInRow = info.get(offset);
+                val hitsInAllRows = info.get(offset + 1);
+                if (hitsInRow > 0 && hitsInAllRows > 0) {
+                    rank += WEIGHTS[column] * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return rank;
+    }
+
+    private SearchIndex() {
+    }
+}
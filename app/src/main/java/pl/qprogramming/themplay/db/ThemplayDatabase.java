@@ -2,19 +2,23 @@ package pl.qprogramming.themplay.db;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Preset;
 import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongSearch;
+import pl.qprogramming.themplay.image.ImageStore;
 import pl.qprogramming.themplay.repository.PlaylistRepository;
 import pl.qprogramming.themplay.repository.PresetRepository;
 import pl.qprogramming.themplay.repository.SongRepository;
 
-@Database(entities = {Playlist.class, Song.class, Preset.class}, version = 1)
+@Database(entities = {Playlist.class, Song.class, Preset.class, SongSearch.class}, version = 7)
 @TypeConverters({Converters.class})
 public abstract class ThemplayDatabase extends RoomDatabase {
 
@@ -32,7 +36,13 @@ public abstract class ThemplayDatabase extends RoomDatabase {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     ThemplayDatabase.class, "themplay")
-                            // Add migrations here
+                            .addMigrations(Migrations.all(ImageStore.get(context)))
+                            .addCallback(new RoomDatabase.Callback() {
+                                @Override
+                                public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                                    SearchIndex.createTriggers(db);
+                                }
+                            })
                             .build();
                 }
             }
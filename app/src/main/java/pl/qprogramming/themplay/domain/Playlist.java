@@ -20,6 +20,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.val;
+import pl.qprogramming.themplay.playlist.PlaybackQueue;
 
 @Getter
 @Setter
@@ -32,13 +33,14 @@ public class Playlist implements Serializable, Cloneable {
     public static final String COLUMN_ID = "id";
     public static final String CURRENT_SONG = "currentSong";
     public static final String CURRENT_SONG_ID = "current_song_Id";
+    public static final String CURRENT_SONG_INDEX = "current_song_index";
     public static final String PLAYLIST_TABLE_NAME = "playlists";
     public static final String ACTIVE = "active";
     public static final String CREATED_AT = "created_at";
     public static final String UPDATED_AT = "updated_at";
     public static final String SONG_COUNT = "songs_count";
     public static final String PRESET = "preset";
-    public static final String BACKGROUND = "background";
+    public static final String BACKGROUND_REF = "background_ref";
     public static final String TEXT_COLOR = "text_color";
     public static final String NAME = "name";
     public static final String TEXT_OUTLINE = "text_outline";
@@ -50,6 +52,12 @@ public class Playlist implements Serializable, Cloneable {
     private Song currentSong;
     @ColumnInfo(name = CURRENT_SONG_ID)
     private Long currentSongId;
+    /**
+     * Position of current song in playback queue when it was last saved
+     */
+    @ColumnInfo(name = CURRENT_SONG_INDEX, defaultValue = "-1")
+    @Builder.Default
+    private int currentSongIndex = PlaybackQueue.NO_SONG;
     private boolean active;
     @ColumnInfo(name = CREATED_AT)
     @Builder.Default
@@ -60,8 +68,11 @@ public class Playlist implements Serializable, Cloneable {
     @ColumnInfo(name = SONG_COUNT)
     private int songCount;
     private String preset;
-    @ColumnInfo(name = BACKGROUND)
-    private transient String backgroundImage;
+    /**
+     * Reference of background image in {@link pl.qprogramming.themplay.image.ImageStore}
+     */
+    @ColumnInfo(name = BACKGROUND_REF)
+    private String backgroundRef;
     @ColumnInfo(name = TEXT_COLOR)
     private int textColor;
     @ColumnInfo(name = TEXT_OUTLINE)
@@ -76,11 +87,11 @@ public class Playlist implements Serializable, Cloneable {
     private List<Song> songs;
     /**
      * Contains all songs which were shuffled or ordered upon loading this playlist
-     * Application will consume this list to play songs one by one, upon reaching end ,
-     * new playlists will be generated accordingly
+     * Application will consume this queue to play songs one by one, upon reaching end ,
+     * new queue will be generated accordingly
      */
     @Ignore
-    private List<Song> playlist;
+    private PlaybackQueue queue;
 
     public List<Song> getSongs() {
         if (songs == null) {
@@ -89,6 +100,37 @@ public class Playlist implements Serializable, Cloneable {
         return songs;
     }
 
+    /**
+     * @return read only list of songs in playback order, null if queue was not created yet
+     */
+    public List<Song> getPlaylist() {
+        return queue == null ? null : queue.getSongs();
+    }
+
+    /**
+     * Replaces playback queue with given songs, cursor points to current song if it's among them
+     *
+     * @param playlist songs in playback order
+     */
+    public void setPlaylist(List<Song> playlist) {
+        queue = new PlaybackQueue(playlist);
+        if (currentSong != null) {
+            queue.moveToId(currentSong.getId());
+        }
+    }
+
+    /**
+     * Sets current song together with its queue position
+     *
+     * @param song  new current song
+     * @param index position of song in queue
+     */
+    public void setCurrentSong(Song song, int index) {
+        currentSong = song;
+        currentSongId = song == null ? null : song.getId();
+        currentSongIndex = index;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -116,6 +158,7 @@ public class Playlist implements Serializable, Cloneable {
         val playlist = (Playlist) super.clone();
         playlist.setId(null);
         playlist.setCurrentSongId(null);
+        playlist.setCurrentSongIndex(PlaybackQueue.NO_SONG);
         playlist.setCurrentSong(null);
         playlist.setCreatedAt(new Date());
         playlist.setActive(false);
@@ -0,0 +1,22 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Partial {@link Playlist} entity, used to update only position of playlists when they are reordered
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistPosition {
+    @ColumnInfo(name = Playlist.COLUMN_ID)
+    private Long id;
+    @ColumnInfo(name = Playlist.POSITION)
+    private int position;
+}
@@ -0,0 +1,55 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+
+import java.io.Serializable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Slim, read only view of {@link Playlist} used by list screens.
+ * Contains only what a playlist card shows, with file name of current song and total length of songs joined in,
+ * so list can be rendered from one query without loading songs.
+ * Compared by value, so list diffing can tell which cards really changed.
+ */
+@EqualsAndHashCode
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class PlaylistSummary implements Serializable {
+    public static final String CURRENT_SONG_FILENAME = "current_song_filename";
+    public static final String TOTAL_DURATION = "total_duration";
+
+    @ColumnInfo(name = Playlist.COLUMN_ID)
+    private Long id;
+    @ColumnInfo(name = Playlist.NAME)
+    private String name;
+    @ColumnInfo(name = Playlist.PRESET)
+    private String preset;
+    @ColumnInfo(name = Playlist.SONG_COUNT)
+    private int songCount;
+    @ColumnInfo(name = Playlist.TEXT_COLOR)
+    private int textColor;
+    @ColumnInfo(name = Playlist.TEXT_OUTLINE)
+    private boolean textOutline;
+    @ColumnInfo(name = Playlist.POSITION)
+    private int position;
+    @ColumnInfo(name = Playlist.ACTIVE)
+    private boolean active;
+    @ColumnInfo(name = Playlist.BACKGROUND_REF)
+    private String backgroundRef;
+    @ColumnInfo(name = Playlist.CURRENT_SONG_ID)
+    private Long currentSongId;
+    @ColumnInfo(name = CURRENT_SONG_FILENAME)
+    private String currentSongFilename;
+    /**
+     * Sum of known song durations in milliseconds
+     */
+    @ColumnInfo(name = TOTAL_DURATION)
+    private long totalDuration;
+}
@@ -37,6 +37,18 @@ public class Song implements Serializable, Cloneable {
     public static final String COLUMN_ID = "id";
     public static final String FILENAME = "filename";
     public static final String COLUMN_PLAYLIST_OWNER_ID = "playlist_owner_id";
+    public static final String DURATION = "duration";
+    public static final String SAMPLE_RATE = "sample_rate";
+    public static final String CHANNELS = "channels";
+    public static final String ENCODING = "encoding";
+    public static final String BITRATE = "bitrate";
+    public static final String CONTENT_HASH = "content_hash";
+    public static final String CONTENT_SIZE = "content_size";
+    public static final String CONTENT_MODIFIED = "content_modified";
+    /**
+     * Encoding of song which metadata could not be read, so that it's not probed again
+     */
+    public static final String UNKNOWN_ENCODING = "unknown";
 
     @PrimaryKey(autoGenerate = true)
     private Long id;
@@ -49,6 +61,40 @@ public class Song implements Serializable, Cloneable {
     private boolean selected;
     @ColumnInfo(name = COLUMN_PLAYLIST_OWNER_ID, index = true)
     private Long playlistOwnerId;
+    /**
+     * Duration in milliseconds, 0 if not known yet
+     */
+    @ColumnInfo(name = DURATION, defaultValue = "0")
+    private long duration;
+    @ColumnInfo(name = SAMPLE_RATE, defaultValue = "0")
+    private int sampleRate;
+    @ColumnInfo(name = CHANNELS, defaultValue = "0")
+    private int channels;
+    /**
+     * Mime type of audio track, null until metadata is read from file
+     */
+    @ColumnInfo(name = ENCODING)
+    private String encoding;
+    /**
+     * Bitrate in bits per second, 0 if not known
+     */
+    @ColumnInfo(name = BITRATE, defaultValue = "0")
+    private int bitrate;
+    /**
+     * Fingerprint of file content, see {@link pl.qprogramming.themplay.util.ContentHash}. Null until song is exported
+     */
+    @ColumnInfo(name = CONTENT_HASH)
+    private String contentHash;
+    /**
+     * Size of file when its content hash was computed, hash is stale once size changes
+     */
+    @ColumnInfo(name = CONTENT_SIZE, defaultValue = "0")
+    private long contentSize;
+    /**
+     * Modification time of file when its content hash was computed, 0 if unknown. Hash is stale once it changes
+     */
+    @ColumnInfo(name = CONTENT_MODIFIED, defaultValue = "0")
+    private long contentModified;
 
 
     @Override
@@ -69,6 +115,10 @@ public class Song implements Serializable, Cloneable {
         return Objects.hash(id, filename);
     }
 
+    /**
+     * Copy without id and owner. It references the same file and keeps its metadata and content hash,
+     * so file is not read again for the copy
+     */
     @NonNull
     @Override
     public Song clone() throws CloneNotSupportedException {
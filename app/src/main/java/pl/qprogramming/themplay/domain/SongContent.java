@@ -0,0 +1,26 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Partial {@link Song} entity, used to cache content hash of song file once it was computed
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SongContent {
+    @ColumnInfo(name = Song.COLUMN_ID)
+    private Long id;
+    @ColumnInfo(name = Song.CONTENT_SIZE)
+    private long contentSize;
+    @ColumnInfo(name = Song.CONTENT_MODIFIED)
+    private long contentModified;
+    @ColumnInfo(name = Song.CONTENT_HASH)
+    private String contentHash;
+}
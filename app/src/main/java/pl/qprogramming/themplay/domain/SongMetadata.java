@@ -0,0 +1,30 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Partial {@link Song} entity, used to update only duration and audio format of songs once they are read from files
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SongMetadata {
+    @ColumnInfo(name = Song.COLUMN_ID)
+    private Long id;
+    @ColumnInfo(name = Song.DURATION)
+    private long duration;
+    @ColumnInfo(name = Song.SAMPLE_RATE)
+    private int sampleRate;
+    @ColumnInfo(name = Song.CHANNELS)
+    private int channels;
+    @ColumnInfo(name = Song.ENCODING)
+    private String encoding;
+    @ColumnInfo(name = Song.BITRATE)
+    private int bitrate;
+}
@@ -0,0 +1,36 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Full-text index of songs, row id is id of indexed {@link Song}.
+ * Mirrors song file name and name of its playlist, kept in sync by triggers
+ * from {@link pl.qprogramming.themplay.db.SearchIndex}, never written directly.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = SongSearch.SONG_SEARCH_TABLE_NAME)
+public class SongSearch {
+    public static final String SONG_SEARCH_TABLE_NAME = "song_search";
+    public static final String ROW_ID = "rowid";
+    public static final String FILENAME = "filename";
+    public static final String PLAYLIST_NAME = "playlist_name";
+
+    @PrimaryKey
+    @ColumnInfo(name = ROW_ID)
+    private Long rowId;
+    @ColumnInfo(name = FILENAME)
+    private String filename;
+    @ColumnInfo(name = PLAYLIST_NAME)
+    private String playlistName;
+}
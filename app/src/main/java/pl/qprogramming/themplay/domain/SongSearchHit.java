@@ -0,0 +1,40 @@
+package pl.qprogramming.themplay.domain;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Song found by full-text search, together with playlist and preset it belongs to
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "matchInfo")
+public class SongSearchHit {
+    public static final String SONG_ID = "song_id";
+    public static final String PLAYLIST_ID = "playlist_id";
+    public static final String MATCH_INFO = "match_info";
+
+    @ColumnInfo(name = SONG_ID)
+    private Long songId;
+    @ColumnInfo(name = Song.FILENAME)
+    private String filename;
+    @ColumnInfo(name = PLAYLIST_ID)
+    private Long playlistId;
+    @ColumnInfo(name = SongSearch.PLAYLIST_NAME)
+    private String playlistName;
+    @ColumnInfo(name = Playlist.PRESET)
+    private String preset;
+    /**
+     * Raw FTS matchinfo blob, used to rank hits
+     */
+    @ColumnInfo(name = MATCH_INFO)
+    private byte[] matchInfo;
+    @Ignore
+    private double rank;
+}
@@ -0,0 +1,302 @@
+package pl.qprogramming.themplay.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Decodes images from {@link ImageStore} off the main thread and keeps them in memory.
+ * <p>
+ * Decoded bitmaps are kept in {@link LruCache} sized in bytes (1/8 of available heap), keyed by image reference
+ * and requested size. As references are content hashes, changed image means new key, so a card never decodes
+ * twice while its image stays the same. Decoding is done on io scheduler, downsampled with
+ * {@code inSampleSize} to requested size, and reuses memory of bitmaps evicted from cache through
+ * {@code inBitmap}. Bitmap is only offered for reuse if no target shows it anymore.
+ * <p>
+ * Every target can have only one pending load, starting new one or calling {@link #cancel(ImageView)}
+ * (e.g. when view holder is recycled) drops previous one. Bitmap target shows stays marked as displayed until
+ * load delivers its replacement, so it can't be reused while still on screen. Same image requested by several
+ * targets at once is decoded once. All methods must be called from the main thread.
+ */
+public class BitmapLoader {
+    private static final String TAG = BitmapLoader.class.getSimpleName();
+    private static final int CACHE_FRACTION = 8;
+
+    /**
+     * Receives loaded image on the main thread
+     */
+    public interface OnLoaded {
+        /**
+         * @param bitmap loaded image or null if it's missing or could not be decoded
+         */
+        void onLoaded(@Nullable Bitmap bitmap);
+    }
+
+    private static volatile BitmapLoader instance;
+
+    private final ImageStore imageStore;
+    private final LruCache<String, Bitmap> cache;
+    private final Set<SoftReference<Bitmap>> reusable = new HashSet<>();
+    private final Map<String, Single<Optional<Bitmap>>> inFlight = new HashMap<>();
+    private final Map<ImageView, Disposable> pending = new WeakHashMap<>();
+    private final Map<ImageView, String> shown = new WeakHashMap<>();
+    private final Map<String, Integer> displayCount = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong decodes = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    BitmapLoader(ImageStore imageStore, int cacheBytes) {
+        this.imageStore = imageStore;
+        this.cache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (!displayCount.containsKey(key) && oldValue.isMutable()) {
+                    synchronized (reusable) {
+                        reusable.add(new SoftReference<>(oldValue));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * @return loader backed by application {@link ImageStore}
+     */
+    public static BitmapLoader get(Context context) {
+        if (instance == null) {
+            synchronized (BitmapLoader.class) {
+                if (instance == null) {
+                    val cacheBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / CACHE_FRACTION);
+                    instance = new BitmapLoader(ImageStore.get(context), cacheBytes);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Loads image for target. Cached image is delivered right away, otherwise it's decoded in background.
+     * Target itself is not modified, it's up to callback to show the image. Image target showed before
+     * is released only once callback is invoked, so callback must replace it.
+     *
+     * @param ref       image reference, null or empty delivers null right away
+     * @param target    view image is loaded for, used to track pending loads and displayed bitmaps
+     * @param reqWidth  width image is shown at
+     * @param reqHeight height image is shown at
+     * @param onLoaded  callback invoked once, unless load is cancelled
+     */
+    public void load(@Nullable String ref, @NonNull ImageView target, int reqWidth, int reqHeight, @NonNull OnLoaded onLoaded) {
+        dispose(target);
+        if (ref == null || ref.isEmpty()) {
+            display(target, null);
+            onLoaded.onLoaded(null);
+            return;
+        }
+        val key = key(ref, reqWidth, reqHeight);
+        val cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            display(target, key);
+            onLoaded.onLoaded(cached);
+            return;
+        }
+        val request = inFlight.computeIfAbsent(key, k -> Single
+                .fromCallable(() -> Optional.ofNullable(decode(imageStore.file(ref), reqWidth, reqHeight)))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doOnSuccess(bitmap -> bitmap.ifPresent(value -> cache.put(k, value)))
+                .doFinally(() -> inFlight.remove(k))
+                .cache());
+        pending.put(target, request.subscribe(bitmap -> {
+            pending.remove(target);
+            display(target, bitmap.isPresent() ? key : null);
+            onLoaded.onLoaded(bitmap.orElse(null));
+        }, throwable -> {
+            pending.remove(target);
+            display(target, null);
+            Logger.e(TAG, "Failed to decode image " + ref, throwable);
+            onLoaded.onLoaded(null);
+        }));
+    }
+
+    /**
+     * Drops pending load of target and marks bitmap it showed as no longer displayed.
+     * Caller should clear the image from target as well.
+     *
+     * @param target view to cancel
+     */
+    public void cancel(@NonNull ImageView target) {
+        dispose(target);
+        release(shown.remove(target));
+    }
+
+    /**
+     * Drops all cached bitmaps, for example when system is low on memory
+     */
+    public void clear() {
+        cache.evictAll();
+        synchronized (reusable) {
+            reusable.clear();
+        }
+    }
+
+    /**
+     * @return human readable summary of cache usage
+     */
+    public String summary() {
+        return String.format(Locale.US, "Bitmap cache: %d/%d KB, hits: %d, decodes: %d, reused bitmaps: %d",
+                cache.size() / 1024, cache.maxSize() / 1024, hits.get(), decodes.get(), reused.get());
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getDecodes() {
+        return decodes.get();
+    }
+
+    long getReused() {
+        return reused.get();
+    }
+
+    private void dispose(ImageView target) {
+        val disposable = pending.remove(target);
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    /**
+     * Marks key as shown by target, releasing key it showed before
+     *
+     * @param key key of delivered bitmap, null if target is left without image
+     */
+    private void display(ImageView target, @Nullable String key) {
+        if (key != null) {
+            displayCount.merge(key, 1, Integer::sum);
+        }
+        release(key == null ? shown.remove(target) : shown.put(target, key));
+    }
+
+    private void release(@Nullable String key) {
+        if (key == null) {
+            return;
+        }
+        val count = displayCount.get(key);
+        if (count == null || count <= 1) {
+            displayCount.remove(key);
+        } else {
+            displayCount.put(key, count - 1);
+        }
+    }
+
+    /**
+     * Runs on io thread
+     */
+    private Bitmap decode(File file, int reqWidth, int reqHeight) {
+        if (!file.exists()) {
+            return null;
+        }
+        val path = file.getAbsolutePath();
+        val options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inBitmap = takeReusable(options);
+        decodes.incrementAndGet();
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(path, options);
+        } catch (IllegalArgumentException e) {
+            Logger.w(TAG, "Could not reuse bitmap, decoding into new one");
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(path, options);
+        }
+        if (options.inBitmap != null && bitmap == options.inBitmap) {
+            reused.incrementAndGet();
+        }
+        Logger.d(TAG, "Decoded {} (sample size {}). {}", file.getName(), options.inSampleSize, summary());
+        return bitmap;
+    }
+
+    private Bitmap takeReusable(BitmapFactory.Options options) {
+        val needed = byteCount(options.outWidth, options.outHeight, options.inSampleSize);
+        synchronized (reusable) {
+            val iterator = reusable.iterator();
+            while (iterator.hasNext()) {
+                val candidate = iterator.next().get();
+                if (candidate == null || candidate.isRecycled()) {
+                    iterator.remove();
+                } else if (candidate.getAllocationByteCount() >= needed) {
+                    iterator.remove();
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    static String key(String ref, int reqWidth, int reqHeight) {
+        return ref + "@" + reqWidth + "x" + reqHeight;
+    }
+
+    /**
+     * Largest power of two keeping decoded image at least as big as requested size
+     *
+     * @return sample size, 1 if requested size is unknown or bigger than image
+     */
+    static int sampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int sampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return sampleSize;
+        }
+        while (width / (sampleSize * 2) >= reqWidth && height / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Upper bound of ARGB_8888 bitmap size after sampling
+     */
+    static long byteCount(int width, int height, int sampleSize) {
+        val sampledWidth = (width + sampleSize - 1) / sampleSize;
+        val sampledHeight = (height + sampleSize - 1) / sampleSize;
+        return (long) sampledWidth * sampledHeight * 4;
+    }
+}
@@ -0,0 +1,202 @@
+package pl.qprogramming.themplay.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Stores images (playlist backgrounds) as files in app-private storage.
+ * <p>
+ * Every image is keyed by SHA-256 of its content, and that key is the only thing kept in the database.
+ * Same image saved twice (e.g. copied playlist or re-imported preset) ends up as a single file.
+ * Files are written to a temporary file first and then renamed, so a reference never points to a partially
+ * written image.
+ * <p>
+ * As files are shared, they are never removed one by one. Instead {@link #sweep(Collection)} removes every file
+ * nothing references anymore. Files written or reused recently are left alone, as reference to them might not be
+ * saved yet.
+ */
+public class ImageStore {
+    private static final String TAG = ImageStore.class.getSimpleName();
+    public static final String IMAGES_DIR = "images";
+    static final String EXTENSION = ".jpg";
+    private static final String TMP_EXTENSION = ".tmp";
+    /**
+     * Files younger than this are kept by sweep, long enough for a preset import to save its playlists
+     */
+    static final long SWEEP_GRACE_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static volatile ImageStore instance;
+
+    @Getter
+    private final File directory;
+
+    public ImageStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return store located in application files directory
+     */
+    public static ImageStore get(Context context) {
+        if (instance == null) {
+            synchronized (ImageStore.class) {
+                if (instance == null) {
+                    instance = new ImageStore(new File(context.getApplicationContext().getFilesDir(), IMAGES_DIR));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Saves image, if identical image is already stored nothing is written
+     *
+     * @param bytes encoded image
+     * @return reference of stored image
+     * @throws IOException if image could not be written
+     */
+    public String put(byte[] bytes) throws IOException {
+        val ref = hash(bytes);
+        val file = file(ref);
+        if (file.exists()) {
+            // reused image is about to get referenced again, keep it out of sweep
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return ref;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Failed to create image directory " + directory.getAbsolutePath());
+        }
+        val tmp = new File(directory, ref + TMP_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Failed to move image into place " + file.getAbsolutePath());
+        }
+        Logger.d(TAG, "Stored image {} ({} KB)", ref, bytes.length / 1024);
+        return ref;
+    }
+
+    /**
+     * @param ref image reference
+     * @return file of image, might not exist
+     */
+    public File file(String ref) {
+        return new File(directory, ref + EXTENSION);
+    }
+
+    /**
+     * @param ref image reference, might be null
+     * @return true if image is stored
+     */
+    public boolean exists(String ref) {
+        return ref != null && !ref.isEmpty() && file(ref).exists();
+    }
+
+    /**
+     * Reads whole image
+     *
+     * @param ref image reference
+     * @return encoded image
+     * @throws IOException if image is missing or could not be read
+     */
+    public byte[] read(String ref) throws IOException {
+        return Files.readAllBytes(file(ref).toPath());
+    }
+
+    /**
+     * Decodes image straight from its file
+     *
+     * @param ref image reference, might be null
+     * @return decoded image or null if there is no such image
+     */
+    public Bitmap decode(String ref) {
+        if (!exists(ref)) {
+            return null;
+        }
+        return BitmapFactory.decodeFile(file(ref).getAbsolutePath());
+    }
+
+    /**
+     * Removes image. Caller is responsible that nothing references it anymore
+     *
+     * @param ref image reference
+     * @return true if file was removed
+     */
+    public boolean delete(String ref) {
+        return ref != null && file(ref).delete();
+    }
+
+    /**
+     * Removes all images, and leftover temporary files, not present in referenced ones.
+     * Files modified within {@link #SWEEP_GRACE_MS} are kept.
+     *
+     * @param referenced references still in use
+     * @return number of removed files
+     */
+    public synchronized int sweep(Collection<String> referenced) {
+        return sweep(referenced, System.currentTimeMillis() - SWEEP_GRACE_MS);
+    }
+
+    synchronized int sweep(Collection<String> referenced, long modifiedBefore) {
+        val files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        val keep = new HashSet<>(referenced);
+        int removed = 0;
+        for (File file : files) {
+            val name = file.getName();
+            val isImage = name.endsWith(EXTENSION);
+            if (!isImage && !name.endsWith(TMP_EXTENSION)) {
+                continue;
+            }
+            val ref = name.substring(0, name.lastIndexOf('.'));
+            if ((isImage && keep.contains(ref)) || file.lastModified() >= modifiedBefore) {
+                continue;
+            }
+            if (file.delete()) {
+                removed++;
+            } else {
+                Logger.w(TAG, "Failed to remove unused image " + name);
+            }
+        }
+        if (removed > 0) {
+            Logger.i(TAG, "Removed " + removed + " unused images");
+        }
+        return removed;
+    }
+
+    static String hash(byte[] bytes) {
+        try {
+            val digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            val sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package pl.qprogramming.themplay.logger;
+
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import lombok.val;
+
+/**
+ * Appends log lines to file from single, long-lived writer thread.
+ * <p>
+ * Callers only copy level, tag, message and throwable into preallocated slots of a ring buffer, which never
+ * blocks on disk. Writer thread wakes up once {@link #FLUSH_BATCH} lines are waiting, or every flush interval,
+ * drains all of them into one buffered writer and flushes once per batch. File size is checked after every batch,
+ * once it exceeds max size it's rotated into {@code <name>.old}. If writer can't keep up, oldest lines are
+ * overwritten and number of dropped lines is written instead.
+ */
+class FileAppender {
+    private static final String TAG = "Logger";
+    static final int FLUSH_BATCH = 64;
+    private static final String OLD_SUFFIX = ".old";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final class Entry {
+        long time;
+        char level;
+        String tag;
+        String message;
+        Throwable throwable;
+
+        void copyFrom(Entry other) {
+            time = other.time;
+            level = other.level;
+            tag = other.tag;
+            message = other.message;
+            throwable = other.throwable;
+        }
+
+        void clear() {
+            tag = null;
+            message = null;
+            throwable = null;
+        }
+    }
+
+    private final File file;
+    private final long maxBytes;
+    private final long flushIntervalMs;
+    private final Object lock = new Object();
+    private final Entry[] ring;
+    private final Entry[] batch;
+    private final StringBuilder line = new StringBuilder(256);
+    private final Thread thread;
+
+    private int head;
+    private int size;
+    private long dropped;
+    private long appended;
+    private long drained;
+    private boolean closed;
+
+    private FileOutputStream stream;
+    private Writer writer;
+
+    /**
+     * @param file            file lines are appended to
+     * @param capacity        how many lines can wait to be written
+     * @param maxBytes        size after which file is rotated
+     * @param flushIntervalMs longest time line waits for writer
+     */
+    FileAppender(File file, int capacity, long maxBytes, long flushIntervalMs) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.flushIntervalMs = flushIntervalMs;
+        ring = new Entry[capacity];
+        batch = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Entry();
+            batch[i] = new Entry();
+        }
+        thread = new Thread(this::run, "LogAppender");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Queues line for writing, never blocks on disk
+     */
+    void append(char level, String tag, String message, Throwable throwable) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            Entry entry;
+            if (size == ring.length) {
+                entry = ring[head];
+                head = (head + 1) % ring.length;
+                dropped++;
+            } else {
+                entry = ring[(head + size) % ring.length];
+                size++;
+            }
+            entry.time = System.currentTimeMillis();
+            entry.level = level;
+            entry.tag = tag;
+            entry.message = message;
+            entry.throwable = throwable;
+            appended++;
+            if (size == FLUSH_BATCH) {
+                lock.notify();
+            }
+        }
+    }
+
+    /**
+     * Waits until everything appended so far is written to file
+     *
+     * @param timeoutMs longest time to wait
+     * @return true if all lines were written in time
+     */
+    boolean flush(long timeoutMs) {
+        val deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            val target = appended;
+            lock.notifyAll();
+            while (drained < target && !closed) {
+                val remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes what's left and stops writer thread
+     *
+     * @param timeoutMs longest time to wait for writer
+     */
+    void close(long timeoutMs) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean running = true;
+        while (running) {
+            int count;
+            long lost;
+            synchronized (lock) {
+                if (size < FLUSH_BATCH && !closed) {
+                    try {
+                        lock.wait(flushIntervalMs);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                running = !closed;
+                count = size;
+                for (int i = 0; i < count; i++) {
+                    val entry = ring[(head + i) % ring.length];
+                    batch[i].copyFrom(entry);
+                    entry.clear();
+                }
+                head = 0;
+                size = 0;
+                lost = dropped;
+                dropped = 0;
+            }
+            if (count > 0 || lost > 0) {
+                write(count, lost);
+            }
+            synchronized (lock) {
+                drained += count + lost;
+                lock.notifyAll();
+            }
+        }
+        closeWriter();
+    }
+
+    /**
+     * Runs on writer thread only
+     */
+    private void write(int count, long lost) {
+        try {
+            if (writer == null) {
+                openWriter();
+            }
+            if (lost > 0) {
+                writer.append("... ").append(String.valueOf(lost)).append(" log lines dropped\n");
+            }
+            for (int i = 0; i < count; i++) {
+                val entry = batch[i];
+                line.setLength(0);
+                TIMESTAMP.formatTo(Instant.ofEpochMilli(entry.time), line);
+                line.append(' ').append(entry.level).append('/').append(entry.tag).append(": ").append(entry.message).append('\n');
+                writer.append(line);
+                if (entry.throwable != null) {
+                    val printer = new PrintWriter(writer);
+                    entry.throwable.printStackTrace(printer);
+                    printer.flush();
+                }
+                entry.clear();
+            }
+            writer.flush();
+            rotateIfNeeded();
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing to log file", e);
+            closeWriter();
+        }
+    }
+
+    private void openWriter() throws IOException {
+        stream = new FileOutputStream(file, true);
+        writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        FileChannel channel = stream.getChannel();
+        if (channel.position() < maxBytes) {
+            return;
+        }
+        closeWriter();
+        val old = new File(file.getParentFile(), file.getName() + OLD_SUFFIX);
+        if (old.exists() && !old.delete()) {
+            Log.w(TAG, "Could not delete old log file " + old);
+        }
+        if (!file.renameTo(old)) {
+            Log.w(TAG, "Could not rotate log file " + file);
+        }
+        openWriter();
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing log file", e);
+            }
+        }
+        writer = null;
+        stream = null;
+    }
+}
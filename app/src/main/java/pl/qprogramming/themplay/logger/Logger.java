@@ -9,43 +9,42 @@ import android.util.Log;
 
 import androidx.preference.PreferenceManager;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import pl.qprogramming.themplay.BuildConfig;
 
+/**
+ * Application logger, writes to logcat and, when debug logs are enabled in settings, to a log file.
+ * <p>
+ * File lines are handed over to {@link FileAppender}, so logging never waits for disk.
+ * Debug and verbose messages can be passed as {@link Supplier} or as pattern with {@code {}} placeholders,
+ * both are only turned into string if the message is really logged. Check {@link #isDebugEnabled()}
+ * before preparing anything expensive for the message.
+ */
 public class Logger {
 
     private static final String TAG = "Logger";
     private static final String LOG_FILE_NAME = "app_debug_log.txt";
     private static final int MAX_LOG_FILE_SIZE_BYTES = 5 * 1024 * 1024;
-    private static final SimpleDateFormat FILE_LOG_FORMAT =
-            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    private static final int BUFFER_CAPACITY = 1024;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 1000;
+    private static final String PLACEHOLDER = "{}";
 
-    private static boolean isDebugModeEnabled = false;
-    private static File logFile;
-    private static ExecutorService logWriterExecutor;
+    private static volatile boolean isDebugModeEnabled = false;
+    private static volatile FileAppender appender;
 
     private static Context applicationContext = null; // Static context
 
     public static synchronized void initialize(Context context) {
-        if(context == null){
+        if (context == null) {
             Log.e(TAG, "Logger .initialize called with a null context. Logger cannot be initialized.");
             return;
         }
         if (applicationContext == null) {
             applicationContext = context.getApplicationContext();
         }
-        if (logWriterExecutor == null) {
-            logWriterExecutor = Executors.newSingleThreadExecutor();
-        }
         Context currentContext = (applicationContext != null) ? applicationContext : context.getApplicationContext();
         SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(currentContext);
         isDebugModeEnabled = prefs.getBoolean(ENABLE_DEBUG_LOGS, false);
@@ -74,126 +73,141 @@ public class Logger {
                         }
                     } else if (!isDebugModeEnabled && previousState) {
                         Log.i(TAG, "Debug mode has been DISABLED by user.");
+                        closeAppender();
                     }
                 }
             };
 
 
-    private static void setupLogFile(Context context) {
+    private static synchronized void setupLogFile(Context context) {
+        if (appender != null) {
+            return;
+        }
         if (!isExternalStorageWritable()) {
             Log.e(TAG, "External storage not writable. Cannot write log file.");
-            logFile = null;
             return;
         }
         File logDir = new File(context.getExternalFilesDir(null), "logs");
         if (!logDir.exists()) {
             if (!logDir.mkdirs()) {
                 Log.e(TAG, "Failed to create log directory.");
-                logFile = null;
                 return;
             }
         }
-        logFile = new File(logDir, LOG_FILE_NAME);
-        // Optional: Implement log rotation or size check here
-        checkAndRotateLogFile();
+        File logFile = new File(logDir, LOG_FILE_NAME);
+        appender = new FileAppender(logFile, BUFFER_CAPACITY, MAX_LOG_FILE_SIZE_BYTES, FLUSH_INTERVAL_MS);
         Log.i(TAG, "Log file path: " + logFile.getAbsolutePath());
     }
 
-    private static void checkAndRotateLogFile() {
-        if (logFile != null && logFile.exists() && logFile.length() > MAX_LOG_FILE_SIZE_BYTES) {
-            File oldLogFile = new File(logFile.getParentFile(), LOG_FILE_NAME + ".old");
-            if (oldLogFile.exists()) {
-                oldLogFile.delete();
-            }
-            logFile.renameTo(oldLogFile);
-            logFile = new File(logFile.getParentFile(), LOG_FILE_NAME); // Create new empty log file
-            Log.i(TAG, "Log file rotated. Old log: " + oldLogFile.getName());
-        }
+    /**
+     * @return true if debug and verbose messages are logged anywhere
+     */
+    public static boolean isDebugEnabled() {
+        return isDebugModeEnabled || BuildConfig.DEBUG;
     }
 
-
     public static void v(String tag, String message) {
         Log.v(tag, message);
-        writeToFileIfEnabled("V", tag, message, null);
+        writeToFileIfEnabled('V', tag, message, null);
     }
 
     public static void v(String tag, String message, Throwable tr) {
         Log.v(tag, message, tr);
-        writeToFileIfEnabled("V", tag, message, tr);
+        writeToFileIfEnabled('V', tag, message, tr);
     }
 
     public static void d(String tag, String message) {
         // BuildConfig.DEBUG is true for debug builds, false for release builds.
-        // You might want to always show .d logs in Logcat if user enabled debug mode,
-        // regardless of BuildConfig.DEBUG.
-        if (isDebugModeEnabled || BuildConfig.DEBUG) {
+        // Debug logs are also shown in Logcat if user enabled debug mode
+        if (isDebugEnabled()) {
             Log.d(tag, message);
         }
-        writeToFileIfEnabled("D", tag, message, null);
+        writeToFileIfEnabled('D', tag, message, null);
     }
 
     public static void d(String tag, String message, Throwable tr) {
-        if (isDebugModeEnabled || BuildConfig.DEBUG) {
+        if (isDebugEnabled()) {
             Log.d(tag, message, tr);
         }
-        writeToFileIfEnabled("D", tag, message, tr);
+        writeToFileIfEnabled('D', tag, message, tr);
+    }
+
+    /**
+     * Logs debug message built only if debug logging is enabled
+     */
+    public static void d(String tag, Supplier<String> message) {
+        if (isDebugEnabled()) {
+            d(tag, message.get());
+        }
+    }
+
+    /**
+     * Logs debug message with every {@code {}} in pattern replaced by next argument, formatted only if debug logging is enabled
+     */
+    public static void d(String tag, String pattern, Object... args) {
+        if (isDebugEnabled()) {
+            d(tag, format(pattern, args));
+        }
     }
 
     public static void i(String tag, String message) {
         Log.i(tag, message);
-        writeToFileIfEnabled("I", tag, message, null);
+        writeToFileIfEnabled('I', tag, message, null);
     }
 
     public static void i(String tag, String message, Throwable tr) {
         Log.i(tag, message, tr);
-        writeToFileIfEnabled("I", tag, message, tr);
+        writeToFileIfEnabled('I', tag, message, tr);
     }
 
     public static void w(String tag, String message) {
         Log.w(tag, message);
-        writeToFileIfEnabled("W", tag, message, null);
+        writeToFileIfEnabled('W', tag, message, null);
     }
 
     public static void w(String tag, String message, Throwable tr) {
         Log.w(tag, message, tr);
-        writeToFileIfEnabled("W", tag, message, tr);
+        writeToFileIfEnabled('W', tag, message, tr);
     }
 
     public static void e(String tag, String message) {
         Log.e(tag, message);
-        writeToFileIfEnabled("E", tag, message, null);
+        writeToFileIfEnabled('E', tag, message, null);
     }
 
     public static void e(String tag, String message, Throwable tr) {
         Log.e(tag, message, tr);
-        writeToFileIfEnabled("E", tag, message, tr);
+        writeToFileIfEnabled('E', tag, message, tr);
+    }
+
+    /**
+     * Replaces every {@code {}} in pattern with next argument, surplus placeholders are left as they are
+     */
+    static String format(String pattern, Object... args) {
+        if (args == null || args.length == 0) {
+            return pattern;
+        }
+        StringBuilder builder = new StringBuilder(pattern.length() + 16 * args.length);
+        int start = 0;
+        for (Object arg : args) {
+            int placeholder = pattern.indexOf(PLACEHOLDER, start);
+            if (placeholder < 0) {
+                break;
+            }
+            builder.append(pattern, start, placeholder).append(arg);
+            start = placeholder + PLACEHOLDER.length();
+        }
+        return builder.append(pattern, start, pattern.length()).toString();
     }
 
     // --- File Writing Logic ---
 
-    private static void writeToFileIfEnabled(final String level, final String tag, final String message, final Throwable tr) {
-        if (!isDebugModeEnabled || logFile == null || logWriterExecutor == null || logWriterExecutor.isShutdown()) {
+    private static void writeToFileIfEnabled(final char level, final String tag, final String message, final Throwable tr) {
+        FileAppender current = appender;
+        if (!isDebugModeEnabled || current == null) {
             return;
         }
-
-        logWriterExecutor.execute(() -> {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
-                writer.append(FILE_LOG_FORMAT.format(new Date()));
-                writer.append(" ");
-                writer.append(level);
-                writer.append("/");
-                writer.append(tag);
-                writer.append(": ");
-                writer.append(message);
-                writer.newLine();
-                if (tr != null) {
-                    writer.append(Log.getStackTraceString(tr)); // Get full stack trace
-                    writer.newLine();
-                }
-            } catch (IOException e) {
-                Log.e(Logger.TAG, "Error writing to log file", e);
-            }
-        });
+        current.append(level, tag, message, tr);
     }
 
     /* Checks if external storage is available for read and write */
@@ -202,19 +216,17 @@ public class Logger {
         return Environment.MEDIA_MOUNTED.equals(state);
     }
 
-    public static synchronized void shutdown() {
-        if (logWriterExecutor != null) {
-            logWriterExecutor.shutdown();
-            try {
-                if (!logWriterExecutor.awaitTermination(1, java.util.concurrent.TimeUnit.SECONDS)) {
-                    logWriterExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                logWriterExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-            logWriterExecutor = null;
+    private static synchronized void closeAppender() {
+        if (appender != null) {
+            appender.close(SHUTDOWN_TIMEOUT_MS);
+            appender = null;
         }
+    }
 
+    /**
+     * Writes all pending lines to the log file and stops writing
+     */
+    public static synchronized void shutdown() {
+        closeAppender();
     }
-}
\ No newline at end of file
+}
@@ -69,7 +69,7 @@ public class MediaNotificationManager {
                 .setContentTitle(playlistTitle)
                 .setContentText(song.getFilename());
         mService.startForeground(NOTIFICATION_ID, builder.build());
-        Logger.d(TAG, "Notification created song " + song.getFilename());
+        Logger.d(TAG, "Notification created song {}", song.getFilename());
     }
 
     private void createNotificationChannel() {
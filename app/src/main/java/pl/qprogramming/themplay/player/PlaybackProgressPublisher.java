@@ -0,0 +1,216 @@
+package pl.qprogramming.themplay.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Publishes playback progress to subscribed listeners.
+ * <p>
+ * Progress is only polled while something is playing and at least one listener is subscribed, so with
+ * the UI in background (or screen off) there are no wakeups at all. While running, the interval is
+ * derived from song duration so that every tick moves progress by about one percent, bounded by
+ * {@link #MIN_INTERVAL_MS} and {@link #MAX_INTERVAL_MS}. Listeners are expected to animate between
+ * ticks (e.g. {@code ProgressBar#setProgress(int, boolean)}).
+ * <p>
+ * Every tick is counted, {@link #getWakeupsPerMinute()} reports them per minute of playback.
+ * Only accessed from the main thread.
+ */
+public class PlaybackProgressPublisher {
+    private static final String TAG = PlaybackProgressPublisher.class.getSimpleName();
+
+    static final long MIN_INTERVAL_MS = 250;
+    static final long MAX_INTERVAL_MS = 2000;
+    /**
+     * Number of progress steps a whole song is split into
+     */
+    static final int PROGRESS_STEPS = 100;
+
+    /**
+     * Receives progress of currently playing song
+     */
+    public interface ProgressListener {
+        /**
+         * @param percentage progress of current song in range 0-100
+         */
+        void onProgress(int percentage);
+    }
+
+    /**
+     * Provides playback position of current song
+     */
+    public interface PositionSource {
+        /**
+         * @return current position in milliseconds
+         */
+        long getPosition();
+
+        /**
+         * @return duration of current song in milliseconds, 0 or less if not known yet
+         */
+        long getDuration();
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<ProgressListener> listeners = new ArrayList<>();
+    private final PositionSource source;
+
+    private boolean playing;
+    private boolean running;
+    private long wakeups;
+    private long playbackMs;
+    private long playingSince;
+
+    public PlaybackProgressPublisher(PositionSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Adds listener and publishes current progress to it right away
+     *
+     * @param listener listener to add, adding same listener twice has no effect
+     */
+    public void subscribe(ProgressListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+            publishTo(listener);
+            updateRunning();
+        }
+    }
+
+    /**
+     * Removes listener, publishing stops once there are no listeners left
+     *
+     * @param listener listener to remove
+     */
+    public void unsubscribe(ProgressListener listener) {
+        listeners.remove(listener);
+        updateRunning();
+    }
+
+    /**
+     * Informs publisher whether playback is running
+     *
+     * @param playing true if song is playing
+     */
+    public void setPlaying(boolean playing) {
+        if (this.playing == playing) {
+            return;
+        }
+        this.playing = playing;
+        if (playing) {
+            playingSince = SystemClock.elapsedRealtime();
+        } else {
+            playbackMs += SystemClock.elapsedRealtime() - playingSince;
+        }
+        updateRunning();
+    }
+
+    /**
+     * @return number of progress ticks per minute of playback
+     */
+    public double getWakeupsPerMinute() {
+        long totalPlaybackMs = playbackMs;
+        if (playing) {
+            totalPlaybackMs += SystemClock.elapsedRealtime() - playingSince;
+        }
+        return totalPlaybackMs == 0 ? 0 : wakeups * 60000.0 / totalPlaybackMs;
+    }
+
+    /**
+     * @return human readable summary of wakeups
+     */
+    public String summary() {
+        return String.format(Locale.US, "Progress wakeups: %d, %.1f per minute of playback",
+                wakeups, getWakeupsPerMinute());
+    }
+
+    /**
+     * Stops publishing and drops all listeners
+     */
+    public void shutdown() {
+        setPlaying(false);
+        listeners.clear();
+        updateRunning();
+        Logger.d(TAG, this::summary);
+    }
+
+    /**
+     * Interval between ticks for a song of given duration
+     *
+     * @param durationMs song duration, 0 or less if unknown
+     * @return interval in milliseconds
+     */
+    static long intervalFor(long durationMs) {
+        if (durationMs <= 0) {
+            return MIN_INTERVAL_MS;
+        }
+        return Math.max(MIN_INTERVAL_MS, Math.min(MAX_INTERVAL_MS, durationMs / PROGRESS_STEPS));
+    }
+
+    /**
+     * Calculates progress percentage
+     *
+     * @param positionMs current position of song
+     * @param durationMs total duration of song
+     * @return progress in range 0-100, 0 if duration is unknown
+     */
+    static int percentage(long positionMs, long durationMs) {
+        if (durationMs <= 0) {
+            return 0;
+        }
+        val progress = (int) (Math.min(positionMs, durationMs) * 100 / durationMs);
+        return Math.max(0, Math.min(100, progress));
+    }
+
+    private void updateRunning() {
+        val shouldRun = playing && !listeners.isEmpty();
+        if (shouldRun == running) {
+            return;
+        }
+        running = shouldRun;
+        if (running) {
+            handler.post(tick);
+            Logger.d(TAG, "Progress updates started");
+        } else {
+            handler.removeCallbacks(tick);
+            Logger.d(TAG, () -> "Progress updates stopped. " + summary());
+        }
+    }
+
+    private void publishTo(ProgressListener listener) {
+        try {
+            listener.onProgress(percentage(source.getPosition(), source.getDuration()));
+        } catch (IllegalStateException e) {
+            Logger.d(TAG, "Player state exception during progress update, skipping");
+        }
+    }
+
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) {
+                return;
+            }
+            wakeups++;
+            long duration = 0;
+            try {
+                duration = source.getDuration();
+                val progress = percentage(source.getPosition(), duration);
+                for (ProgressListener listener : listeners) {
+                    listener.onProgress(progress);
+                }
+            } catch (IllegalStateException e) {
+                Logger.d(TAG, "Player state exception during progress update, skipping");
+            }
+            handler.postDelayed(this, intervalFor(duration));
+        }
+    };
+}
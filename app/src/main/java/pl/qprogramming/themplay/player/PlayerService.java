@@ -1,6 +1,5 @@
 package pl.qprogramming.themplay.player;
 
-import static androidx.preference.PreferenceManager.getDefaultSharedPreferences;
 import static pl.qprogramming.themplay.playlist.EventType.PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND;
 import static pl.qprogramming.themplay.playlist.EventType.PLAYBACK_NOTIFICATION_NEXT;
 import static pl.qprogramming.themplay.playlist.EventType.PLAYBACK_NOTIFICATION_PAUSE;
@@ -14,41 +13,32 @@ import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_
 import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE;
 import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_RECREATE_LIST;
 import static pl.qprogramming.themplay.playlist.EventType.PRESET_ACTIVATED;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.PLAYLIST;
 import static pl.qprogramming.themplay.util.Utils.createPlaylist;
 import static pl.qprogramming.themplay.util.Utils.isEmpty;
 
 import android.app.Service;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.net.Uri;
 import android.os.Binder;
-import android.os.Bundle;
 import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
-import android.widget.ProgressBar;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.media3.common.C;
 import androidx.media3.common.PlaybackException;
-import androidx.media3.common.Player;
-import androidx.media3.common.util.Log;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.exoplayer.ExoPlayer;
-import androidx.preference.PreferenceManager;
 
 import java.text.MessageFormat;
-import java.util.Optional;
+import java.util.Objects;
 
-import lombok.Setter;
+import io.reactivex.disposables.Disposable;
+import lombok.Getter;
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.domain.Playlist;
@@ -57,11 +47,15 @@ import pl.qprogramming.themplay.logger.Logger;
 import pl.qprogramming.themplay.player.audio.AudioProcessorManager;
 import pl.qprogramming.themplay.player.audio.CrossfadeController;
 import pl.qprogramming.themplay.player.audio.ExoPlayerManager;
+import pl.qprogramming.themplay.player.audio.ExoPlayerPool;
+import pl.qprogramming.themplay.player.audio.FadeCurve;
+import pl.qprogramming.themplay.player.audio.TrackEndTrigger;
 import pl.qprogramming.themplay.player.audio.VolumeScalingAudioProcessor;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.EventType;
 import pl.qprogramming.themplay.playlist.PlaylistService;
-import pl.qprogramming.themplay.settings.Property;
-import pl.qprogramming.themplay.util.Utils;
+import pl.qprogramming.themplay.settings.AppSettings;
 
 /**
  * Service responsible for music playback.
@@ -70,7 +64,14 @@ import pl.qprogramming.themplay.util.Utils;
  * to achieve seamless transitions between songs through fade-in and fade-out effects.
  * One Player (currentPlayer)  handles the currently playing song, while the auxiliary Player (nextPlayer)
  * is used to prepare and fade in the next song.
+ * <p>
+ * With look-ahead enabled, the upcoming song is buffered in nextPlayer a configurable time before
+ * the fade trigger, so the crossfade can start right away instead of waiting for the player to prepare.
+ * <p>
+ * Players are never built per song, both roles are filled from a small {@link ExoPlayerPool} of warm
+ * players and handed back to it once they are done, so a transition only swaps the media item.
  *
+ * @see ExoPlayerPool
  * @see ExoPlayerManager
  * @see CrossfadeController
  * @see AudioProcessorManager
@@ -80,27 +81,38 @@ import pl.qprogramming.themplay.util.Utils;
 public class PlayerService extends Service {
     private static final String TAG = PlayerService.class.getSimpleName();
     private Playlist activePlaylist;
-    @Setter
-    private ProgressBar progressBar;
-    private final Handler progressHandler = new Handler(Looper.getMainLooper());
+    /**
+     * Progress of current song, UI subscribes to it while visible
+     */
+    @Getter
+    private PlaybackProgressPublisher progressPublisher;
 
     private PlaylistService playlistService;
     private boolean serviceIsBound;
+    private Disposable eventSubscription;
 
     private final IBinder mBinder = new PlayerService.LocalBinder();
     private PlayerServiceCallbacks mClientCallbacks;
 
+    private ExoPlayerPool playerPool;
     private ExoPlayer currentPlayer;
     private ExoPlayer nextPlayer;
 
     private VolumeScalingAudioProcessor mainVolumeProcessor;
     private VolumeScalingAudioProcessor nextVolumeProcessor;
     private CrossfadeController crossfadeController;
+    private final TrackEndTrigger trackEndTrigger = new TrackEndTrigger();
 
     private MediaNotificationManager mNotificationManager;
     private boolean isFadeStopRequested = false;
 
-    private boolean isProgressUpdateRunning = false;
+    private final TransitionMetrics transitionMetrics = new TransitionMetrics();
+    /**
+     * Song buffered ahead in nextPlayer by look-ahead, null if nothing is buffered
+     */
+    private Song upcomingSong;
+    private boolean upcomingReady;
+    private boolean upcomingStartRequested;
 
     /**
      * Called when the service is created.
@@ -112,6 +124,26 @@ public class PlayerService extends Service {
         bindService(playlistServiceIntent, playlistServiceConnection, Context.BIND_AUTO_CREATE);
         mNotificationManager = new MediaNotificationManager(this);
         crossfadeController = new CrossfadeController();
+        playerPool = new ExoPlayerPool(this, ExoPlayerPool.DEFAULT_SIZE);
+        progressPublisher = new PlaybackProgressPublisher(new PlaybackProgressPublisher.PositionSource() {
+            @Override
+            public long getPosition() {
+                return currentPlayer == null ? 0 : currentPlayer.getCurrentPosition();
+            }
+
+            @Override
+            public long getDuration() {
+                if (currentPlayer == null) {
+                    return 0;
+                }
+                val duration = currentPlayer.getDuration();
+                if (duration == C.TIME_UNSET && activePlaylist != null && activePlaylist.getCurrentSong() != null) {
+                    // not prepared yet, use duration read from song metadata
+                    return activePlaylist.getCurrentSong().getDuration();
+                }
+                return duration;
+            }
+        });
     }
 
     /**
@@ -120,7 +152,7 @@ public class PlayerService extends Service {
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null && intent.getAction() != null) {
-            Logger.d(TAG, "[NOTIFICATION] Player service received action: " + intent.getAction());
+            Logger.d(TAG, "[NOTIFICATION] Player service received action: {}", intent.getAction());
             val action = EventType.getType(intent.getAction());
             if (PLAYBACK_NOTIFICATION_PLAY.equals(action)) {
                 play();
@@ -145,37 +177,45 @@ public class PlayerService extends Service {
     @Override
     public void onDestroy() {
         Logger.d(TAG, "onDestroy");
+        if (playlistService != null) {
+            playlistService.flushPlaybackState();
+        }
         cleanup();
         super.onDestroy();
+        if (eventSubscription != null) {
+            eventSubscription.dispose();
+            eventSubscription = null;
+        }
         try {
-            LocalBroadcastManager.getInstance(this).unregisterReceiver(receiver);
             if (serviceIsBound) {
                 unbindService(playlistServiceConnection);
                 serviceIsBound = false;
             }
         } catch (IllegalArgumentException e) {
-            Logger.d(TAG, "Receiver not registered");
+            Logger.d(TAG, "Service not bound");
         }
     }
 
     @Nullable
     @Override
     public IBinder onBind(Intent intent) {
-        Logger.d(TAG, "Binding service to " + intent + "this:" + this);
-        val filter = new IntentFilter(PLAYLIST_NOTIFICATION_NEW_ACTIVE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_ACTIVE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_DELETE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_DELETE_SONGS.getCode());
-        filter.addAction(PLAYBACK_NOTIFICATION_PLAY.getCode());
-        filter.addAction(PLAYBACK_NOTIFICATION_NEXT.getCode());
-        filter.addAction(PLAYBACK_NOTIFICATION_PREV.getCode());
-        filter.addAction(PLAYBACK_NOTIFICATION_PAUSE.getCode());
-        filter.addAction(PLAYBACK_NOTIFICATION_STOP.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_ADD.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_RECREATE_LIST.getCode());
-        filter.addAction(PRESET_ACTIVATED.getCode());
-        LocalBroadcastManager.getInstance(this).registerReceiver(receiver, filter);
-        Logger.d(TAG, "Returning binder , player is playing ? " + isPlaying());
+        Logger.d(TAG, "Binding service to {} this: {}", intent, this);
+        if (eventSubscription == null) {
+            eventSubscription = EventBus.get().subscribe(this::onEvent,
+                    PLAYLIST_NOTIFICATION_NEW_ACTIVE,
+                    PLAYLIST_NOTIFICATION_ACTIVE,
+                    PLAYLIST_NOTIFICATION_DELETE,
+                    PLAYLIST_NOTIFICATION_DELETE_SONGS,
+                    PLAYBACK_NOTIFICATION_PLAY,
+                    PLAYBACK_NOTIFICATION_NEXT,
+                    PLAYBACK_NOTIFICATION_PREV,
+                    PLAYBACK_NOTIFICATION_PAUSE,
+                    PLAYBACK_NOTIFICATION_STOP,
+                    PLAYLIST_NOTIFICATION_ADD,
+                    PLAYLIST_NOTIFICATION_RECREATE_LIST,
+                    PRESET_ACTIVATED);
+        }
+        Logger.d(TAG, "Returning binder , player is playing ? {}", isPlaying());
         return mBinder;
     }
 
@@ -195,16 +235,28 @@ public class PlayerService extends Service {
      * Gets fade stop flag from settings
      */
     private boolean isFadeStop() {
-        val sp = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
-        return sp.getBoolean(Property.FADE_STOP, true);
+        return AppSettings.get(this).isFadeStop();
     }
 
     /**
      * Gets fade duration in milliseconds from settings
      */
     private int getDuration() {
-        val sp = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
-        return Integer.parseInt(sp.getString(Property.FADE_DURATION, "4")) * 1000;
+        return AppSettings.get(this).getFadeDuration();
+    }
+
+    /**
+     * Gets look-ahead time in milliseconds from settings, 0 means look-ahead is disabled
+     */
+    private int getLookAheadTime() {
+        return AppSettings.get(this).getLookAheadTime();
+    }
+
+    /**
+     * Gets fade curve from settings
+     */
+    private FadeCurve getFadeCurve() {
+        return AppSettings.get(this).getFadeCurve();
     }
 
     /**
@@ -254,27 +306,28 @@ public class PlayerService extends Service {
 
     /**
      * Plays next song in playlist
-     * Gets current song index and increases it by 1
-     * If no song found it will be 0 as indexOf returns -1 in that case
+     * Moves playback queue cursor by 1, once end of queue is reached new queue is created
+     * and playback continues from its first song
      */
     public void next() {
-        val sp = getDefaultSharedPreferences(this);
-        val shuffle = sp.getBoolean(Property.SHUFFLE_MODE, true);
+        val shuffle = AppSettings.get(this).isShuffle();
         if (isEmpty(activePlaylist.getPlaylist())) {
             createPlaylist(activePlaylist, shuffle);
         }
         if (activePlaylist != null && !activePlaylist.getPlaylist().isEmpty()) {
             updateCurrentSongProgress(false);
-            var songIndex = activePlaylist.getPlaylist().indexOf(activePlaylist.getCurrentSong()) + 1;
-            if (songIndex > activePlaylist.getPlaylist().size() - 1) {
+            var queue = activePlaylist.getQueue();
+            if (!queue.hasNext()) {
                 Logger.d(TAG, "Creating new playlist");
                 createPlaylist(activePlaylist, shuffle);
-                songIndex = 0;
+                queue = activePlaylist.getQueue();
+                queue.moveTo(0);
+            } else {
+                queue.next();
             }
-            val song = activePlaylist.getPlaylist().get(songIndex);
-            activePlaylist.setCurrentSong(song);
-            activePlaylist.setCurrentSongId(song.getId());
-            playlistService.save(activePlaylist);
+            val song = queue.current();
+            activePlaylist.setCurrentSong(song, queue.getCursor());
+            playlistService.saveCursor(activePlaylist);
             fadeIntoNewSong(song, 0);
             populateAndSend(EventType.PLAYLIST_NOTIFICATION_NEXT, activePlaylist.getPosition());
         } else {
@@ -290,20 +343,13 @@ public class PlayerService extends Service {
         if (activePlaylist != null) {
             updateCurrentSongProgress(false);
             if (isEmpty(activePlaylist.getPlaylist())) {
-                val sp = getDefaultSharedPreferences(this);
-                val shuffle = sp.getBoolean(Property.SHUFFLE_MODE, true);
-                createPlaylist(activePlaylist, shuffle);
+                createPlaylist(activePlaylist, AppSettings.get(this).isShuffle());
             }
-            val songs = activePlaylist.getPlaylist();
-            val lastSongIndex = songs.size() - 1;
+            val queue = activePlaylist.getQueue();
             //if this was first song we will loop around to last song in playlist
-            var songIndex = songs.indexOf(activePlaylist.getCurrentSong()) - 1;
-            if (songIndex < 0) {
-                songIndex = lastSongIndex;
-            }
-            val song = songs.get(songIndex);
-            activePlaylist.setCurrentSong(song);
-            playlistService.save(activePlaylist);
+            val song = queue.previous();
+            activePlaylist.setCurrentSong(song, queue.getCursor());
+            playlistService.saveCursor(activePlaylist);
             fadeIntoNewSong(song, 0);
             populateAndSend(EventType.PLAYLIST_NOTIFICATION_PREV, activePlaylist.getPosition());
         } else {
@@ -319,12 +365,14 @@ public class PlayerService extends Service {
     public void stop() {
         mNotificationManager.removeNotification();
         Logger.d(TAG, "Stop media player");
+        trackEndTrigger.cancel();
+        discardUpcomingSong();
         if (isPlaying()) {
             updateCurrentSongProgress(true);
             if (isFadeStop()) {
                 fadeStopCurrentPlayer();
             } else {
-                ExoPlayerManager.safeReleasePlayer(currentPlayer);
+                playerPool.release(currentPlayer);
                 currentPlayer = null;
                 mainVolumeProcessor = null;
             }
@@ -346,7 +394,7 @@ public class PlayerService extends Service {
         if (isPlaying()) {
             val currentSong = activePlaylist.getCurrentSong();
             currentSong.setCurrentPosition((int) currentPlayer.getCurrentPosition());
-            playlistService.updateSong(currentSong);
+            playlistService.saveSongPosition(currentSong);
         }
         activePlaylist = playlist;
         val song = activePlaylist.getCurrentSong();
@@ -359,7 +407,7 @@ public class PlayerService extends Service {
      * Performs a fade-out stop of the current player with proper resource cleanup.
      *
      * <p>Uses the crossfade controller to gradually reduce volume to zero before
-     * releasing the player and processor resources. Sets a flag to prevent new
+     * returning the player to the pool. Sets a flag to prevent new
      * song requests during the fade-out process.</p>
      *
      * @see CrossfadeController#startFadeOut(ExoPlayer, VolumeScalingAudioProcessor, int, Runnable)
@@ -369,7 +417,10 @@ public class PlayerService extends Service {
             return;
         }
         isFadeStopRequested = true;
+        val stoppingPlayer = currentPlayer;
+        crossfadeController.setFadeCurve(getFadeCurve());
         crossfadeController.startFadeOut(currentPlayer, mainVolumeProcessor, getDuration(), () -> {
+            playerPool.release(stoppingPlayer);
             currentPlayer = null;
             mainVolumeProcessor = null;
             isFadeStopRequested = false;
@@ -392,6 +443,7 @@ public class PlayerService extends Service {
             return;
         }
         isFadeStopRequested = true;
+        crossfadeController.setFadeCurve(getFadeCurve());
         crossfadeController.startFadeOut(currentPlayer, mainVolumeProcessor, getDuration(), () -> {
             if (currentPlayer != null) {
                 currentPlayer.pause();
@@ -419,10 +471,11 @@ public class PlayerService extends Service {
             Logger.d(TAG, "Fade stop in progress, ignoring new song request");
             return;
         }
+        transitionMetrics.markTransitionStart();
+        trackEndTrigger.cancel();
         updateNotificationAndUI(nextSong);
-        ensureAudioProcessorsInitialized();
         Uri uri = Uri.parse(nextSong.getFileUri());
-        Logger.d(TAG, "Fading into song: " + nextSong.getFilename());
+        Logger.d(TAG, "Fading into song: {}", nextSong.getFilename());
         if (isPlaying()) {
             Logger.d(TAG, "Already playing, preparing crossfade");
             prepareNextPlayer(uri, songPosition, nextSong);
@@ -435,55 +488,156 @@ public class PlayerService extends Service {
     /**
      * Prepares the next player for crossfade operation with a new song.
      *
-     * <p>Creates and configures a secondary ExoPlayer with its own volume processor,
-     * then initiates the crossfade when the player is ready.</p>
+     * <p>Takes a secondary ExoPlayer with its own volume processor from the pool,
+     * then initiates the crossfade when the player is ready. If the song was already buffered
+     * by look-ahead, that player is used instead and the crossfade starts as soon as it's ready.</p>
      *
      * @param uri The URI of the next song
      * @param position The playback position to start from
      * @param nextSong The Song object for the next track
-     * @see ExoPlayerManager#createPlayerWithProcessor(Context, VolumeScalingAudioProcessor)
-     * @see AudioProcessorManager#createProcessor(float)
+     * @see ExoPlayerPool#acquire(float)
      */
     @UnstableApi
     private void prepareNextPlayer(final Uri uri, final int position, final Song nextSong) {
-        ExoPlayerManager.safeReleasePlayer(nextPlayer);
-        nextPlayer = null;
-        if (nextVolumeProcessor == null || nextVolumeProcessor == mainVolumeProcessor) {
-            nextVolumeProcessor = AudioProcessorManager.createProcessor(0f);
-        } else {
-            AudioProcessorManager.resetProcessor(nextVolumeProcessor, 0f);
+        if (upcomingSong != null) {
+            if (position == 0 && Objects.equals(upcomingSong.getId(), nextSong.getId())) {
+                if (upcomingReady) {
+                    startUpcomingSong(nextSong);
+                } else {
+                    Logger.d(TAG, "Look-ahead player still buffering, crossfade will start once ready");
+                    upcomingStartRequested = true;
+                }
+                return;
+            }
+            discardUpcomingSong();
         }
-        nextPlayer = ExoPlayerManager.createPlayerWithProcessor(this, nextVolumeProcessor);
-        ExoPlayerManager.preparePlayer(nextPlayer, uri, position, nextSong,
-                player -> startCrossfade(position, nextSong),
+        playerPool.release(nextPlayer);
+        acquireNextPlayer();
+        val listener = ExoPlayerManager.preparePlayer(nextPlayer, uri, position, nextSong,
+                player -> {
+                    transitionMetrics.recordReadiness(false);
+                    startCrossfade(position, nextSong);
+                },
                 this::handlePlayerError
         );
+        playerPool.trackListener(nextPlayer, listener);
+    }
+
+    /**
+     * Buffers the upcoming song in nextPlayer without starting it.
+     *
+     * <p>Does nothing if there is no known upcoming song or if nextPlayer is busy
+     * (crossfade in progress or something already buffered).</p>
+     *
+     * @see ExoPlayerManager#prebufferPlayer(ExoPlayer, Uri, int, Song, ExoPlayerManager.PlayerReadyCallback, ExoPlayerManager.PlayerErrorCallback)
+     */
+    @UnstableApi
+    private void prepareUpcomingSong() {
+        val song = peekNextSong();
+        if (song == null || nextPlayer != null || isFadeStopRequested) {
+            return;
+        }
+        Logger.d(TAG, "Look-ahead: buffering upcoming song {}", song.getFilename());
+        acquireNextPlayer();
+        upcomingSong = song;
+        upcomingReady = false;
+        upcomingStartRequested = false;
+        val listener = ExoPlayerManager.prebufferPlayer(nextPlayer, Uri.parse(song.getFileUri()), 0, song,
+                player -> {
+                    upcomingReady = true;
+                    if (upcomingStartRequested) {
+                        startUpcomingSong(song);
+                    }
+                },
+                (error, failedSong) -> {
+                    if (upcomingStartRequested) {
+                        discardUpcomingSong();
+                        handlePlayerError(error, failedSong);
+                    } else {
+                        Logger.w(TAG, "Look-ahead buffering failed for " + failedSong.getFilename(), error);
+                        discardUpcomingSong();
+                    }
+                });
+        playerPool.trackListener(nextPlayer, listener);
+    }
+
+    /**
+     * Takes idle player from the pool as nextPlayer, silenced until the crossfade starts
+     */
+    @UnstableApi
+    private void acquireNextPlayer() {
+        val entry = playerPool.acquire(0f);
+        nextPlayer = entry.getPlayer();
+        nextVolumeProcessor = entry.getProcessor();
+    }
+
+    /**
+     * Starts the look-ahead buffered player and crossfades into it
+     *
+     * @param song the song buffered in nextPlayer
+     */
+    private void startUpcomingSong(Song song) {
+        upcomingSong = null;
+        upcomingReady = false;
+        upcomingStartRequested = false;
+        transitionMetrics.recordReadiness(true);
+        nextPlayer.play();
+        startCrossfade(0, song);
+    }
+
+    /**
+     * Returns look-ahead buffered player to the pool if there is one
+     */
+    private void discardUpcomingSong() {
+        if (upcomingSong != null) {
+            Logger.d(TAG, "Discarding look-ahead player for {}", upcomingSong.getFilename());
+            playerPool.release(nextPlayer);
+            nextPlayer = null;
+            nextVolumeProcessor = null;
+            upcomingSong = null;
+            upcomingReady = false;
+            upcomingStartRequested = false;
+        }
+    }
+
+    /**
+     * Returns the song that {@link #next()} would play, without changing playlist state
+     *
+     * @return upcoming song or null if it can't be known yet (e.g. shuffled playlist about to be recreated)
+     */
+    private Song peekNextSong() {
+        if (activePlaylist == null || isEmpty(activePlaylist.getPlaylist())) {
+            return null;
+        }
+        val queue = activePlaylist.getQueue();
+        if (queue.hasNext()) {
+            return queue.peekNext();
+        }
+        return AppSettings.get(this).isShuffle() ? null : queue.getSongs().get(0);
     }
 
     /**
      * Starts a new player with fade-in effect when no audio is currently playing.
      *
-     * <p>Creates a fresh ExoPlayer instance with volume processor and applies
+     * <p>Takes an idle ExoPlayer with its volume processor from the pool and applies
      * a fade-in transition from silence to full volume.</p>
      *
      * @param uri The URI of the song to play
      * @param position The playback position to start from
      * @param songToPlay The Song object for the track
-     * @see ExoPlayerManager#createPlayerWithProcessor(Context, VolumeScalingAudioProcessor)
+     * @see ExoPlayerPool#acquire(float)
      * @see CrossfadeController#startFadeIn(VolumeScalingAudioProcessor, int, Runnable)
      */
     @UnstableApi
     private void startNewPlayer(final Uri uri, final int position, final Song songToPlay) {
-        ExoPlayerManager.safeReleasePlayer(currentPlayer);
-        currentPlayer = null;
-        if (mainVolumeProcessor == null) {
-            mainVolumeProcessor = AudioProcessorManager.createProcessor(0.0f);
-        } else {
-            AudioProcessorManager.resetProcessor(mainVolumeProcessor, 0.0f);
-        }
-        currentPlayer = ExoPlayerManager.createPlayerWithProcessor(this, mainVolumeProcessor);
-        ExoPlayerManager.preparePlayer(currentPlayer, uri, position, songToPlay,
+        playerPool.release(currentPlayer);
+        val entry = playerPool.acquire(0.0f);
+        currentPlayer = entry.getPlayer();
+        mainVolumeProcessor = entry.getProcessor();
+        val listener = ExoPlayerManager.preparePlayer(currentPlayer, uri, position, songToPlay,
                 player -> {
+                    transitionMetrics.recordReadiness(false);
+                    crossfadeController.setFadeCurve(getFadeCurve());
                     crossfadeController.startFadeIn(mainVolumeProcessor, getDuration(), () -> {
                         Logger.d(TAG, "Fade-in complete for new player");
                     });
@@ -492,6 +646,7 @@ public class PlayerService extends Service {
                 },
                 this::handlePlayerError
         );
+        playerPool.trackListener(currentPlayer, listener);
     }
 
     /**
@@ -503,12 +658,13 @@ public class PlayerService extends Service {
     private void startCrossfade(final int position,final Song nextSong) {
         AudioProcessorManager.ProcessorPair processors =
                 new AudioProcessorManager.ProcessorPair(mainVolumeProcessor, nextVolumeProcessor);
+        crossfadeController.setFadeCurve(getFadeCurve());
         crossfadeController.startCrossfade(getDuration(), processors, currentPlayer, nextPlayer,
                 new CrossfadeController.CrossfadeCallback() {
                     @Override
                     public void onCrossfadeComplete(ExoPlayer newCurrentPlayer, VolumeScalingAudioProcessor newMainProcessor) {
                         // Swap players
-                        ExoPlayerManager.safeReleasePlayer(currentPlayer);
+                        playerPool.release(currentPlayer);
                         currentPlayer = newCurrentPlayer;
                         mainVolumeProcessor = newMainProcessor;
                         nextPlayer = null;
@@ -537,7 +693,7 @@ public class PlayerService extends Service {
      */
     private void performHardSwitch(int position, Song nextSong) {
         if (nextPlayer != null && nextVolumeProcessor != null) {
-            ExoPlayerManager.safeReleasePlayer(currentPlayer);
+            playerPool.release(currentPlayer);
             currentPlayer = nextPlayer;
             mainVolumeProcessor = nextVolumeProcessor;
             nextPlayer = null;
@@ -585,83 +741,58 @@ public class PlayerService extends Service {
                 }else{
                     currentSong.setCurrentPosition(0);
                 }
-                playlistService.updateSong(currentSong);
+                playlistService.saveSongPosition(currentSong);
             }
             return currentSong;
         }
         return null;
     }
 
-    /**
-     * Ensures the main volume processor is initialized with default volume.
-     *
-     * @see AudioProcessorManager#createProcessor(float)
-     */
-    private void ensureAudioProcessorsInitialized() {
-        if (mainVolumeProcessor == null) {
-            mainVolumeProcessor = AudioProcessorManager.createProcessor(1.0f);
-        }
-    }
-
     /**
      * Cleans up all player resources and controllers.
      *
      * <p>Should be called in onDestroy() to prevent memory leaks.</p>
      *
      * @see CrossfadeController#cleanup()
-     * @see ExoPlayerManager#safeReleasePlayer(ExoPlayer)
+     * @see ExoPlayerPool#shutdown()
      */
     private void cleanup() {
         if (crossfadeController != null) {
             crossfadeController.cleanup();
         }
-        ExoPlayerManager.safeReleasePlayer(currentPlayer);
-        ExoPlayerManager.safeReleasePlayer(nextPlayer);
+        trackEndTrigger.cancel();
+        if (progressPublisher != null) {
+            progressPublisher.shutdown();
+        }
+        if (playerPool != null) {
+            playerPool.shutdown();
+        }
         currentPlayer = null;
         nextPlayer = null;
         mainVolumeProcessor = null;
         nextVolumeProcessor = null;
+        upcomingSong = null;
+        upcomingReady = false;
+        upcomingStartRequested = false;
+        Logger.d(TAG, transitionMetrics::summary);
     }
 
     /**
-     * Monitors playback progress and triggers next song when crossfade point is reached.
+     * Schedules next song when crossfade point of current song is reached.
+     * Once look-ahead time before the crossfade point is reached, upcoming song is buffered.
+     * Replaces trigger of previously observed song.
      *
-     * @param currentSong The song currently being played (for logging/debugging)
+     * @param currentSong The song currently being played, its stored duration lets trigger be scheduled before player is ready
+     * @see TrackEndTrigger
      */
     private void observeEnding(final Song currentSong) {
-        Log.d(TAG, "Observing ending for song: " + currentSong.getFilename());
-        final Handler h = new Handler(getMainLooper());
-        final int fadeDuration = getDuration();
-        Runnable endingCheck = new Runnable() {
-            @Override
-            public void run() {
-                if (currentPlayer == null) {
-                    Log.d(TAG, "Current player is null for song: " + currentSong.getFilename());
-                    return;
-                }
-                int playbackState = currentPlayer.getPlaybackState();
-                if (playbackState == Player.STATE_IDLE || playbackState == Player.STATE_ENDED) {
-                    Log.d(TAG, "Player ended or idle for song: " + currentSong.getFilename());
-                    return;
-                }
-                long trackDuration = currentPlayer.getDuration();
-                if (trackDuration == C.TIME_UNSET) {
-                    Log.d(TAG, "Track duration is not set for: " + currentSong.getFilename());
-                    h.postDelayed(this, 500);
-                    return;
-                }
-                long currentPosition = currentPlayer.getCurrentPosition();
-                long triggerPoint = trackDuration - fadeDuration;
-                if (currentPosition < triggerPoint) {
-                    h.postDelayed(this, 500);
-                } else {
-                    Log.d(TAG, "Song " + currentSong.getFilename() + "ended, playing next");
+        Logger.d(TAG, "Observing ending for song: {}", currentSong.getFilename());
+        trackEndTrigger.attach(currentPlayer, currentSong.getDuration(), getDuration(), getLookAheadTime(),
+                this::prepareUpcomingSong,
+                () -> {
+                    Logger.d(TAG, "Song {} ended, playing next", currentSong.getFilename());
                     next();
-                }
-            }
-        };
-
-        h.post(endingCheck);
+                });
     }
 
     /**
@@ -676,8 +807,8 @@ public class PlayerService extends Service {
         if (activePlaylist != null) {
             activePlaylist.setCurrentSong(null);
             boolean removedFromCurrentSequence;
-            if (activePlaylist.getPlaylist() != null) {
-                removedFromCurrentSequence = activePlaylist.getPlaylist().remove(problematicSong);
+            if (activePlaylist.getQueue() != null) {
+                removedFromCurrentSequence = activePlaylist.getQueue().remove(problematicSong);
                 if (removedFromCurrentSequence) {
                     Logger.d(TAG, "Problematic song '" + problematicSong.getFilename() + "' removed from current playback sequence (getPlaylist).");
                 } else {
@@ -702,22 +833,23 @@ public class PlayerService extends Service {
             Logger.w(TAG, "activePlaylist or problematicSong was null. Cannot perform direct removal.");
         }
         //notify all agents about problematic song deletion
-        Intent intent = new Intent(PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND.getCode());
-        Bundle args = new Bundle();
-        args.putSerializable(Utils.SONG, problematicSong);
-        args.putSerializable(PLAYLIST, activePlaylist);
-        intent.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+        if (activePlaylist != null && problematicSong != null) {
+            EventBus.get().post(Event.about(activePlaylist)
+                    .type(PLAYBACK_NOTIFICATION_DELETE_NOT_FOUND)
+                    .songId(problematicSong.getId())
+                    .songFilename(problematicSong.getFilename())
+                    .build());
+        }
         next();
     }
 
     /**
-     * Checks if active playlist is the same as playlist
-     * @param playlist playlist to check
-     * @return true if active playlist is the same as playlist
+     * Checks if playlist with given id is the active one
+     * @param playlistId id of playlist to check, might be null
+     * @return true if active playlist has given id
      */
-    public boolean isActivePlaylist(Playlist playlist) {
-        return playlist.equals(activePlaylist);
+    public boolean isActivePlaylist(Long playlistId) {
+        return playlistId != null && activePlaylist != null && playlistId.equals(activePlaylist.getId());
     }
 
 
@@ -737,82 +869,17 @@ public class PlayerService extends Service {
     }
 
     /**
-     * Starts progress bar updates if not already running
+     * Starts publishing progress to subscribed listeners
      */
     private void startProgressUpdates() {
-        if (!isProgressUpdateRunning) {
-            isProgressUpdateRunning = true;
-            progressHandler.post(updateProgressTask);
-            Logger.d(TAG, "Progress updates started");
-        }
+        progressPublisher.setPlaying(true);
     }
 
     /**
-     * Stops progress bar updates
+     * Stops publishing progress
      */
     private void stopProgressUpdates() {
-        if (isProgressUpdateRunning) {
-            isProgressUpdateRunning = false;
-            progressHandler.removeCallbacks(updateProgressTask);
-            Logger.d(TAG, "Progress updates stopped");
-        }
-    }
-
-    /**
-     * Updated progress task with proper loop management
-     */
-    private final Runnable updateProgressTask = new Runnable() {
-        public void run() {
-            if (!isProgressUpdateRunning) {
-                Logger.d(TAG, "Progress updates stopped, exiting loop");
-                return;
-            }
-            if (currentPlayer == null) {
-                progressHandler.postDelayed(this, 100);
-                return;
-            }
-            try {
-                long totalDuration = currentPlayer.getDuration();
-                long currentDuration = currentPlayer.getCurrentPosition();
-
-                if (totalDuration <= 0) {
-                    progressHandler.postDelayed(this, 100);
-                    return;
-                }
-
-                if (currentDuration > totalDuration) {
-                    currentDuration = totalDuration;
-                }
-
-                int progress = getProgressPercentage(currentDuration, totalDuration);
-                progress = Math.max(0, Math.min(100, progress));
-                progressBar.setProgress(progress);
-
-            } catch (IllegalStateException e) {
-                Logger.d(TAG, "Player state exception during progress update, skipping");
-            }
-
-            // Only continue if updates are still supposed to be running
-            if (isProgressUpdateRunning) {
-                progressHandler.postDelayed(this, 100);
-            }
-        }
-    };
-
-
-
-
-
-    /**
-     * Calculates progress percentage for progress bar
-     * @param currentDuration current duration of song
-     * @param totalDuration total duration of song
-     * @return progress percentage
-     */
-    public int getProgressPercentage(long currentDuration, long totalDuration) {
-        val currentSeconds = (int) (currentDuration / 1000);
-        val totalSeconds = (int) (totalDuration / 1000);
-        return (int) ((((double) currentSeconds) / totalSeconds) * 100);
+        progressPublisher.setPlaying(false);
     }
 
     /**
@@ -821,11 +888,7 @@ public class PlayerService extends Service {
      * @param position position of song
      */
     private void populateAndSend(EventType type, int position) {
-        Intent intent = new Intent(type.getCode());
-        val args = new Bundle();
-        args.putSerializable(Utils.POSITION, position);
-        intent.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+        EventBus.get().post(Event.of(type, position));
     }
 
 
@@ -840,24 +903,18 @@ public class PlayerService extends Service {
 
     /**
      * Handler for removed song to secure of potentially playing song in service
-     * @param args bundle with song and shuffle flag
+     * @param playlist playlist songs were removed from, may be null
      * @param shuffle flag to shuffle playlist
      */
-    private void handleSongDeleted(Bundle args, boolean shuffle) {
-        if (args != null) {
-            Optional.ofNullable(args.getSerializable(PLAYLIST))
-                    .ifPresent(object -> {
-                        val playlist = (Playlist) object;
-                        if (activePlaylist != null && playlist.getId().equals(activePlaylist.getId())) {
-                            activePlaylist = playlist;
-                            createPlaylist(activePlaylist, shuffle);
-                            if (activePlaylist.getSongs().isEmpty()) {
-                                populateAndSend(PLAYBACK_NOTIFICATION_STOP, activePlaylist.getPosition());
-                            } else if (activePlaylist.getCurrentSong() == null && !activePlaylist.getSongs().isEmpty() && isPlaying()) {
-                                populateAndSend(PLAYBACK_NOTIFICATION_NEXT, activePlaylist.getPosition());
-                            }
-                        }
-                    });
+    private void handleSongDeleted(Playlist playlist, boolean shuffle) {
+        if (playlist != null && activePlaylist != null && playlist.getId().equals(activePlaylist.getId())) {
+            activePlaylist = playlist;
+            createPlaylist(activePlaylist, shuffle);
+            if (activePlaylist.getSongs().isEmpty()) {
+                populateAndSend(PLAYBACK_NOTIFICATION_STOP, activePlaylist.getPosition());
+            } else if (activePlaylist.getCurrentSong() == null && !activePlaylist.getSongs().isEmpty() && isPlaying()) {
+                populateAndSend(PLAYBACK_NOTIFICATION_NEXT, activePlaylist.getPosition());
+            }
         }
     }
 
@@ -886,80 +943,61 @@ public class PlayerService extends Service {
 
 
     /**
-     * Receiver for events from other services or agents
+     * Handles events from other services or agents
      */
-    private final BroadcastReceiver receiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Logger.d(TAG, "[EVENT] Received event " + intent.getAction());
-            val event = EventType.getType(intent.getAction());
-            Bundle args = intent.getBundleExtra(ARGS);
-            val sp = getDefaultSharedPreferences(context);
-            val shuffle = sp.getBoolean(Property.SHUFFLE_MODE, true);
-            switch (event) {
-                case PLAYBACK_NOTIFICATION_NEXT:
-                    next();
-                    break;
-                case PLAYBACK_NOTIFICATION_PREV:
-                    previous();
-                    break;
-                case PLAYBACK_NOTIFICATION_PLAY:
-                    play();
-                    break;
-                case PLAYBACK_NOTIFICATION_STOP:
-                    stop();
-                    break;
-                case PLAYBACK_NOTIFICATION_PAUSE:
-                    pause();
-                    break;
-                case PRESET_ACTIVATED:
-                    stop();
+    private void onEvent(Event event) {
+        Logger.d(TAG, "[EVENT] Received event {}", event.getType());
+        val playlist = event.getPlaylist();
+        val shuffle = AppSettings.get(this).isShuffle();
+        switch (event.getType()) {
+            case PLAYBACK_NOTIFICATION_NEXT:
+                next();
+                break;
+            case PLAYBACK_NOTIFICATION_PREV:
+                previous();
+                break;
+            case PLAYBACK_NOTIFICATION_PLAY:
+                play();
+                break;
+            case PLAYBACK_NOTIFICATION_STOP:
+                stop();
+                break;
+            case PLAYBACK_NOTIFICATION_PAUSE:
+                pause();
+                break;
+            case PRESET_ACTIVATED:
+                stop();
+                activePlaylist = null;
+                break;
+            case PLAYLIST_NOTIFICATION_ADD:
+                if (isActivePlaylist(event.getPlaylistId())) {
+                    activePlaylist.setName(event.getPlaylistName());
+                }
+                break;
+            case PLAYLIST_NOTIFICATION_ACTIVE:
+                if (playlist != null) {
+                    fadeIntoNewPlaylist(playlist);
+                }
+                break;
+            case PLAYLIST_NOTIFICATION_NEW_ACTIVE:
+                if (playlist != null) {
+                    updateCurrentSongAndSwitchPlaylist(playlist);
+                }
+                break;
+            case PLAYLIST_NOTIFICATION_RECREATE_LIST:
+                createPlaylist(activePlaylist, shuffle);
+                break;
+            case PLAYLIST_NOTIFICATION_DELETE:
+                if (isActivePlaylist(event.getPlaylistId())) {
+                    populateAndSend(PLAYBACK_NOTIFICATION_STOP, activePlaylist.getPosition());
                     activePlaylist = null;
-                    break;
-                case PLAYLIST_NOTIFICATION_ADD:
-                    if (args != null) {
-                        Optional.ofNullable(args.getSerializable(PLAYLIST))
-                                .ifPresent(playlist -> {
-                                    if (playlist.equals(activePlaylist)) {
-                                        activePlaylist = (Playlist) playlist;
-                                    }
-                                });
-                    }
-                    break;
-                case PLAYLIST_NOTIFICATION_ACTIVE:
-                    if (args != null) {
-                        Optional.ofNullable(args.getSerializable(PLAYLIST))
-                                .ifPresent((playlist -> fadeIntoNewPlaylist((Playlist) playlist)));
-                    }
-                    break;
-                case PLAYLIST_NOTIFICATION_NEW_ACTIVE:
-                    if (args != null) {
-                        Optional.ofNullable(args.getSerializable(PLAYLIST))
-                                .ifPresent(playlist -> {
-                                    updateCurrentSongAndSwitchPlaylist((Playlist) playlist);
-                                });
-                    }
-                    break;
-                case PLAYLIST_NOTIFICATION_RECREATE_LIST:
-                    createPlaylist(activePlaylist, shuffle);
-                    break;
-                case PLAYLIST_NOTIFICATION_DELETE:
-                    if (args != null) {
-                        Optional.ofNullable(args.getSerializable(PLAYLIST))
-                                .ifPresent(playlist -> {
-                                    if (playlist.equals(activePlaylist)) {
-                                        populateAndSend(PLAYBACK_NOTIFICATION_STOP, activePlaylist.getPosition());
-                                        activePlaylist = null;
-                                    }
-                                });
-                    }
-                    break;
-                case PLAYLIST_NOTIFICATION_DELETE_SONGS:
-                    handleSongDeleted(args, shuffle);
-                    break;
-            }
+                }
+                break;
+            case PLAYLIST_NOTIFICATION_DELETE_SONGS:
+                handleSongDeleted(playlist, shuffle);
+                break;
         }
-    };
+    }
 
     public interface PlayerServiceCallbacks {
         void onPlaybackStateChanged(EventType type);
@@ -0,0 +1,115 @@
+package pl.qprogramming.themplay.player;
+
+import android.os.Debug;
+import android.os.SystemClock;
+
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Collects how long song transitions had to wait for the incoming player to become ready,
+ * and how much garbage collection happened meanwhile.
+ * <p>
+ * Wait time is measured from the moment a transition was requested until the incoming player
+ * could start (crossfade or fade-in began). A transition served from a look-ahead buffered player
+ * should report close to zero. GC churn is sampled from ART runtime stats at the same two points,
+ * so builds with and without player pooling can be compared from the logged summary.
+ * Only accessed from the main thread.
+ */
+@Getter
+public class TransitionMetrics {
+    private static final String TAG = TransitionMetrics.class.getSimpleName();
+    private static final String GC_COUNT_STAT = "art.gc.gc-count";
+    private static final String BYTES_ALLOCATED_STAT = "art.gc.bytes-allocated";
+
+    private int transitions;
+    private int prebufferedTransitions;
+    private long totalWaitMs;
+    private long maxWaitMs;
+    private long totalGcCount;
+    private long totalAllocatedBytes;
+
+    private long transitionStartedAt;
+    private long gcCountAtStart;
+    private long allocatedBytesAtStart;
+
+    /**
+     * Marks the moment a transition was requested
+     */
+    public void markTransitionStart() {
+        transitionStartedAt = SystemClock.elapsedRealtime();
+        gcCountAtStart = runtimeStat(GC_COUNT_STAT);
+        allocatedBytesAtStart = runtimeStat(BYTES_ALLOCATED_STAT);
+    }
+
+    /**
+     * Records transition started with {@link #markTransitionStart()} as ready now
+     *
+     * @param prebuffered true if the incoming player was prepared ahead by look-ahead
+     */
+    public void recordReadiness(boolean prebuffered) {
+        val gcCount = Math.max(0, runtimeStat(GC_COUNT_STAT) - gcCountAtStart);
+        val allocatedBytes = Math.max(0, runtimeStat(BYTES_ALLOCATED_STAT) - allocatedBytesAtStart);
+        recordReadinessWait(SystemClock.elapsedRealtime() - transitionStartedAt, prebuffered, gcCount, allocatedBytes);
+    }
+
+    /**
+     * Records single transition
+     *
+     * @param waitMs         time between transition request and incoming player being ready
+     * @param prebuffered    true if the incoming player was prepared ahead by look-ahead
+     * @param gcCount        garbage collections that ran during the transition
+     * @param allocatedBytes bytes allocated on the heap during the transition
+     */
+    public void recordReadinessWait(long waitMs, boolean prebuffered, long gcCount, long allocatedBytes) {
+        transitions++;
+        if (prebuffered) {
+            prebufferedTransitions++;
+        }
+        totalWaitMs += waitMs;
+        maxWaitMs = Math.max(maxWaitMs, waitMs);
+        totalGcCount += gcCount;
+        totalAllocatedBytes += allocatedBytes;
+        Logger.d(TAG, () -> String.format(Locale.US, "Transition waited %d ms for readiness (prebuffered: %b), GCs: %d, allocated: %d KB. %s",
+                waitMs, prebuffered, gcCount, allocatedBytes / 1024, summary()));
+    }
+
+    /**
+     * @return average readiness wait in milliseconds, 0 if there were no transitions yet
+     */
+    public long getAverageWaitMs() {
+        return transitions == 0 ? 0 : totalWaitMs / transitions;
+    }
+
+    /**
+     * @return average heap allocation per transition in bytes, 0 if there were no transitions yet
+     */
+    public long getAverageAllocatedBytes() {
+        return transitions == 0 ? 0 : totalAllocatedBytes / transitions;
+    }
+
+    /**
+     * @return human readable summary of all recorded transitions
+     */
+    public String summary() {
+        return String.format(Locale.US, "Transitions: %d (prebuffered: %d), avg wait: %d ms, max wait: %d ms, GCs: %d, avg allocated: %d KB",
+                transitions, prebufferedTransitions, getAverageWaitMs(), maxWaitMs, totalGcCount, getAverageAllocatedBytes() / 1024);
+    }
+
+    /**
+     * Reads numeric ART runtime stat
+     *
+     * @return stat value or 0 if it's not available on this runtime
+     */
+    private static long runtimeStat(String name) {
+        try {
+            val value = Debug.getRuntimeStat(name);
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -167,7 +167,7 @@ public class AudioProcessorManager {
      * <ul>
      *   <li>Null-safe operation (silently returns if processor is null)</li>
      *   <li>Automatic clamping to valid range [0.0, 1.0]</li>
-     *   <li>Thread-safe volume setting through processor's synchronized methods</li>
+     *   <li>Thread-safe, lock-free volume setting</li>
      *   <li>Immediate effect on subsequent audio processing</li>
      * </ul>
      *
@@ -184,4 +184,26 @@ public class AudioProcessorManager {
             processor.setVolumeFactor(Math.max(0f, Math.min(1f, volume)));
         }
     }
+
+    /**
+     * Safely posts a gain ramp on the given VolumeScalingAudioProcessor.
+     *
+     * <p>The ramp is interpolated per frame on the audio thread, see
+     * {@link VolumeScalingAudioProcessor#rampToMillis(float, float, int, FadeCurve)}. Like
+     * {@link #safeSetVolume(VolumeScalingAudioProcessor, float)} this is null-safe and clamps
+     * both volumes to the valid range.</p>
+     *
+     * @param processor   The processor to ramp. If null, this method does nothing.
+     * @param startVolume The volume of the first ramp frame, or NaN to continue from the current volume
+     * @param volume      The volume to reach at the end of the ramp
+     * @param durationMs  The ramp duration in milliseconds
+     * @param curve       The shape of the ramp
+     * @see VolumeScalingAudioProcessor#rampToMillis(float, float, int, FadeCurve)
+     */
+    public static void safeRampVolume(VolumeScalingAudioProcessor processor, float startVolume,
+                                      float volume, int durationMs, FadeCurve curve) {
+        if (processor != null) {
+            processor.rampToMillis(startVolume, volume, durationMs, curve);
+        }
+    }
 }
@@ -2,10 +2,13 @@ package pl.qprogramming.themplay.player.audio;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.exoplayer.ExoPlayer;
 
+import java.util.function.BooleanSupplier;
+
 import pl.qprogramming.themplay.logger.Logger;
 
 /**
@@ -16,6 +19,11 @@ import pl.qprogramming.themplay.logger.Logger;
  * by gradually decreasing the volume of the current audio stream while simultaneously increasing
  * the volume of the next stream over a specified duration.</p>
  *
+ * <p>The volume itself is never stepped from here. Each fade is posted as a single gain ramp
+ * command to the {@link VolumeScalingAudioProcessor}, which interpolates it per frame on the audio
+ * thread. The main looper is only used to deliver the completion callback, so a busy UI thread can
+ * delay a callback but can no longer stretch or stutter the fade itself.</p>
+ *
  * <p>The controller is designed to work with ExoPlayer instances that have been configured with
  * VolumeScalingAudioProcessor instances, allowing for precise volume control that functions
  * even during screen casting and audio routing scenarios where traditional MediaPlayer volume
@@ -34,8 +42,9 @@ import pl.qprogramming.themplay.logger.Logger;
  *
  * <p><strong>Technical Implementation:</strong></p>
  * <ul>
- *   <li>Uses a Handler with 50ms intervals for smooth volume transitions</li>
- *   <li>Employs linear volume curves for predictable fade behavior</li>
+ *   <li>Posts one ramp command per processor, interpolated per frame on the audio thread</li>
+ *   <li>Shapes fades with a configurable {@link FadeCurve} (equal-power by default)</li>
+ *   <li>Uses a main looper Handler only to report completion once the ramps have finished</li>
  *   <li>Automatically manages ExoPlayer lifecycle during transitions</li>
  *   <li>Prevents overlapping fade operations through automatic cancellation</li>
  * </ul>
@@ -65,11 +74,15 @@ public class CrossfadeController {
     private static final String TAG = "CrossfadeController";
 
     /**
-     * The interval between volume adjustment steps during fade operations.
-     * Set to 50ms to provide smooth transitions while maintaining reasonable CPU usage.
-     * This results in 20 volume adjustments per second during fade operations.
+     * How often completion is re-checked once the fade duration elapsed but a ramp is still running,
+     * e.g. because the player was briefly buffering and the audio thread fell behind.
      */
-    private static final long CROSSFADE_INTERVAL_MS = 50;
+    private static final long RAMP_CHECK_INTERVAL_MS = 50;
+
+    /**
+     * Maximum time completion waits for ramps past the requested duration before giving up on them.
+     */
+    private static final long MAX_RAMP_OVERRUN_MS = 2000;
 
     /**
      * Callback interface for crossfade operation completion events.
@@ -102,19 +115,24 @@ public class CrossfadeController {
     }
 
     /**
-     * Handler for scheduling and executing fade operations on the main thread.
-     * All volume adjustments and callbacks are executed through this handler
-     * to ensure thread safety and proper UI interaction.
+     * Handler for delivering fade completion on the main thread.
+     * All callbacks are executed through this handler to ensure thread safety
+     * and proper UI interaction.
      */
     private final Handler handler;
 
     /**
-     * The currently executing fade operation, if any.
+     * The pending completion check of the current fade operation, if any.
      * This reference is used to cancel ongoing operations when starting new ones
      * or when cleaning up the controller.
      */
     private Runnable currentFadeRunnable;
 
+    /**
+     * Curve used for all fades started after it was set.
+     */
+    private FadeCurve fadeCurve = FadeCurve.EQUAL_POWER;
+
     /**
      * Constructs a new CrossfadeController.
      *
@@ -126,28 +144,39 @@ public class CrossfadeController {
         this.handler = new Handler(Looper.getMainLooper());
     }
 
+    /**
+     * Sets the curve used by subsequently started fades.
+     *
+     * <p>Fades that are already running keep the curve they were started with.</p>
+     *
+     * @param fadeCurve The curve to use. If null, equal-power is used.
+     * @see FadeCurve
+     */
+    public void setFadeCurve(FadeCurve fadeCurve) {
+        this.fadeCurve = fadeCurve != null ? fadeCurve : FadeCurve.EQUAL_POWER;
+    }
+
     /**
      * Starts a crossfade operation between two ExoPlayer instances.
      *
      * <p>This method initiates a smooth volume transition where the current player's
      * volume is gradually decreased to zero while the next player's volume is
      * simultaneously increased to full volume. The transition occurs over the
-     * specified duration using linear volume curves.</p>
+     * specified duration following the configured {@link FadeCurve}.</p>
      *
      * <p><strong>Operation Details:</strong></p>
      * <ol>
      *   <li>Validates the processor pair and player instances</li>
      *   <li>Cancels any ongoing fade operations</li>
-     *   <li>Calculates the number of steps based on duration and interval</li>
-     *   <li>Schedules periodic volume adjustments</li>
-     *   <li>Handles completion and cleanup automatically</li>
+     *   <li>Posts a 0 to 1 ramp on the next processor and a ramp to 0 on the current one</li>
+     *   <li>Reports completion once both ramps have finished</li>
      * </ol>
      *
      * <p><strong>Special Cases:</strong></p>
      * <ul>
      *   <li>Duration ≤ 0: Performs immediate switch without fading</li>
      *   <li>Invalid processors: Aborts operation and invokes error callback</li>
-     *   <li>Null players: Aborts operation during execution</li>
+     *   <li>Null players: Aborts operation and invokes error callback</li>
      * </ul>
      *
      * @param durationMs The duration of the crossfade in milliseconds. Must be positive for gradual fade.
@@ -176,67 +205,52 @@ public class CrossfadeController {
             return;
         }
         stopCurrentFade();
-        final int steps = Math.max(1, durationMs / (int) CROSSFADE_INTERVAL_MS);
-        final float volumeStep = 1.0f / steps;
-        currentFadeRunnable = new Runnable() {
-            int step = 0;
-            @Override
-            public void run() {
-                if (currentPlayer == null || nextPlayer == null || !processors.isValid()) {
-                    Logger.w(TAG, "Crossfade aborted: Invalid state");
-                    if (callback != null) callback.onCrossfadeAborted();
-                    return;
-                }
-                // Calculate linear volume curves
-                float nextVolume = Math.min(1.0f, step * volumeStep);
-                float currentVolume = Math.max(0.0f, 1.0f - (step * volumeStep));
-                // Apply volume changes
-                AudioProcessorManager.safeSetVolume(processors.next, nextVolume);
-                AudioProcessorManager.safeSetVolume(processors.current, currentVolume);
-                if (step < steps) {
-                    step++;
-                    handler.postDelayed(this, CROSSFADE_INTERVAL_MS);
-                } else {
+        if (currentPlayer == null || nextPlayer == null) {
+            Logger.w(TAG, "Crossfade aborted: Invalid state");
+            if (callback != null) callback.onCrossfadeAborted();
+            return;
+        }
+        AudioProcessorManager.safeRampVolume(processors.next, 0.0f, 1.0f, durationMs, fadeCurve);
+        AudioProcessorManager.safeRampVolume(processors.current, Float.NaN, 0.0f, durationMs, fadeCurve);
+        awaitRamps(durationMs,
+                () -> isRamping(processors.next, nextPlayer) || isRamping(processors.current, currentPlayer),
+                () -> {
                     // Crossfade complete - ensure final volumes
                     AudioProcessorManager.safeSetVolume(processors.next, 1.0f);
                     AudioProcessorManager.safeSetVolume(processors.current, 0.0f);
                     if (callback != null) {
                         callback.onCrossfadeComplete(nextPlayer, processors.next);
                     }
-                }
-            }
-        };
-        handler.post(currentFadeRunnable);
+                });
     }
 
     /**
      * Starts a fade-out operation on a single ExoPlayer instance.
      *
      * <p>This method gradually reduces the volume of the specified player to zero
-     * over the given duration, then automatically releases the player resources.
-     * This is typically used when stopping playback or transitioning away from
+     * over the given duration, then invokes the completion callback. The player itself is
+     * left untouched, stopping or recycling it is up to the caller. This is typically used when stopping playback or transitioning away from
      * a player without a corresponding fade-in.</p>
      *
      * <p><strong>Operation Sequence:</strong></p>
      * <ol>
      *   <li>Validates the player and processor</li>
      *   <li>Cancels any ongoing fade operations</li>
-     *   <li>Gradually reduces volume to zero</li>
-     *   <li>Releases the ExoPlayer when fade completes</li>
-     *   <li>Invokes the completion callback</li>
+     *   <li>Posts a ramp from the current volume to zero</li>
+     *   <li>Invokes the completion callback when the ramp completes</li>
      * </ol>
      *
      * <p><strong>Resource Management:</strong></p>
-     * <p>The player is automatically stopped and released when the fade-out completes,
-     * ensuring proper cleanup of native resources. If the player stops playing during
-     * the fade, the operation completes immediately.</p>
+     * <p>Players are pooled and outlive a single song, so the fade-out no longer releases
+     * the player. If the player stops playing during the fade, the operation completes
+     * as soon as the fade duration elapses.</p>
      *
-     * @param player The ExoPlayer instance to fade out and release
+     * @param player The ExoPlayer instance to fade out
      * @param processor The VolumeScalingAudioProcessor associated with the player
      * @param durationMs The duration of the fade-out in milliseconds
      * @param onComplete Callback invoked when the fade-out completes. May be null.
      *
-     * @see ExoPlayerManager#safeReleasePlayer(ExoPlayer)
+     * @see ExoPlayerPool#release(ExoPlayer)
      */
     public void startFadeOut(ExoPlayer player, VolumeScalingAudioProcessor processor,
                              int durationMs, Runnable onComplete) {
@@ -245,31 +259,10 @@ public class CrossfadeController {
             return;
         }
         stopCurrentFade();
-        final int steps = Math.max(1, durationMs / (int) CROSSFADE_INTERVAL_MS);
-        final float volumeStep = 1.0f / steps;
-        currentFadeRunnable = new Runnable() {
-            int step = 0;
-
-            @Override
-            public void run() {
-                if (player == null || processor == null) {
-                    if (onComplete != null) onComplete.run();
-                    return;
-                }
-                float volume = Math.max(0.0f, 1.0f - (step * volumeStep));
-                AudioProcessorManager.safeSetVolume(processor, volume);
-
-                if (step < steps && player.isPlaying()) {
-                    step++;
-                    handler.postDelayed(this, CROSSFADE_INTERVAL_MS);
-                } else {
-                    // Fade complete - release player and notify
-                    ExoPlayerManager.safeReleasePlayer(player);
-                    if (onComplete != null) onComplete.run();
-                }
-            }
-        };
-        handler.post(currentFadeRunnable);
+        AudioProcessorManager.safeRampVolume(processor, Float.NaN, 0.0f, durationMs, fadeCurve);
+        awaitRamps(durationMs, () -> isRamping(processor, player), () -> {
+            if (onComplete != null) onComplete.run();
+        });
     }
 
     /**
@@ -282,23 +275,21 @@ public class CrossfadeController {
      *
      * <p><strong>Operation Sequence:</strong></p>
      * <ol>
-     *   <li>Sets the processor volume to zero</li>
      *   <li>Cancels any ongoing fade operations</li>
-     *   <li>Gradually increases volume to full</li>
+     *   <li>Posts a ramp from zero to full volume</li>
      *   <li>Ensures final volume is exactly 1.0</li>
      *   <li>Invokes the completion callback</li>
      * </ol>
      *
      * <p><strong>Initial State:</strong></p>
-     * <p>The processor volume is explicitly set to 0.0 at the beginning of the
-     * operation to ensure a consistent starting point, regardless of the
-     * processor's previous state.</p>
+     * <p>The ramp explicitly starts at 0.0 to ensure a consistent starting point,
+     * regardless of the processor's previous state.</p>
      *
      * @param processor The VolumeScalingAudioProcessor to fade in
      * @param durationMs The duration of the fade-in in milliseconds
      * @param onComplete Callback invoked when the fade-in completes. May be null.
      *
-     * @see AudioProcessorManager#safeSetVolume(VolumeScalingAudioProcessor, float)
+     * @see AudioProcessorManager#safeRampVolume(VolumeScalingAudioProcessor, float, float, int, FadeCurve)
      */
     public void startFadeIn(VolumeScalingAudioProcessor processor, int durationMs, Runnable onComplete) {
         if (processor == null) {
@@ -306,41 +297,52 @@ public class CrossfadeController {
             return;
         }
         stopCurrentFade();
-        final int steps = Math.max(1, durationMs / (int) CROSSFADE_INTERVAL_MS);
-        final float volumeStep = 1.0f / steps;
-        // Start at 0 volume
-        AudioProcessorManager.safeSetVolume(processor, 0.0f);
+        AudioProcessorManager.safeRampVolume(processor, 0.0f, 1.0f, durationMs, fadeCurve);
+        awaitRamps(durationMs, () -> isRamping(processor, null), () -> {
+            // Fade in complete - ensure final volume is 1.0
+            AudioProcessorManager.safeSetVolume(processor, 1.0f);
+            if (onComplete != null) onComplete.run();
+        });
+    }
+
+    /**
+     * Schedules {@code onDone} once the fade duration has elapsed and no ramp is running anymore.
+     *
+     * <p>Ramps normally finish right on time, the re-check only covers an audio thread that fell
+     * behind. After {@link #MAX_RAMP_OVERRUN_MS} the fade is reported as finished regardless.</p>
+     */
+    private void awaitRamps(int durationMs, BooleanSupplier rampsRunning, Runnable onDone) {
+        final long deadline = SystemClock.uptimeMillis() + Math.max(0, durationMs) + MAX_RAMP_OVERRUN_MS;
         currentFadeRunnable = new Runnable() {
-            int step = 0;
             @Override
             public void run() {
-                if (processor == null) {
-                    if (onComplete != null) onComplete.run();
+                if (rampsRunning.getAsBoolean() && SystemClock.uptimeMillis() < deadline) {
+                    handler.postDelayed(this, RAMP_CHECK_INTERVAL_MS);
                     return;
                 }
-
-                float volume = Math.min(1.0f, step * volumeStep);
-                AudioProcessorManager.safeSetVolume(processor, volume);
-
-                if (step < steps) {
-                    step++;
-                    handler.postDelayed(this, CROSSFADE_INTERVAL_MS);
-                } else {
-                    // Fade in complete - ensure final volume is 1.0
-                    AudioProcessorManager.safeSetVolume(processor, 1.0f);
-                    if (onComplete != null) onComplete.run();
-                }
+                currentFadeRunnable = null;
+                onDone.run();
             }
         };
-        handler.post(currentFadeRunnable);
+        handler.postDelayed(currentFadeRunnable, Math.max(0, durationMs));
+    }
+
+    /**
+     * A ramp only advances while audio flows, so it is considered running only while the
+     * processor is scaling and the player (if known) is still playing.
+     */
+    private static boolean isRamping(VolumeScalingAudioProcessor processor, ExoPlayer player) {
+        return processor.isVolumeScalingActive() && processor.isRamping()
+                && (player == null || player.isPlaying());
     }
 
     /**
      * Stops any currently executing fade operation.
      *
      * <p>This method immediately cancels any ongoing fade operation by removing
-     * the scheduled callbacks from the handler and clearing the current fade
-     * runnable reference. This is automatically called when starting new fade
+     * the scheduled completion check from the handler and clearing the current fade
+     * runnable reference. Ramps already posted to processors keep running until they
+     * are replaced by a new ramp or volume. This is automatically called when starting new fade
      * operations to prevent conflicts.</p>
      *
      * <p><strong>Usage:</strong></p>
@@ -351,7 +353,7 @@ public class CrossfadeController {
      * </ul>
      *
      * <p><strong>Note:</strong> Stopping a fade operation does not trigger
-     * completion callbacks - the operation is simply abandoned in its current state.</p>
+     * completion callbacks - the operation is simply abandoned.</p>
      */
     public void stopCurrentFade() {
         if (currentFadeRunnable != null) {
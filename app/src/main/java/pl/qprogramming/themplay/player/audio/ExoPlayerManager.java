@@ -145,6 +145,8 @@ public class ExoPlayerManager {
      *                      Can be null if no callback is needed.
      * @param errorCallback Callback invoked if an error occurs during preparation or playback.
      *                      Can be null if no error handling is needed.
+     * @return The one-shot listener added to the player, so it can be removed if the player is
+     *         recycled before preparation finishes
      *
      * @throws IllegalArgumentException if player or uri is null
      * @throws IllegalStateException if the player is in an invalid state for preparation
@@ -152,13 +154,13 @@ public class ExoPlayerManager {
      * @see PlayerReadyCallback
      * @see PlayerErrorCallback
      */
-    public static void preparePlayer(ExoPlayer player, Uri uri, int position, Song song,
-                                     PlayerReadyCallback readyCallback, PlayerErrorCallback errorCallback) {
+    public static Player.Listener preparePlayer(ExoPlayer player, Uri uri, int position, Song song,
+                                                PlayerReadyCallback readyCallback, PlayerErrorCallback errorCallback) {
         MediaItem mediaItem = MediaItem.fromUri(uri);
         player.setMediaItem(mediaItem);
         player.setVolume(1.0f);
 
-        player.addListener(new Player.Listener() {
+        Player.Listener listener = new Player.Listener() {
             /**
              * <p>When the player reaches STATE_READY, it means the media has been
              * successfully prepared and is ready for playback. At this point, we
@@ -192,9 +194,63 @@ public class ExoPlayerManager {
                 }
                 player.removeListener(this);
             }
-        });
+        };
+        player.addListener(listener);
+        player.prepare();
+        return listener;
+    }
 
+    /**
+     * Prepares an ExoPlayer ahead of time without starting playback.
+     *
+     * <p>Used for look-ahead buffering of the upcoming song. The media is loaded and buffered
+     * at the given position, but the player stays paused so it can be started instantly with
+     * {@link ExoPlayer#play()} once the transition is due.</p>
+     *
+     * <ul>
+     *   <li>Sets the media item from the provided URI and seeks to the start position</li>
+     *   <li>Keeps playWhenReady disabled so nothing is rendered yet</li>
+     *   <li>Invokes the ready callback once, when the player first reaches STATE_READY</li>
+     *   <li>Invokes the error callback if preparation fails</li>
+     * </ul>
+     *
+     * @param player The ExoPlayer instance to prepare
+     * @param uri The URI of the media file to be buffered
+     * @param position The position in milliseconds playback will start from
+     * @param song The Song object representing the media, used for error reporting
+     * @param readyCallback Callback invoked when the player is buffered and ready. Can be null.
+     * @param errorCallback Callback invoked if an error occurs during preparation. Can be null.
+     * @return The one-shot listener added to the player
+     *
+     * @see #preparePlayer(ExoPlayer, Uri, int, Song, PlayerReadyCallback, PlayerErrorCallback)
+     */
+    public static Player.Listener prebufferPlayer(ExoPlayer player, Uri uri, int position, Song song,
+                                                  PlayerReadyCallback readyCallback, PlayerErrorCallback errorCallback) {
+        player.setMediaItem(MediaItem.fromUri(uri), position);
+        player.setVolume(1.0f);
+        player.setPlayWhenReady(false);
+        Player.Listener listener = new Player.Listener() {
+            @Override
+            public void onPlaybackStateChanged(int state) {
+                if (state == Player.STATE_READY) {
+                    player.removeListener(this);
+                    if (readyCallback != null) {
+                        readyCallback.onPlayerReady(player);
+                    }
+                }
+            }
+
+            @Override
+            public void onPlayerError(@NotNull PlaybackException error) {
+                player.removeListener(this);
+                if (errorCallback != null) {
+                    errorCallback.onPlayerError(error, song);
+                }
+            }
+        };
+        player.addListener(listener);
         player.prepare();
+        return listener;
     }
 
     /**
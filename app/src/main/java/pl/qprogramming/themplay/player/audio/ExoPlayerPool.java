@@ -0,0 +1,200 @@
+package pl.qprogramming.themplay.player.audio;
+
+import android.content.Context;
+
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Small pool of warm ExoPlayer instances, each permanently bound to its own
+ * {@link VolumeScalingAudioProcessor}.
+ *
+ * <p>Building a player means building a renderers factory, a {@code DefaultAudioSink} and the whole
+ * ExoPlayer internals, and releasing it tears down codecs and the AudioTrack again. The pool keeps
+ * players alive between songs instead: a released entry is only stopped and its media items are
+ * cleared, so the next song just swaps the media item on an already built player.</p>
+ *
+ * <p><strong>Lifecycle:</strong></p>
+ * <ul>
+ *   <li>{@link #acquire(float)} hands out an idle entry, building one lazily if the pool is not full yet</li>
+ *   <li>{@link #release(ExoPlayer)} stops the player, drops its transient listeners and silences the processor</li>
+ *   <li>{@link #shutdown()} really releases every player, call it when the owning service is destroyed</li>
+ * </ul>
+ *
+ * <p>Crossfade needs two players at once, a third one covers fade-stop of the previous song still
+ * running when playback is restarted. If all entries are busy, a temporary player is built and is
+ * fully released once returned, so callers never have to handle an exhausted pool.</p>
+ *
+ * <p>Only accessed from the main thread.</p>
+ *
+ * @see ExoPlayerManager#createPlayerWithProcessor(Context, VolumeScalingAudioProcessor)
+ */
+@UnstableApi
+public class ExoPlayerPool {
+    private static final String TAG = ExoPlayerPool.class.getSimpleName();
+
+    /**
+     * Default number of pooled players: current, next and one still fading out
+     */
+    public static final int DEFAULT_SIZE = 3;
+
+    private final Context context;
+    private final int maxSize;
+    private final List<PooledPlayer> entries = new ArrayList<>();
+
+    /**
+     * Number of players built over the pool lifetime, including temporary overflow players
+     */
+    @Getter
+    private int playersCreated;
+    /**
+     * Number of times an already built player was handed out again
+     */
+    @Getter
+    private int playersReused;
+
+    /**
+     * Player bound to its volume processor for the whole pool lifetime
+     */
+    public static class PooledPlayer {
+        @Getter
+        private final ExoPlayer player;
+        @Getter
+        private final VolumeScalingAudioProcessor processor;
+        private final boolean temporary;
+        private final List<Player.Listener> transientListeners = new ArrayList<>();
+        private boolean inUse;
+
+        PooledPlayer(ExoPlayer player, VolumeScalingAudioProcessor processor, boolean temporary) {
+            this.player = player;
+            this.processor = processor;
+            this.temporary = temporary;
+        }
+    }
+
+    public ExoPlayerPool(Context context, int maxSize) {
+        this.context = context.getApplicationContext();
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Hands out idle player with its processor set to given volume
+     *
+     * @param initialVolume volume factor set on bound processor (0.0 to 1.0)
+     * @return player entry, never null
+     */
+    public PooledPlayer acquire(float initialVolume) {
+        PooledPlayer entry = null;
+        for (PooledPlayer candidate : entries) {
+            if (!candidate.inUse) {
+                entry = candidate;
+                break;
+            }
+        }
+        if (entry != null) {
+            playersReused++;
+        } else {
+            val temporary = entries.size() >= maxSize;
+            if (temporary) {
+                Logger.w(TAG, "All " + maxSize + " pooled players busy, building temporary player");
+            }
+            entry = createEntry(temporary);
+            entries.add(entry);
+        }
+        entry.inUse = true;
+        AudioProcessorManager.safeSetVolume(entry.processor, initialVolume);
+        return entry;
+    }
+
+    /**
+     * Registers one-shot listener added while preparing media on pooled player.
+     * It is removed when the player goes back to the pool, so it can't fire for the next song.
+     *
+     * @param player   pooled player
+     * @param listener listener added to the player, null is ignored
+     */
+    public void trackListener(ExoPlayer player, Player.Listener listener) {
+        val entry = find(player);
+        if (entry != null && listener != null) {
+            entry.transientListeners.add(listener);
+        }
+    }
+
+    /**
+     * Returns player to the pool. Playback is stopped, media items cleared and the processor silenced,
+     * the player itself stays built. Temporary players are fully released.
+     *
+     * @param player player to return, null or unknown players are ignored
+     */
+    public void release(ExoPlayer player) {
+        if (player == null) {
+            return;
+        }
+        val entry = find(player);
+        if (entry == null) {
+            Logger.w(TAG, "Player not owned by the pool, releasing it");
+            ExoPlayerManager.safeReleasePlayer(player);
+            return;
+        }
+        for (Player.Listener listener : entry.transientListeners) {
+            player.removeListener(listener);
+        }
+        entry.transientListeners.clear();
+        entry.inUse = false;
+        if (entry.temporary) {
+            entries.remove(entry);
+            ExoPlayerManager.safeReleasePlayer(player);
+            return;
+        }
+        try {
+            player.pause();
+            player.stop();
+            player.clearMediaItems();
+        } catch (Exception e) {
+            Logger.w(TAG, "Error recycling player", e);
+        }
+        AudioProcessorManager.safeSetVolume(entry.processor, 0f);
+    }
+
+    /**
+     * Releases all pooled players. The pool must not be used afterwards.
+     */
+    public void shutdown() {
+        for (PooledPlayer entry : entries) {
+            ExoPlayerManager.safeReleasePlayer(entry.player);
+        }
+        entries.clear();
+        Logger.d(TAG, () -> "Pool shut down. " + summary());
+    }
+
+    /**
+     * @return human readable summary of pool usage
+     */
+    public String summary() {
+        return "Players created: " + playersCreated + ", reused: " + playersReused;
+    }
+
+    private PooledPlayer find(ExoPlayer player) {
+        for (PooledPlayer entry : entries) {
+            if (entry.player == player) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private PooledPlayer createEntry(boolean temporary) {
+        val processor = AudioProcessorManager.createProcessor(0f);
+        val player = ExoPlayerManager.createPlayerWithProcessor(context, processor);
+        playersCreated++;
+        return new PooledPlayer(player, processor, temporary);
+    }
+}
@@ -0,0 +1,244 @@
+package pl.qprogramming.themplay.player.audio;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free gain kernels used by {@link VolumeScalingAudioProcessor}.
+ *
+ * <p>All kernels operate in place on a primitive {@code byte[]} holding little-endian PCM
+ * (the native order on every Android ABI). Working on a plain array keeps the hot loop free of
+ * {@link java.nio.ShortBuffer} views and virtual {@code get()/put()} calls, so the JIT is able to
+ * unroll and vectorize it.</p>
+ *
+ * <p><strong>Technical Details:</strong></p>
+ * <ul>
+ *   <li>Supported layouts: 16-bit, 24-bit packed and 32-bit integer PCM, and 32-bit float PCM</li>
+ *   <li>Gain is converted once per call (or frame) to Q15 fixed point, the per-sample work for
+ *       integer PCM is an integer multiply and shift</li>
+ *   <li>Integer results are saturated to the sample range instead of silently wrapping around,
+ *       float samples are left unclamped as float PCM carries its own headroom</li>
+ *   <li>Products are rounded to nearest, unity and zero gain are short-circuited</li>
+ * </ul>
+ */
+final class PcmGainKernel {
+
+    /**
+     * Fixed point representation of gain 1.0 (Q15).
+     */
+    static final int UNITY_GAIN_Q15 = 1 << 15;
+
+    /**
+     * Highest supported gain (just below 2.0), keeps {@code sample * gain} within int range.
+     */
+    static final int MAX_GAIN_Q15 = (UNITY_GAIN_Q15 << 1) - 1;
+
+    /**
+     * Half of the Q15 step, added before shifting so results are rounded rather than floored.
+     */
+    private static final int ROUNDING_Q15 = 1 << 14;
+
+    /**
+     * Range of signed 24-bit samples.
+     */
+    private static final int PCM24_MAX = (1 << 23) - 1;
+    private static final int PCM24_MIN = -(1 << 23);
+
+    private PcmGainKernel() {
+    }
+
+    /**
+     * Converts floating point gain into Q15 fixed point.
+     *
+     * @param gain gain factor, negative values are treated as silence
+     * @return gain in Q15, capped at {@link #MAX_GAIN_Q15}
+     */
+    static int toFixedPoint(float gain) {
+        if (gain <= 0f) {
+            return 0;
+        }
+        return Math.min(MAX_GAIN_Q15, Math.round(gain * UNITY_GAIN_Q15));
+    }
+
+    /**
+     * Scales 16-bit little-endian PCM samples in place.
+     *
+     * @param data   buffer holding interleaved samples
+     * @param length number of valid bytes in {@code data}, trailing odd byte is ignored
+     * @param gain   gain factor to apply
+     */
+    static void scalePcm16(byte[] data, int length, float gain) {
+        int gainQ15 = toFixedPoint(gain);
+        if (gainQ15 == UNITY_GAIN_Q15) {
+            return;
+        }
+        int end = length & ~1;
+        if (gainQ15 == 0) {
+            Arrays.fill(data, 0, end, (byte) 0);
+            return;
+        }
+        for (int i = 0; i < end; i += 2) {
+            int sample = (data[i] & 0xFF) | (data[i + 1] << 8);
+            int scaled = saturate16((sample * gainQ15 + ROUNDING_Q15) >> 15);
+            data[i] = (byte) scaled;
+            data[i + 1] = (byte) (scaled >> 8);
+        }
+    }
+
+    /**
+     * Scales 16-bit little-endian PCM samples in place using a per-frame gain envelope.
+     * Every channel of a frame receives the same gain.
+     *
+     * @param data       buffer holding interleaved samples
+     * @param frames     number of frames to process
+     * @param channels   channels per frame
+     * @param frameGains gain for each frame, at least {@code frames} entries
+     */
+    static void scalePcm16(byte[] data, int frames, int channels, float[] frameGains) {
+        int i = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int gainQ15 = toFixedPoint(frameGains[frame]);
+            for (int channel = 0; channel < channels; channel++, i += 2) {
+                int sample = (data[i] & 0xFF) | (data[i + 1] << 8);
+                int scaled = saturate16((sample * gainQ15 + ROUNDING_Q15) >> 15);
+                data[i] = (byte) scaled;
+                data[i + 1] = (byte) (scaled >> 8);
+            }
+        }
+    }
+
+    /**
+     * Scales 24-bit packed little-endian PCM samples in place.
+     *
+     * @param data   buffer holding interleaved 3 byte samples
+     * @param length number of valid bytes in {@code data}, trailing partial sample is ignored
+     * @param gain   gain factor to apply
+     */
+    static void scalePcm24(byte[] data, int length, float gain) {
+        int gainQ15 = toFixedPoint(gain);
+        if (gainQ15 == UNITY_GAIN_Q15) {
+            return;
+        }
+        int end = length - length % 3;
+        for (int i = 0; i < end; i += 3) {
+            writePcm24(data, i, scale24(readPcm24(data, i), gainQ15));
+        }
+    }
+
+    /**
+     * Scales 24-bit packed little-endian PCM samples in place using a per-frame gain envelope.
+     *
+     * @see #scalePcm16(byte[], int, int, float[])
+     */
+    static void scalePcm24(byte[] data, int frames, int channels, float[] frameGains) {
+        int i = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int gainQ15 = toFixedPoint(frameGains[frame]);
+            for (int channel = 0; channel < channels; channel++, i += 3) {
+                writePcm24(data, i, scale24(readPcm24(data, i), gainQ15));
+            }
+        }
+    }
+
+    /**
+     * Scales 32-bit integer little-endian PCM samples in place.
+     *
+     * @param data   buffer holding interleaved 4 byte samples
+     * @param length number of valid bytes in {@code data}, trailing partial sample is ignored
+     * @param gain   gain factor to apply
+     */
+    static void scalePcm32(byte[] data, int length, float gain) {
+        int gainQ15 = toFixedPoint(gain);
+        if (gainQ15 == UNITY_GAIN_Q15) {
+            return;
+        }
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            writeInt(data, i, scale32(readInt(data, i), gainQ15));
+        }
+    }
+
+    /**
+     * Scales 32-bit integer little-endian PCM samples in place using a per-frame gain envelope.
+     *
+     * @see #scalePcm16(byte[], int, int, float[])
+     */
+    static void scalePcm32(byte[] data, int frames, int channels, float[] frameGains) {
+        int i = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int gainQ15 = toFixedPoint(frameGains[frame]);
+            for (int channel = 0; channel < channels; channel++, i += 4) {
+                writeInt(data, i, scale32(readInt(data, i), gainQ15));
+            }
+        }
+    }
+
+    /**
+     * Scales 32-bit float little-endian PCM samples in place.
+     *
+     * @param data   buffer holding interleaved 4 byte samples
+     * @param length number of valid bytes in {@code data}, trailing partial sample is ignored
+     * @param gain   gain factor to apply
+     */
+    static void scaleFloat(byte[] data, int length, float gain) {
+        if (gain == 1f) {
+            return;
+        }
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            writeInt(data, i, Float.floatToRawIntBits(Float.intBitsToFloat(readInt(data, i)) * gain));
+        }
+    }
+
+    /**
+     * Scales 32-bit float little-endian PCM samples in place using a per-frame gain envelope.
+     *
+     * @see #scalePcm16(byte[], int, int, float[])
+     */
+    static void scaleFloat(byte[] data, int frames, int channels, float[] frameGains) {
+        int i = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            float gain = frameGains[frame];
+            for (int channel = 0; channel < channels; channel++, i += 4) {
+                writeInt(data, i, Float.floatToRawIntBits(Float.intBitsToFloat(readInt(data, i)) * gain));
+            }
+        }
+    }
+
+    /**
+     * Clamps value into signed 16-bit range.
+     */
+    static int saturate16(int value) {
+        return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+
+    private static int scale24(int sample, int gainQ15) {
+        long scaled = ((long) sample * gainQ15 + ROUNDING_Q15) >> 15;
+        return (int) Math.max(PCM24_MIN, Math.min(PCM24_MAX, scaled));
+    }
+
+    private static int scale32(int sample, int gainQ15) {
+        long scaled = ((long) sample * gainQ15 + ROUNDING_Q15) >> 15;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, scaled));
+    }
+
+    private static int readPcm24(byte[] data, int i) {
+        return (data[i] & 0xFF) | ((data[i + 1] & 0xFF) << 8) | (data[i + 2] << 16);
+    }
+
+    private static void writePcm24(byte[] data, int i, int sample) {
+        data[i] = (byte) sample;
+        data[i + 1] = (byte) (sample >> 8);
+        data[i + 2] = (byte) (sample >> 16);
+    }
+
+    private static int readInt(byte[] data, int i) {
+        return (data[i] & 0xFF) | ((data[i + 1] & 0xFF) << 8) | ((data[i + 2] & 0xFF) << 16) | (data[i + 3] << 24);
+    }
+
+    private static void writeInt(byte[] data, int i, int value) {
+        data[i] = (byte) value;
+        data[i + 1] = (byte) (value >> 8);
+        data[i + 2] = (byte) (value >> 16);
+        data[i + 3] = (byte) (value >> 24);
+    }
+}
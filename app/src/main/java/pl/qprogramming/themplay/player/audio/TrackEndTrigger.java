@@ -0,0 +1,188 @@
+package pl.qprogramming.themplay.player.audio;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.media3.common.C;
+import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.PlayerMessage;
+
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Fires callbacks when playback of the current song reaches the fade trigger point.
+ *
+ * <p>Instead of polling the playback position, the trigger schedules ExoPlayer {@link PlayerMessage}s
+ * at media positions {@code duration - fadeDuration} (end trigger) and
+ * {@code duration - fadeDuration - lookAhead} (look-ahead trigger). The player delivers them exactly
+ * when rendering reaches that position, so pauses and playback speed changes need no handling and
+ * nothing wakes up in between.</p>
+ *
+ * <p><strong>Rescheduling:</strong></p>
+ * <ul>
+ *   <li>If the song duration is already known from its metadata, both messages are scheduled right away,
+ *   without waiting for the player to prepare. They are rescheduled once the timeline reports a different duration</li>
+ *   <li>Otherwise scheduling waits for the timeline</li>
+ *   <li>Seeks reschedule both messages, seeking past a point fires it straight away</li>
+ *   <li>{@link Player#STATE_ENDED} fires the end trigger as a fallback if it was not delivered</li>
+ * </ul>
+ *
+ * <p>Only one trigger is active at a time: {@link #attach} cancels whatever was scheduled before and
+ * every delivery is checked against the current generation, so a message already queued for a
+ * previous song is dropped. Both callbacks are invoked at most once per attach, on the main thread.</p>
+ */
+@UnstableApi
+public class TrackEndTrigger implements Player.Listener {
+    private static final String TAG = TrackEndTrigger.class.getSimpleName();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private ExoPlayer player;
+    private int fadeDurationMs;
+    private int lookAheadMs;
+    private long knownDurationMs;
+    private long scheduledDurationMs = C.TIME_UNSET;
+    private Runnable onLookAhead;
+    private Runnable onEnd;
+
+    private PlayerMessage lookAheadMessage;
+    private PlayerMessage endMessage;
+    private boolean lookAheadFired;
+    private int generation;
+
+    /**
+     * Starts watching given player, replacing previously attached one
+     *
+     * @param player          player of the current song
+     * @param knownDurationMs duration of the song from its metadata, 0 or less if not known
+     * @param fadeDurationMs  fade duration, end trigger fires this long before end of the song
+     * @param lookAheadMs     how long before the end trigger look-ahead fires, 0 disables it
+     * @param onLookAhead     invoked once when look-ahead point is reached. May be null.
+     * @param onEnd           invoked once when end trigger point is reached
+     */
+    public void attach(@NonNull ExoPlayer player, long knownDurationMs, int fadeDurationMs, int lookAheadMs,
+                       Runnable onLookAhead, @NonNull Runnable onEnd) {
+        cancel();
+        this.player = player;
+        this.knownDurationMs = knownDurationMs;
+        this.fadeDurationMs = fadeDurationMs;
+        this.lookAheadMs = lookAheadMs;
+        this.onLookAhead = onLookAhead;
+        this.onEnd = onEnd;
+        player.addListener(this);
+        schedule();
+    }
+
+    /**
+     * Cancels scheduled triggers and stops watching the player
+     */
+    public void cancel() {
+        generation++;
+        cancelMessages();
+        if (player != null) {
+            player.removeListener(this);
+        }
+        player = null;
+        onLookAhead = null;
+        onEnd = null;
+        lookAheadFired = false;
+        scheduledDurationMs = C.TIME_UNSET;
+    }
+
+    @Override
+    public void onTimelineChanged(@NonNull Timeline timeline, int reason) {
+        if (endMessage == null || (player != null && player.getDuration() != C.TIME_UNSET
+                && player.getDuration() != scheduledDurationMs)) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void onPositionDiscontinuity(@NonNull Player.PositionInfo oldPosition,
+                                        @NonNull Player.PositionInfo newPosition, int reason) {
+        if (reason == Player.DISCONTINUITY_REASON_SEEK || reason == Player.DISCONTINUITY_REASON_SEEK_ADJUSTMENT) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void onPlaybackStateChanged(int state) {
+        if (state == Player.STATE_ENDED) {
+            Logger.d(TAG, "Playback ended before trigger was delivered, firing now");
+            fireEnd(generation);
+        }
+    }
+
+    private void schedule() {
+        generation++;
+        cancelMessages();
+        if (player == null) {
+            return;
+        }
+        long duration = player.getDuration();
+        if (duration == C.TIME_UNSET) {
+            if (knownDurationMs <= 0) {
+                return;
+            }
+            duration = knownDurationMs;
+        }
+        scheduledDurationMs = duration;
+        long triggerPoint = Math.max(0, duration - fadeDurationMs);
+        long position = player.getCurrentPosition();
+        final int scheduledGeneration = generation;
+        if (onLookAhead != null && lookAheadMs > 0 && !lookAheadFired) {
+            long lookAheadPoint = Math.max(0, triggerPoint - lookAheadMs);
+            if (position >= lookAheadPoint) {
+                handler.post(() -> fireLookAhead(scheduledGeneration));
+            } else {
+                lookAheadMessage = sendAt(lookAheadPoint, () -> fireLookAhead(scheduledGeneration));
+            }
+        }
+        if (position >= triggerPoint) {
+            handler.post(() -> fireEnd(scheduledGeneration));
+        } else {
+            endMessage = sendAt(triggerPoint, () -> fireEnd(scheduledGeneration));
+        }
+    }
+
+    private PlayerMessage sendAt(long positionMs, Runnable action) {
+        return player.createMessage((messageType, payload) -> action.run())
+                .setLooper(Looper.getMainLooper())
+                .setPosition(positionMs)
+                .setDeleteAfterDelivery(true)
+                .send();
+    }
+
+    private void fireLookAhead(int messageGeneration) {
+        if (messageGeneration != generation || lookAheadFired || onLookAhead == null) {
+            return;
+        }
+        lookAheadFired = true;
+        lookAheadMessage = null;
+        onLookAhead.run();
+    }
+
+    private void fireEnd(int messageGeneration) {
+        if (messageGeneration != generation || onEnd == null) {
+            return;
+        }
+        Runnable action = onEnd;
+        cancel();
+        action.run();
+    }
+
+    private void cancelMessages() {
+        if (lookAheadMessage != null) {
+            lookAheadMessage.cancel();
+            lookAheadMessage = null;
+        }
+        if (endMessage != null) {
+            endMessage.cancel();
+            endMessage = null;
+        }
+    }
+}
@@ -8,8 +8,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
 
 import pl.qprogramming.themplay.logger.Logger;
 
@@ -18,25 +18,38 @@ import pl.qprogramming.themplay.logger.Logger;
  *
  * <p>This processor is specifically designed for audio crossfading applications where smooth
  * volume transitions are required. It operates on 16-bit PCM audio data and applies a volume
- * multiplication factor to each audio sample in real-time during playback.</p>
+ * multiplication factor to each audio sample in real-time during playback. 24-bit packed,
+ * 32-bit integer and float PCM are scaled as well, so hi-res tracks get real fades too.</p>
  *
  * <p>The processor is thread-safe for volume factor modifications and integrates seamlessly
- * with ExoPlayer's audio processing pipeline. It's particularly useful for:</p>
+ * with ExoPlayer's audio processing pipeline. Volume is published through a volatile field, so
+ * the audio thread never contends for a lock with the crossfade controller.</p>
  *
  * <p><strong>Technical Details:</strong></p>
  * <ul>
- *   <li>Supports only 16-bit PCM audio (ENCODING_PCM_16BIT) for volume scaling</li>
+ *   <li>Supports 16-bit, 24-bit, 32-bit integer and float PCM (little-endian) for volume scaling</li>
  *   <li>Falls back to pass-through mode for unsupported formats</li>
  *   <li>Preserves original sample rate and channel configuration</li>
- *   <li>Applies volume scaling by multiplying each sample by the volume factor</li>
+ *   <li>Applies volume scaling through {@link PcmGainKernel} on a reused scratch array,
+ *       with saturation instead of wrap-around</li>
+ *   <li>Output is written into a pooled direct buffer, steady state playback does not allocate</li>
+ *   <li>Gain ramps are interpolated per frame on the audio thread, see {@link #rampTo(float, long)},
+ *       following a {@link FadeCurve} evaluated with a single table read per frame</li>
  *   <li>Volume factor is clamped between 0.0 (silence) and 1.0 (original volume)</li>
  *   <li>Gracefully handles configuration errors without crashing the application</li>
  * </ul>
  *
+ * <p><strong>Gain Ramps:</strong></p>
+ * <p>Instead of stepping the volume from a timer, callers post a single ramp command (target gain
+ * and duration). The command is picked up by the audio thread at the start of the next buffer and
+ * the gain is interpolated for every frame, which removes zipper noise and keeps fade timing
+ * independent of how busy the main thread is.</p>
+ *
  * <p><strong>Pass-Through Mode:</strong></p>
- * <p>When the input audio format is unsupported (non-16-bit PCM), the processor automatically
- * switches to pass-through mode where audio data is copied directly without modification.
- * This ensures the application continues to function even with unexpected audio formats.</p>
+ * <p>When the input audio format is unsupported (e.g. 8-bit or big-endian PCM), the processor
+ * automatically switches to pass-through mode where the input buffer is handed over as output
+ * without copying or modification. This ensures the application continues to function even with
+ * unexpected audio formats.</p>
  *
  * @see AudioProcessor
  * @see ExoPlayerManager
@@ -50,16 +63,81 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
     /**
      * Flag indicating whether the processor is operating in pass-through mode.
      * In pass-through mode, audio data is not modified due to unsupported format.
-     * This prevents application crashes when encountering non-16-bit PCM audio.
+     * This prevents application crashes when encountering PCM layouts the kernel can't scale.
      */
     private boolean isPassThroughMode = false;
 
+    /**
+     * PCM encoding of the configured input, selects the {@link PcmGainKernel} path.
+     */
+    private int sampleEncoding = C.ENCODING_INVALID;
+
     /**
      * The current volume multiplication factor applied to audio samples.
      * Range: 0.0 (silence) to 1.0 (original volume).
-     * This value is thread-safe and can be modified during playback.
+     * Published by the audio thread after each buffer (and by {@link #setVolumeFactor(float)}),
+     * volatile so it can be read from any thread without locking.
+     */
+    private volatile float currentVolumeFactor = 1.0f;
+
+    /**
+     * Latest gain command posted by a caller thread, consumed by the audio thread.
+     * Only the newest command matters, so a newer one simply replaces a pending one.
+     */
+    private final AtomicReference<RampCommand> pendingRamp = new AtomicReference<>();
+
+    /**
+     * True while a ramp is being interpolated on the audio thread.
+     */
+    private volatile boolean rampInProgress;
+
+    /**
+     * Gain applied to the last processed frame. Audio thread only.
+     */
+    private float appliedGain = 1.0f;
+
+    /**
+     * Target gain of the running ramp. Audio thread only.
+     */
+    private float rampTarget = 1.0f;
+
+    /**
+     * Gain of the quieter end of the running ramp, the curve is added on top of it. Audio thread only.
+     */
+    private float rampBase;
+
+    /**
+     * Distance between ramp start and target gain. Audio thread only.
+     */
+    private float rampSpan;
+
+    /**
+     * Curve lookup table of the running ramp. Audio thread only.
+     */
+    private float[] rampTable = FadeCurve.LINEAR.table;
+
+    /**
+     * Table index mapping of the running ramp: rising ramps read the table forwards ({@code 0, 1}),
+     * falling ones read it backwards ({@code TABLE_SIZE, -1}). Audio thread only.
+     */
+    private int rampIndexOffset;
+    private int rampIndexDirection = 1;
+
+    /**
+     * Position in the lookup table reached by the running ramp and its per-frame advance. Audio thread only.
+     */
+    private float rampPosition;
+    private float rampPositionStep;
+
+    /**
+     * Frames left until the running ramp reaches its target. Audio thread only.
      */
-    private float currentVolumeFactor = 1.0f;
+    private long rampFramesRemaining;
+
+    /**
+     * Per-frame gain envelope for the buffer being processed. Only grows when a larger buffer arrives.
+     */
+    private float[] frameGains = new float[0];
 
     /**
      * The audio format of the input stream. Set during configuration.
@@ -75,10 +153,22 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
 
     /**
      * Internal buffer for storing processed audio data before output.
-     * Allocated on-demand based on input buffer size to optimize memory usage.
+     * Points to {@link #pooledOutputBuffer}, to the handed over input in pass-through mode,
+     * or to EMPTY_BUFFER when there is no pending output.
      */
     private ByteBuffer internalOutputBuffer = EMPTY_BUFFER;
 
+    /**
+     * Direct output buffer reused between {@link #queueInput(ByteBuffer)} calls.
+     * Only grows when a larger input buffer arrives.
+     */
+    private ByteBuffer pooledOutputBuffer = EMPTY_BUFFER;
+
+    /**
+     * Scratch array the gain kernel operates on. Only grows when a larger input buffer arrives.
+     */
+    private byte[] sampleScratch = new byte[0];
+
     /**
      * Flag indicating whether the input stream has ended.
      * Used to determine when processing is complete and cleanup can occur.
@@ -88,9 +178,9 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
     /**
      * Sets the volume scaling factor to be applied to audio samples.
      *
-     * <p>This method is thread-safe and can be called from any thread while audio
+     * <p>This method is thread-safe and lock-free, it can be called from any thread while audio
      * is being processed. The new volume factor will be applied to subsequent
-     * audio samples. The factor is automatically clamped to the valid range.</p>
+     * audio buffers. The factor is automatically clamped to the valid range.</p>
      *
      * <p><strong>Volume Factor Guidelines:</strong></p>
      * <ul>
@@ -107,8 +197,81 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      * @see #getVolumeFactor()
      * @see #isVolumeScalingActive()
      */
-    public synchronized void setVolumeFactor(float volumeFactor) {
-        this.currentVolumeFactor = Math.max(0.0f, Math.min(volumeFactor, 1.0f));
+    public void setVolumeFactor(float volumeFactor) {
+        float volume = clampVolume(volumeFactor);
+        this.currentVolumeFactor = volume;
+        pendingRamp.set(new RampCommand(Float.NaN, volume, 0, 0, FadeCurve.LINEAR));
+    }
+
+    /**
+     * Ramps the gain linearly from its current value to {@code targetVolume} over the given number of frames.
+     *
+     * @param targetVolume The gain to reach. Will be clamped to [0.0, 1.0].
+     * @param frames       Ramp length in frames, 0 or less applies the target immediately
+     * @see #rampTo(float, long, FadeCurve)
+     */
+    public void rampTo(float targetVolume, long frames) {
+        rampTo(targetVolume, frames, FadeCurve.LINEAR);
+    }
+
+    /**
+     * Ramps the gain from its current value to {@code targetVolume} over the given number of frames.
+     *
+     * <p>The ramp is interpolated per frame on the audio thread, starting with the next processed
+     * buffer. Posting a new ramp (or calling {@link #setVolumeFactor(float)}) replaces any ramp that
+     * is still running, continuing from the gain reached so far.</p>
+     *
+     * <p>Rising ramps follow {@link FadeCurve#fadeIn(float)} and falling ones
+     * {@link FadeCurve#fadeOut(float)}, scaled to the start and target gains.</p>
+     *
+     * @param targetVolume The gain to reach. Will be clamped to [0.0, 1.0].
+     * @param frames       Ramp length in frames, 0 or less applies the target immediately
+     * @param curve        Shape of the ramp
+     * @see #rampToMillis(float, float, int, FadeCurve)
+     */
+    public void rampTo(float targetVolume, long frames, FadeCurve curve) {
+        rampInProgress = frames > 0;
+        pendingRamp.set(new RampCommand(Float.NaN, clampVolume(targetVolume), Math.max(0, frames), 0, curve));
+    }
+
+    /**
+     * Ramps the gain linearly from {@code startVolume} to {@code targetVolume} over {@code durationMs}.
+     *
+     * @see #rampToMillis(float, float, int, FadeCurve)
+     */
+    public void rampToMillis(float startVolume, float targetVolume, int durationMs) {
+        rampToMillis(startVolume, targetVolume, durationMs, FadeCurve.LINEAR);
+    }
+
+    /**
+     * Ramps the gain from {@code startVolume} to {@code targetVolume} over {@code durationMs}.
+     *
+     * <p>Duration is converted to frames on the audio thread using the configured sample rate, so
+     * the ramp can be posted before the processor has been configured. Pass {@link Float#NaN} as
+     * {@code startVolume} to continue from the current gain.</p>
+     *
+     * @param startVolume  The gain of the first ramp frame, or NaN to start from the current gain
+     * @param targetVolume The gain to reach. Will be clamped to [0.0, 1.0].
+     * @param durationMs   Ramp duration in milliseconds, 0 or less applies the target immediately
+     * @param curve        Shape of the ramp
+     * @see #rampTo(float, long, FadeCurve)
+     */
+    public void rampToMillis(float startVolume, float targetVolume, int durationMs, FadeCurve curve) {
+        float start = Float.isNaN(startVolume) ? Float.NaN : clampVolume(startVolume);
+        rampInProgress = durationMs > 0;
+        pendingRamp.set(new RampCommand(start, clampVolume(targetVolume), 0, Math.max(0, durationMs), curve));
+    }
+
+    /**
+     * Indicates whether a gain ramp is pending or still being interpolated.
+     *
+     * <p>A ramp only advances while audio is flowing through the processor, so a paused player
+     * keeps its ramp in progress.</p>
+     *
+     * @return true if the last posted ramp has not yet reached its target
+     */
+    public boolean isRamping() {
+        return rampInProgress || pendingRamp.get() != null;
     }
 
     /**
@@ -121,7 +284,7 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      * @see #setVolumeFactor(float)
      * @see #isVolumeScalingActive()
      */
-    public synchronized float getVolumeFactor() {
+    public float getVolumeFactor() {
         return currentVolumeFactor;
     }
 
@@ -135,7 +298,7 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      *
      * <p><strong>Supported Formats:</strong></p>
      * <ul>
-     *   <li>Encoding: PCM_16BIT (preferred for volume scaling)</li>
+     *   <li>Encoding: PCM_16BIT, PCM_24BIT, PCM_32BIT or PCM_FLOAT</li>
      *   <li>Sample Rate: Any positive value</li>
      *   <li>Channels: Any positive count</li>
      * </ul>
@@ -166,23 +329,28 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
             return AudioFormat.NOT_SET;
         }
         // Log input format for debugging
-        Logger.d(TAG, "Configuring processor with format: " + audioFormatToString(inputAudioFormat));
+        Logger.d(TAG, () -> "Configuring processor with format: " + audioFormatToString(inputAudioFormat));
         boolean hasErrors = false;
         // Start with input format values
         int outputSampleRate = inputAudioFormat.sampleRate;
         int outputChannelCount = inputAudioFormat.channelCount;
         int outputEncoding = inputAudioFormat.encoding;
         // Check encoding - critical for volume processing
-        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT) {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            Logger.w(TAG, "Big-endian platform - processor will operate in pass-through mode.");
+            this.isPassThroughMode = true;
+            hasErrors = true;
+        } else if (!isSupportedEncoding(inputAudioFormat.encoding)) {
             Logger.w(TAG, String.format(Locale.US,
-                    "Unsupported audio encoding: %d (expected PCM_16BIT: %d). " +
+                    "Unsupported audio encoding: %d (expected 16/24/32-bit or float PCM). " +
                             "Volume scaling will be disabled - processor will operate in pass-through mode.",
-                    inputAudioFormat.encoding, C.ENCODING_PCM_16BIT));
+                    inputAudioFormat.encoding));
             this.isPassThroughMode = true;
             hasErrors = true;
         } else {
             this.isPassThroughMode = false;
         }
+        this.sampleEncoding = inputAudioFormat.encoding;
         if (inputAudioFormat.sampleRate <= 0) {
             Logger.e(TAG, String.format(Locale.US,
                     "Invalid sample rate: %d. Using default 44100 Hz.",
@@ -243,24 +411,25 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      * <p>This method performs the core volume scaling operation by:</p>
      * <ol>
      *   <li>Checking if pass-through mode is active (for unsupported formats)</li>
-     *   <li>Converting the input ByteBuffer to a ShortBuffer for 16-bit sample access</li>
-     *   <li>Multiplying each audio sample by the current volume factor</li>
-     *   <li>Storing the processed samples in the internal output buffer</li>
-     *   <li>Handling buffer allocation and management efficiently</li>
+     *   <li>Bulk copying the input bytes into a reused scratch array</li>
+     *   <li>Scaling the samples in place with the {@link PcmGainKernel} path for the input encoding</li>
+     *   <li>Bulk copying the result into the pooled output buffer</li>
      * </ol>
      *
      * <p><strong>Processing Details:</strong></p>
      * <ul>
-     *   <li>Pass-through mode: Direct copy without modification</li>
-     *   <li>Volume scaling mode: Each 16-bit PCM sample is multiplied by the volume factor</li>
-     *   <li>Results are cast back to short (16-bit) with potential clipping</li>
+     *   <li>Pass-through mode: The input buffer itself is handed over as output, it is not consumed
+     *       here but as the sink drains the output, so no copy is made and the caller can't recycle
+     *       the data before it was written</li>
+     *   <li>Volume scaling mode: Each PCM sample is multiplied by the volume factor</li>
+     *   <li>Integer results are saturated to the sample range, never wrapped</li>
      *   <li>All channels are processed equally (no channel-specific scaling)</li>
-     *   <li>Buffer allocation is optimized to reuse existing buffers when possible</li>
+     *   <li>Volume is read once per buffer from a volatile field</li>
      * </ul>
      *
      * <p><strong>Buffer Management:</strong></p>
-     * <p>The method automatically manages internal buffer allocation, growing the buffer
-     * as needed and reusing existing buffers to minimize garbage collection overhead.</p>
+     * <p>Both the scratch array and the output buffer are kept between calls and only grow
+     * when a larger input buffer arrives, so steady state playback does not allocate.</p>
      *
      * @param inputBuffer The buffer containing input audio data to process.
      *                    Must contain PCM samples in native byte order.
@@ -275,36 +444,188 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
         if (!inputBuffer.hasRemaining()) {
             return;
         }
-        // Pass-through mode: copy input directly to output without processing
+        // Pass-through mode: hand the input over as output without processing
         if (isPassThroughMode) {
-            int inputSize = inputBuffer.remaining();
-            if (internalOutputBuffer == EMPTY_BUFFER || internalOutputBuffer.capacity() < inputSize) {
-                internalOutputBuffer = ByteBuffer.allocate(inputSize).order(ByteOrder.nativeOrder());
-            } else {
-                internalOutputBuffer.clear();
+            skipRamp();
+            internalOutputBuffer = inputBuffer;
+            return;
+        }
+        int inputSize = inputBuffer.remaining();
+        ByteBuffer outputBuffer = obtainOutputBuffer(inputSize);
+        byte[] samples = obtainScratch(inputSize);
+        inputBuffer.get(samples, 0, inputSize);
+        applyGain(samples, inputSize);
+        outputBuffer.put(samples, 0, inputSize);
+        outputBuffer.flip();
+        internalOutputBuffer = outputBuffer;
+    }
+
+    /**
+     * Applies the pending gain command (if any) and the current gain or ramp to the samples.
+     * Runs on the audio thread.
+     */
+    private void applyGain(byte[] samples, int length) {
+        RampCommand command = pendingRamp.getAndSet(null);
+        if (command != null) {
+            startRamp(command);
+        }
+        int channels = inputAudioFormat.channelCount;
+        int frames = inputAudioFormat.bytesPerFrame > 0 ? length / inputAudioFormat.bytesPerFrame : 0;
+        if (rampFramesRemaining > 0 && frames > 0) {
+            float[] gains = obtainFrameGains(frames);
+            int rampFrames = (int) Math.min(rampFramesRemaining, frames);
+            float[] table = rampTable;
+            float position = rampPosition;
+            float gain = appliedGain;
+            for (int frame = 0; frame < rampFrames; frame++) {
+                position += rampPositionStep;
+                int index = Math.min(FadeCurve.TABLE_SIZE, (int) (position + 0.5f));
+                gain = rampBase + rampSpan * table[rampIndexOffset + rampIndexDirection * index];
+                gains[frame] = gain;
             }
-            // Direct copy without volume scaling
-            internalOutputBuffer.put(inputBuffer);
-            internalOutputBuffer.flip();
-        } else {
-            // Normal volume scaling processing
-            int inputSize = inputBuffer.remaining();
-            if (internalOutputBuffer == EMPTY_BUFFER || internalOutputBuffer.capacity() < inputSize) {
-                internalOutputBuffer = ByteBuffer.allocate(inputSize).order(ByteOrder.nativeOrder());
-            } else {
-                internalOutputBuffer.clear();
+            rampPosition = position;
+            rampFramesRemaining -= rampFrames;
+            if (rampFramesRemaining == 0) {
+                gain = rampTarget;
+                rampInProgress = pendingRamp.get() != null;
             }
-            ShortBuffer inputShortBuffer = inputBuffer.asShortBuffer();
-            ShortBuffer outputShortBuffer = internalOutputBuffer.asShortBuffer();
-            float volume = getVolumeFactor();
-            while (inputShortBuffer.hasRemaining()) {
-                short pcmSample = inputShortBuffer.get();
-                short processedSample = (short) (pcmSample * volume);
-                outputShortBuffer.put(processedSample);
+            for (int frame = rampFrames; frame < frames; frame++) {
+                gains[frame] = gain;
             }
-            internalOutputBuffer.position(outputShortBuffer.position() * 2); // Each short is 2 bytes
-            inputBuffer.position(inputBuffer.limit());
+            appliedGain = gain;
+            scaleFrames(samples, frames, channels, gains);
+        } else {
+            scaleAll(samples, length, appliedGain);
+        }
+        currentVolumeFactor = appliedGain;
+    }
+
+    /**
+     * Dispatches constant gain scaling to the kernel path for the configured encoding.
+     */
+    private void scaleAll(byte[] samples, int length, float gain) {
+        switch (sampleEncoding) {
+            case C.ENCODING_PCM_24BIT:
+                PcmGainKernel.scalePcm24(samples, length, gain);
+                break;
+            case C.ENCODING_PCM_32BIT:
+                PcmGainKernel.scalePcm32(samples, length, gain);
+                break;
+            case C.ENCODING_PCM_FLOAT:
+                PcmGainKernel.scaleFloat(samples, length, gain);
+                break;
+            default:
+                PcmGainKernel.scalePcm16(samples, length, gain);
+        }
+    }
+
+    /**
+     * Dispatches per-frame gain scaling to the kernel path for the configured encoding.
+     */
+    private void scaleFrames(byte[] samples, int frames, int channels, float[] gains) {
+        switch (sampleEncoding) {
+            case C.ENCODING_PCM_24BIT:
+                PcmGainKernel.scalePcm24(samples, frames, channels, gains);
+                break;
+            case C.ENCODING_PCM_32BIT:
+                PcmGainKernel.scalePcm32(samples, frames, channels, gains);
+                break;
+            case C.ENCODING_PCM_FLOAT:
+                PcmGainKernel.scaleFloat(samples, frames, channels, gains);
+                break;
+            default:
+                PcmGainKernel.scalePcm16(samples, frames, channels, gains);
+        }
+    }
+
+    private static boolean isSupportedEncoding(int encoding) {
+        return encoding == C.ENCODING_PCM_16BIT
+                || encoding == C.ENCODING_PCM_24BIT
+                || encoding == C.ENCODING_PCM_32BIT
+                || encoding == C.ENCODING_PCM_FLOAT;
+    }
+
+    /**
+     * Starts interpolating towards the command target. Runs on the audio thread.
+     */
+    private void startRamp(RampCommand command) {
+        if (!Float.isNaN(command.startGain)) {
+            appliedGain = command.startGain;
+        }
+        long frames = command.frames;
+        if (command.durationMs > 0 && inputAudioFormat.sampleRate > 0) {
+            frames = (long) command.durationMs * inputAudioFormat.sampleRate / 1000;
+        }
+        rampTarget = command.targetGain;
+        if (frames <= 0) {
+            appliedGain = rampTarget;
+            rampFramesRemaining = 0;
+            rampInProgress = pendingRamp.get() != null;
+        } else {
+            boolean rising = rampTarget >= appliedGain;
+            rampBase = Math.min(appliedGain, rampTarget);
+            rampSpan = Math.abs(rampTarget - appliedGain);
+            rampTable = command.curve.table;
+            rampIndexOffset = rising ? 0 : FadeCurve.TABLE_SIZE;
+            rampIndexDirection = rising ? 1 : -1;
+            rampPosition = 0f;
+            rampPositionStep = (float) FadeCurve.TABLE_SIZE / frames;
+            rampFramesRemaining = frames;
+            rampInProgress = true;
+        }
+    }
+
+    /**
+     * Jumps straight to the target of any pending or running ramp, used when samples can't be scaled
+     * so callers waiting for the ramp are not blocked. Runs on the audio thread.
+     */
+    private void skipRamp() {
+        RampCommand command = pendingRamp.getAndSet(null);
+        if (command != null) {
+            rampTarget = command.targetGain;
+        }
+        if (command != null || rampFramesRemaining > 0) {
+            appliedGain = rampTarget;
+            rampFramesRemaining = 0;
+            rampInProgress = false;
+            currentVolumeFactor = appliedGain;
+        }
+    }
+
+    /**
+     * Returns the per-frame gain array, growing it only if it can't hold {@code frames} entries.
+     */
+    private float[] obtainFrameGains(int frames) {
+        if (frameGains.length < frames) {
+            frameGains = new float[frames];
+        }
+        return frameGains;
+    }
+
+    private static float clampVolume(float volume) {
+        return Math.max(0.0f, Math.min(volume, 1.0f));
+    }
+
+    /**
+     * Returns the cleared pooled output buffer, growing it only if it can't hold {@code size} bytes.
+     */
+    private ByteBuffer obtainOutputBuffer(int size) {
+        if (pooledOutputBuffer.capacity() < size) {
+            pooledOutputBuffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        } else {
+            pooledOutputBuffer.clear();
         }
+        return pooledOutputBuffer;
+    }
+
+    /**
+     * Returns the scratch array, growing it only if it can't hold {@code size} bytes.
+     */
+    private byte[] obtainScratch(int size) {
+        if (sampleScratch.length < size) {
+            sampleScratch = new byte[size];
+        }
+        return sampleScratch;
     }
 
     /**
@@ -312,18 +633,19 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      *
      * <p>This method returns the internal buffer containing processed audio data
      * and resets the internal state for the next processing cycle. The returned
-     * buffer is ready for consumption by the audio sink.</p>
+     * buffer is ready for consumption by the audio sink. The underlying pooled buffer
+     * is reused by the next {@link #queueInput(ByteBuffer)} call.</p>
      *
      * <p><strong>Buffer Lifecycle:</strong></p>
      * <ol>
-     *   <li>The internal buffer is flipped to prepare for reading</li>
+     *   <li>The buffer was already prepared for reading by {@link #queueInput(ByteBuffer)}</li>
      *   <li>The buffer reference is returned to the caller</li>
      *   <li>The internal buffer reference is reset to EMPTY_BUFFER</li>
      *   <li>The caller is responsible for consuming the returned buffer</li>
      * </ol>
      *
      * <p><strong>Important:</strong> The returned buffer should be consumed
-     * immediately as the internal reference is reset after this call.</p>
+     * before queueing more input, as its content is overwritten by the next call.</p>
      *
      * @return A ByteBuffer containing processed audio data, ready for playback
      * @see #queueInput(ByteBuffer)
@@ -332,10 +654,7 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
     @NotNull
     public ByteBuffer getOutput() {
         ByteBuffer bufferToReturn = internalOutputBuffer;
-        bufferToReturn.flip();
-        if (bufferToReturn != EMPTY_BUFFER) {
-            internalOutputBuffer = EMPTY_BUFFER;
-        }
+        internalOutputBuffer = EMPTY_BUFFER;
         return bufferToReturn;
     }
 
@@ -381,10 +700,16 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
      * <ul>
      *   <li>Clearing all internal buffers (via flush)</li>
      *   <li>Resetting audio format configuration</li>
-     *   <li>Restoring volume factor to 1.0 (original volume)</li>
      *   <li>Disabling pass-through mode</li>
      * </ul>
      *
+     * <p>Gain state (volume factor, pending and running ramps) and the pooled buffers are kept.
+     * The processor stays bound to a pooled player for its whole life, and the player resets its
+     * audio sink asynchronously whenever it is stopped. Dropping the gain here would race with the
+     * caller silencing the processor for its next use. Use
+     * {@link AudioProcessorManager#resetProcessor(VolumeScalingAudioProcessor, float)} to reset
+     * and set gain together.</p>
+     *
      * <p>After calling this method, the processor must be reconfigured
      * before it can process audio data again.</p>
      */
@@ -393,10 +718,38 @@ public class VolumeScalingAudioProcessor implements AudioProcessor {
         flush();
         inputAudioFormat = AudioFormat.NOT_SET;
         outputAudioFormat = AudioFormat.NOT_SET;
-        currentVolumeFactor = 1.0f;
+        sampleEncoding = C.ENCODING_INVALID;
         isPassThroughMode = false;
     }
 
+    /**
+     * Immutable gain command handed from caller threads to the audio thread.
+     */
+    private static final class RampCommand {
+        /**
+         * Gain of the first ramp frame, NaN to continue from the current gain.
+         */
+        final float startGain;
+        final float targetGain;
+        /**
+         * Ramp length in frames, used when {@link #durationMs} is not set.
+         */
+        final long frames;
+        /**
+         * Ramp length in milliseconds, converted to frames once the sample rate is known.
+         */
+        final int durationMs;
+        final FadeCurve curve;
+
+        RampCommand(float startGain, float targetGain, long frames, int durationMs, FadeCurve curve) {
+            this.startGain = startGain;
+            this.targetGain = targetGain;
+            this.frames = frames;
+            this.durationMs = durationMs;
+            this.curve = curve != null ? curve : FadeCurve.LINEAR;
+        }
+    }
+
     /**
      * Converts an AudioFormat to a string representation for debugging.
      *
@@ -0,0 +1,94 @@
+package pl.qprogramming.themplay.playlist;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import pl.qprogramming.themplay.domain.Playlist;
+
+/**
+ * Event posted through {@link EventBus}.
+ * <p>
+ * Event describes what it's about with ids and names copied when it's created, so subscribers see state from
+ * the moment event was posted, no matter what sender does with its entities afterwards. Only events which pass
+ * freshly loaded playlist to the player carry the entity itself, see {@link #handOver(EventType, Playlist)}.
+ */
+@Getter
+@Builder
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Event {
+    private final EventType type;
+    /**
+     * Id of playlist event is about, null if there is none
+     */
+    private final Long playlistId;
+    /**
+     * Name of playlist event is about, null if there is none
+     */
+    private final String playlistName;
+    /**
+     * Id of song event is about, null if there is none
+     */
+    private final Long songId;
+    /**
+     * File name of song event is about, null if there is none
+     */
+    private final String songFilename;
+    /**
+     * Name of preset event is about, null if there is none
+     */
+    private final String presetName;
+    /**
+     * Position of playlist or preset on its list, -1 if not known
+     */
+    @Builder.Default
+    private final int position = -1;
+    /**
+     * Playlist handed over to receiver, null unless event was created with {@link #handOver(EventType, Playlist)}
+     */
+    @ToString.Exclude
+    private final Playlist playlist;
+
+    /**
+     * @return event without payload
+     */
+    public static Event of(EventType type) {
+        return builder().type(type).build();
+    }
+
+    /**
+     * @return event with position of item it's about
+     */
+    public static Event of(EventType type, int position) {
+        return builder().type(type).position(position).build();
+    }
+
+    /**
+     * @return event about playlist, placed on its position
+     */
+    public static Event of(EventType type, Playlist playlist) {
+        return about(playlist).type(type).build();
+    }
+
+    /**
+     * Event passing playlist entity itself to receiver, which takes it over (e.g. player making it active one).
+     * Sender must not touch the playlist after posting it.
+     *
+     * @return event about playlist, carrying the playlist
+     */
+    public static Event handOver(EventType type, Playlist playlist) {
+        return about(playlist).type(type).playlist(playlist).build();
+    }
+
+    /**
+     * @return builder with id, name and position of playlist already set
+     */
+    public static EventBuilder about(Playlist playlist) {
+        return builder()
+                .playlistId(playlist.getId())
+                .playlistName(playlist.getName())
+                .position(playlist.getPosition());
+    }
+}
@@ -0,0 +1,116 @@
+package pl.qprogramming.themplay.playlist;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * In-process bus delivering {@link Event events} to subscribers of their {@link EventType}.
+ * <p>
+ * Events can be posted from any thread and are always delivered later on the dispatching thread (main thread
+ * for {@link #get()}), in order they were posted, same as local broadcasts were. Payload is passed by reference,
+ * there are no intents, bundles or serialization involved.
+ * <p>
+ * Every delivery is recorded in {@link EventBusMetrics}: events per second, how long event waited for
+ * dispatching thread and how long its subscribers took.
+ */
+public class EventBus {
+    private static final String TAG = EventBus.class.getSimpleName();
+    /**
+     * Metrics summary is logged after every this many events
+     */
+    static final int SUMMARY_EVERY = 100;
+    private static volatile EventBus instance;
+
+    public interface Subscriber {
+        /**
+         * Called on dispatching thread
+         */
+        void onEvent(Event event);
+    }
+
+    private final Executor dispatcher;
+    private final Map<EventType, List<Subscriber>> subscribers = new EnumMap<>(EventType.class);
+    /**
+     * Only updated on dispatching thread
+     */
+    @Getter
+    private final EventBusMetrics metrics = new EventBusMetrics();
+
+    /**
+     * @param dispatcher runs deliveries, one at a time and in order
+     */
+    EventBus(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+        for (EventType type : EventType.values()) {
+            subscribers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * @return application wide bus, delivering on main thread
+     */
+    public static EventBus get() {
+        if (instance == null) {
+            synchronized (EventBus.class) {
+                if (instance == null) {
+                    val handler = new Handler(Looper.getMainLooper());
+                    instance = new EventBus(handler::post);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes to all events of given types
+     *
+     * @param subscriber receives events
+     * @param type       type of events
+     * @param more       further types of events
+     * @return disposable ending subscription, events already posted are not delivered to it anymore
+     */
+    public Disposable subscribe(Subscriber subscriber, EventType type, EventType... more) {
+        subscribers.get(type).add(subscriber);
+        for (EventType other : more) {
+            subscribers.get(other).add(subscriber);
+        }
+        return Disposables.fromAction(() -> {
+            subscribers.get(type).remove(subscriber);
+            for (EventType other : more) {
+                subscribers.get(other).remove(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Posts event to all subscribers of its type
+     */
+    public void post(Event event) {
+        val postedAt = System.nanoTime();
+        dispatcher.execute(() -> deliver(event, postedAt));
+    }
+
+    private void deliver(Event event, long postedAt) {
+        val startedAt = System.nanoTime();
+        for (Subscriber subscriber : subscribers.get(event.getType())) {
+            subscriber.onEvent(event);
+        }
+        val finishedAt = System.nanoTime();
+        metrics.record(startedAt - postedAt, finishedAt - startedAt, finishedAt);
+        if (metrics.getEvents() % SUMMARY_EVERY == 0) {
+            Logger.d(TAG, metrics::summary);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package pl.qprogramming.themplay.playlist;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * Collects throughput and latency of {@link EventBus}.
+ * <p>
+ * Latency is time between event being posted and its delivery starting, so it shows how long events wait
+ * in dispatching thread queue. Dispatch time is how long all subscribers of event took. Events per second
+ * is average since first event, peak is the busiest single second.
+ * Only accessed from dispatching thread.
+ */
+@Getter
+public class EventBusMetrics {
+    private static final long SECOND_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private long events;
+    private long totalLatencyNs;
+    private long maxLatencyNs;
+    private long totalDispatchNs;
+    private long maxDispatchNs;
+    private int peakEventsPerSecond;
+
+    private long firstEventAt;
+    private long lastEventAt;
+    private long secondStartedAt;
+    private int eventsThisSecond;
+
+    /**
+     * Records single delivered event
+     *
+     * @param latencyNs  time event waited for delivery
+     * @param dispatchNs time subscribers took
+     * @param nowNs      time of delivery, from {@link System#nanoTime()}
+     */
+    void record(long latencyNs, long dispatchNs, long nowNs) {
+        if (events == 0) {
+            firstEventAt = nowNs;
+            secondStartedAt = nowNs;
+        }
+        events++;
+        lastEventAt = nowNs;
+        totalLatencyNs += latencyNs;
+        maxLatencyNs = Math.max(maxLatencyNs, latencyNs);
+        totalDispatchNs += dispatchNs;
+        maxDispatchNs = Math.max(maxDispatchNs, dispatchNs);
+        if (nowNs - secondStartedAt >= SECOND_NS) {
+            secondStartedAt = nowNs;
+            eventsThisSecond = 0;
+        }
+        eventsThisSecond++;
+        peakEventsPerSecond = Math.max(peakEventsPerSecond, eventsThisSecond);
+    }
+
+    /**
+     * @return average events per second since first event, all events if less than a second passed
+     */
+    public double getEventsPerSecond() {
+        long elapsedNs = lastEventAt - firstEventAt;
+        return elapsedNs < SECOND_NS ? events : events * (double) SECOND_NS / elapsedNs;
+    }
+
+    /**
+     * @return average delivery latency in microseconds, 0 if there were no events yet
+     */
+    public long getAverageLatencyUs() {
+        return events == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLatencyNs / events);
+    }
+
+    /**
+     * @return average time subscribers took in microseconds, 0 if there were no events yet
+     */
+    public long getAverageDispatchUs() {
+        return events == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalDispatchNs / events);
+    }
+
+    /**
+     * @return human readable summary of all delivered events
+     */
+    public String summary() {
+        return String.format(Locale.US, "Events: %d, %.1f/s (peak %d/s), avg latency: %d us, max latency: %d us, avg dispatch: %d us, max dispatch: %d us",
+                events, getEventsPerSecond(), peakEventsPerSecond, getAverageLatencyUs(), TimeUnit.NANOSECONDS.toMicros(maxLatencyNs),
+                getAverageDispatchUs(), TimeUnit.NANOSECONDS.toMicros(maxDispatchNs));
+    }
+}
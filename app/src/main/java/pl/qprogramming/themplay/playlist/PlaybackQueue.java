@@ -0,0 +1,202 @@
+package pl.qprogramming.themplay.playlist;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pl.qprogramming.themplay.domain.Song;
+
+/**
+ * Ordered (shuffled or not) sequence of songs to be played, with a cursor pointing at the current one.
+ * <p>
+ * Position is tracked as plain index, so moving to next or previous song is O(1) and duplicated songs
+ * can't confuse it. Songs can be located by id in O(1) through an id to index map, pointing to the
+ * first occurrence of each id.
+ */
+public class PlaybackQueue implements Serializable {
+    /**
+     * Cursor value when no song is current
+     */
+    public static final int NO_SONG = -1;
+
+    private final List<Song> songs;
+    private final List<Song> songsView;
+    private final Map<Long, Integer> indexById = new HashMap<>();
+    private int cursor = NO_SONG;
+
+    /**
+     * @param songs songs in playback order, null entries are skipped
+     */
+    public PlaybackQueue(List<Song> songs) {
+        this.songs = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            if (song != null) {
+                this.songs.add(song);
+            }
+        }
+        this.songsView = Collections.unmodifiableList(this.songs);
+        rebuildIndex();
+    }
+
+    /**
+     * @return read only view of songs in playback order
+     */
+    public List<Song> getSongs() {
+        return songsView;
+    }
+
+    public int size() {
+        return songs.size();
+    }
+
+    public boolean isEmpty() {
+        return songs.isEmpty();
+    }
+
+    /**
+     * @return index of current song or {@link #NO_SONG}
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return current song or null if there is none
+     */
+    public Song current() {
+        return cursor >= 0 && cursor < songs.size() ? songs.get(cursor) : null;
+    }
+
+    /**
+     * @return true if there is a song after current one
+     */
+    public boolean hasNext() {
+        return cursor + 1 < songs.size();
+    }
+
+    /**
+     * @return song after current one without moving cursor, null if current song is last
+     */
+    public Song peekNext() {
+        return hasNext() ? songs.get(cursor + 1) : null;
+    }
+
+    /**
+     * Moves cursor to next song
+     *
+     * @return new current song, null if current song was the last one (cursor stays)
+     */
+    public Song next() {
+        if (!hasNext()) {
+            return null;
+        }
+        cursor++;
+        return songs.get(cursor);
+    }
+
+    /**
+     * Moves cursor to previous song, wrapping around to the last one
+     *
+     * @return new current song or null if queue is empty
+     */
+    public Song previous() {
+        if (songs.isEmpty()) {
+            return null;
+        }
+        cursor = cursor <= 0 ? songs.size() - 1 : cursor - 1;
+        return songs.get(cursor);
+    }
+
+    /**
+     * Moves cursor to given index
+     *
+     * @param index new cursor position
+     * @return true if index was within queue
+     */
+    public boolean moveTo(int index) {
+        if (index < 0 || index >= songs.size()) {
+            return false;
+        }
+        cursor = index;
+        return true;
+    }
+
+    /**
+     * Moves cursor to given index, only if song with given id is there
+     *
+     * @param index  new cursor position
+     * @param songId id of song expected at index
+     * @return true if cursor was moved
+     */
+    public boolean moveTo(int index, Long songId) {
+        if (songId == null || index < 0 || index >= songs.size() || !songId.equals(songs.get(index).getId())) {
+            return false;
+        }
+        cursor = index;
+        return true;
+    }
+
+    /**
+     * Moves cursor to first occurrence of song with given id
+     *
+     * @param songId id of song
+     * @return true if song was found
+     */
+    public boolean moveToId(Long songId) {
+        int index = indexOf(songId);
+        if (index == NO_SONG) {
+            return false;
+        }
+        cursor = index;
+        return true;
+    }
+
+    /**
+     * @param songId id of song
+     * @return index of first occurrence of song or {@link #NO_SONG}
+     */
+    public int indexOf(Long songId) {
+        if (songId == null) {
+            return NO_SONG;
+        }
+        Integer index = indexById.get(songId);
+        return index == null ? NO_SONG : index;
+    }
+
+    /**
+     * Removes all occurrences of song from queue. Cursor is moved back for every removed song
+     * at or before it, so {@link #next()} continues with the song which followed the removed one.
+     *
+     * @param song song to remove
+     * @return true if anything was removed
+     */
+    public boolean remove(Song song) {
+        if (song == null || indexOf(song.getId()) == NO_SONG) {
+            return false;
+        }
+        boolean removed = false;
+        for (int i = songs.size() - 1; i >= 0; i--) {
+            if (song.equals(songs.get(i))) {
+                songs.remove(i);
+                if (i <= cursor) {
+                    cursor--;
+                }
+                removed = true;
+            }
+        }
+        if (removed) {
+            rebuildIndex();
+        }
+        return removed;
+    }
+
+    private void rebuildIndex() {
+        indexById.clear();
+        for (int i = 0; i < songs.size(); i++) {
+            indexById.putIfAbsent(songs.get(i).getId(), i);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package pl.qprogramming.themplay.playlist;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Write-behind buffer for playback state: song positions and playlist cursors (current song and its queue index).
+ * <p>
+ * Every change is only remembered in memory, later changes of the same song or playlist replace earlier ones.
+ * All pending changes are written in one transaction, {@link #FLUSH_DELAY_MS} after the first unwritten change,
+ * or straight away once {@link #MAX_PENDING} entities are waiting. That bounds how much progress can be lost on crash
+ * to {@link #FLUSH_DELAY_MS}. Owners should also {@link #flush()} when they are destroyed or low on memory,
+ * and before reading playback state back from database.
+ * <p>
+ * Changes can be recorded from any thread, writes are serialised.
+ */
+public class PlaybackStateBuffer {
+    private static final String TAG = PlaybackStateBuffer.class.getSimpleName();
+
+    static final long FLUSH_DELAY_MS = 2000;
+    static final int MAX_PENDING = 64;
+
+    /**
+     * Persists buffered state
+     */
+    public interface Writer {
+        /**
+         * Writes all changes in single transaction. Called on background thread
+         *
+         * @param songPositions song id to playback position in milliseconds
+         * @param cursors       playlist id to its cursor
+         */
+        void write(Map<Long, Integer> songPositions, Map<Long, Cursor> cursors);
+    }
+
+    /**
+     * Current song of playlist together with its position in playback queue
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Cursor {
+        private final Long songId;
+        private final int index;
+    }
+
+    private final Writer writer;
+    private final Scheduler scheduler;
+    private final Object lock = new Object();
+    private final Object writeLock = new Object();
+
+    private Map<Long, Integer> songPositions = new HashMap<>();
+    private Map<Long, Cursor> cursors = new HashMap<>();
+    private Disposable scheduledFlush;
+
+    private long recorded;
+    private long written;
+    private long transactions;
+
+    public PlaybackStateBuffer(Writer writer, Scheduler scheduler) {
+        this.writer = writer;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param songId   song identifier
+     * @param position playback position in milliseconds
+     */
+    public void recordSongPosition(long songId, int position) {
+        synchronized (lock) {
+            songPositions.put(songId, position);
+            recorded++;
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * @param playlistId playlist identifier
+     * @param songId     current song of playlist, may be null
+     * @param index      position of current song in playback queue
+     */
+    public void recordCursor(long playlistId, Long songId, int index) {
+        synchronized (lock) {
+            cursors.put(playlistId, new Cursor(songId, index));
+            recorded++;
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Drops pending changes referencing removed songs: their positions and cursors pointing at them.
+     * Otherwise a later flush would write removed song back as current one of its playlist
+     *
+     * @param songIds ids of removed songs
+     */
+    public void forgetSongs(Collection<Long> songIds) {
+        synchronized (lock) {
+            songPositions.keySet().removeAll(songIds);
+            cursors.values().removeIf(cursor -> cursor.getSongId() != null && songIds.contains(cursor.getSongId()));
+        }
+    }
+
+    /**
+     * @return completable writing all changes recorded so far, runs on buffer scheduler
+     */
+    public Completable flush() {
+        return Completable.fromAction(this::flushNow).subscribeOn(scheduler);
+    }
+
+    /**
+     * @return number of entities waiting to be written
+     */
+    public int pendingCount() {
+        synchronized (lock) {
+            return songPositions.size() + cursors.size();
+        }
+    }
+
+    /**
+     * @return human readable summary of coalescing
+     */
+    public String summary() {
+        synchronized (lock) {
+            return String.format(Locale.US, "Playback state: recorded %d changes, written %d in %d transactions",
+                    recorded, written, transactions);
+        }
+    }
+
+    /**
+     * Writes all pending changes on calling thread
+     */
+    void flushNow() {
+        synchronized (writeLock) {
+            Map<Long, Integer> positionsToWrite;
+            Map<Long, Cursor> cursorsToWrite;
+            synchronized (lock) {
+                // flush which was scheduled, if still pending, will find nothing to write
+                scheduledFlush = null;
+                if (songPositions.isEmpty() && cursors.isEmpty()) {
+                    return;
+                }
+                positionsToWrite = songPositions;
+                cursorsToWrite = cursors;
+                songPositions = new HashMap<>();
+                cursors = new HashMap<>();
+            }
+            try {
+                writer.write(positionsToWrite, cursorsToWrite);
+                synchronized (lock) {
+                    written += positionsToWrite.size() + cursorsToWrite.size();
+                    transactions++;
+                }
+                Logger.d(TAG, this::summary);
+            } catch (RuntimeException e) {
+                Logger.e(TAG, "Failed to write playback state, keeping it for next flush", e);
+                synchronized (lock) {
+                    positionsToWrite.forEach(songPositions::putIfAbsent);
+                    cursorsToWrite.forEach(cursors::putIfAbsent);
+                    scheduleFlush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called with lock held
+     */
+    private void scheduleFlush() {
+        val pending = songPositions.size() + cursors.size();
+        if (pending == MAX_PENDING) {
+            scheduledFlush = scheduler.scheduleDirect(this::flushNow);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = scheduler.scheduleDirect(this::flushNow, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -3,31 +3,31 @@ package pl.qprogramming.themplay.playlist;
 import static androidx.preference.PreferenceManager.getDefaultSharedPreferences;
 import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE;
 import static pl.qprogramming.themplay.settings.Property.COPY_PLAYLIST;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.PLAYLIST;
-import static pl.qprogramming.themplay.util.Utils.POSITION;
 import static pl.qprogramming.themplay.util.Utils.createPlaylist;
 import static pl.qprogramming.themplay.util.Utils.isEmpty;
 
 import android.app.Service;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Binder;
-import android.os.Bundle;
 import android.os.IBinder;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
@@ -39,8 +39,12 @@ import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.db.ThemplayDatabase;
 import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.PlaylistPosition;
+import pl.qprogramming.themplay.domain.PlaylistSummary;
 import pl.qprogramming.themplay.domain.Preset;
 import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongSearchHit;
+import pl.qprogramming.themplay.image.ImageStore;
 import pl.qprogramming.themplay.logger.Logger;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNameExistsException;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNotFoundException;
@@ -48,15 +52,20 @@ import pl.qprogramming.themplay.preset.exceptions.PresetAlreadyExistsException;
 import pl.qprogramming.themplay.repository.PlaylistRepository;
 import pl.qprogramming.themplay.repository.PresetRepository;
 import pl.qprogramming.themplay.repository.SongRepository;
+import pl.qprogramming.themplay.settings.AppSettings;
 import pl.qprogramming.themplay.settings.Property;
 import pl.qprogramming.themplay.util.RxSchedulers;
 
 public class PlaylistService extends Service {
     private final CompositeDisposable disposables = new CompositeDisposable();
     private static final String TAG = PlaylistService.class.getSimpleName();
+    public static final int SEARCH_LIMIT = 50;
     private PlaylistRepository playlistRepository;
     private SongRepository songRepository;
     private PresetRepository presetRepository;
+    private PlaybackStateBuffer playbackState;
+    private SongImporter songImporter;
+    private SongMetadataProber metadataProber;
     private final IBinder mBinder = new LocalBinder();
 
     @Override
@@ -66,6 +75,27 @@ public class PlaylistService extends Service {
         playlistRepository = database.playlistRepository();
         songRepository = database.songRepository();
         presetRepository = database.presetRepository();
+        playbackState = new PlaybackStateBuffer((songPositions, cursors) -> database.runInTransaction(() -> {
+            songPositions.forEach(songRepository::updatePosition);
+            cursors.forEach((playlistId, cursor) -> playlistRepository.updateCursor(playlistId, cursor.getSongId(), cursor.getIndex()));
+        }), Schedulers.io());
+        songImporter = new SongImporter(SongImporter.contentResolver(getContentResolver()), songRepository, Schedulers.io());
+        metadataProber = new SongMetadataProber(SongMetadataProber.mediaExtractor(getApplicationContext()), songRepository, Schedulers.io());
+        probeSongMetadata();
+        disposables.add(removeUnusedImages().subscribeOn(Schedulers.io()).subscribe());
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        flushPlaybackState();
+    }
+
+    @Override
+    public void onDestroy() {
+        flushPlaybackState();
+        Logger.d(TAG, playbackState::summary);
+        super.onDestroy();
     }
 
     @Nullable
@@ -160,6 +190,49 @@ public class PlaylistService extends Service {
                         onError::accept));
     }
 
+    /**
+     * Observes summaries of all playlists for currently selected preset, ordered by position.
+     * New list is emitted on main thread whenever playlists or songs change in database,
+     * so screens don't have to reload after every event. Preset is read once, upon subscription.
+     *
+     * @return stream of playlist summaries
+     */
+    public Flowable<List<PlaylistSummary>> observeSummariesByPresetName() {
+        val sp = getDefaultSharedPreferences(this);
+        val currentPresetName = sp.getString(Property.CURRENT_PRESET, null);
+        return playlistRepository.observeSummariesByPreset(currentPresetName)
+                .compose(RxSchedulers.flowableOnMain());
+    }
+
+    /**
+     * Observes songs of playlist. New list is emitted on main thread whenever songs change in database
+     *
+     * @param playlistId identifier of playlist
+     * @return stream of songs ordered by file name
+     */
+    public Flowable<List<Song>> observeSongs(long playlistId) {
+        return songRepository.observeSongsForPlaylist(playlistId)
+                .compose(RxSchedulers.flowableOnMain());
+    }
+
+    /**
+     * Searches songs of all presets by file name and playlist name, using full-text index.
+     * Every word of text is matched as prefix, best ranked hits come first
+     *
+     * @param text text typed by user
+     * @return at most {@link #SEARCH_LIMIT} hits, emitted on main thread
+     */
+    public Single<List<SongSearchHit>> searchSongs(String text) {
+        return Single.fromCallable(() -> {
+                    val start = System.nanoTime();
+                    val hits = songRepository.search(text, SEARCH_LIMIT);
+                    Logger.d(TAG, "Search for '" + text + "' found " + hits.size() + " songs in "
+                            + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) + " us");
+                    return hits;
+                })
+                .compose(RxSchedulers.singleOnMain());
+    }
+
     /**
      * Find playlist by ID . If it's present , load all songs from that playlist
      *
@@ -309,6 +382,39 @@ public class PlaylistService extends Service {
         disposables.add(updateTask);
     }
 
+    /**
+     * Stores new background of playlist, saves playlist and removes images no longer in use, all in background
+     *
+     * @param playlist        playlist which background is changed
+     * @param image           encoded image, null removes background
+     * @param onPlaylistSaved callback with saved playlist
+     * @param onError         callback when error occurs
+     */
+    public void changeBackground(Playlist playlist, @Nullable byte[] image, Consumer<Playlist> onPlaylistSaved, Consumer<Throwable> onError) {
+        val imageStore = ImageStore.get(this);
+        disposables.add(Completable.fromAction(() -> playlist.setBackgroundRef(image == null ? null : imageStore.put(image)))
+                .andThen(Completable.defer(() -> playlistRepository.update(playlist)))
+                .andThen(removeUnusedImages())
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> {
+                    Logger.d(TAG, "Background of playlist {} changed", playlist.getName());
+                    onPlaylistSaved.accept(playlist);
+                }, throwable -> {
+                    Logger.e(TAG, "Error changing background of playlist " + playlist.getName(), throwable);
+                    onError.accept(throwable);
+                }));
+    }
+
+    /**
+     * Removes background images no playlist references anymore, errors are only logged
+     */
+    private Completable removeUnusedImages() {
+        return Completable.fromAction(() -> ImageStore.get(this).sweep(playlistRepository.findBackgroundRefs()))
+                .doOnError(throwable -> Logger.e(TAG, "Error removing unused images", throwable))
+                .onErrorComplete();
+    }
+
     /**
      * Creates new playlist and saves it to database
      *
@@ -349,56 +455,58 @@ public class PlaylistService extends Service {
     }
 
     /**
-     * Adds new song into playlist
+     * Imports picked files as songs of playlist, in background.
+     * Once import is done, in-memory playlist gets imported songs and its new song count
      *
-     * @param playlist      playlists which will have new song added
-     * @param songsToInsert list of song to be added
+     * @param playlist          playlists which will have new songs added
+     * @param uris              picked files
+     * @param onProgress        receives progress after every batch of resolved files, on main thread
+     * @param onPlaylistUpdated callback with updated playlist once all songs are inserted
      */
-    public void addSongToPlaylist(Playlist playlist, List<Song> songsToInsert,
-                                  Consumer<Playlist> onPlaylistUpdated) {
-        val playlistId = playlist.getId();
-        for (int i = 0; i < songsToInsert.size(); i++) {
-            songsToInsert.get(i).setPlaylistOwnerId(playlistId);
-        }
+    public void importSongs(Playlist playlist, List<Uri> uris,
+                            Consumer<SongImporter.Progress> onProgress,
+                            Consumer<Playlist> onPlaylistUpdated) {
         disposables.add(
-                songRepository.createAll(songsToInsert)
-                        .subscribeOn(Schedulers.io())
-                        .flatMap(insertedSongIds -> {
-                            Logger.d(TAG, "Songs inserted. Received " + insertedSongIds.size() + " IDs.");
-                            if (insertedSongIds.size() != songsToInsert.size()) {
-                                Logger.w(TAG, "Mismatch between songs to insert and returned IDs count.");
-                            }
-                            for (int i = 0; i < songsToInsert.size() && i < insertedSongIds.size(); i++) {
-                                songsToInsert.get(i).setId(insertedSongIds.get(i));
-                            }
-                            return songRepository.getSongCountForSpecificPlaylist(playlistId)
-                                    .subscribeOn(Schedulers.io())
-                                    .flatMap(count -> {
-                                        // Update the in-memory playlist object
-                                        playlist.setSongCount(count);
+                songImporter.importSongs(playlist.getId(), uris)
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                progress -> {
+                                    onProgress.accept(progress);
+                                    if (progress.isDone()) {
                                         if (playlist.getSongs() == null) {
                                             playlist.setSongs(new ArrayList<>());
                                         }
-                                        playlist.getSongs().addAll(songsToInsert);
+                                        playlist.getSongs().addAll(progress.getImported());
+                                        playlist.setSongCount(progress.getSongCount());
                                         playlist.setUpdatedAt(new Date());
-                                        return playlistRepository
-                                                .updateSongCountForPlaylist(playlistId, count)
-                                                .subscribeOn(Schedulers.io())
-                                                .toSingleDefault(playlist);
-                                    });
-                        })
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(
-                                updatedPl -> {
-                                    Logger.d(TAG, "Playlist update successful in service. Passing to UI callback.");
-                                    onPlaylistUpdated.accept(playlist);
-                                    Toast.makeText(this, R.string.playlist_added_new_songs, Toast.LENGTH_SHORT).show();
+                                        onPlaylistUpdated.accept(playlist);
+                                        if (!progress.getImported().isEmpty()) {
+                                            Toast.makeText(this, R.string.playlist_added_new_songs, Toast.LENGTH_SHORT).show();
+                                        }
+                                        if (progress.getSkipped() > 0) {
+                                            val msg = MessageFormat.format(getString(R.string.playlist_songs_skipped), progress.getSkipped());
+                                            Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
+                                        }
+                                        probeSongMetadata();
+                                    }
                                 },
-                                throwable -> Logger.e(TAG, "Error in addSongToPlaylist RxJava chain", throwable)
+                                throwable -> {
+                                    Logger.e(TAG, "Error importing songs into playlist " + playlist.getId(), throwable);
+                                    Toast.makeText(this, R.string.playlist_add_songs_error, Toast.LENGTH_SHORT).show();
+                                }
                         )
         );
     }
 
+    /**
+     * Reads duration and audio format of all songs which don't have it yet, in background
+     */
+    private void probeSongMetadata() {
+        disposables.add(metadataProber.probePending()
+                .subscribe(() -> {
+                }, throwable -> Logger.e(TAG, "Error probing song metadata", throwable)));
+    }
+
     /**
      * Removes songs from playlist . First updates playlist and then removes, then goes through ids of songs to be deleted
      * Those songs will be deleted from database, afterwards playlist will be updated with count of songs
@@ -433,8 +541,35 @@ public class PlaylistService extends Service {
             final Consumer<Playlist> onSuccessCallback,
             final Consumer<Throwable> onErrorCallback,
             Action onCompleteCallback) {
-        Logger.d(TAG, "Removing " + songsToRemove.size() + " songs from playlist ID: " + playlistId);
-        Single<Playlist> updateOperation = Single.defer(() -> playlistRepository.findOneById(playlistId)
+        val songIds = songsToRemove.stream()
+                .map(Song::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        removeSongIdsFromPlaylist(playlistId, songIds, onSuccessCallback, onErrorCallback, onCompleteCallback);
+    }
+
+    /**
+     * Removes single song from playlist
+     *
+     * @param playlistId        Id of playlist
+     * @param songId            Id of song to be removed
+     * @param onSuccessCallback Callback when operation is successful
+     * @param onErrorCallback   Callback when error occurs
+     * @see #removeSongsFromPlaylist(long, List, Consumer, Consumer)
+     */
+    public void removeSongFromPlaylist(long playlistId, long songId, Consumer<Playlist> onSuccessCallback, Consumer<Throwable> onErrorCallback) {
+        removeSongIdsFromPlaylist(playlistId, Collections.singletonList(songId), onSuccessCallback, onErrorCallback, () -> {/* No-op */});
+    }
+
+    private void removeSongIdsFromPlaylist(
+            final long playlistId,
+            final List<Long> idsOfSongsMarkedForRemoval,
+            final Consumer<Playlist> onSuccessCallback,
+            final Consumer<Throwable> onErrorCallback,
+            Action onCompleteCallback) {
+        Logger.d(TAG, "Removing " + idsOfSongsMarkedForRemoval.size() + " songs from playlist ID: " + playlistId);
+        // pending cursor could still point at removed song, write it before playlist is read
+        Single<Playlist> updateOperation = playbackState.flush().andThen(Single.defer(() -> playlistRepository.findOneById(playlistId)
                 .switchIfEmpty(Single.error(new PlaylistNotFoundException("Playlist with ID " + playlistId + " not found.")))
                 .flatMap(playlistFromDb ->
                         songRepository.getSongsForPlaylist(playlistFromDb.getId())
@@ -445,10 +580,6 @@ public class PlaylistService extends Service {
                                 })
                 )
                 .flatMap(currentPlaylistState -> {
-                    List<Long> idsOfSongsMarkedForRemoval = songsToRemove.stream()
-                            .map(Song::getId)
-                            .filter(Objects::nonNull)
-                            .collect(Collectors.toList());
                     if (idsOfSongsMarkedForRemoval.isEmpty()) {
                         Logger.d(TAG, "No valid song IDs to remove for " + currentPlaylistState.getName());
                         return Single.just(currentPlaylistState);
@@ -464,20 +595,21 @@ public class PlaylistService extends Service {
                     currentPlaylistState.setUpdatedAt(new Date());
                     Long currentSongId = currentPlaylistState.getCurrentSongId();
                     if (currentSongId != null && idsOfSongsMarkedForRemoval.contains(currentSongId)) {
-                        currentPlaylistState.setCurrentSongId(null);
+                        currentPlaylistState.setCurrentSong(null, PlaybackQueue.NO_SONG);
                     }
+                    playbackState.forgetSongs(idsOfSongsMarkedForRemoval);
                     Completable deleteDbSongsCompletable = songRepository.deleteSongsByIds(idsOfSongsMarkedForRemoval);
                     Completable updateDbPlaylistCompletable = playlistRepository.update(currentPlaylistState);
                     return deleteDbSongsCompletable
                             .andThen(updateDbPlaylistCompletable)
                             .andThen(Single.just(currentPlaylistState));
-                }));
+                })));
         disposables.add(
                 updateOperation
                         .compose(RxSchedulers.singleOnMain())
                         .doOnSuccess(updatedPlaylist -> {
                             Logger.i(TAG, "Successfully removed songs for " + updatedPlaylist.getName());
-                            populateAndSend(EventType.PLAYLIST_NOTIFICATION_DELETE_SONGS, updatedPlaylist);
+                            handOver(EventType.PLAYLIST_NOTIFICATION_DELETE_SONGS, updatedPlaylist);
                         })
                         .doFinally(onCompleteCallback)
                         .subscribe(
@@ -495,6 +627,7 @@ public class PlaylistService extends Service {
     public void removePreset(String presetName) {
         disposables.add(playlistRepository.deleteAllByPresetName(presetName)
                 .andThen(presetRepository.deleteByName(presetName))
+                .andThen(removeUnusedImages())
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(() -> Logger.i(TAG, "Successfully removed all playlists and preset: " + presetName),
@@ -508,26 +641,28 @@ public class PlaylistService extends Service {
      * @param removedPlaylist playlist to be removed
      */
     public void removePlaylist(Playlist removedPlaylist) {
-        Logger.d(TAG, "Removing playlist: " + removedPlaylist.getName());
-        val playlistId = removedPlaylist.getId();
+        removePlaylist(removedPlaylist.getId());
+    }
+
+    /**
+     * Removes playlist from database , reindex remaining playlists positions and notifies about removal
+     *
+     * @param playlistId id of playlist to be removed
+     */
+    public void removePlaylist(long playlistId) {
+        Logger.d(TAG, "Removing playlist ID: " + playlistId);
         val removeTask = findById(playlistId)
                 .switchIfEmpty(Single.error(new PlaylistNotFoundException("Playlist with ID " + playlistId + " not found.")))
-                .flatMap(playlist -> {
-                    val presetName = playlist.getPreset();
-                    return playlistRepository.delete(playlist)
-                            .andThen(Single.just(presetName));
-                })
-                .flatMap(this::getAllByPresetName)
-                .flatMapCompletable(playlists -> {
-                    for (int i = 0; i < playlists.size(); i++) {
-                        val playlist = playlists.get(i);
-                        playlist.setPosition(i);
-                    }
-                    return playlistRepository.updateAll(playlists);
-                })
-                .doOnComplete(() -> populateAndSend(EventType.PLAYLIST_NOTIFICATION_DELETE, removedPlaylist))
+                .flatMap(playlist -> playlistRepository.delete(playlist)
+                        .andThen(playlistRepository.findSummariesByPreset(playlist.getPreset()))
+                        .flatMapCompletable(this::reindexPositions)
+                        .andThen(removeUnusedImages())
+                        .andThen(Single.just(playlist)))
                 .subscribeOn(Schedulers.io())
-                .subscribe(() -> Logger.i(TAG, "Successfully removed playlist ID: " + playlistId + ", Name: " + removedPlaylist.getName()));
+                .subscribe(removedPlaylist -> {
+                    populateAndSend(EventType.PLAYLIST_NOTIFICATION_DELETE, removedPlaylist);
+                    Logger.i(TAG, "Successfully removed playlist ID: " + playlistId + ", Name: " + removedPlaylist.getName());
+                });
         disposables.add(removeTask);
     }
 
@@ -631,7 +766,8 @@ public class PlaylistService extends Service {
 
     /**
      * Clones all songs belonging to original playlist with id , by first grabbing them from database,
-     * making clone, clear original playlist owner id , and saving it to database
+     * making clone, clear original playlist owner id , and saving it to database.
+     * Clones share files of original songs, together with their cached metadata and content hash
      *
      * @param originalPlaylistId id of cloned playlist
      * @param savedClone         cloned playlist
@@ -694,11 +830,21 @@ public class PlaylistService extends Service {
      * @param playlist playlist to be made active
      */
     public void setActive(Playlist playlist) {
-        val playlistToActivateId = playlist.getId();
+        setActive(playlist.getId());
+    }
+
+    /**
+     * Set Playlist with given id as active
+     *
+     * @param playlistToActivateId id of playlist to be made active
+     * @see #setActive(Playlist)
+     */
+    public void setActive(long playlistToActivateId) {
         Logger.d(TAG, "Attempting to set playlist ID as active: " + playlistToActivateId);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(new Intent(EventType.OPERATION_STARTED.getCode()));
+        EventBus.get().post(Event.of(EventType.OPERATION_STARTED));
         val activeTask =
-                findActive()
+                playbackState.flush()
+                        .andThen(findActive())
                         .flatMapCompletable(activePlaylist -> {
                                     if (!activePlaylist.getId().equals(playlistToActivateId)) {
                                         activePlaylist.setActive(false);
@@ -718,20 +864,21 @@ public class PlaylistService extends Service {
                             return playlistRepository.update(updatedPlaylist)
                                     .doOnComplete(() -> {
                                         Logger.d(TAG, "Playlist set as active sending event to play");
-                                        populateAndSend(EventType.PLAYLIST_NOTIFICATION_ACTIVE, updatedPlaylist);
+                                        handOver(EventType.PLAYLIST_NOTIFICATION_ACTIVE, updatedPlaylist);
                                     });
                         })
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(() -> {
                             Logger.d(TAG, "Playlist set as active successfully.");
-                            LocalBroadcastManager.getInstance(this).sendBroadcast(new Intent(EventType.OPERATION_FINISHED.getCode()));
+                            EventBus.get().post(Event.of(EventType.OPERATION_FINISHED));
                         });
         disposables.add(activeTask);
     }
 
     public void getActiveAndLoadSongs(Consumer<Playlist> onPlaylistFound, Runnable onNoPlaylistFound) {
-        disposables.add(findActive()
+        disposables.add(playbackState.flush()
+                .andThen(findActive())
                 .doOnSuccess(playlist -> Logger.d(TAG, "Find active found: " + playlist.getName()))
                 .doOnComplete(() -> {
                     Logger.d(TAG, "findActive completed empty. Triggering onNoPlaylistFound.");
@@ -744,7 +891,7 @@ public class PlaylistService extends Service {
                 .subscribe(playlist -> {
                     Logger.d(TAG, "Active playlist loaded successfully.");
                     onPlaylistFound.accept(playlist);
-                    populateAndSend(PLAYLIST_NOTIFICATION_NEW_ACTIVE, playlist);
+                    handOver(PLAYLIST_NOTIFICATION_NEW_ACTIVE, playlist);
                 }, throwable -> {
                     if (throwable instanceof NoSuchElementException) {
                         Logger.d(TAG, "Unable to find active list");
@@ -766,33 +913,28 @@ public class PlaylistService extends Service {
     }
 
     private Single<Playlist> buildPlaylistMakeActiveAndNotify(Playlist playlist, boolean notify) {
-        val sp = getDefaultSharedPreferences(this);
-        val shuffle = sp.getBoolean(Property.SHUFFLE_MODE, true);
+        val shuffle = AppSettings.get(this).isShuffle();
         createPlaylist(playlist, shuffle);
         var currentSongId = playlist.getCurrentSongId();
         if (currentSongId == null && isEmpty(playlist.getPlaylist())) {
             if (notify) {
                 populateAndSend(EventType.PLAYLIST_NOTIFICATION_PLAY_NO_SONGS, playlist);
             }
-            LocalBroadcastManager.getInstance(this).sendBroadcast(new Intent(EventType.OPERATION_FINISHED.getCode()));
+            EventBus.get().post(Event.of(EventType.OPERATION_FINISHED));
             Logger.d(TAG, "Playlist has no songs.");
             return Single.just(playlist);
         } else if (currentSongId == null && !isEmpty(playlist.getPlaylist())) {
-            val currentSong = playlist.getPlaylist().get(0);
-            playlist.setCurrentSongId(currentSong.getId());
-            playlist.setCurrentSong(currentSong);
+            val queue = playlist.getQueue();
+            queue.moveTo(0);
+            playlist.setCurrentSong(queue.current(), queue.getCursor());
             Logger.d(TAG, "Setting current song to first in playlist");
         } else if (!isEmpty(playlist.getPlaylist())) {
-            playlist.getPlaylist()
-                    .stream()
-                    .filter(song -> song.getId().equals(currentSongId))
-                    .findFirst()
-                    .ifPresentOrElse(
-                            playlist::setCurrentSong,
-                            () -> {
-                                Logger.d(TAG, "Song with ID " + currentSongId + " not found in playlist " + playlist.getName() + ". Picking first");
-                                playlist.setCurrentSong(playlist.getPlaylist().get(0));
-                            });
+            val queue = playlist.getQueue();
+            if (!queue.moveTo(playlist.getCurrentSongIndex(), currentSongId) && !queue.moveToId(currentSongId)) {
+                Logger.d(TAG, "Song with ID " + currentSongId + " not found in playlist " + playlist.getName() + ". Picking first");
+                queue.moveTo(0);
+            }
+            playlist.setCurrentSong(queue.current(), queue.getCursor());
         }
         return Single.just(playlist);
     }
@@ -813,6 +955,29 @@ public class PlaylistService extends Service {
     }
 
 
+    /**
+     * Saves order of playlists in background. Only positions are written,
+     * so summaries can't overwrite changes made to playlists in the meantime
+     *
+     * @param summaries playlists in their new order
+     */
+    public void savePositions(List<PlaylistSummary> summaries) {
+        disposables.add(
+                reindexPositions(summaries)
+                        .subscribeOn(Schedulers.io())
+                        .subscribe(() -> Logger.d(TAG, "Successfully saved positions of " + summaries.size() + " playlists."),
+                                throwable -> Logger.e(TAG, "Error saving playlist positions", throwable))
+        );
+    }
+
+    private Completable reindexPositions(List<PlaylistSummary> summaries) {
+        val positions = new ArrayList<PlaylistPosition>(summaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            positions.add(new PlaylistPosition(summaries.get(i).getId(), i));
+        }
+        return playlistRepository.updatePositions(positions);
+    }
+
     /**
      * Save all playlists in background
      *
@@ -881,14 +1046,38 @@ public class PlaylistService extends Service {
     }
 
     /**
-     * Updates song in database in fire forget mode
+     * Saves playback position of song. Write is buffered and coalesced with other playback state changes
      *
-     * @param song song to be updated
+     * @param song song with updated position
+     * @see PlaybackStateBuffer
      */
-    public void updateSong(Song song) {
-        disposables.add(songRepository.update(song)
-                .subscribeOn(Schedulers.io())
-                .subscribe(integer -> Logger.d(TAG, "Song updated successfully: " + song.getFilename())));
+    public void saveSongPosition(Song song) {
+        if (song.getId() != null) {
+            playbackState.recordSongPosition(song.getId(), song.getCurrentPosition());
+        }
+    }
+
+    /**
+     * Saves current song of playlist and its queue index. Write is buffered and coalesced with other playback state changes
+     *
+     * @param playlist playlist with updated current song
+     * @see PlaybackStateBuffer
+     */
+    public void saveCursor(Playlist playlist) {
+        if (playlist.getId() != null) {
+            playbackState.recordCursor(playlist.getId(), playlist.getCurrentSongId(), playlist.getCurrentSongIndex());
+        }
+    }
+
+    /**
+     * Writes all buffered playback state in background.
+     * Not bound to service disposables, so it completes even if service is being destroyed
+     */
+    public void flushPlaybackState() {
+        //noinspection ResultOfMethodCallIgnored
+        playbackState.flush()
+                .subscribe(() -> Logger.d(TAG, "Playback state flushed"),
+                        throwable -> Logger.e(TAG, "Error flushing playback state", throwable));
     }
 
 
@@ -905,12 +1094,18 @@ public class PlaylistService extends Service {
      * @param playlist playlist which was changed
      */
     private void populateAndSend(EventType type, Playlist playlist) {
-        Intent intent = new Intent(type.getCode());
-        val args = new Bundle();
-        args.putSerializable(POSITION, playlist.getPosition());
-        args.putSerializable(PLAYLIST, playlist);
-        intent.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
-        Logger.d(TAG, "Playlist notification " + type.getCode() + " sent: " + playlist.getName());
+        EventBus.get().post(Event.of(type, playlist));
+        Logger.d(TAG, "Playlist notification {} sent: {}", type, playlist.getName());
+    }
+
+    /**
+     * Sends event handing playlist over to the player, playlist must not be modified afterwards
+     *
+     * @param type     type of event
+     * @param playlist loaded playlist
+     */
+    private void handOver(EventType type, Playlist playlist) {
+        EventBus.get().post(Event.handOver(type, playlist));
+        Logger.d(TAG, "Playlist {} handed over: {}", type, playlist.getName());
     }
 }
@@ -0,0 +1,183 @@
+package pl.qprogramming.themplay.playlist;
+
+import android.content.ContentResolver;
+import android.content.Intent;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.repository.SongRepository;
+
+/**
+ * Imports picked audio files into playlist in background.
+ * <p>
+ * Metadata of files (name, duration, mime type and size) is resolved in batches of {@link #BATCH_SIZE},
+ * progress is emitted after every batch. Files which can't be read or are not audio are skipped.
+ * All resolved songs are then inserted, and playlist song count updated, in single transaction.
+ * Duration known by provider is kept, rest of audio format is read later by {@link SongMetadataProber}.
+ */
+public class SongImporter {
+    private static final String TAG = SongImporter.class.getSimpleName();
+    private static final String UNKNOWN_SONG = "Unknown_Song";
+    private static final String AUDIO_MIME_PREFIX = "audio/";
+    private static final String OGG_MIME = "application/ogg";
+
+    static final int BATCH_SIZE = 50;
+
+    /**
+     * Resolves metadata of single picked file. Called on background thread
+     */
+    public interface Resolver {
+        /**
+         * @param uri picked file
+         * @return metadata of file or null if it can't be read
+         */
+        @Nullable
+        Metadata resolve(Uri uri);
+    }
+
+    /**
+     * Metadata of picked file, duration is 0 when provider doesn't know it
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Metadata {
+        private final String name;
+        private final long durationMs;
+        private final String mimeType;
+        private final long size;
+    }
+
+    /**
+     * State of running import. Imported songs are only set once import is done
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Progress {
+        private final int total;
+        private final int processed;
+        private final int skipped;
+        private final long bytes;
+        private final List<Song> imported;
+        private final int songCount;
+
+        public boolean isDone() {
+            return imported != null;
+        }
+    }
+
+    private final Resolver resolver;
+    private final SongRepository songRepository;
+    private final Scheduler scheduler;
+
+    public SongImporter(Resolver resolver, SongRepository songRepository, Scheduler scheduler) {
+        this.resolver = resolver;
+        this.songRepository = songRepository;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param playlistId playlist receiving songs
+     * @param uris       picked files
+     * @return progress after every batch, last one is done and carries imported songs. Runs on importer scheduler
+     */
+    public Observable<Progress> importSongs(long playlistId, List<Uri> uris) {
+        return Observable.<Progress>create(emitter -> {
+            val start = System.currentTimeMillis();
+            val total = uris.size();
+            List<Song> songs = new ArrayList<>(total);
+            int processed = 0;
+            int skipped = 0;
+            long bytes = 0;
+            while (processed < total) {
+                if (emitter.isDisposed()) {
+                    Logger.d(TAG, "Import cancelled after " + processed + " of " + total + " files");
+                    return;
+                }
+                val batchEnd = Math.min(processed + BATCH_SIZE, total);
+                for (Uri uri : uris.subList(processed, batchEnd)) {
+                    val metadata = resolver.resolve(uri);
+                    if (metadata == null || !isAudio(metadata.getMimeType())) {
+                        Logger.w(TAG, "Skipping " + uri);
+                        skipped++;
+                        continue;
+                    }
+                    bytes += metadata.getSize();
+                    songs.add(Song.builder()
+                            .filename(metadata.getName())
+                            .fileUri(uri.toString())
+                            .filePath(uri.getPath())
+                            .duration(metadata.getDurationMs())
+                            .build());
+                }
+                processed = batchEnd;
+                emitter.onNext(new Progress(total, processed, skipped, bytes, null, 0));
+            }
+            val songCount = songs.isEmpty() ? 0 : songRepository.insertIntoPlaylist(playlistId, songs);
+            Logger.d(TAG, "Imported " + songs.size() + " of " + total + " files (" + bytes / 1024 + " KB) in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            emitter.onNext(new Progress(total, processed, skipped, bytes, Collections.unmodifiableList(songs), songCount));
+            emitter.onComplete();
+        }).subscribeOn(scheduler);
+    }
+
+    static boolean isAudio(@Nullable String mimeType) {
+        return mimeType == null || mimeType.startsWith(AUDIO_MIME_PREFIX) || OGG_MIME.equals(mimeType);
+    }
+
+    /**
+     * Resolver reading metadata from content provider of picked file.
+     * Read permission is persisted, so that file is still readable upon app restart.
+     * Only openable columns are queried, duration is known only for media store files.
+     *
+     * @param contentResolver resolver of application context
+     * @return resolver for picked files
+     */
+    public static Resolver contentResolver(ContentResolver contentResolver) {
+        return uri -> {
+            try {
+                if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
+                    contentResolver.takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                }
+                String name = null;
+                long size = 0;
+                long duration = 0;
+                if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
+                    val mediaStore = MediaStore.AUTHORITY.equals(uri.getAuthority());
+                    val projection = mediaStore
+                            ? new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE, MediaStore.Audio.AudioColumns.DURATION}
+                            : new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE};
+                    try (val cursor = contentResolver.query(uri, projection, null, null, null)) {
+                        if (cursor != null && cursor.moveToFirst()) {
+                            name = cursor.getString(0);
+                            size = cursor.isNull(1) ? 0 : cursor.getLong(1);
+                            duration = mediaStore && !cursor.isNull(2) ? cursor.getLong(2) : 0;
+                        }
+                    }
+                }
+                if (name == null) {
+                    name = uri.getLastPathSegment() != null ? uri.getLastPathSegment() : UNKNOWN_SONG;
+                }
+                return new Metadata(name, duration, contentResolver.getType(uri), size);
+            } catch (SecurityException e) {
+                Logger.e(TAG, "Permission denial for URI: " + uri, e);
+            } catch (Exception e) {
+                Logger.e(TAG, "Error processing URI: " + uri, e);
+            }
+            return null;
+        };
+    }
+}
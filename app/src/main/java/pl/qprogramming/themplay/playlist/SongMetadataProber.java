@@ -0,0 +1,128 @@
+package pl.qprogramming.themplay.playlist;
+
+import android.content.Context;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import lombok.val;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongMetadata;
+import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.repository.SongRepository;
+
+/**
+ * Reads duration and audio format of songs from their files, once, in background.
+ * <p>
+ * Songs without encoding are probed in batches of {@link #BATCH_SIZE}, every batch is saved with one update.
+ * Only container headers are parsed, no decoder is opened. Song which can't be read gets
+ * {@link Song#UNKNOWN_ENCODING}, keeping duration it already had, so it's not probed again.
+ * Runs never overlap, probing requested while other run is active waits for it and picks up what's left.
+ */
+public class SongMetadataProber {
+    private static final String TAG = SongMetadataProber.class.getSimpleName();
+    private static final String AUDIO_MIME_PREFIX = "audio/";
+
+    static final int BATCH_SIZE = 20;
+
+    /**
+     * Reads metadata of single song. Called on background thread
+     */
+    public interface Extractor {
+        /**
+         * @param song song to read
+         * @return metadata of song or null if file can't be read
+         */
+        @Nullable
+        SongMetadata extract(Song song);
+    }
+
+    private final Extractor extractor;
+    private final SongRepository songRepository;
+    private final Scheduler scheduler;
+
+    public SongMetadataProber(Extractor extractor, SongRepository songRepository, Scheduler scheduler) {
+        this.extractor = extractor;
+        this.songRepository = songRepository;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return completable probing all songs which have no metadata yet, runs on prober scheduler
+     */
+    public Completable probePending() {
+        return Completable.fromAction(this::probeAll).subscribeOn(scheduler);
+    }
+
+    synchronized void probeAll() {
+        val start = System.currentTimeMillis();
+        int probed = 0;
+        int failed = 0;
+        List<Song> songs;
+        while (!(songs = songRepository.findWithoutMetadata(BATCH_SIZE)).isEmpty()) {
+            List<SongMetadata> batch = new ArrayList<>(songs.size());
+            for (Song song : songs) {
+                var metadata = extractor.extract(song);
+                if (metadata == null) {
+                    Logger.w(TAG, "Could not read metadata of " + song.getFilename());
+                    metadata = new SongMetadata(song.getId(), song.getDuration(), 0, 0, Song.UNKNOWN_ENCODING, 0);
+                    failed++;
+                }
+                metadata.setId(song.getId());
+                batch.add(metadata);
+            }
+            songRepository.updateMetadata(batch);
+            probed += batch.size();
+        }
+        if (probed > 0) {
+            Logger.d(TAG, "Probed metadata of " + probed + " songs (" + failed + " unreadable) in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Extractor parsing file headers with {@link MediaExtractor}, first audio track is used
+     *
+     * @param context context used to open song uris
+     * @return extractor for songs
+     */
+    public static Extractor mediaExtractor(Context context) {
+        return song -> {
+            val extractor = new MediaExtractor();
+            try {
+                extractor.setDataSource(context, Uri.parse(song.getFileUri()), null);
+                for (int i = 0; i < extractor.getTrackCount(); i++) {
+                    val format = extractor.getTrackFormat(i);
+                    val mime = format.getString(MediaFormat.KEY_MIME);
+                    if (mime != null && mime.startsWith(AUDIO_MIME_PREFIX)) {
+                        val duration = format.containsKey(MediaFormat.KEY_DURATION)
+                                ? format.getLong(MediaFormat.KEY_DURATION) / 1000
+                                : song.getDuration();
+                        return new SongMetadata(song.getId(), duration,
+                                intOrZero(format, MediaFormat.KEY_SAMPLE_RATE),
+                                intOrZero(format, MediaFormat.KEY_CHANNEL_COUNT),
+                                mime,
+                                intOrZero(format, MediaFormat.KEY_BIT_RATE));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                Logger.w(TAG, "Failed to open " + song.getFileUri() + ": " + e.getMessage());
+            } finally {
+                extractor.release();
+            }
+            return null;
+        };
+    }
+
+    private static int intOrZero(MediaFormat format, String key) {
+        return format.containsKey(key) ? format.getInteger(key) : 0;
+    }
+}
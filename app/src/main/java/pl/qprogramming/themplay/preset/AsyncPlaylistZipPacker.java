@@ -1,45 +1,91 @@
 package pl.qprogramming.themplay.preset;
 
+import android.app.AlertDialog;
+import android.content.ContentResolver;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Environment;
-import android.util.Base64;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.documentfile.provider.DocumentFile;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.zip.ZipEntry;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.zip.ZipOutputStream;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.val;
 import pl.qprogramming.themplay.R;
+import pl.qprogramming.themplay.db.ThemplayDatabase;
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongContent;
+import pl.qprogramming.themplay.image.ImageStore;
 import pl.qprogramming.themplay.logger.Logger;
 import pl.qprogramming.themplay.util.AsyncTaskExecutorService;
+import pl.qprogramming.themplay.util.ContentHash;
 
 /**
  * Async Task to save all playlists into zip file
+ * <p>
+ * By default already compressed songs are stored in zip as they are, see {@link ZipEntryWriter.Mode}.
+ * Files are read on several threads by {@link ExportEngine}, progress is shown in please wait dialog,
+ * which can also cancel the export.
+ * <p>
+ * Song file used in several playlists is packed only once, see {@link SharedContent}. Content hashes of songs
+ * are cached in database, so only new or changed files are hashed on next export
  */
-public class AsyncPlaylistZipPacker extends AsyncTaskExecutorService<Playlist, Void, ExportResult> {
+public class AsyncPlaylistZipPacker extends AsyncTaskExecutorService<Playlist, ExportEngine.Progress, ExportResult> {
     private static final String TAG = AsyncPlaylistZipPacker.class.getSimpleName();
-    private static final String BACKGROUND = "background.jpg";
+    static final String BACKGROUND = "background.jpg";
+    static final String MANIFEST = "preset_content.txt";
+    private static final int WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long MEGABYTE = 1024 * 1024;
     private final Uri uri;
     private final DocumentFile documentFile;
+    private final ZipEntryWriter.Mode mode;
+    /**
+     * Content hashes computed during export, to be cached
+     */
+    private final Queue<SongContent> hashed = new ConcurrentLinkedQueue<>();
 
 
     public AsyncPlaylistZipPacker(Uri uri, StringBuilder logs, Context context) {
+        this(uri, logs, context, ZipEntryWriter.Mode.STORE_MEDIA);
+    }
+
+    AsyncPlaylistZipPacker(Uri uri, StringBuilder logs, Context context, ZipEntryWriter.Mode mode) {
         super(logs, context);
         this.uri = uri;
         this.documentFile = DocumentFile.fromSingleUri(context, uri);
+        this.mode = mode;
+    }
+
+    /**
+     * Adds cancel button to please wait dialog
+     */
+    @Override
+    protected void onPreExecute() {
+        ((AlertDialog) getDialog()).setButton(DialogInterface.BUTTON_NEGATIVE, context.getString(R.string.cancel),
+                (d, which) -> shutDown());
+        super.onPreExecute();
     }
 
     /**
@@ -49,32 +95,105 @@ public class AsyncPlaylistZipPacker extends AsyncTaskExecutorService<Playlist, V
     @SneakyThrows
     protected ExportResult doInBackground(Playlist... entries) {
         boolean overallSuccess = true;
-        try (val outputStream = context.getContentResolver().openOutputStream(uri); val zip = new ZipOutputStream(outputStream)) {
+        boolean completed = false;
+        val start = SystemClock.elapsedRealtime();
+        long bytes = 0;
+        try (val outputStream = context.getContentResolver().openOutputStream(uri);
+             val zip = new ZipOutputStream(new BufferedOutputStream(outputStream, ZipEntryWriter.BUFFER_SIZE))) {
+            val writer = new ZipEntryWriter(zip, mode);
             val list = new StringBuilder();
-            //create zip and list preset with it's songs
+            val sources = new ArrayList<ExportEngine.Source>();
+            //list preset with it's songs and collect all files to be packed
+            val imageStore = ImageStore.get(context);
             for (Playlist playlist : entries) {
                 list.append("\n-----------\n");
                 list.append(playlist.getName());
-                saveBackgroundToZip(zip, playlist);
+                if (imageStore.exists(playlist.getBackgroundRef())) {
+                    sources.add(new FileSource(playlist.getName() + "/" + BACKGROUND, imageStore.file(playlist.getBackgroundRef())));
+                }
                 playlist.getSongs().forEach(song -> {
                     list.append("\n- ")
                             .append(song.getFilename())
                             .append(" (")
                             .append(song.getFilePath())
                             .append(")");
-                    saveSongToFile(logs, zip, playlist, song);
+                    sources.add(new SongSource(playlist.getName() + "/" + song.getFilename(), song, Uri.parse(song.getFileUri())));
                 });
             }
-            val bgEntry = new ZipEntry("preset_content.txt");
-            zip.putNextEntry(bgEntry);
-            zip.write(list.toString().getBytes());
-            zip.closeEntry();
+            val engine = new ExportEngine(writer, WORKERS, this::isCancelled, new ExportEngine.Listener() {
+                @Override
+                public void onProgress(ExportEngine.Progress progress) {
+                    publishProgress(progress);
+                }
+
+                @Override
+                public void onError(ExportEngine.Source source, IOException e) {
+                    Logger.e(TAG, "Error while trying to save file " + source.getEntryName(), e);
+                    logs.append("\nFailed to save file ");
+                    logs.append(e);
+                }
+            });
+            try {
+                completed = engine.run(sources);
+            } finally {
+                cacheHashes();
+            }
+            if (completed) {
+                writer.writeBytes(MANIFEST, list.toString().getBytes());
+            }
+            bytes = writer.getBytesWritten();
+            if (engine.getSharedFiles() > 0) {
+                Logger.i(TAG, String.format(Locale.US, "%d songs shared content with other entries, %d KB not packed again",
+                        engine.getSharedFiles(), engine.getSharedBytes() / 1024));
+            }
         } catch (IOException e) {
-            Logger.e(TAG, "Failed to write to file ", e);
-            logs.append("\nFailed to save file ");
-            logs.append(e);
+            if (isCancelled()) {
+                // entry cut short by cancel can't be closed, file is removed anyway
+                Logger.d(TAG, "Export cancelled, zip left unfinished");
+            } else {
+                Logger.e(TAG, "Failed to write to file ", e);
+                logs.append("\nFailed to save file ");
+                logs.append(e);
+            }
         }
-        return new ExportResult(overallSuccess, logs.length() > 0 ? logs.toString() : null);
+        val cancelled = !completed && isCancelled();
+        if (cancelled && documentFile != null && !documentFile.delete()) {
+            Logger.w(TAG, "Could not remove partially exported file " + uri);
+        }
+        val result = new ExportResult(overallSuccess, logs.length() > 0 ? logs.toString() : null, bytes,
+                SystemClock.elapsedRealtime() - start, cancelled);
+        Logger.i(TAG, String.format(Locale.US, "Export %s: %d KB in %d ms (%.1f MB/s)", cancelled ? "cancelled" : "done",
+                result.getBytes() / 1024, result.getDurationMs(), result.getMegabytesPerSecond()));
+        return result;
+    }
+
+    /**
+     * Stores hashes computed by this export, failure only means they are computed again next time
+     */
+    private void cacheHashes() {
+        if (hashed.isEmpty()) {
+            return;
+        }
+        try {
+            ThemplayDatabase.getDatabase(context).songRepository().updateContent(new ArrayList<>(hashed));
+            Logger.d(TAG, "Cached content hash of {} songs", hashed.size());
+        } catch (RuntimeException e) {
+            Logger.w(TAG, "Failed to cache content hashes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Shows how much was already packed and how long it will take
+     */
+    @Override
+    protected void onProgressUpdate(ExportEngine.Progress progress) {
+        val message = (TextView) getDialog().findViewById(R.id.loading_msg);
+        if (message == null) {
+            return;
+        }
+        val eta = progress.getEtaMs() < 0 ? "--:--" : DateUtils.formatElapsedTime(progress.getEtaMs() / 1000);
+        message.setText(MessageFormat.format(context.getString(R.string.presets_export_progress),
+                progress.getPercent(), progress.getBytesDone() / MEGABYTE, progress.getBytes() / MEGABYTE, eta));
     }
 
     /**
@@ -84,7 +203,9 @@ public class AsyncPlaylistZipPacker extends AsyncTaskExecutorService<Playlist, V
     @SneakyThrows
     protected void onPostExecute(ExportResult result) {
         super.onPostExecute(result);
-        if (logs.length() > 0) {
+        if (result.isCancelled()) {
+            Toast.makeText(context, R.string.presets_export_cancelled, Toast.LENGTH_LONG).show();
+        } else if (logs.length() > 0) {
             File externalFilesDir = context.getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS);
             File logFile = new File(externalFilesDir + "/themplay_export_errors_" + (System.currentTimeMillis() / 1000) + ".txt");
             try (val bw = new BufferedWriter(new FileWriter(logFile))) {
@@ -101,41 +222,99 @@ public class AsyncPlaylistZipPacker extends AsyncTaskExecutorService<Playlist, V
     }
 
     /**
-     * If playlists has a background , save it to file
+     * Playlist background from image store
      */
-    private void saveBackgroundToZip(ZipOutputStream zip, Playlist playlist) throws IOException {
-        if (playlist.getBackgroundImage() != null) {
-            val bgEntry = new ZipEntry(playlist.getName() + "/" + BACKGROUND);
-            zip.putNextEntry(bgEntry);
-            zip.write(Base64.decode(playlist.getBackgroundImage(), Base64.DEFAULT));
-            zip.closeEntry();
+    @AllArgsConstructor
+    private static class FileSource implements ExportEngine.Source {
+        @Getter
+        private final String entryName;
+        private final File file;
+
+        @Override
+        public long length() {
+            return file.length();
+        }
+
+        @Override
+        public ExportEngine.Input open() throws IOException {
+            val fis = new FileInputStream(file);
+            return new ExportEngine.Input(fis.getChannel(), true, fis);
         }
     }
 
     /**
-     * Load file based on it's song uri and add it to zip file
+     * Song loaded based on it's uri
      */
-    private void saveSongToFile(StringBuilder logs, ZipOutputStream zip, Playlist playlist, Song song) {
-        val entry = new ZipEntry(playlist.getName() + "/" + song.getFilename());
-        val contentResolver = context.getContentResolver();
-        try {
-            zip.putNextEntry(entry);
-            val songUri = Uri.parse(song.getFileUri());
-            contentResolver.takePersistableUriPermission(songUri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
-            val fd = contentResolver.openFileDescriptor(songUri, "r");
-            try (val fis = new FileInputStream(fd.getFileDescriptor())) {
-                byte[] buffer = new byte[1024];
-                int len;
-                while ((len = fis.read(buffer)) > 0) {
-                    zip.write(buffer, 0, len);
+    @AllArgsConstructor
+    private class SongSource implements ExportEngine.Source {
+        @Getter
+        private final String entryName;
+        private final Song song;
+        private final Uri songUri;
+
+        /**
+         * Uses hash cached in song if its file still has the same size and modification time, otherwise computes it
+         */
+        @Override
+        public String contentHash() throws IOException {
+            try (val input = open()) {
+                if (!input.isSeekable()) {
+                    return null;
+                }
+                val size = input.getChannel().size();
+                val modified = lastModified();
+                if (ContentHash.isCurrent(song.getContentHash(), song.getContentSize(), song.getContentModified(), size, modified)) {
+                    return song.getContentHash();
+                }
+                val hash = ContentHash.of(input.getChannel(), size);
+                // without modification time hash could not be validated later, so it's not worth caching
+                if (song.getId() != null && modified > 0) {
+                    hashed.add(new SongContent(song.getId(), size, modified, hash));
                 }
+                return hash;
             }
-            zip.closeEntry();
-        } catch (IOException ex) {
-            Logger.e(TAG, "Error while trying to save file " + song.getFilename());
-            Logger.e(TAG, ex.toString());
-            logs.append("\nFailed to save file ");
-            logs.append(ex);
+        }
+
+        @Override
+        public long length() {
+            if (ContentResolver.SCHEME_FILE.equals(songUri.getScheme())) {
+                return new File(songUri.getPath()).length();
+            }
+            val file = DocumentFile.fromSingleUri(context, songUri);
+            return file != null ? file.length() : 0;
+        }
+
+        /**
+         * @return modification time of song file, 0 if provider doesn't know it
+         */
+        private long lastModified() {
+            if (ContentResolver.SCHEME_FILE.equals(songUri.getScheme())) {
+                return new File(songUri.getPath()).lastModified();
+            }
+            val file = DocumentFile.fromSingleUri(context, songUri);
+            return file != null ? file.lastModified() : 0;
+        }
+
+        @Override
+        public ExportEngine.Input open() throws IOException {
+            val contentResolver = context.getContentResolver();
+            // songs of imported presets are app files, there is no permission to take
+            if (ContentResolver.SCHEME_CONTENT.equals(songUri.getScheme())) {
+                contentResolver.takePersistableUriPermission(songUri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            }
+            val fd = contentResolver.openFileDescriptor(songUri, "r");
+            if (fd == null) {
+                throw new FileNotFoundException("No file behind " + songUri);
+            }
+            val fis = new FileInputStream(fd.getFileDescriptor());
+            // stat size is -1 for pipes and sockets, those can only be streamed once
+            return new ExportEngine.Input(fis.getChannel(), fd.getStatSize() >= 0, () -> {
+                try {
+                    fis.close();
+                } finally {
+                    fd.close();
+                }
+            });
         }
     }
 }
@@ -0,0 +1,186 @@
+package pl.qprogramming.themplay.preset;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.net.Uri;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.documentfile.provider.DocumentFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import lombok.val;
+import pl.qprogramming.themplay.R;
+import pl.qprogramming.themplay.db.ThemplayDatabase;
+import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.Preset;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.image.ImageStore;
+import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.repository.PlaylistRepository;
+import pl.qprogramming.themplay.repository.PresetRepository;
+import pl.qprogramming.themplay.util.AsyncTaskExecutorService;
+
+/**
+ * Async Task to import preset from zip file saved by {@link AsyncPlaylistZipPacker}
+ * <p>
+ * Songs are extracted into app storage, see {@link PresetZipImporter}. Import which was cancelled or failed
+ * resumes when the same file is imported again.
+ */
+public class AsyncPresetZipUnpacker extends AsyncTaskExecutorService<Uri, PresetZipImporter.Progress, ImportResult> {
+    private static final String TAG = AsyncPresetZipUnpacker.class.getSimpleName();
+    public static final String SONGS_DIR = "songs";
+    private static final String JOURNALS_DIR = "import";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String ZIP_EXTENSION = ".zip";
+    private final Consumer<ImportResult> onImported;
+
+    /**
+     * @param onImported called on main thread once preset was imported, not called if import failed
+     */
+    public AsyncPresetZipUnpacker(StringBuilder logs, Context context, Consumer<ImportResult> onImported) {
+        super(logs, context);
+        this.onImported = onImported;
+    }
+
+    /**
+     * Adds cancel button to please wait dialog
+     */
+    @Override
+    protected void onPreExecute() {
+        ((AlertDialog) getDialog()).setButton(DialogInterface.BUTTON_NEGATIVE, context.getString(R.string.cancel),
+                (d, which) -> shutDown());
+        super.onPreExecute();
+        val message = (TextView) getDialog().findViewById(R.id.loading_msg);
+        if (message != null) {
+            message.setText(R.string.presets_importing);
+        }
+    }
+
+    /**
+     * Import preset from zip file chosen by user
+     */
+    @Override
+    protected ImportResult doInBackground(Uri... uris) {
+        val uri = uris[0];
+        val document = DocumentFile.fromSingleUri(context, uri);
+        val size = document != null ? document.length() : 0;
+        val journalFile = new File(new File(context.getFilesDir(), JOURNALS_DIR), archiveKey(uri, document) + JOURNAL_EXTENSION);
+        val db = ThemplayDatabase.getDatabase(context);
+        val store = new DatabaseStore(db.presetRepository(), db.playlistRepository(), ImageStore.get(context));
+        val importer = new PresetZipImporter(new File(context.getFilesDir(), SONGS_DIR), store);
+        try (val journal = new ImportJournal(journalFile);
+             val archive = context.getContentResolver().openInputStream(uri)) {
+            if (archive == null) {
+                throw new FileNotFoundException("No file behind " + uri);
+            }
+            val result = importer.importPreset(presetName(document), archive, size, journal, this::isCancelled, this::publishProgress);
+            Logger.i(TAG, String.format(Locale.US, "Import of %s %s: %d playlists, %d songs, %d KB in %d ms%s",
+                    result.getPresetName(), result.isCancelled() ? "cancelled" : "done", result.getPlaylists(),
+                    result.getSongs(), result.getBytes() / 1024, result.getDurationMs(), result.isResumed() ? " (resumed)" : ""));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            Logger.e(TAG, "Failed to import preset from " + uri, e);
+            logs.append("\nFailed to import preset ");
+            logs.append(e);
+            return null;
+        }
+    }
+
+    /**
+     * Shows how much of archive was already imported
+     */
+    @Override
+    protected void onProgressUpdate(PresetZipImporter.Progress progress) {
+        val message = (TextView) getDialog().findViewById(R.id.loading_msg);
+        if (message != null) {
+            message.setText(MessageFormat.format(context.getString(R.string.presets_import_progress),
+                    progress.getPercent(), progress.getPlaylists(), progress.getSongs()));
+        }
+    }
+
+    @Override
+    protected void onPostExecute(ImportResult result) {
+        super.onPostExecute(result);
+        if (result == null) {
+            Toast.makeText(context, R.string.presets_import_failed, Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (result.isCancelled()) {
+            Toast.makeText(context, R.string.presets_import_cancelled, Toast.LENGTH_LONG).show();
+        } else {
+            val msg = MessageFormat.format(context.getString(R.string.presets_imported), result.getPresetName());
+            Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
+        }
+        onImported.accept(result);
+    }
+
+    /**
+     * Name of zip file without extension
+     */
+    private String presetName(DocumentFile document) {
+        String name = document != null ? document.getName() : null;
+        if (name != null && name.toLowerCase(Locale.ROOT).endsWith(ZIP_EXTENSION)) {
+            name = name.substring(0, name.length() - ZIP_EXTENSION.length());
+        }
+        if (name == null || name.trim().isEmpty()) {
+            return context.getString(R.string.presets_import_default_name);
+        }
+        return name.trim();
+    }
+
+    /**
+     * Same file gets the same key, so its interrupted import is found again
+     */
+    private static String archiveKey(Uri uri, DocumentFile document) {
+        val identity = uri + "|" + (document != null ? document.length() + "|" + document.lastModified() : "");
+        return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static class DatabaseStore implements PresetZipImporter.Store {
+        private final PresetRepository presetRepository;
+        private final PlaylistRepository playlistRepository;
+        private final ImageStore imageStore;
+
+        DatabaseStore(PresetRepository presetRepository, PlaylistRepository playlistRepository, ImageStore imageStore) {
+            this.presetRepository = presetRepository;
+            this.playlistRepository = playlistRepository;
+            this.imageStore = imageStore;
+        }
+
+        @Override
+        public boolean presetExists(String name) {
+            return presetRepository.findByName(name) != null;
+        }
+
+        @Override
+        public void createPreset(String name) {
+            presetRepository.insert(Preset.builder().name(name).build());
+        }
+
+        @Override
+        public void insertPlaylist(Playlist playlist, List<Song> songs) {
+            playlistRepository.insertWithSongs(playlist, songs);
+        }
+
+        @Override
+        public String putImage(byte[] image) throws IOException {
+            return imageStore.put(image);
+        }
+
+        @Override
+        public String uriOf(File song) {
+            return Uri.fromFile(song).toString();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package pl.qprogramming.themplay.preset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * Packs files into zip using bounded pool of workers.
+ * <p>
+ * Workers open files and compute checksums of stored entries ahead, while calling thread is the only one
+ * writing into zip stream, in order of sources. At most {@code 2 * workers} files are prepared ahead, so that
+ * number of open files stays bounded. Progress in bytes, with estimated time left, is reported while copying.
+ * Export stops as soon as it's cancelled.
+ * <p>
+ * Sources with equal {@link Source#contentHash()} are packed only once, under the first entry name. Other entries
+ * are listed in {@link SharedContent}, which is written before any file.
+ */
+class ExportEngine {
+    static final long PROGRESS_INTERVAL_MS = 250;
+    private static final ThreadLocal<ByteBuffer> WORKER_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(ZipEntryWriter.BUFFER_SIZE));
+
+    /**
+     * File to be packed
+     */
+    interface Source {
+        String getEntryName();
+
+        /**
+         * @return size of file in bytes, 0 if unknown. Used for progress only
+         */
+        long length();
+
+        Input open() throws IOException;
+
+        /**
+         * Called on worker, before anything is written
+         *
+         * @return fingerprint of file content, null if file should always be packed
+         */
+        default String contentHash() throws IOException {
+            return null;
+        }
+    }
+
+    /**
+     * Opened source file
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Input implements Closeable {
+        private final FileChannel channel;
+        /**
+         * false if channel is not a regular file and can be read only once
+         */
+        private final boolean seekable;
+        /**
+         * Releases channel and everything it was opened from
+         */
+        private final Closeable resource;
+
+        @Override
+        public void close() throws IOException {
+            resource.close();
+        }
+    }
+
+    interface Listener {
+        /**
+         * Called on writing thread, at most every {@link #PROGRESS_INTERVAL_MS} and once all is written
+         */
+        void onProgress(Progress progress);
+
+        /**
+         * Source couldn't be read or written, export continues with next one
+         */
+        void onError(Source source, IOException e);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Progress {
+        private final int files;
+        private final int filesDone;
+        private final long bytes;
+        private final long bytesDone;
+        /**
+         * Estimated time left, -1 if not known yet
+         */
+        private final long etaMs;
+
+        public int getPercent() {
+            return bytes > 0 ? (int) Math.min(100, bytesDone * 100 / bytes) : 0;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Measured {
+        private final long length;
+        private final String hash;
+    }
+
+    @AllArgsConstructor
+    private static final class Prepared {
+        private final Source source;
+        private final Input input;
+        private final ZipEntry entry;
+        private final IOException error;
+    }
+
+    private final ZipEntryWriter writer;
+    private final int workers;
+    private final BooleanSupplier cancelled;
+    private final Listener listener;
+    /**
+     * Sources not packed, grouped by source holding their content
+     */
+    private final Map<Source, List<Source>> copies = new HashMap<>();
+    /**
+     * Files not packed as their content was already packed under other entry
+     */
+    @Getter
+    private int sharedFiles;
+    @Getter
+    private long sharedBytes;
+
+    private long startedAt;
+    private long lastProgressAt;
+    private int files;
+    private int filesDone;
+    private long bytesTotal;
+    private long bytesDone;
+
+    ExportEngine(ZipEntryWriter writer, int workers, BooleanSupplier cancelled, Listener listener) {
+        this.writer = writer;
+        this.workers = workers;
+        this.cancelled = cancelled;
+        this.listener = listener;
+    }
+
+    /**
+     * Packs all sources in order. Interrupting calling thread cancels export as well
+     *
+     * @return false if export was cancelled before all sources were written
+     * @throws IOException if list of shared entries could not be written
+     */
+    boolean run(List<? extends Source> sources) throws IOException {
+        val pool = Executors.newFixedThreadPool(workers, r -> {
+            val thread = new Thread(r, "ExportWorker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        val pending = new ArrayDeque<Future<Prepared>>();
+        try {
+            startedAt = System.nanoTime();
+            lastProgressAt = startedAt;
+            val packed = deduplicate(pool, sources);
+            files = packed.size();
+            int next = 0;
+            while (filesDone < files) {
+                while (next < packed.size() && pending.size() < 2 * workers) {
+                    val source = packed.get(next++);
+                    pending.add(pool.submit(() -> prepare(source)));
+                }
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+                write(await(pending.poll()));
+            }
+            publish(true);
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        } finally {
+            shutdown(pool, pending);
+        }
+    }
+
+    /**
+     * Asks for sizes and content hashes of all sources in parallel, sums sizes of those to be packed
+     * and writes list of those which share content with earlier one
+     *
+     * @return sources to be packed, in order
+     */
+    private List<Source> deduplicate(ExecutorService pool, List<? extends Source> sources) throws IOException {
+        val measured = new ArrayList<Future<Measured>>(sources.size());
+        for (Source source : sources) {
+            measured.add(pool.submit(() -> measure(source)));
+        }
+        val byHash = new HashMap<String, Source>();
+        val references = new LinkedHashMap<String, String>();
+        val packed = new ArrayList<Source>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            val source = sources.get(i);
+            val measure = await(measured.get(i));
+            val original = measure.hash != null ? byHash.putIfAbsent(measure.hash, source) : null;
+            if (original == null) {
+                packed.add(source);
+                bytesTotal += measure.length;
+            } else {
+                references.put(source.getEntryName(), original.getEntryName());
+                copies.computeIfAbsent(original, k -> new ArrayList<>()).add(source);
+                sharedFiles++;
+                sharedBytes += measure.length;
+            }
+        }
+        if (!references.isEmpty()) {
+            writer.writeBytes(SharedContent.ENTRY, SharedContent.format(references));
+        }
+        return packed;
+    }
+
+    /**
+     * Runs on worker
+     */
+    private static Measured measure(Source source) {
+        long length = 0;
+        try {
+            length = Math.max(0, source.length());
+        } catch (RuntimeException e) {
+            // size stays unknown, progress will catch up once the file is written
+        }
+        String hash = null;
+        if (SharedContent.canReference(source.getEntryName())) {
+            try {
+                hash = source.contentHash();
+            } catch (IOException | RuntimeException e) {
+                // packed on its own, error is reported once it's opened again
+            }
+        }
+        return new Measured(length, hash);
+    }
+
+    /**
+     * Runs on worker
+     */
+    private Prepared prepare(Source source) {
+        Input input = null;
+        try {
+            input = source.open();
+            val entry = writer.prepareEntry(source.getEntryName(), input.getChannel(), input.isSeekable(), WORKER_BUFFER.get());
+            return new Prepared(source, input, entry, null);
+        } catch (IOException e) {
+            closeQuietly(input);
+            return new Prepared(source, null, null, e);
+        } catch (RuntimeException e) {
+            // i.e. permission to file was revoked, export continues without it
+            closeQuietly(input);
+            return new Prepared(source, null, null, new IOException(e));
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Preparing export failed", e.getCause());
+        }
+    }
+
+    private void write(Prepared prepared) {
+        try (val input = prepared.input) {
+            if (prepared.error != null) {
+                fail(prepared.source, prepared.error);
+            } else {
+                writer.write(prepared.entry, input.getChannel(), bytes -> {
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    bytesDone += bytes;
+                    publish(false);
+                });
+            }
+        } catch (IOException e) {
+            if (cancelled.getAsBoolean()) {
+                // channel was closed by interrupt of cancelling thread
+                throw new CancellationException();
+            }
+            fail(prepared.source, e);
+        }
+        filesDone++;
+        publish(false);
+    }
+
+    /**
+     * Reports source which was not packed, together with all sources sharing its content
+     */
+    private void fail(Source source, IOException e) {
+        listener.onError(source, e);
+        val sharing = copies.get(source);
+        if (sharing != null) {
+            sharing.forEach(copy -> listener.onError(copy, e));
+        }
+    }
+
+    private void publish(boolean done) {
+        val now = System.nanoTime();
+        if (!done && TimeUnit.NANOSECONDS.toMillis(now - lastProgressAt) < PROGRESS_INTERVAL_MS) {
+            return;
+        }
+        lastProgressAt = now;
+        // sizes may be unknown or changed, never report more done than total
+        bytesTotal = Math.max(bytesTotal, bytesDone);
+        val elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - startedAt);
+        long eta = -1;
+        if (done) {
+            eta = 0;
+        } else if (bytesDone > 0 && elapsedMs > 0) {
+            eta = (long) ((double) (bytesTotal - bytesDone) * elapsedMs / bytesDone);
+        }
+        listener.onProgress(new Progress(files, filesDone, bytesTotal, bytesDone, eta));
+    }
+
+    /**
+     * Stops workers and closes files they have opened, but which were never written
+     */
+    private void shutdown(ExecutorService pool, Iterable<Future<Prepared>> pending) {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Future<Prepared> future : pending) {
+            if (future.isDone()) {
+                try {
+                    closeQuietly(future.get().input);
+                } catch (ExecutionException | InterruptedException | CancellationException e) {
+                    // nothing was opened
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing more can be done with it
+        }
+    }
+}
@@ -8,7 +8,27 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 public class ExportResult {
+    private static final double MEGABYTE = 1024 * 1024;
+
     private boolean success;
     private String errorLog;
+    /**
+     * Bytes of songs, backgrounds and manifest packed, before compression
+     */
+    private long bytes;
+    private long durationMs;
+    /**
+     * Export was cancelled by user, partially written file was removed
+     */
+    private boolean cancelled;
 
+    /**
+     * @return export throughput in MB/s, 0 if nothing was measured
+     */
+    public double getMegabytesPerSecond() {
+        if (durationMs <= 0) {
+            return 0;
+        }
+        return bytes / MEGABYTE / (durationMs / 1000.0);
+    }
 }
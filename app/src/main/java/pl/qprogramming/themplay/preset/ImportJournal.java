@@ -0,0 +1,154 @@
+package pl.qprogramming.themplay.preset;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * Append-only record of preset import progress, so that interrupted import can be resumed.
+ * <p>
+ * Every line is one step which was fully done: preset which receives playlists, song file extracted
+ * (with its size) and playlist committed to database. Each line is synced to disk before import moves on,
+ * so after crash journal never claims more than was really done. Journal is removed once import completes.
+ */
+class ImportJournal implements Closeable {
+    private static final String PRESET = "preset";
+    private static final String FILE = "file";
+    private static final String PLAYLIST = "playlist";
+    private static final char SEPARATOR = '\t';
+
+    private final File file;
+    private final Map<String, Long> files = new HashMap<>();
+    private final Set<String> playlists = new HashSet<>();
+    /**
+     * Preset chosen by import which was interrupted, null if import starts from scratch
+     */
+    @Getter
+    private String preset;
+    private FileOutputStream stream;
+    private Writer writer;
+
+    /**
+     * Opens journal, loading all steps recorded by previous import of the same archive
+     */
+    ImportJournal(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * @return true if nothing was recorded yet
+     */
+    boolean isEmpty() {
+        return preset == null;
+    }
+
+    void presetChosen(String name) throws IOException {
+        preset = name;
+        append(PRESET, name);
+    }
+
+    void fileExtracted(String entryName, long size) throws IOException {
+        files.put(escape(entryName), size);
+        append(FILE, entryName, Long.toString(size));
+    }
+
+    void playlistCommitted(String name) throws IOException {
+        playlists.add(escape(name));
+        append(PLAYLIST, name);
+    }
+
+    /**
+     * @return true if entry was extracted into file which still has recorded size
+     */
+    boolean isExtracted(String entryName, File extracted) {
+        val size = files.get(escape(entryName));
+        return size != null && extracted.isFile() && extracted.length() == size;
+    }
+
+    boolean isCommitted(String playlist) {
+        return playlists.contains(escape(playlist));
+    }
+
+    /**
+     * Removes journal of completed import
+     */
+    void delete() throws IOException {
+        close();
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Failed to remove import journal " + file.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            stream = null;
+        }
+    }
+
+    private void load() throws IOException {
+        try (val reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                val fields = line.split(String.valueOf(SEPARATOR), -1);
+                // last line might be cut short by crash, such step is simply done again
+                if (PRESET.equals(fields[0]) && fields.length == 2) {
+                    preset = fields[1];
+                } else if (FILE.equals(fields[0]) && fields.length == 3) {
+                    try {
+                        files.put(fields[1], Long.parseLong(fields[2]));
+                    } catch (NumberFormatException e) {
+                        // incomplete line
+                    }
+                } else if (PLAYLIST.equals(fields[0]) && fields.length == 2) {
+                    playlists.add(fields[1]);
+                }
+            }
+        }
+    }
+
+    private void append(String type, String... values) throws IOException {
+        if (writer == null) {
+            val dir = file.getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Failed to create journal directory " + dir.getAbsolutePath());
+            }
+            stream = new FileOutputStream(file, true);
+            writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+        }
+        val line = new StringBuilder(type);
+        for (String value : values) {
+            line.append(SEPARATOR).append(escape(value));
+        }
+        writer.append(line).append('\n');
+        writer.flush();
+        stream.getFD().sync();
+    }
+
+    /**
+     * Names are recorded on a single line, so separators within them are replaced. Names are kept and looked up
+     * in this form also in memory, so that loaded journal matches the one being written
+     */
+    private static String escape(String value) {
+        return value.replace(SEPARATOR, ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,31 @@
+package pl.qprogramming.themplay.preset;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportResult {
+    /**
+     * Preset which received playlists, might differ from archive name if that was taken
+     */
+    private String presetName;
+    /**
+     * Playlists and songs committed by this run, without those committed before it was resumed
+     */
+    private int playlists;
+    private int songs;
+    /**
+     * Bytes of archive read
+     */
+    private long bytes;
+    private long durationMs;
+    /**
+     * Import continued one which was interrupted before
+     */
+    private boolean resumed;
+    /**
+     * Import was cancelled, it will resume when the same archive is imported again
+     */
+    private boolean cancelled;
+}
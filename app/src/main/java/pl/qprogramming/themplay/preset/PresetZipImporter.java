@@ -0,0 +1,439 @@
+package pl.qprogramming.themplay.preset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.Song;
+
+/**
+ * Imports preset from zip created by {@link AsyncPlaylistZipPacker}.
+ * <p>
+ * Archive is read only once, as a stream. Every {@code <playlist>/} directory becomes playlist, its songs are
+ * extracted into app storage and its background into {@link pl.qprogramming.themplay.image.ImageStore}.
+ * Playlist is committed together with its songs as soon as archive moves on to next playlist, so memory use
+ * doesn't depend on archive size. Files of one playlist therefore have to follow each other in archive, archive
+ * returning to already committed playlist is rejected. Playlists listed in manifest but without any file are
+ * created empty.
+ * <p>
+ * Songs which were packed once for several playlists (see {@link SharedContent}) are extracted once as well,
+ * all their playlists point to the same file.
+ * <p>
+ * Every finished step is recorded in {@link ImportJournal}. Import of same archive with the same journal
+ * skips already extracted files and committed playlists, so interrupted import continues where it stopped.
+ */
+class PresetZipImporter {
+    static final long MAX_IMAGE_BYTES = 16 * 1024 * 1024;
+    static final long PROGRESS_INTERVAL_MS = 250;
+    private static final String PART_EXTENSION = ".part";
+    private static final String MANIFEST_SEPARATOR = "-----------";
+
+    /**
+     * Where imported preset ends up
+     */
+    interface Store {
+        boolean presetExists(String name);
+
+        void createPreset(String name);
+
+        /**
+         * Inserts playlist with all its songs in single transaction
+         */
+        void insertPlaylist(Playlist playlist, List<Song> songs);
+
+        /**
+         * @return reference of stored image
+         */
+        String putImage(byte[] image) throws IOException;
+
+        /**
+         * @return uri under which player can open extracted song
+         */
+        String uriOf(File song);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Progress {
+        /**
+         * Size of archive, 0 if not known
+         */
+        private final long bytes;
+        private final long bytesRead;
+        private final int playlists;
+        private final int songs;
+
+        public int getPercent() {
+            return bytes > 0 ? (int) Math.min(100, bytesRead * 100 / bytes) : 0;
+        }
+    }
+
+    /**
+     * Playlist being read from archive
+     */
+    private static final class PendingPlaylist {
+        private final String name;
+        private final int position;
+        private final List<Song> songs = new ArrayList<>();
+        private String backgroundRef;
+
+        private PendingPlaylist(String name, int position) {
+            this.name = name;
+            this.position = position;
+        }
+    }
+
+    private final File songsDir;
+    private final Store store;
+    private final byte[] buffer = new byte[ZipEntryWriter.BUFFER_SIZE];
+
+    private String preset;
+    private ImportJournal journal;
+    private CountingInputStream counter;
+    private long archiveSize;
+    private Consumer<Progress> onProgress;
+    private long lastProgressAt;
+    private int playlists;
+    private int songs;
+    /**
+     * Songs without own entry, by playlist. Each is file name mapped to entry holding its content
+     */
+    private final Map<String, Map<String, String>> shared = new LinkedHashMap<>();
+
+    /**
+     * @param songsDir directory songs are extracted into, each preset and playlist gets its own subdirectory
+     * @param store    receives preset, playlists and images
+     */
+    PresetZipImporter(File songsDir, Store store) {
+        this.songsDir = songsDir;
+        this.store = store;
+    }
+
+    /**
+     * Imports whole archive. Not thread safe, one import at a time
+     *
+     * @param presetName  name of new preset, made unique if taken. Ignored when resuming
+     * @param archive     zip stream, read only once
+     * @param archiveSize size of archive for progress, 0 if not known
+     * @param journal     journal of this archive, removed once import is done
+     * @param cancelled   checked before every entry, journal is kept when cancelled
+     * @param onProgress  called on importing thread
+     * @return what was imported
+     * @throws IOException if archive is broken or files could not be written, journal is kept so import can resume
+     */
+    ImportResult importPreset(String presetName, InputStream archive, long archiveSize, ImportJournal journal,
+                              BooleanSupplier cancelled, Consumer<Progress> onProgress) throws IOException {
+        val start = System.currentTimeMillis();
+        this.journal = journal;
+        this.archiveSize = archiveSize;
+        this.onProgress = onProgress;
+        playlists = 0;
+        songs = 0;
+        shared.clear();
+        val resumed = !journal.isEmpty();
+        if (resumed) {
+            preset = journal.getPreset();
+        } else {
+            preset = uniquePresetName(presetName);
+            journal.presetChosen(preset);
+        }
+        if (!store.presetExists(preset)) {
+            store.createPreset(preset);
+        }
+        counter = new CountingInputStream(archive);
+        val seen = new HashSet<String>();
+        List<String> manifest = new ArrayList<>();
+        boolean completed = false;
+        try (val zip = new ZipInputStream(new BufferedInputStream(counter, ZipEntryWriter.BUFFER_SIZE))) {
+            PendingPlaylist current = null;
+            ZipEntry entry;
+            while (!cancelled.getAsBoolean()) {
+                entry = zip.getNextEntry();
+                if (entry == null) {
+                    commit(current);
+                    commitEmpty(manifest, seen);
+                    completed = true;
+                    break;
+                }
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                val name = entry.getName();
+                val slash = name.lastIndexOf('/');
+                if (slash < 0) {
+                    if (AsyncPlaylistZipPacker.MANIFEST.equals(name)) {
+                        manifest = readManifest(zip);
+                    } else if (SharedContent.ENTRY.equals(name)) {
+                        readShared(zip);
+                    }
+                    continue;
+                }
+                val playlistName = name.substring(0, slash);
+                if (current == null || !current.name.equals(playlistName)) {
+                    if (seen.contains(playlistName)) {
+                        throw new IOException("Entries of playlist " + playlistName + " are not contiguous in archive");
+                    }
+                    commit(current);
+                    current = new PendingPlaylist(playlistName, seen.size());
+                    seen.add(playlistName);
+                }
+                if (!journal.isCommitted(playlistName)) {
+                    read(zip, name, name.substring(slash + 1), current);
+                }
+                publish(false);
+            }
+        }
+        if (completed) {
+            journal.delete();
+            publish(true);
+        } else {
+            journal.close();
+        }
+        return new ImportResult(preset, playlists, songs, counter.count, System.currentTimeMillis() - start, resumed, !completed);
+    }
+
+    private String uniquePresetName(String name) {
+        String unique = name;
+        for (int i = 2; store.presetExists(unique); i++) {
+            unique = name + " (" + i + ")";
+        }
+        return unique;
+    }
+
+    private void read(ZipInputStream zip, String entryName, String fileName, PendingPlaylist playlist) throws IOException {
+        if (AsyncPlaylistZipPacker.BACKGROUND.equals(fileName)) {
+            playlist.backgroundRef = store.putImage(readImage(zip, entryName));
+            return;
+        }
+        val target = songFile(playlist.name, fileName);
+        if (!journal.isExtracted(entryName, target)) {
+            journal.fileExtracted(entryName, extract(zip, target));
+        }
+        playlist.songs.add(Song.builder()
+                .filename(fileName)
+                .fileUri(store.uriOf(target))
+                .filePath(target.getAbsolutePath())
+                .build());
+    }
+
+    /**
+     * Copies current entry into file, through temporary file so that target is never partially written
+     *
+     * @return size of extracted file
+     */
+    private long extract(ZipInputStream zip, File target) throws IOException {
+        val dir = target.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir.getAbsolutePath());
+        }
+        val part = new File(target.getPath() + PART_EXTENSION);
+        long size = 0;
+        try (val out = new FileOutputStream(part)) {
+            int read;
+            while ((read = zip.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+                size += read;
+                publish(false);
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            part.delete();
+            throw e;
+        }
+        if (target.exists() && !target.delete() || !part.renameTo(target)) {
+            //noinspection ResultOfMethodCallIgnored
+            part.delete();
+            throw new IOException("Failed to move song into place " + target.getAbsolutePath());
+        }
+        return size;
+    }
+
+    private byte[] readImage(ZipInputStream zip, String entryName) throws IOException {
+        val out = new ByteArrayOutputStream();
+        int read;
+        while ((read = zip.read(buffer)) > 0) {
+            if (out.size() + read > MAX_IMAGE_BYTES) {
+                throw new IOException("Background " + entryName + " is larger than " + MAX_IMAGE_BYTES + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return names of playlists listed in manifest, in order
+     */
+    private static List<String> readManifest(ZipInputStream zip) throws IOException {
+        val names = new ArrayList<String>();
+        // reader is not closed, that would close the archive
+        val reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+        boolean nameFollows = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (nameFollows && !line.isEmpty()) {
+                names.add(line);
+            }
+            nameFollows = MANIFEST_SEPARATOR.equals(line);
+        }
+        return names;
+    }
+
+    private void readShared(ZipInputStream zip) throws IOException {
+        for (Map.Entry<String, String> reference : SharedContent.read(zip).entrySet()) {
+            val entry = reference.getKey();
+            val slash = entry.lastIndexOf('/');
+            if (slash > 0) {
+                shared.computeIfAbsent(entry.substring(0, slash), k -> new LinkedHashMap<>())
+                        .put(entry.substring(slash + 1), reference.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds songs of playlist which share file extracted for other entry. Entry holding content always comes first
+     * in archive, if its file is missing it failed to export and song is left out
+     */
+    private void addShared(PendingPlaylist pending) throws IOException {
+        val references = shared.get(pending.name);
+        if (references == null) {
+            return;
+        }
+        for (Map.Entry<String, String> reference : references.entrySet()) {
+            val packed = reference.getValue();
+            val slash = packed.lastIndexOf('/');
+            if (slash < 0) {
+                continue;
+            }
+            val target = songFile(packed.substring(0, slash), packed.substring(slash + 1));
+            if (target.isFile()) {
+                pending.songs.add(Song.builder()
+                        .filename(reference.getKey())
+                        .fileUri(store.uriOf(target))
+                        .filePath(target.getAbsolutePath())
+                        .build());
+            }
+        }
+    }
+
+    private void commit(PendingPlaylist pending) throws IOException {
+        if (pending == null || journal.isCommitted(pending.name)) {
+            return;
+        }
+        addShared(pending);
+        val playlist = Playlist.builder()
+                .name(pending.name)
+                .preset(preset)
+                .backgroundRef(pending.backgroundRef)
+                .position(pending.position)
+                .build();
+        store.insertPlaylist(playlist, pending.songs);
+        journal.playlistCommitted(pending.name);
+        playlists++;
+        songs += pending.songs.size();
+    }
+
+    /**
+     * Creates playlists which have no files, so they are known only from manifest or list of shared songs
+     */
+    private void commitEmpty(List<String> manifest, Set<String> seen) throws IOException {
+        int position = seen.size();
+        for (String name : manifest) {
+            if (seen.add(name)) {
+                commit(new PendingPlaylist(name, position++));
+            }
+        }
+        // songs of playlist might all be shared, while archive has no manifest
+        for (String name : shared.keySet()) {
+            if (seen.add(name)) {
+                commit(new PendingPlaylist(name, position++));
+            }
+        }
+    }
+
+    /**
+     * Song files are kept in {@code <songsDir>/<preset>/<playlist>/}, names are stripped of characters
+     * which are not allowed in file names
+     */
+    private File songFile(String playlist, String fileName) throws IOException {
+        val file = new File(new File(new File(songsDir, safeName(preset)), safeName(playlist)), safeName(fileName));
+        if (!file.getCanonicalPath().startsWith(songsDir.getCanonicalPath() + File.separator)) {
+            throw new IOException("Entry " + playlist + "/" + fileName + " points outside of songs directory");
+        }
+        return file;
+    }
+
+    static String safeName(String name) {
+        val safe = name.replaceAll("[\\\\/:*?\"<>|\\x00-\\x1F]", "_").trim();
+        if (safe.isEmpty() || safe.equals(".") || safe.equals("..")) {
+            return "_" + safe;
+        }
+        return safe;
+    }
+
+    private void publish(boolean done) {
+        val now = System.currentTimeMillis();
+        if (!done && now - lastProgressAt < PROGRESS_INTERVAL_MS) {
+            return;
+        }
+        lastProgressAt = now;
+        onProgress.accept(new Progress(archiveSize, done ? Math.max(archiveSize, counter.count) : counter.count, playlists, songs));
+    }
+
+    /**
+     * Counts bytes read from archive, for progress
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            val read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            val read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            val skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
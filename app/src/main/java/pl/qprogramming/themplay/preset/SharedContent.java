@@ -0,0 +1,60 @@
+package pl.qprogramming.themplay.preset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.val;
+
+/**
+ * List of zip entries which were not packed, because the same content was already packed under other entry.
+ * <p>
+ * It's written before any song, one {@code <entry>TAB<packed entry>} per line, so that importer knows about
+ * shared files before it reaches them. Packed entry always comes earlier in archive than entries referencing it.
+ */
+final class SharedContent {
+    static final String ENTRY = "shared_content.txt";
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * @return true if entry name can be written into list, only such entries are shared
+     */
+    static boolean canReference(String entryName) {
+        return entryName.indexOf(SEPARATOR) < 0 && entryName.indexOf('\n') < 0 && entryName.indexOf('\r') < 0;
+    }
+
+    /**
+     * @param references entry name mapped to name of entry holding its content
+     */
+    static byte[] format(Map<String, String> references) {
+        val text = new StringBuilder();
+        references.forEach((entry, packed) -> text.append(entry).append(SEPARATOR).append(packed).append('\n'));
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads list from current zip entry, stream is left open
+     *
+     * @return entry name mapped to name of entry holding its content, in order
+     */
+    static Map<String, String> read(InputStream in) throws IOException {
+        val references = new LinkedHashMap<String, String>();
+        // reader is not closed, that would close the archive
+        val reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            val separator = line.indexOf(SEPARATOR);
+            if (separator > 0 && separator < line.length() - 1) {
+                references.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return references;
+    }
+
+    private SharedContent() {
+    }
+}
@@ -0,0 +1,148 @@
+package pl.qprogramming.themplay.preset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * Writes entries of preset export zip through one large reusable buffer.
+ * <p>
+ * Audio formats which are already compressed gain nothing from DEFLATE, so in {@link Mode#STORE_MEDIA}
+ * they are written as STORED entries. Such entry needs its CRC32 and size up front, those are computed
+ * in a first pass over the file, second pass copies it into zip as is. Everything else (manifest, images) is deflated.
+ * <p>
+ * First pass ({@link #prepareEntry}) can run on any thread with its own buffer, writing must stay on one thread.
+ */
+class ZipEntryWriter {
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final Set<String> COMPRESSED_MEDIA = Set.of("mp3", "ogg", "oga", "opus", "flac", "m4a", "aac", "wma", "webm");
+
+    /**
+     * Called after every chunk copied into zip, can abort copying by throwing
+     */
+    interface ChunkListener {
+        void onChunk(int bytes) throws IOException;
+    }
+
+    enum Mode {
+        /**
+         * Deflate every entry
+         */
+        DEFLATE_ALL,
+        /**
+         * Store already compressed audio as is, deflate the rest
+         */
+        STORE_MEDIA
+    }
+
+    private final ZipOutputStream zip;
+    private final Mode mode;
+    // heap buffer, as ZipOutputStream only accepts arrays
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /**
+     * Bytes of files and data written into zip, before compression
+     */
+    @Getter
+    private long bytesWritten;
+
+    ZipEntryWriter(ZipOutputStream zip, Mode mode) {
+        this.zip = zip;
+        this.mode = mode;
+    }
+
+    /**
+     * Writes whole file as new entry
+     *
+     * @param name     entry name
+     * @param channel  channel of file, read from its current position
+     * @param seekable false if channel is not a regular file and can be read only once, it's deflated then
+     */
+    void writeFile(String name, FileChannel channel, boolean seekable) throws IOException {
+        write(prepareEntry(name, channel, seekable, buffer), channel, null);
+    }
+
+    /**
+     * Creates entry for file, with size and CRC32 already computed if it's going to be stored.
+     * Safe to call from any thread, as long as each thread passes its own buffer
+     *
+     * @param name     entry name
+     * @param channel  channel of file, its position is left untouched
+     * @param seekable false if channel is not a regular file and can be read only once, it's deflated then
+     * @param buffer   heap buffer used for reading
+     */
+    ZipEntry prepareEntry(String name, FileChannel channel, boolean seekable, ByteBuffer buffer) throws IOException {
+        val entry = new ZipEntry(name);
+        if (seekable && mode == Mode.STORE_MEDIA && isCompressedMedia(name)) {
+            val checksum = new CRC32();
+            val size = checksum(channel, buffer, checksum);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(checksum.getValue());
+        }
+        return entry;
+    }
+
+    /**
+     * Copies file from its current position into zip as given entry
+     *
+     * @param listener notified after every chunk, may be null
+     */
+    void write(ZipEntry entry, FileChannel channel, ChunkListener listener) throws IOException {
+        zip.putNextEntry(entry);
+        int read;
+        buffer.clear();
+        while ((read = channel.read(buffer)) >= 0) {
+            zip.write(buffer.array(), 0, read);
+            bytesWritten += read;
+            buffer.clear();
+            if (listener != null) {
+                listener.onChunk(read);
+            }
+        }
+        zip.closeEntry();
+    }
+
+    /**
+     * Writes data as new deflated entry
+     */
+    void writeBytes(String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(data);
+        zip.closeEntry();
+        bytesWritten += data.length;
+    }
+
+    /**
+     * @return true if file name has extension of audio format which is already compressed
+     */
+    static boolean isCompressedMedia(String name) {
+        val dot = name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_MEDIA.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Computes CRC32 of file with absolute reads, so that channel position is left untouched
+     *
+     * @return size of file
+     */
+    private static long checksum(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        long position = channel.position();
+        int read;
+        buffer.clear();
+        while ((read = channel.read(buffer, position)) >= 0) {
+            crc.update(buffer.array(), 0, read);
+            position += read;
+            buffer.clear();
+        }
+        return position - channel.position();
+    }
+}
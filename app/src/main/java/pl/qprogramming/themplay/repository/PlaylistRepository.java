@@ -5,17 +5,32 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import java.util.List;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
+import lombok.val;
 import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.PlaylistPosition;
+import pl.qprogramming.themplay.domain.PlaylistSummary;
+import pl.qprogramming.themplay.domain.Song;
 
 @Dao
 public interface PlaylistRepository {
+    String SUMMARY_SELECT = "SELECT p." + Playlist.COLUMN_ID + ", p." + Playlist.NAME + ", p." + Playlist.PRESET
+            + ", p." + Playlist.SONG_COUNT + ", p." + Playlist.TEXT_COLOR + ", p." + Playlist.TEXT_OUTLINE
+            + ", p." + Playlist.POSITION + ", p." + Playlist.ACTIVE + ", p." + Playlist.BACKGROUND_REF
+            + ", p." + Playlist.CURRENT_SONG_ID + ", s." + Song.FILENAME + " AS " + PlaylistSummary.CURRENT_SONG_FILENAME
+            + ", (SELECT IFNULL(SUM(d." + Song.DURATION + "), 0) FROM " + Song.SONG_TABLE_NAME + " d WHERE d."
+            + Song.COLUMN_PLAYLIST_OWNER_ID + " = p." + Playlist.COLUMN_ID + ") AS " + PlaylistSummary.TOTAL_DURATION
+            + " FROM " + Playlist.PLAYLIST_TABLE_NAME + " p"
+            + " LEFT JOIN " + Song.SONG_TABLE_NAME + " s ON s." + Song.COLUMN_ID + " = p." + Playlist.CURRENT_SONG_ID;
+
     // --- Basic Playlist CRUD ---
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Single<Long> create(Playlist playlist);
@@ -26,6 +41,12 @@ public interface PlaylistRepository {
     @Update
     Completable updateAll(List<Playlist> playlist);
 
+    /**
+     * Updates only positions of given playlists, leaving all other columns untouched
+     */
+    @Update(entity = Playlist.class)
+    Completable updatePositions(List<PlaylistPosition> positions);
+
     @Delete
     Completable delete(Playlist playlist);
 
@@ -41,6 +62,16 @@ public interface PlaylistRepository {
     @Query("SELECT * FROM " + Playlist.PLAYLIST_TABLE_NAME + " WHERE preset LIKE :presetName ORDER BY " + Playlist.POSITION + " ASC")
     Single<List<Playlist>> findAllByPreset(String presetName);
 
+    // --- Projections for list screens ---
+    @Query(SUMMARY_SELECT + " WHERE p." + Playlist.PRESET + " LIKE :presetName ORDER BY p." + Playlist.POSITION + " ASC")
+    Single<List<PlaylistSummary>> findSummariesByPreset(String presetName);
+
+    /**
+     * Emits summaries again every time playlists or songs table changes
+     */
+    @Query(SUMMARY_SELECT + " WHERE p." + Playlist.PRESET + " LIKE :presetName ORDER BY p." + Playlist.POSITION + " ASC")
+    Flowable<List<PlaylistSummary>> observeSummariesByPreset(String presetName);
+
     @Query("SELECT * FROM " + Playlist.PLAYLIST_TABLE_NAME + " WHERE preset LIKE :presetName AND active = 1 LIMIT 1")
     Maybe<Playlist> findOneActiveByPreset(String presetName);
 
@@ -52,6 +83,53 @@ public interface PlaylistRepository {
     @Query("SELECT COUNT(*) FROM " + Playlist.PLAYLIST_TABLE_NAME + " WHERE " + Playlist.PRESET + " = :presetName")
     Single<Integer> countAllByPreset(String presetName);
 
+    /**
+     * Synchronous, all background images still in use
+     */
+    @Query("SELECT DISTINCT " + Playlist.BACKGROUND_REF + " FROM " + Playlist.PLAYLIST_TABLE_NAME
+            + " WHERE " + Playlist.BACKGROUND_REF + " IS NOT NULL")
+    List<String> findBackgroundRefs();
+
+    /**
+     * Updates current song and its queue index only. Synchronous, to be batched inside transaction
+     */
+    @Query("UPDATE " + Playlist.PLAYLIST_TABLE_NAME + " SET " + Playlist.CURRENT_SONG_ID + " = :songId, "
+            + Playlist.CURRENT_SONG_INDEX + " = :index WHERE " + Playlist.COLUMN_ID + " = :playlistId")
+    int updateCursor(long playlistId, Long songId, int index);
+
+    /**
+     * Synchronous, to be used inside transaction
+     */
+    @Insert
+    long insert(Playlist playlist);
+
+    /**
+     * Synchronous, to be used inside transaction
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    List<Long> insertSongs(List<Song> songs);
+
+    /**
+     * Inserts playlist together with all its songs, in single transaction.
+     * Playlist and songs get their ids assigned, songs also their owner
+     *
+     * @param playlist new playlist
+     * @param songs    songs of playlist
+     * @return id of inserted playlist
+     */
+    @Transaction
+    default long insertWithSongs(Playlist playlist, List<Song> songs) {
+        playlist.setSongCount(songs.size());
+        val playlistId = insert(playlist);
+        playlist.setId(playlistId);
+        songs.forEach(song -> song.setPlaylistOwnerId(playlistId));
+        val ids = insertSongs(songs);
+        for (int i = 0; i < songs.size() && i < ids.size(); i++) {
+            songs.get(i).setId(ids.get(i));
+        }
+        return playlistId;
+    }
+
     // Method to update song count (could be called from service after adding/removing a song)
     @Query("UPDATE " + Playlist.PLAYLIST_TABLE_NAME + " SET " + Playlist.SONG_COUNT + " = :newCount WHERE " + Playlist.COLUMN_ID + " = :playlistId")
     Completable updateSongCountForPlaylist(long playlistId, int newCount);
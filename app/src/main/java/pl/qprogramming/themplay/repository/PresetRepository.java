@@ -60,6 +60,24 @@ public interface PresetRepository {
     @Query("SELECT COUNT(*) FROM " + Preset.PRESET_TABLE_NAME + " WHERE " + Preset.NAME + " = :name")
     Single<Integer> countByName(String name);
 
+    /**
+     * Synchronous lookup by name
+     *
+     * @param name name of preset
+     * @return preset or null if there is no such preset
+     */
+    @Query("SELECT * FROM " + Preset.PRESET_TABLE_NAME + " WHERE " + Preset.NAME + " = :name LIMIT 1")
+    Preset findByName(String name);
+
+    /**
+     * Synchronous insert, fails if preset with the same name already exists
+     *
+     * @param preset The preset to insert.
+     * @return new row ID of the inserted preset.
+     */
+    @Insert()
+    long insert(Preset preset);
+
     /**
      * Retrieves all Presets from the database, ordered by name ascending.
      *
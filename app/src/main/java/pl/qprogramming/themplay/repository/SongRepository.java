@@ -5,17 +5,27 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
+import lombok.val;
+import pl.qprogramming.themplay.db.SearchIndex;
+import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongContent;
+import pl.qprogramming.themplay.domain.SongMetadata;
+import pl.qprogramming.themplay.domain.SongSearch;
+import pl.qprogramming.themplay.domain.SongSearchHit;
 
 @Dao
 public interface SongRepository {
-
     // --- Basic Song CRUD ---
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Single<Long> create(Song song);
@@ -23,23 +33,118 @@ public interface SongRepository {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Single<List<Long>> createAll(List<Song> songs);
 
+    /**
+     * Synchronous, to be batched inside transaction
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    List<Long> insertAll(List<Song> songs);
+
     @Update
     Single<Integer> update(Song song);
 
     @Delete
     Single<Integer> delete(Song song);
 
+    /**
+     * Synchronous, to be batched inside transaction
+     */
+    @Query("UPDATE " + Song.SONG_TABLE_NAME + " SET " + Song.CURRENT_POSITION + " = :position WHERE " + Song.COLUMN_ID + " = :songId")
+    int updatePosition(long songId, int position);
+
+    /**
+     * Updates only duration and audio format of songs. Synchronous, to be batched inside transaction
+     */
+    @Update(entity = Song.class)
+    int updateMetadata(List<SongMetadata> metadata);
+
+    /**
+     * Updates only cached content hash of songs. Synchronous, to be batched inside transaction
+     */
+    @Update(entity = Song.class)
+    int updateContent(List<SongContent> content);
+
+    /**
+     * Synchronous, songs which metadata was never read from file
+     */
+    @Query("SELECT * FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.ENCODING + " IS NULL ORDER BY " + Song.COLUMN_ID + " LIMIT :limit")
+    List<Song> findWithoutMetadata(int limit);
+
     @Query("DELETE FROM " + Song.SONG_TABLE_NAME + " WHERE id IN (:songIds)")
     Completable deleteSongsByIds(List<Long> songIds);
 
     @Query("SELECT * FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = :playlistId ORDER BY " + Song.FILENAME)
     Single<List<Song>> getSongsForPlaylist(long playlistId);
 
+    /**
+     * Emits songs of playlist again every time songs table changes
+     */
+    @Query("SELECT * FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = :playlistId ORDER BY " + Song.FILENAME)
+    Flowable<List<Song>> observeSongsForPlaylist(long playlistId);
+
     @Query("SELECT COUNT(*) FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = :playlistId")
     Single<Integer> getSongCountForSpecificPlaylist(long playlistId);
 
+    @Query("SELECT COUNT(*) FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = :playlistId")
+    int countSongs(long playlistId);
+
+    @Query("UPDATE " + Playlist.PLAYLIST_TABLE_NAME + " SET " + Playlist.SONG_COUNT + " = :count WHERE " + Playlist.COLUMN_ID + " = :playlistId")
+    int updateSongCount(long playlistId, int count);
+
     @Query("DELETE FROM " + Song.SONG_TABLE_NAME + " WHERE " + Song.COLUMN_PLAYLIST_OWNER_ID + " = :playlistId")
     Completable deleteAllSongsFromPlaylist(long playlistId);
 
+    /**
+     * Inserts all songs into playlist and updates its song count, in single transaction.
+     * Songs get their ids and owner assigned.
+     *
+     * @param playlistId playlist receiving songs
+     * @param songs      songs to insert
+     * @return song count of playlist after insert
+     */
+    @Transaction
+    default int insertIntoPlaylist(long playlistId, List<Song> songs) {
+        songs.forEach(song -> song.setPlaylistOwnerId(playlistId));
+        val ids = insertAll(songs);
+        for (int i = 0; i < songs.size() && i < ids.size(); i++) {
+            songs.get(i).setId(ids.get(i));
+        }
+        val count = countSongs(playlistId);
+        updateSongCount(playlistId, count);
+        return count;
+    }
+
+    /**
+     * Synchronous, all raw full-text matches in index order
+     *
+     * @param match FTS match expression
+     */
+    @Query("SELECT s." + Song.COLUMN_ID + " AS " + SongSearchHit.SONG_ID + ", s." + Song.FILENAME
+            + ", p." + Playlist.COLUMN_ID + " AS " + SongSearchHit.PLAYLIST_ID + ", p." + Playlist.NAME + " AS " + SongSearch.PLAYLIST_NAME
+            + ", p." + Playlist.PRESET + ", matchinfo(" + SongSearch.SONG_SEARCH_TABLE_NAME + ", 'pcx') AS " + SongSearchHit.MATCH_INFO
+            + " FROM " + SongSearch.SONG_SEARCH_TABLE_NAME
+            + " JOIN " + Song.SONG_TABLE_NAME + " s ON s." + Song.COLUMN_ID + " = " + SongSearch.SONG_SEARCH_TABLE_NAME + "." + SongSearch.ROW_ID
+            + " JOIN " + Playlist.PLAYLIST_TABLE_NAME + " p ON p." + Playlist.COLUMN_ID + " = s." + Song.COLUMN_PLAYLIST_OWNER_ID
+            + " WHERE " + SongSearch.SONG_SEARCH_TABLE_NAME + " MATCH :match")
+    List<SongSearchHit> matchSongs(String match);
 
-}
\ No newline at end of file
+    /**
+     * Synchronous. Searches songs of all presets by words of file name or playlist name.
+     * Every word of text has to match beginning of some word, best ranked hits come first.
+     *
+     * @param text  text typed by user
+     * @param limit maximum number of hits
+     * @return ranked hits, empty if text has no searchable words
+     */
+    default List<SongSearchHit> search(String text, int limit) {
+        val match = SearchIndex.matchQuery(text);
+        if (match == null) {
+            return Collections.emptyList();
+        }
+        // every match is ranked, limit in query would cut off best hits lying past it in index order
+        val hits = matchSongs(match);
+        hits.forEach(hit -> hit.setRank(SearchIndex.rank(hit.getMatchInfo())));
+        hits.sort(Comparator.comparingDouble(SongSearchHit::getRank).reversed()
+                .thenComparing(SongSearchHit::getFilename, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+}
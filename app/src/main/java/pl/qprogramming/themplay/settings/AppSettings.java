@@ -0,0 +1,59 @@
+package pl.qprogramming.themplay.settings;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import pl.qprogramming.themplay.logger.Logger;
+
+/**
+ * Holds current {@link SettingsSnapshot}.
+ * <p>
+ * Snapshot is rebuilt whenever preferences change and published through a volatile field,
+ * so services can read settings on hot paths (every fade, next/previous) lock-free.
+ * Initialized from the application, {@link #get(Context)} initializes lazily as a fallback.
+ */
+public class AppSettings {
+    private static final String TAG = AppSettings.class.getSimpleName();
+
+    private static volatile SettingsSnapshot snapshot;
+    private static SharedPreferences preferences;
+
+    /**
+     * Kept in static field, preferences only hold listeners weakly
+     */
+    private static final SharedPreferences.OnSharedPreferenceChangeListener mPrefListener =
+            (sharedPreferences, key) -> {
+                snapshot = SettingsSnapshot.from(sharedPreferences);
+                Logger.d(TAG, "Settings changed (" + key + "), snapshot refreshed");
+            };
+
+    private AppSettings() {
+    }
+
+    public static synchronized void initialize(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context.getApplicationContext());
+        if (prefs != preferences) {
+            if (preferences != null) {
+                preferences.unregisterOnSharedPreferenceChangeListener(mPrefListener);
+            }
+            preferences = prefs;
+            prefs.registerOnSharedPreferenceChangeListener(mPrefListener);
+        }
+        snapshot = SettingsSnapshot.from(prefs);
+    }
+
+    /**
+     * @param context any context, used only if settings were not initialized yet
+     * @return current settings snapshot
+     */
+    public static SettingsSnapshot get(Context context) {
+        SettingsSnapshot current = snapshot;
+        if (current == null) {
+            initialize(context);
+            current = snapshot;
+        }
+        return current;
+    }
+}
@@ -5,6 +5,8 @@ public class Property {
     public static final String SHUFFLE_MODE = "app.shuffle";
     public static final String FADE_DURATION = "app.fade";
     public static final String FADE_STOP = "app.fadeStop";
+    public static final String FADE_CURVE = "app.fadeCurve";
+    public static final String LOOKAHEAD_TIME = "app.lookahead";
     public static final String CURRENT_PRESET = "app.preset";
     public static final String KEEP_SCREEN_ON = "app.keepScreen";
     public static final String COPY_PLAYLIST = "app.copy";
@@ -0,0 +1,57 @@
+package pl.qprogramming.themplay.settings;
+
+import android.content.SharedPreferences;
+
+import lombok.Getter;
+import pl.qprogramming.themplay.player.audio.FadeCurve;
+
+/**
+ * Immutable view of settings used on playback paths.
+ * <p>
+ * Values are parsed once when the snapshot is built, readers never touch {@link SharedPreferences}.
+ *
+ * @see AppSettings
+ */
+@Getter
+public final class SettingsSnapshot {
+    static final String DEFAULT_FADE_DURATION = "4";
+    static final String DEFAULT_LOOKAHEAD_TIME = "10";
+
+    private final boolean shuffle;
+    private final boolean fadeStop;
+    /**
+     * Fade duration in milliseconds
+     */
+    private final int fadeDuration;
+    /**
+     * Look-ahead time in milliseconds, 0 means look-ahead is disabled
+     */
+    private final int lookAheadTime;
+    private final FadeCurve fadeCurve;
+
+    private SettingsSnapshot(SharedPreferences sp) {
+        shuffle = sp.getBoolean(Property.SHUFFLE_MODE, true);
+        fadeStop = sp.getBoolean(Property.FADE_STOP, true);
+        fadeDuration = secondsToMillis(sp.getString(Property.FADE_DURATION, DEFAULT_FADE_DURATION), DEFAULT_FADE_DURATION);
+        lookAheadTime = secondsToMillis(sp.getString(Property.LOOKAHEAD_TIME, DEFAULT_LOOKAHEAD_TIME), DEFAULT_LOOKAHEAD_TIME);
+        fadeCurve = FadeCurve.fromKey(sp.getString(Property.FADE_CURVE, FadeCurve.EQUAL_POWER.getKey()));
+    }
+
+    /**
+     * Reads all values from preferences
+     *
+     * @param sp shared preferences
+     * @return new snapshot
+     */
+    static SettingsSnapshot from(SharedPreferences sp) {
+        return new SettingsSnapshot(sp);
+    }
+
+    private static int secondsToMillis(String value, String defaultValue) {
+        try {
+            return Integer.parseInt(value) * 1000;
+        } catch (NumberFormatException e) {
+            return Integer.parseInt(defaultValue) * 1000;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pl.qprogramming.themplay.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import lombok.val;
+
+/**
+ * Fast fingerprint of file content, used to find the same song file referenced from several playlists.
+ * <p>
+ * Only size and three samples of {@link #SAMPLE_SIZE} bytes (beginning, middle and end) are hashed with SHA-1,
+ * so hashing cost doesn't grow with file size. Files up to three samples long are hashed whole.
+ * Tags of audio files are kept at their beginning or end, so copies with different tags get different hashes.
+ */
+public final class ContentHash {
+    public static final int SAMPLE_SIZE = 64 * 1024;
+    private static final String ALGORITHM = "SHA-1";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Hashes file with absolute reads, so that channel position is left untouched
+     *
+     * @param channel channel of regular file
+     * @param size    size of file
+     * @return hex encoded hash
+     */
+    public static String of(FileChannel channel, long size) throws IOException {
+        val digest = sha1();
+        val buffer = ByteBuffer.allocate(SAMPLE_SIZE);
+        buffer.putLong(size).flip();
+        digest.update(buffer);
+        if (size <= 3L * SAMPLE_SIZE) {
+            update(digest, channel, buffer, 0, size);
+        } else {
+            update(digest, channel, buffer, 0, SAMPLE_SIZE);
+            update(digest, channel, buffer, size / 2 - SAMPLE_SIZE / 2, SAMPLE_SIZE);
+            update(digest, channel, buffer, size - SAMPLE_SIZE, SAMPLE_SIZE);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Size alone is not enough, tag edit fitting into padding changes content but keeps the size.
+     * Hash is never trusted if modification time is unknown.
+     *
+     * @param cachedHash     hash stored earlier, may be null
+     * @param cachedSize     size of file when hash was stored
+     * @param cachedModified modification time of file when hash was stored, 0 if unknown
+     * @param size           current size of file
+     * @param modified       current modification time of file, 0 if unknown
+     * @return true if stored hash still describes the file
+     */
+    public static boolean isCurrent(String cachedHash, long cachedSize, long cachedModified, long size, long modified) {
+        return cachedHash != null && cachedSize == size && modified > 0 && cachedModified == modified;
+    }
+
+    private static void update(MessageDigest digest, FileChannel channel, ByteBuffer buffer, long from, long length) throws IOException {
+        long position = from;
+        val end = from + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            val read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File ended at " + position + ", expected " + end + " bytes");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is always available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        val chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private ContentHash() {
+    }
+}
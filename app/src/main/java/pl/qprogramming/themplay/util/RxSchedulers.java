@@ -1,5 +1,6 @@
 package pl.qprogramming.themplay.util;
 
+import io.reactivex.FlowableTransformer;
 import io.reactivex.MaybeTransformer;
 import io.reactivex.SingleTransformer;
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -12,6 +13,12 @@ public class RxSchedulers {
                 .observeOn(AndroidSchedulers.mainThread());
     }
 
+    public static <T> FlowableTransformer<T, T> flowableOnMain() {
+        return upstream -> upstream
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
     public static <T> MaybeTransformer<T, T> maybeOnMain() {
         return upstream -> upstream
                 .subscribeOn(Schedulers.io())
@@ -0,0 +1,99 @@
+package pl.qprogramming.themplay.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Unbiased shuffling based on Fisher-Yates.
+ * <p>
+ * One engine keeps a single {@link Random} for its whole life, pass a seed to get reproducible orders.
+ * {@link #shuffle(List)} shuffles in place in O(n). {@link #lazyShuffle(List)} draws elements one by one
+ * without building the shuffled list, each step costs O(1) and memory grows only with drawn elements.
+ * Both produce every permutation with equal probability.
+ */
+public class ShuffleEngine {
+
+    private final Random random;
+
+    public ShuffleEngine() {
+        this(new Random());
+    }
+
+    public ShuffleEngine(long seed) {
+        this(new Random(seed));
+    }
+
+    ShuffleEngine(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Shuffles list in place
+     *
+     * @param list list to shuffle, must support {@link List#set(int, Object)}
+     */
+    public <T> void shuffle(List<T> list) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T tmp = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, tmp);
+        }
+    }
+
+    /**
+     * Iterates source in random order without copying it.
+     * Source must not be structurally modified while iterating.
+     *
+     * @param source list to draw elements from
+     * @return iterator returning every element of source exactly once
+     */
+    public <T> Iterator<T> lazyShuffle(List<T> source) {
+        return new LazyShuffleIterator<>(source, random);
+    }
+
+    /**
+     * Fisher-Yates run on virtual index array. Only swapped positions are remembered,
+     * all others still hold their own index.
+     */
+    private static class LazyShuffleIterator<T> implements Iterator<T> {
+        private final List<T> source;
+        private final Random random;
+        private final Map<Integer, Integer> swapped = new HashMap<>();
+        private int remaining;
+
+        LazyShuffleIterator(List<T> source, Random random) {
+            this.source = source;
+            this.random = random;
+            this.remaining = source.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int pick = random.nextInt(remaining);
+            int last = remaining - 1;
+            int index = indexAt(pick);
+            swapped.put(pick, indexAt(last));
+            swapped.remove(last);
+            remaining--;
+            return source.get(index);
+        }
+
+        private int indexAt(int position) {
+            Integer index = swapped.get(position);
+            return index == null ? position : index;
+        }
+    }
+}
@@ -11,7 +11,6 @@ import androidx.fragment.app.FragmentManager;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Random;
 
 import lombok.val;
 import pl.qprogramming.themplay.R;
@@ -36,6 +35,7 @@ public class Utils {
     public static final String WIDTH = "width";
     public static final String HEIGHT = "height";
     public static final String TAG = Utils.class.getSimpleName();
+    private static final ShuffleEngine SHUFFLE_ENGINE = new ShuffleEngine();
 
 
     private Utils() {
@@ -105,24 +105,30 @@ public class Utils {
      * @param playlist playlists which songs should be shuffled
      */
     public static void createPlaylist(Playlist playlist, boolean shuffle) {
+        createPlaylist(playlist, shuffle, SHUFFLE_ENGINE);
+    }
+
+    /**
+     * Shuffles all songs from playlist into random order using given engine.
+     * Then takes current playlist song and moves it to the end
+     *
+     * @param playlist      playlists which songs should be shuffled
+     * @param shuffleEngine engine used to shuffle songs
+     */
+    public static void createPlaylist(Playlist playlist, boolean shuffle, ShuffleEngine shuffleEngine) {
         val list = new ArrayList<>(playlist.getSongs());
         if (shuffle) {
-            val shuffledPlaylist = new ArrayList<Song>();
-            while (!list.isEmpty()) {
-                var index = list.size() - 1;
-                if (index > 0) {
-                    index = new Random().nextInt(list.size() - 1);
-                }
-                shuffledPlaylist.add(list.get(index));
-                list.remove(index);
+            shuffleEngine.shuffle(list);
+            val currentSong = playlist.getCurrentSong();
+            val currentIndex = list.indexOf(currentSong);
+            if (currentIndex >= 0) {
+                Collections.swap(list, currentIndex, list.size() - 1);
+            } else if (currentSong != null) {
+                list.add(currentSong);
             }
-            shuffledPlaylist.remove(playlist.getCurrentSong());
-            shuffledPlaylist.add(playlist.getCurrentSong());
-            playlist.setPlaylist(shuffledPlaylist);
-        } else {
-            playlist.setPlaylist(list);
         }
-        playlist.getPlaylist().removeAll(Collections.singleton(null));
+        list.removeAll(Collections.singleton(null));
+        playlist.setPlaylist(list);
     }
 
     public static void applyPlaylistStyle(int textColor, TextView textView, boolean textOutline) {
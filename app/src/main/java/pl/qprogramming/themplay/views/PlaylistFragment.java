@@ -1,29 +1,12 @@
 package pl.qprogramming.themplay.views;
 
 import static androidx.preference.PreferenceManager.getDefaultSharedPreferences;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_CHANGE_BACKGROUND;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_ACTIVE;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_ADD;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_DELETE;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_DELETE_SONGS;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_NEXT;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_PAUSE;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_PLAY;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_PREV;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_RECREATE_LIST;
-import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_STOP;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.POSITION;
 import static pl.qprogramming.themplay.util.Utils.navigateToFragment;
 
 import android.annotation.SuppressLint;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.os.Bundle;
 import android.os.IBinder;
@@ -35,17 +18,13 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.Optional;
-
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.logger.Logger;
-import pl.qprogramming.themplay.playlist.EventType;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 import pl.qprogramming.themplay.settings.Property;
 
@@ -71,6 +50,15 @@ public class PlaylistFragment extends Fragment {
         super.onStop();
     }
 
+    @Override
+    public void onDestroyView() {
+        val adapter = (PlaylistItemRecyclerViewAdapter) recyclerView.getAdapter();
+        if (adapter != null) {
+            adapter.stopObserving();
+        }
+        super.onDestroyView();
+    }
+
     void doUnbindService() {
         if (serviceIsBound) {
             this.requireContext().unbindService(mConnection);
@@ -106,46 +94,19 @@ public class PlaylistFragment extends Fragment {
         context.bindService(intent, mConnection, Context.BIND_AUTO_CREATE);
     }
 
-    @Override
-    public void onResume() {
-        Logger.d(TAG, "onResume CALLED. Activity instance: " + this.toString());
-        super.onResume();
-        val filter = new IntentFilter(PLAYLIST_NOTIFICATION.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_ADD.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_DELETE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_ACTIVE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_RECREATE_LIST.getCode());
-        filter.addAction(PLAYLIST_CHANGE_BACKGROUND.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_NEW_ACTIVE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_DELETE_SONGS.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_PLAY.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_PAUSE.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_NEXT.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_PREV.getCode());
-        filter.addAction(PLAYLIST_NOTIFICATION_STOP.getCode());
-        LocalBroadcastManager.getInstance(requireActivity()).registerReceiver(receiver, filter);
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        Logger.d(TAG, "onDestroy CALLED. Activity instance: " + this.toString());
-        try {
-            LocalBroadcastManager.getInstance(requireActivity()).unregisterReceiver(receiver);
-        } catch (IllegalArgumentException e) {
-            Logger.d(TAG, "Receiver not registered");
-        }
-    }
-
     private final ServiceConnection mConnection = new ServiceConnection() {
         @SuppressLint("CheckResult")
         public void onServiceConnected(ComponentName className, IBinder service) {
             Logger.d(TAG, "Connected service within PlaylistFragment ");
             playlistService = ((PlaylistService.LocalBinder) service).getService();
             serviceIsBound = true;
+            val previous = (PlaylistItemRecyclerViewAdapter) recyclerView.getAdapter();
+            if (previous != null) {
+                previous.stopObserving();
+            }
             val adapter = new PlaylistItemRecyclerViewAdapter(playlistService, getActivity());
             recyclerView.setAdapter(adapter);
-            adapter.loadPlaylists();
+            adapter.observePlaylists();
             ItemTouchHelper.Callback callback =
                     new PlaylistItemMoveCallback(adapter);
             ItemTouchHelper touchHelper = new ItemTouchHelper(callback);
@@ -156,51 +117,5 @@ public class PlaylistFragment extends Fragment {
             playlistService = null;
         }
     };
-    /**
-     * Redraw recycler view on any action recived
-     */
-    private final BroadcastReceiver receiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Logger.d(TAG, "[EVENT] Received event " + intent.getAction());
-            val event = EventType.getType(intent.getAction());
-            Bundle args = intent.getBundleExtra(ARGS);
-            if (args != null) {
-                val adapter = (PlaylistItemRecyclerViewAdapter) recyclerView.getAdapter();
-                if (adapter == null) {
-                    Logger.w(TAG, "Lost Adapter while receiving event");
-                    return;
-                }
-                switch (event) {
-                    case PLAYLIST_CHANGE_BACKGROUND:
-                    case PLAYLIST_NOTIFICATION_PLAY:
-                    case PLAYLIST_NOTIFICATION_NEXT:
-                    case PLAYLIST_NOTIFICATION_STOP:
-                    case PLAYLIST_NOTIFICATION_PREV:
-                        Optional.ofNullable(args.getSerializable(POSITION))
-                                .ifPresent(position -> {
-                                    int activated = (int) position;
-                                    adapter.reloadItemAt(activated);
-                                    adapter.notifyItemChanged(activated);
-                                });
-                        break;
-                    case PLAYLIST_NOTIFICATION_ACTIVE:
-                    case PLAYLIST_NOTIFICATION_ADD:
-                        adapter.loadPlaylists();
-                        break;
-                    case PLAYLIST_NOTIFICATION_DELETE:
-                        Optional.ofNullable(args.getSerializable(POSITION))
-                                .ifPresent(position -> {
-                                    adapter.notifyItemRemoved((Integer) position);
-                                    adapter.loadPlaylists();
-                                });
-                        break;
-                    default:
-                        Logger.d(TAG, "Processing event within playlistFragment, reloading  " + intent.getAction());
-                        adapter.notifyDataSetChanged();
-                }
-            }
-        }
-    };
 
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package pl.qprogramming.themplay.views;
 
 import static pl.qprogramming.themplay.playlist.EventType.PLAYLIST_NOTIFICATION_NEW_ACTIVE;
 import static pl.qprogramming.themplay.settings.Property.COPY_PLAYLIST;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
 import static pl.qprogramming.themplay.util.Utils.applyPlaylistStyle;
 import static pl.qprogramming.themplay.util.Utils.getThemeColor;
 import static pl.qprogramming.themplay.util.Utils.isEmpty;
@@ -11,12 +10,8 @@ import static pl.qprogramming.themplay.util.Utils.navigateToFragment;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
-import android.os.Bundle;
-import android.util.Base64;
+import android.text.format.DateUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -33,29 +28,54 @@ import androidx.cardview.widget.CardView;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.fragment.app.FragmentActivity;
 import androidx.fragment.app.FragmentManager;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
+import io.reactivex.disposables.Disposable;
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.PlaylistSummary;
+import pl.qprogramming.themplay.image.BitmapLoader;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.PlaylistService;
-import pl.qprogramming.themplay.util.Utils;
 
 /**
  * {@link RecyclerView.Adapter} that can display a {@link Playlist}.
+ * Cards are rendered from {@link PlaylistSummary}, full playlist is only loaded when it's edited.
+ * Summaries are observed from database, every new list is diffed on background thread
+ * so only cards which really changed are rebound.
  */
-public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<PlaylistItemRecyclerViewAdapter.ViewHolder> implements PlaylistItemMoveCallback.ItemTouchHelperContract {
+public class PlaylistItemRecyclerViewAdapter extends ListAdapter<PlaylistSummary, PlaylistItemRecyclerViewAdapter.ViewHolder> implements PlaylistItemMoveCallback.ItemTouchHelperContract {
 
     private static final String TAG = PlaylistItemRecyclerViewAdapter.class.getSimpleName();
-    private final List<Playlist> playlists = new ArrayList<>();
+    private static final DiffUtil.ItemCallback<PlaylistSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PlaylistSummary oldItem, @NonNull PlaylistSummary newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PlaylistSummary oldItem, @NonNull PlaylistSummary newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    private Disposable subscription;
+    /**
+     * Working copy of list while card is being dragged, database updates are not applied meanwhile
+     */
+    private List<PlaylistSummary> dragList;
     private int activeColor;
     private int cardBackgroundColor;
 
@@ -63,9 +83,12 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
     private final PlaylistService playlistService;
     private final FragmentManager fmanager;
     private int[] colorArray;
+    private int backgroundWidth;
+    private int backgroundHeight;
 
     @SuppressLint("CheckResult")
     public PlaylistItemRecyclerViewAdapter(PlaylistService playlistService, FragmentActivity activity) {
+        super(DIFF_CALLBACK);
         this.playlistService = playlistService;
         if (activity != null) {
             this.fmanager = activity.getSupportFragmentManager();
@@ -75,18 +98,29 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
     }
 
     /**
-     * Loads all playlists into adapter.
+     * Starts observing playlists of current preset, adapter is updated on every change in database
      */
-    public void loadPlaylists() {
-        playlistService.getAllByPresetName(updatedPlaylists -> {
-            this.playlists.clear();
-            this.playlists.addAll(updatedPlaylists);
-            notifyDataSetChanged();
-        }, throwable -> {
-            Logger.e("Adapter", "Error loading playlists into adapter", throwable);
-            this.playlists.clear();
-            notifyDataSetChanged();
-        });
+    public void observePlaylists() {
+        stopObserving();
+        subscription = playlistService.observeSummariesByPresetName()
+                .subscribe(summaries -> {
+                    if (dragList == null) {
+                        submitList(summaries);
+                    }
+                }, throwable -> {
+                    Logger.e(TAG, "Error observing playlists", throwable);
+                    submitList(Collections.emptyList());
+                });
+    }
+
+    /**
+     * Stops observing playlists, list stays as it was
+     */
+    public void stopObserving() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
     }
 
     @Override
@@ -94,6 +128,11 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
     public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.playlist_item, parent, false);
+        if (backgroundWidth <= 0) {
+            val resources = parent.getResources();
+            backgroundWidth = parent.getWidth() > 0 ? parent.getWidth() : resources.getDisplayMetrics().widthPixels;
+            backgroundHeight = Math.round(resources.getDimension(R.dimen.playlist_max_height));
+        }
         return new ViewHolder(view);
     }
 
@@ -101,10 +140,15 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
     @SuppressLint("CheckResult")
     public void onBindViewHolder(@NonNull final ViewHolder holder, int position) {
         //it might happen service is not yet connected
-        val playlist = playlists.get(position);
+        val playlist = getItem(position);
         loadColors(holder.mView.getContext());
         holder.mPlaylistName.setText(playlist.getName());
-        holder.mPlaylistName.setText(MessageFormat.format("{0} ({1})", playlist.getName(), playlist.getSongCount()));
+        if (playlist.getTotalDuration() > 0) {
+            val totalLength = DateUtils.formatElapsedTime(playlist.getTotalDuration() / 1000);
+            holder.mPlaylistName.setText(MessageFormat.format("{0} ({1}, {2})", playlist.getName(), playlist.getSongCount(), totalLength));
+        } else {
+            holder.mPlaylistName.setText(MessageFormat.format("{0} ({1})", playlist.getName(), playlist.getSongCount()));
+        }
         int textColor = colorArray[playlist.getTextColor()];
 
         applyPlaylistStyle(textColor, holder.mPlaylistName, playlist.isTextOutline());
@@ -114,34 +158,36 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
                 textColor
         );
         holder.playlist = playlist;
-        if (playlist.getCurrentSong() != null) {
-            holder.mCurrentFilename.setText(playlist.getCurrentSong().getFilename());
-        }
-        if (!isEmpty(playlist.getBackgroundImage())) {
-            holder.mCardView.setBackgroundColor(Color.TRANSPARENT);
-            byte[] decodedString = Base64.decode(playlist.getBackgroundImage(), Base64.DEFAULT);
-            Bitmap decodedImage = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-            holder.background.setImageBitmap(decodedImage);
-            holder.background.setScaleType(ImageView.ScaleType.CENTER_CROP);
-        } else {
-            holder.mCardView.setBackgroundColor(cardBackgroundColor);
-        }
+        holder.mCurrentFilename.setText(playlist.getCurrentSongFilename());
+        holder.mCardView.setBackgroundColor(isEmpty(playlist.getBackgroundRef()) ? cardBackgroundColor : Color.TRANSPARENT);
+        BitmapLoader.get(holder.mView.getContext()).load(playlist.getBackgroundRef(), holder.background,
+                backgroundWidth, backgroundHeight, bitmap -> {
+                    holder.background.setImageBitmap(bitmap);
+                    holder.background.setScaleType(ImageView.ScaleType.CENTER_CROP);
+                });
         //render is active
         setActive(holder, playlist);
         //action menu
-        configureMenu(holder, position, playlist);
+        configureMenu(holder, playlist);
         holder.mTextWrapper.setOnClickListener(contentView -> setActive(playlist));
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        BitmapLoader.get(holder.mView.getContext()).cancel(holder.background);
+        holder.background.setImageBitmap(null);
+    }
+
     private void loadColors(Context context) {
         activeColor = getThemeColor(context, R.attr.colorSecondary);
         cardBackgroundColor = getThemeColor(context, R.attr.card_background_color);
         colorArray = loadColorsArray(context);
     }
 
-    private void setActive(@NonNull ViewHolder holder, Playlist playlist) {
+    private void setActive(@NonNull ViewHolder holder, PlaylistSummary playlist) {
         if (playlist.isActive()) {
-            if (!isEmpty(playlist.getBackgroundImage())) {
+            if (!isEmpty(playlist.getBackgroundRef())) {
                 holder.background.setAlpha(1f);
             }
             holder.active.setBackgroundColor(activeColor);
@@ -149,7 +195,7 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
             holder.mCurrentFilename.setVisibility(View.VISIBLE);
             holder.mCurrentFilename.setSelected(true);
         } else {
-            if (!isEmpty(playlist.getBackgroundImage())) {
+            if (!isEmpty(playlist.getBackgroundRef())) {
                 holder.background.setAlpha(0.5f);
             }
             holder.active.setVisibility(View.INVISIBLE);
@@ -159,7 +205,7 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
     }
 
     @SuppressLint("CheckResult")
-    private void configureMenu(@NonNull ViewHolder holder, int position, Playlist playlist) {
+    private void configureMenu(@NonNull ViewHolder holder, PlaylistSummary playlist) {
         holder.actionMenu.setOnClickListener(view -> {
             val popup = new PopupMenu(holder.mView.getContext(), holder.actionMenu);
             popup.getMenuInflater().inflate(R.menu.playlist_menu, popup.getMenu());
@@ -168,10 +214,10 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
                 val context = holder.mCardView.getContext();
                 if (itemId == R.id.editPlaylist) {
                     Logger.d(TAG, "Editing playlist " + playlist.getId());
-                    navigateToFragment(
+                    withPlaylist(playlist, fullPlaylist -> navigateToFragment(
                             fmanager,
-                            new PlaylistSettingsFragment(playlist),
-                            playlist.getName() + playlist.getId());
+                            new PlaylistSettingsFragment(fullPlaylist),
+                            fullPlaylist.getName() + fullPlaylist.getId()));
                 } else if (itemId == R.id.deletePlaylist) {
                     val msg = MessageFormat.format(context.getString(R.string.playlist_delete_playlist_confirm), playlist.getName());
                     new AlertDialog.Builder(context)
@@ -181,10 +227,10 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
                             .setNegativeButton(context.getString(R.string.cancel), (dialog, which) -> dialog.cancel())
                             .show();
                 } else if (itemId == R.id.change_look) {
-                    navigateToFragment(
+                    withPlaylist(playlist, fullPlaylist -> navigateToFragment(
                             fmanager,
-                            new PlaylistThemeFragment(playlist, position),
-                            "theme" + playlist.getName() + playlist.getId());
+                            new PlaylistThemeFragment(fullPlaylist, holder.getBindingAdapterPosition()),
+                            "theme" + fullPlaylist.getName() + fullPlaylist.getId()));
                 } else if (itemId == R.id.copy) {
                     val spEdit = PreferenceManager.getDefaultSharedPreferences(context).edit();
                     spEdit.putLong(COPY_PLAYLIST, playlist.getId());
@@ -199,35 +245,35 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
         });
     }
 
-    private void setActive(Playlist playlist) {
+    private void setActive(PlaylistSummary playlist) {
         if (playlistService != null) {
-            playlistService.setActive(playlist);
+            playlistService.setActive(playlist.getId());
         }
     }
 
-    private void removePlaylist(Playlist playlist) {
+    private void removePlaylist(PlaylistSummary playlist) {
         if (playlistService != null) {
-            playlistService.removePlaylist(playlist);
+            playlistService.removePlaylist(playlist.getId());
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return playlists != null ? playlists.size() : 0;
-    }
-
-    public void reloadItemAt(int index) {
-        var playlist = playlists.get(index);
-        playlistService.findById(playlist.getId(), dbPlaylist -> {
-            playlists.set(index, dbPlaylist);
-            notifyItemChanged(index);
-        }, throwable -> Logger.e(TAG, "Error loading playlist", throwable));
+    /**
+     * Loads full playlist behind summary and passes it to action
+     */
+    private void withPlaylist(PlaylistSummary summary, Consumer<Playlist> action) {
+        if (playlistService != null) {
+            playlistService.findById(summary.getId(), action,
+                    throwable -> Logger.e(TAG, "Error loading playlist " + summary.getId(), throwable));
+        }
     }
 
     @Override
     public void onRowMoved(int fromPosition, int toPosition) {
-        Collections.swap(playlists, fromPosition, toPosition);
-        notifyItemMoved(fromPosition, toPosition);
+        if (dragList == null) {
+            dragList = new ArrayList<>(getCurrentList());
+        }
+        Collections.swap(dragList, fromPosition, toPosition);
+        submitList(new ArrayList<>(dragList));
     }
 
     @Override
@@ -242,24 +288,21 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
         if (!viewHolder.playlist.isActive()) {
             viewHolder.background.setAlpha(0.5f);
         }
-        for (int i = 0; i < playlists.size(); i++) {
-            val playlist = playlists.get(i);
-            playlist.setPosition(i);
+        if (dragList == null) {
+            return;
         }
-        playlistService.saveAll(playlists);
-        playlists
+        val reordered = dragList;
+        dragList = null;
+        playlistService.savePositions(reordered);
+        reordered
                 .stream()
-                .filter(Playlist::isActive)
+                .filter(PlaylistSummary::isActive)
                 .findFirst()
-                .ifPresent(playlist ->
-                        playlistService
-                                .loadSongs(playlist, playlistWithSongs -> {
-                                    val intent = new Intent(PLAYLIST_NOTIFICATION_NEW_ACTIVE.getCode());
-                                    val args = new Bundle();
-                                    args.putSerializable(Utils.PLAYLIST, playlistWithSongs);
-                                    intent.putExtra(ARGS, args);
-                                    LocalBroadcastManager.getInstance(viewHolder.mView.getContext()).sendBroadcast(intent);
-                                }, throwable -> Logger.e(TAG, "Error loading playlist", throwable)));
+                .ifPresent(summary ->
+                        withPlaylist(summary, playlist -> playlistService
+                                .loadSongs(playlist, playlistWithSongs ->
+                                                EventBus.get().post(Event.handOver(PLAYLIST_NOTIFICATION_NEW_ACTIVE, playlistWithSongs)),
+                                        throwable -> Logger.e(TAG, "Error loading playlist", throwable))));
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -271,7 +314,7 @@ public class PlaylistItemRecyclerViewAdapter extends RecyclerView.Adapter<Playli
         public final CardView mCardView;
         public final ImageView actionMenu;
         public final ImageView background;
-        public Playlist playlist;
+        public PlaylistSummary playlist;
 
         public ViewHolder(View view) {
             super(view);
@@ -3,24 +3,19 @@ package pl.qprogramming.themplay.views;
 import static android.app.Activity.RESULT_OK;
 import static android.content.Intent.ACTION_OPEN_DOCUMENT;
 import static android.content.Intent.FLAG_GRANT_PERSISTABLE_URI_PERMISSION;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.PLAYLIST;
 import static pl.qprogramming.themplay.views.SongListViewAdapter.MULTIPLE_SELECTED;
 
 import android.annotation.SuppressLint;
 import android.content.BroadcastReceiver;
 import android.content.ComponentName;
-import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.ServiceConnection;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.IBinder;
 import android.provider.MediaStore;
-import android.provider.OpenableColumns;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
@@ -29,6 +24,7 @@ import android.view.ViewGroup;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.Button;
 import android.widget.ListView;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -42,7 +38,6 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.io.File;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -54,6 +49,8 @@ import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Song;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.EventType;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNameExistsException;
@@ -74,6 +71,7 @@ public class PlaylistSettingsFragment extends Fragment {
     private TextView headerTitleTextView;
     private boolean multiple;
     private Button removeBtn;
+    private ProgressBar importProgress;
 
     public PlaylistSettingsFragment() {
         // Required empty public constructor
@@ -137,6 +135,7 @@ public class PlaylistSettingsFragment extends Fragment {
 
     private void initializeViews(@NonNull View view) {
         removeBtn = view.findViewById(R.id.remove_selected_songs);
+        importProgress = view.findViewById(R.id.import_progress);
         headerTitleTextView = view.findViewById(R.id.header_title);
         songsListView = view.findViewById(R.id.list_songs);
         playlistEditText = view.findViewById(R.id.playlist_name_input);
@@ -204,7 +203,7 @@ public class PlaylistSettingsFragment extends Fragment {
 
     /**
      * Process selected song URIs.
-     * All uris will be decoded, made readable upon app restart, and added to the playlist.
+     * All uris are imported into the playlist in background, import progress is shown until all songs are added.
      *
      * @param uris List of URIs to process
      */
@@ -213,69 +212,29 @@ public class PlaylistSettingsFragment extends Fragment {
             Logger.e(TAG, "Service or playlist null, or fragment not added. Cannot process URIs.");
             return;
         }
-        List<Song> newSongs = new ArrayList<>();
-        for (Uri uri : uris) {
-            try {
-                val context = this.requireContext();
-                context.getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
-                String displayName = getFileNameFromUri(context, uri);
-                val file = new File(uri.getPath());
-                Logger.d(TAG, "Processing URI: " + uri + " path: " + file.getPath() + " filename" + displayName);
-                val song = Song.builder()
-                        .filename(displayName)
-                        .fileUri(uri.toString())
-                        .filePath(file.getPath())
-                        .build();
-                newSongs.add(song);
-            } catch (SecurityException e) {
-                Logger.e(TAG, "Permission denial for URI: " + uri, e);
-                if (isAdded()) {
-                    Toast.makeText(getContext(), "Permission denied for: " + uri.getLastPathSegment(), Toast.LENGTH_SHORT).show();
-                }
-            } catch (Exception e) {
-                Logger.e(TAG, "Error processing URI: " + uri, e);
-            }
+        if (uris.isEmpty()) {
+            return;
         }
-        if (!newSongs.isEmpty()) {
-            playlistService.addSongToPlaylist(currentPlaylist, newSongs,
-                    updatedPlaylist -> {
-                        currentPlaylist = updatedPlaylist;
-                        if (isAdded()) {
-                            updateAndRenderSongList(true);
-                            Intent intent = new Intent(EventType.PLAYLIST_NOTIFICATION_ADD.getCode());
-                            Bundle args = new Bundle();
-                            args.putSerializable(PLAYLIST, currentPlaylist);
-                            intent.putExtra(ARGS, args);
-                            LocalBroadcastManager.getInstance(requireContext()).sendBroadcast(intent);
+        importProgress.setMax(uris.size());
+        importProgress.setProgress(0);
+        importProgress.setVisibility(View.VISIBLE);
+        playlistService.importSongs(currentPlaylist, uris,
+                progress -> {
+                    if (importProgress != null) {
+                        importProgress.setProgress(progress.getProcessed(), true);
+                        if (progress.isDone()) {
+                            importProgress.setVisibility(View.GONE);
                         }
                     }
-            );
-        }
-    }
-
-    /**
-     * Get the display name of a file from its URI.
-     * This is more elaborate way , which will handle some weird names some files may have
-     *
-     * @param context Context
-     * @param uri     URI of the file
-     * @return Display name of the file
-     */
-    private String getFileNameFromUri(Context context, Uri uri) {
-        String fileName = null;
-        if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
-            try (Cursor cursor = context.getContentResolver().query(uri, null, null, null, null)) {
-                if (cursor != null && cursor.moveToFirst()) {
-                    int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
-                    if (nameIndex != -1) fileName = cursor.getString(nameIndex);
+                },
+                updatedPlaylist -> {
+                    currentPlaylist = updatedPlaylist;
+                    if (isAdded()) {
+                        updateAndRenderSongList(true);
+                        EventBus.get().post(Event.of(EventType.PLAYLIST_NOTIFICATION_ADD, currentPlaylist));
+                    }
                 }
-            } catch (Exception e) {
-                Logger.w(TAG, "Error getting display name from content URI: " + uri, e);
-            }
-        }
-        if (fileName == null)
-            fileName = uri.getLastPathSegment() != null ? uri.getLastPathSegment() : "Unknown_Song";
-        return fileName;
+        );
     }
 
     /**
@@ -7,21 +7,15 @@ import static pl.qprogramming.themplay.util.Utils.POSITION;
 import static pl.qprogramming.themplay.util.Utils.WIDTH;
 import static pl.qprogramming.themplay.util.Utils.applyPlaylistStyle;
 import static pl.qprogramming.themplay.util.Utils.getThemeColor;
-import static pl.qprogramming.themplay.util.Utils.isEmpty;
 import static pl.qprogramming.themplay.util.Utils.loadColorsArray;
 
 import android.app.AlertDialog;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
 import android.os.IBinder;
-import android.util.Base64;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -33,15 +27,18 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.fragment.app.Fragment;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.google.android.material.switchmaterial.SwitchMaterial;
 
+import io.reactivex.disposables.Disposable;
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.activities.ChangeBackgroundActivity;
 import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.image.ImageStore;
 import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.EventType;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 
@@ -54,6 +51,7 @@ public class PlaylistThemeFragment extends Fragment {
 
     private PlaylistService playlistService;
     private boolean serviceIsBound;
+    private Disposable eventSubscription;
     private int position;
     private View mView;
     private ImageView activeBackground;
@@ -100,8 +98,10 @@ public class PlaylistThemeFragment extends Fragment {
             loadElements(view);
             loadColors();
             loadButtonsAndClickListeners(view, context);
-            val filter = new IntentFilter(EventType.PLAYLIST_CHANGE_BACKGROUND.getCode());
-            LocalBroadcastManager.getInstance(context).registerReceiver(receiver, filter);
+            if (eventSubscription != null) {
+                eventSubscription.dispose();
+            }
+            eventSubscription = EventBus.get().subscribe(this::onBackgroundChanged, EventType.PLAYLIST_CHANGE_BACKGROUND);
             updatePreview();
         }
     }
@@ -109,11 +109,9 @@ public class PlaylistThemeFragment extends Fragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        try {
-            LocalBroadcastManager.getInstance(requireActivity()).unregisterReceiver(receiver);
-
-        } catch (IllegalArgumentException e) {
-            Logger.w(TAG, "Receiver not registered");
+        if (eventSubscription != null) {
+            eventSubscription.dispose();
+            eventSubscription = null;
         }
     }
 
@@ -140,8 +138,7 @@ public class PlaylistThemeFragment extends Fragment {
             context.startActivity(intent);
         });
         view.findViewById(R.id.remove_background).setOnClickListener(v -> {
-            playlist.setBackgroundImage(null);
-            playlistService.save(playlist, updated -> {
+            playlistService.changeBackground(playlist, null, updated -> {
                 playlist = updated;
                 updatePreview();
             }, throwable -> Logger.e(TAG, "Error removing background image", throwable));
@@ -223,9 +220,8 @@ public class PlaylistThemeFragment extends Fragment {
         applyPlaylistStyle(textColor, activeName, playlist.isTextOutline());
         applyPlaylistStyle(textColor, activeSong, playlist.isTextOutline());
         val removeBtn = mView.findViewById(R.id.remove_background);
-        if (!isEmpty(playlist.getBackgroundImage())) {
-            byte[] decodedString = Base64.decode(playlist.getBackgroundImage(), Base64.DEFAULT);
-            Bitmap decodedImage = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
+        val decodedImage = ImageStore.get(requireContext()).decode(playlist.getBackgroundRef());
+        if (decodedImage != null) {
             activeBackground.setImageBitmap(decodedImage);
             activeBackground.setScaleType(ImageView.ScaleType.CENTER_CROP);
             removeBtn.setVisibility(View.VISIBLE);
@@ -244,9 +240,7 @@ public class PlaylistThemeFragment extends Fragment {
                 DrawableCompat.wrap(inactiveMenu.getDrawable()),
                 textColor
         );
-        if (!isEmpty(playlist.getBackgroundImage())) {
-            byte[] decodedString = Base64.decode(playlist.getBackgroundImage(), Base64.DEFAULT);
-            Bitmap decodedImage = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
+        if (decodedImage != null) {
             inactiveBackground.setImageBitmap(decodedImage);
             inactiveBackground.setAlpha(0.5f);
             inactiveBackground.setScaleType(ImageView.ScaleType.CENTER_CROP);
@@ -262,16 +256,13 @@ public class PlaylistThemeFragment extends Fragment {
                 .popBackStack();
     }
 
-    private final BroadcastReceiver receiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Logger.d(TAG, "[EVENT] Received event " + intent.getAction());
-            playlistService.findById(playlist.getId(), fetchedPlaylist -> {
-                playlist = fetchedPlaylist;
-                updatePreview();
-            }, throwable -> Logger.e(TAG, "Error getting playlist", throwable));
-        }
-    };
+    private void onBackgroundChanged(Event event) {
+        Logger.d(TAG, "[EVENT] Received event {}", event.getType());
+        playlistService.findById(playlist.getId(), fetchedPlaylist -> {
+            playlist = fetchedPlaylist;
+            updatePreview();
+        }, throwable -> Logger.e(TAG, "Error getting playlist", throwable));
+    }
 
     private final ServiceConnection mConnection = new ServiceConnection() {
         public void onServiceConnected(ComponentName className, IBinder service) {
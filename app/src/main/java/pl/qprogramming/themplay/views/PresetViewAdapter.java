@@ -6,9 +6,6 @@ import static pl.qprogramming.themplay.playlist.EventType.PRESET_REMOVED;
 import static pl.qprogramming.themplay.playlist.EventType.PRESET_SAVE;
 import static pl.qprogramming.themplay.util.Utils.getThemeColor;
 
-import android.content.Context;
-import android.content.Intent;
-import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -18,7 +15,6 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.MessageFormat;
@@ -29,6 +25,8 @@ import lombok.Setter;
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.domain.Preset;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.settings.Property;
 
 @Getter
@@ -37,9 +35,6 @@ public class PresetViewAdapter extends RecyclerView.Adapter<PresetViewAdapter.Vi
     private List<Preset> presets;
     @Setter
     private boolean multiple;
-    private static final String POSITION = "position";
-    private static final String PRESET = "preset";
-    private static final String ARGS = "args";
 
     public PresetViewAdapter(List<Preset> items) {
         presets = items;
@@ -65,19 +60,18 @@ public class PresetViewAdapter extends RecyclerView.Adapter<PresetViewAdapter.Vi
             spEdit.apply();
             val msg = MessageFormat.format(context.getString(R.string.presets_activated), preset.getName());
             Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
-            Intent intent = new Intent(PRESET_ACTIVATED.getCode());
-            LocalBroadcastManager.getInstance(holder.mView.getContext()).sendBroadcast(intent);
+            EventBus.get().post(Event.of(PRESET_ACTIVATED));
         });
         holder.delete.setOnClickListener(click -> {
             val msg = MessageFormat.format(context.getString(R.string.preset_delete_confirm), preset.getName());
             new AlertDialog.Builder(context)
                     .setTitle(context.getString(R.string.preset_delete))
                     .setMessage(msg)
-                    .setPositiveButton(context.getString(R.string.delete), (dialog, which) -> removePreset(position, preset, context))
+                    .setPositiveButton(context.getString(R.string.delete), (dialog, which) -> removePreset(position, preset))
                     .setNegativeButton(context.getString(R.string.cancel), (dialog, which) -> dialog.cancel())
                     .show();
         });
-        holder.save.setOnClickListener(click -> savePreset(preset,context));
+        holder.save.setOnClickListener(click -> savePreset(preset));
         val currentPreset = sp.getString(Property.CURRENT_PRESET, null);
         if (preset.getName().equals(currentPreset)) {
             holder.mView.setBackgroundColor(getThemeColor(holder.mView, R.attr.colorSecondary));
@@ -89,21 +83,12 @@ public class PresetViewAdapter extends RecyclerView.Adapter<PresetViewAdapter.Vi
 
     }
 
-    private void removePreset(int position, Preset preset, Context context) {
-        Intent intent = new Intent(PRESET_REMOVED.getCode());
-        val args = new Bundle();
-        args.putSerializable(POSITION, position);
-        args.putSerializable(PRESET, preset);
-        intent.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+    private void removePreset(int position, Preset preset) {
+        EventBus.get().post(Event.builder().type(PRESET_REMOVED).presetName(preset.getName()).position(position).build());
     }
 
-    private void savePreset(Preset preset, Context context) {
-        Intent intent = new Intent(PRESET_SAVE.getCode());
-        val args = new Bundle();
-        args.putSerializable(PRESET, preset);
-        intent.putExtra(ARGS, args);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+    private void savePreset(Preset preset) {
+        EventBus.get().post(Event.builder().type(PRESET_SAVE).presetName(preset.getName()).build());
     }
 
     @Override
@@ -5,16 +5,11 @@ import static pl.qprogramming.themplay.playlist.EventType.PRESET_ACTIVATED;
 import static pl.qprogramming.themplay.playlist.EventType.PRESET_REMOVED;
 import static pl.qprogramming.themplay.playlist.EventType.PRESET_SAVE;
 import static pl.qprogramming.themplay.settings.Property.CURRENT_PRESET;
-import static pl.qprogramming.themplay.util.Utils.ARGS;
-import static pl.qprogramming.themplay.util.Utils.POSITION;
-import static pl.qprogramming.themplay.util.Utils.PRESET;
 
 import android.app.Activity;
-import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.os.Bundle;
 import android.os.IBinder;
@@ -34,22 +29,23 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.MessageFormat;
 import java.util.List;
-import java.util.Optional;
 
+import io.reactivex.disposables.Disposable;
 import lombok.SneakyThrows;
 import lombok.val;
 import pl.qprogramming.themplay.R;
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Preset;
 import pl.qprogramming.themplay.logger.Logger;
-import pl.qprogramming.themplay.playlist.EventType;
+import pl.qprogramming.themplay.playlist.Event;
+import pl.qprogramming.themplay.playlist.EventBus;
 import pl.qprogramming.themplay.playlist.PlaylistService;
 import pl.qprogramming.themplay.preset.AsyncPlaylistZipPacker;
+import pl.qprogramming.themplay.preset.AsyncPresetZipUnpacker;
 import pl.qprogramming.themplay.preset.exceptions.PresetAlreadyExistsException;
 import pl.qprogramming.themplay.settings.Property;
 
@@ -65,6 +61,7 @@ public class PresetsFragment extends Fragment {
     private boolean serviceIsBound;
     private List<Playlist> presetContentBuffer;
     private View fragmentRootView;
+    private Disposable eventSubscription;
 
     public PresetsFragment() {
     }
@@ -95,6 +92,7 @@ public class PresetsFragment extends Fragment {
                         .getSupportFragmentManager()
                         .popBackStack());
         view.findViewById(R.id.add_preset).setOnClickListener(click -> addPreset());
+        view.findViewById(R.id.import_preset).setOnClickListener(click -> importPreset());
     }
 
     private void renderPresetList(@NonNull View view) {
@@ -128,26 +126,36 @@ public class PresetsFragment extends Fragment {
                 .show();
     }
 
+    private void importPreset() {
+        val openIntent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        openIntent.addCategory(Intent.CATEGORY_OPENABLE);
+        openIntent.setType("*/*");
+        openIntent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"application/zip", "application/x-zip-compressed"});
+        fileOpenActivityResultLauncher.launch(openIntent);
+    }
+
     @Override
     public void onResume() {
         super.onResume();
-        val filter = new IntentFilter(PRESET_ACTIVATED.getCode());
-        filter.addAction(PRESET_REMOVED.getCode());
-        filter.addAction(PRESET_SAVE.getCode());
-        LocalBroadcastManager.getInstance(requireActivity()).registerReceiver(receiver, filter);
+        if (eventSubscription == null) {
+            eventSubscription = EventBus.get().subscribe(this::onEvent, PRESET_ACTIVATED, PRESET_REMOVED, PRESET_SAVE);
+        }
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        if (eventSubscription != null) {
+            eventSubscription.dispose();
+            eventSubscription = null;
+        }
         try {
-            LocalBroadcastManager.getInstance(requireActivity()).unregisterReceiver(receiver);
             if (serviceIsBound) {
                 this.requireContext().unbindService(mConnection);
                 serviceIsBound = false;
             }
         } catch (IllegalArgumentException e) {
-            Logger.d(TAG, "Receiver not registered");
+            Logger.d(TAG, "Service not bound");
         }
     }
 
@@ -179,58 +187,48 @@ public class PresetsFragment extends Fragment {
         spEdit.apply();
         val msg = MessageFormat.format(context.getString(R.string.presets_activated), preset.getName());
         Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
-        Intent intent = new Intent(PRESET_ACTIVATED.getCode());
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        EventBus.get().post(Event.of(PRESET_ACTIVATED));
     }
 
-    private final BroadcastReceiver receiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            Logger.d(TAG, "[EVENT] Received event " + intent.getAction());
-            val event = EventType.getType(intent.getAction());
-            val args = intent.getBundleExtra(ARGS);
-            switch (event) {
-                case PRESET_REMOVED:
-                    Optional.ofNullable(args.getSerializable(PRESET))
-                            .ifPresent(object -> {
-                                val removedPreset = (Preset) object;
-                                int position = (int) args.getSerializable(POSITION);
-                                val sp = getDefaultSharedPreferences(context);
-                                val currentPreset = sp.getString(CURRENT_PRESET, null);
-                                if (removedPreset.getName().equals(currentPreset)) {
-                                    sp.edit().putString(CURRENT_PRESET, null).apply();
-                                    val newIntent = new Intent(PRESET_ACTIVATED.getCode());
-                                    LocalBroadcastManager.getInstance(context).sendBroadcast(newIntent);
-                                }
-                                adapter.getPresets().remove(position);
-                                adapter.notifyItemRemoved(position);
-                            });
-                    break;
-                case PRESET_SAVE:
-                    Optional.ofNullable(args.getSerializable(PRESET))
-                            .ifPresent(object -> {
-                                val savedPreset = (Preset) object;
-                                presetContentBuffer = null;
-                                playlistService.getAllByPresetName(savedPreset.getName(),
-                                        playlistList -> {
-                                            val saveIntent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
-                                            saveIntent.addCategory(Intent.CATEGORY_OPENABLE);
-                                            saveIntent.setType("application/zip");
-                                            saveIntent.putExtra(Intent.EXTRA_TITLE, savedPreset.getName() + ".zip");
-                                            presetContentBuffer = playlistList;
-                                            fileSaveActivityResultLauncher.launch(saveIntent);
-                                        },
-                                        throwable -> {
-                                            Logger.e(TAG, "Error getting playlists for preset", throwable);
-                                        });
+    private void onEvent(Event event) {
+        Logger.d(TAG, "[EVENT] Received event {}", event.getType());
+        val presetName = event.getPresetName();
+        switch (event.getType()) {
+            case PRESET_REMOVED:
+                if (presetName != null) {
+                    int position = event.getPosition();
+                    val sp = getDefaultSharedPreferences(requireContext());
+                    val currentPreset = sp.getString(CURRENT_PRESET, null);
+                    if (presetName.equals(currentPreset)) {
+                        sp.edit().putString(CURRENT_PRESET, null).apply();
+                        EventBus.get().post(Event.of(PRESET_ACTIVATED));
+                    }
+                    adapter.getPresets().remove(position);
+                    adapter.notifyItemRemoved(position);
+                }
+                break;
+            case PRESET_SAVE:
+                if (presetName != null) {
+                    presetContentBuffer = null;
+                    playlistService.getAllByPresetName(presetName,
+                            playlistList -> {
+                                val saveIntent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                                saveIntent.addCategory(Intent.CATEGORY_OPENABLE);
+                                saveIntent.setType("application/zip");
+                                saveIntent.putExtra(Intent.EXTRA_TITLE, presetName + ".zip");
+                                presetContentBuffer = playlistList;
+                                fileSaveActivityResultLauncher.launch(saveIntent);
+                            },
+                            throwable -> {
+                                Logger.e(TAG, "Error getting playlists for preset", throwable);
                             });
-                    break;
-                case PRESET_ACTIVATED:
-                    adapter.notifyDataSetChanged();
-                    break;
-            }
+                }
+                break;
+            case PRESET_ACTIVATED:
+                adapter.notifyDataSetChanged();
+                break;
         }
-    };
+    }
 
     ActivityResultLauncher<Intent> fileSaveActivityResultLauncher = registerForActivityResult(
             new ActivityResultContracts.StartActivityForResult(),
@@ -247,6 +245,20 @@ public class PresetsFragment extends Fragment {
                 }
             });
 
+    ActivityResultLauncher<Intent> fileOpenActivityResultLauncher = registerForActivityResult(
+            new ActivityResultContracts.StartActivityForResult(),
+            result -> {
+                if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
+                    val uri = result.getData().getData();
+                    val logs = new StringBuilder();
+                    new AsyncPresetZipUnpacker(logs, requireContext(), imported -> {
+                        if (playlistService != null && fragmentRootView != null) {
+                            renderPresetList(fragmentRootView);
+                        }
+                    }).execute(uri);
+                }
+            });
+
     private final ServiceConnection mConnection = new ServiceConnection() {
         public void onServiceConnected(ComponentName className, IBinder service) {
             Logger.d(TAG, "Connected service within PresetsFragment ");
@@ -53,7 +53,8 @@ public class SettingsFragment extends PreferenceFragmentCompat {
             return;
         }
 
-        fadePreference();
+        secondsPreference(Property.FADE_DURATION, R.string.settings_fade_error);
+        secondsPreference(Property.LOOKAHEAD_TIME, R.string.settings_lookahead_error);
         goBackHandling();
         setupAppVersionInteraction();
         setupDebugSectionToggle();
@@ -72,10 +73,10 @@ public class SettingsFragment extends PreferenceFragmentCompat {
         }
     }
 
-    private void fadePreference() {
-        final EditTextPreference fadePref = findPreference(Property.FADE_DURATION);
-        if (fadePref != null) {
-            fadePref.setOnBindEditTextListener(
+    private void secondsPreference(String key, int errorResId) {
+        final EditTextPreference preference = findPreference(key);
+        if (preference != null) {
+            preference.setOnBindEditTextListener(
                     editText -> {
                         editText.setInputType(InputType.TYPE_CLASS_NUMBER);
                         editText.addTextChangedListener(new TextWatcher() {
@@ -91,7 +92,7 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                             public void afterTextChanged(Editable editable) {
                                 String validationError = null;
                                 if (editable.length() == 0) {
-                                    validationError = getString(R.string.settings_fade_error);
+                                    validationError = getString(errorResId);
                                 }
                                 editText.setError(validationError);
                                 if (editText.getRootView().findViewById(android.R.id.button1) != null) {
@@ -101,8 +102,8 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                             }
                         });
                     });
-            fadePref.setSummaryProvider((Preference.SummaryProvider<EditTextPreference>) preference -> {
-                val text = preference.getText();
+            preference.setSummaryProvider((Preference.SummaryProvider<EditTextPreference>) pref -> {
+                val text = pref.getText();
                 return (text == null || text.isEmpty()) ? "" : text + " s";
             });
         }
@@ -0,0 +1,107 @@
+package pl.qprogramming.themplay.views;
+
+import static pl.qprogramming.themplay.util.Utils.navigateToFragment;
+
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.FragmentActivity;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import lombok.val;
+import pl.qprogramming.themplay.R;
+import pl.qprogramming.themplay.domain.SongSearchHit;
+import pl.qprogramming.themplay.logger.Logger;
+import pl.qprogramming.themplay.playlist.PlaylistService;
+
+/**
+ * Dialog searching songs of all presets while user types.
+ * Choosing a hit opens settings of playlist which contains the song.
+ */
+public class SongSearchDialog {
+    private static final String TAG = SongSearchDialog.class.getSimpleName();
+    private static final long DEBOUNCE_MS = 150;
+
+    private final FragmentActivity activity;
+    private final PlaylistService playlistService;
+    private final List<SongSearchHit> hits = new ArrayList<>();
+    private ArrayAdapter<String> adapter;
+    private Disposable pendingSearch = Disposables.disposed();
+
+    public SongSearchDialog(FragmentActivity activity, PlaylistService playlistService) {
+        this.activity = activity;
+        this.playlistService = playlistService;
+    }
+
+    public void show() {
+        val input = new EditText(activity);
+        input.setInputType(InputType.TYPE_CLASS_TEXT);
+        input.setHint(R.string.search_songs_hint);
+        val results = new ListView(activity);
+        adapter = new ArrayAdapter<>(activity, android.R.layout.simple_list_item_1, new ArrayList<>());
+        results.setAdapter(adapter);
+        val layout = new LinearLayout(activity);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.addView(input);
+        layout.addView(results);
+        val dialog = new AlertDialog.Builder(activity)
+                .setTitle(R.string.search_songs)
+                .setView(layout)
+                .setNegativeButton(R.string.cancel, (d, which) -> d.dismiss())
+                .create();
+        dialog.setOnDismissListener(d -> pendingSearch.dispose());
+        results.setOnItemClickListener((parent, view, position, id) -> {
+            val hit = hits.get(position);
+            dialog.dismiss();
+            playlistService.findById(hit.getPlaylistId(),
+                    playlist -> navigateToFragment(activity.getSupportFragmentManager(),
+                            new PlaylistSettingsFragment(playlist), playlist.getName() + playlist.getId()),
+                    throwable -> Logger.e(TAG, "Error opening playlist of found song", throwable));
+        });
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable editable) {
+                search(editable.toString());
+            }
+        });
+        dialog.show();
+    }
+
+    private void search(String text) {
+        pendingSearch.dispose();
+        pendingSearch = Single.timer(DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+                .flatMap(tick -> playlistService.searchSongs(text))
+                .subscribe(this::render, throwable -> Logger.e(TAG, "Error searching songs", throwable));
+    }
+
+    private void render(List<SongSearchHit> found) {
+        hits.clear();
+        hits.addAll(found);
+        adapter.clear();
+        for (SongSearchHit hit : found) {
+            adapter.add(MessageFormat.format("{0}\n{1} ({2})", hit.getFilename(), hit.getPlaylistName(), hit.getPreset()));
+        }
+        adapter.notifyDataSetChanged();
+    }
+}
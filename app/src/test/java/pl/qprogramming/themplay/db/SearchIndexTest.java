@@ -0,0 +1,62 @@
+package pl.qprogramming.themplay.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class SearchIndexTest {
+
+    @Test
+    public void everyWordIsMatchedAsPrefix() {
+        assertEquals("tavern* fid*", SearchIndex.matchQuery("tavern fid"));
+        assertEquals("tavern* fiddle* 01*", SearchIndex.matchQuery("  Tavern_fiddle-01 "));
+    }
+
+    @Test
+    public void queryOperatorsAreNotPassedThrough() {
+        assertEquals("a* b*", SearchIndex.matchQuery("\"a\" -b*"));
+        assertEquals("a* or* b*", SearchIndex.matchQuery("a OR b"));
+    }
+
+    @Test
+    public void textWithoutWordsGivesNoQuery() {
+        assertNull(SearchIndex.matchQuery(null));
+        assertNull(SearchIndex.matchQuery(""));
+        assertNull(SearchIndex.matchQuery(" *\"- "));
+    }
+
+    @Test
+    public void fileNameHitsRankAbovePlaylistNameHits() {
+        // one phrase, two columns: {hits in row, hits in all rows, rows with hits}
+        double inFilename = SearchIndex.rank(matchInfo(1, 2, 1, 4, 4, 0, 3, 3));
+        double inPlaylistName = SearchIndex.rank(matchInfo(1, 2, 0, 4, 4, 1, 3, 3));
+        assertTrue(inFilename > inPlaylistName);
+        assertTrue(inPlaylistName > 0);
+    }
+
+    @Test
+    public void rareTermsRankAboveCommonOnes() {
+        double rare = SearchIndex.rank(matchInfo(1, 2, 1, 2, 2, 0, 0, 0));
+        double common = SearchIndex.rank(matchInfo(1, 2, 1, 50, 50, 0, 0, 0));
+        assertTrue(rare > common);
+    }
+
+    @Test
+    public void missingMatchInfoRanksZero() {
+        assertEquals(0, SearchIndex.rank(null), 0);
+        assertEquals(0, SearchIndex.rank(new byte[2]), 0);
+    }
+
+    private static byte[] matchInfo(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.nativeOrder());
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+}
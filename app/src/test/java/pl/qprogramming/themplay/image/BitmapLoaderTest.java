@@ -0,0 +1,207 @@
+package pl.qprogramming.themplay.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.widget.ImageView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.android.plugins.RxAndroidPlugins;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@RunWith(RobolectricTestRunner.class)
+public class BitmapLoaderTest {
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 20;
+    /**
+     * Cache holding exactly one decoded image
+     */
+    private static final int ONE_IMAGE = WIDTH * HEIGHT * 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TestScheduler io = new TestScheduler();
+    private ImageStore store;
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.setIoSchedulerHandler(scheduler -> io);
+        RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> Schedulers.trampoline());
+        store = new ImageStore(new File(folder.getRoot(), ImageStore.IMAGES_DIR));
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+    }
+
+    @Test
+    public void cachedImageIsNotDecodedAgain() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE * 4);
+        String ref = image(Color.RED);
+        List<Bitmap> first = load(loader, ref, target());
+        io.triggerActions();
+        List<Bitmap> second = load(loader, ref, target());
+
+        assertEquals(1, second.size());
+        assertSame(first.get(0), second.get(0));
+        assertEquals(1, loader.getDecodes());
+        assertEquals(1, loader.getHits());
+    }
+
+    @Test
+    public void sameImageRequestedTwiceIsDecodedOnce() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE * 4);
+        String ref = image(Color.RED);
+        List<Bitmap> first = load(loader, ref, target());
+        List<Bitmap> second = load(loader, ref, target());
+        io.triggerActions();
+
+        assertNotNull(first.get(0));
+        assertSame(first.get(0), second.get(0));
+        assertEquals(1, loader.getDecodes());
+    }
+
+    @Test
+    public void cancelledLoadIsNotDelivered() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE * 4);
+        ImageView target = target();
+        List<Bitmap> loaded = load(loader, image(Color.RED), target);
+        loader.cancel(target);
+        io.triggerActions();
+
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    public void newLoadReplacesPendingOneOfSameTarget() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE * 4);
+        ImageView target = target();
+        List<Bitmap> replaced = load(loader, image(Color.RED), target);
+        List<Bitmap> loaded = load(loader, image(Color.GREEN), target);
+        io.triggerActions();
+
+        assertTrue(replaced.isEmpty());
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    public void clearedImageIsDecodedAgain() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE * 4);
+        String ref = image(Color.RED);
+        load(loader, ref, target());
+        io.triggerActions();
+        loader.clear();
+        load(loader, ref, target());
+        io.triggerActions();
+
+        assertEquals(2, loader.getDecodes());
+    }
+
+    @Test
+    public void evictedBitmapNotShownAnymoreIsReused() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE);
+        ImageView first = target();
+        Bitmap red = loadNow(loader, image(Color.RED), first);
+        loader.cancel(first);
+        loadNow(loader, image(Color.GREEN), target());
+        Bitmap blue = loadNow(loader, image(Color.BLUE), target());
+
+        assertEquals(1, loader.getReused());
+        assertSame(red, blue);
+    }
+
+    @Test
+    public void shownBitmapIsNotReusedBeforeItsReplacementIsDelivered() throws IOException {
+        BitmapLoader loader = new BitmapLoader(store, ONE_IMAGE);
+        ImageView first = target();
+        Bitmap red = loadNow(loader, image(Color.RED), first);
+        // first still shows red while green is decoded, decoding green evicts red from cache
+        load(loader, image(Color.GREEN), first);
+        List<Bitmap> blue = load(loader, image(Color.BLUE), target());
+        io.triggerActions();
+
+        assertEquals(0, loader.getReused());
+        assertNotSame(red, blue.get(0));
+    }
+
+    @Test
+    public void sampleSizeKeepsImageAtLeastRequestedSize() {
+        assertEquals(1, BitmapLoader.sampleSize(1080, 360, 1080, 360));
+        assertEquals(2, BitmapLoader.sampleSize(2160, 720, 1080, 360));
+        assertEquals(2, BitmapLoader.sampleSize(4000, 1000, 1080, 360));
+        assertEquals(4, BitmapLoader.sampleSize(4320, 1440, 1080, 360));
+    }
+
+    @Test
+    public void sampleSizeIsOneForUnknownOrBiggerRequest() {
+        assertEquals(1, BitmapLoader.sampleSize(1080, 360, 0, 0));
+        assertEquals(1, BitmapLoader.sampleSize(500, 200, 1080, 360));
+    }
+
+    @Test
+    public void byteCountRoundsSampledSizeUp() {
+        assertEquals(1080L * 360 * 4, BitmapLoader.byteCount(1080, 360, 1));
+        assertEquals(541L * 181 * 4, BitmapLoader.byteCount(1081, 361, 2));
+    }
+
+    @Test
+    public void keyDependsOnRequestedSize() {
+        assertEquals(BitmapLoader.key("abc", 100, 50), BitmapLoader.key("abc", 100, 50));
+        assertNotEquals(BitmapLoader.key("abc", 100, 50), BitmapLoader.key("abc", 200, 50));
+    }
+
+    private String image(int color) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        return store.put(out.toByteArray());
+    }
+
+    private ImageView target() {
+        return new ImageView(RuntimeEnvironment.getApplication());
+    }
+
+    private List<Bitmap> load(BitmapLoader loader, String ref, ImageView target) {
+        List<Bitmap> loaded = new ArrayList<>();
+        loader.load(ref, target, WIDTH, HEIGHT, loaded::add);
+        return loaded;
+    }
+
+    private Bitmap loadNow(BitmapLoader loader, String ref, ImageView target) {
+        List<Bitmap> loaded = load(loader, ref, target);
+        io.triggerActions();
+        assertEquals(1, loaded.size());
+        return loaded.get(0);
+    }
+}
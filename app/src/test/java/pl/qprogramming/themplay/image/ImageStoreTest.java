@@ -0,0 +1,98 @@
+package pl.qprogramming.themplay.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@RunWith(RobolectricTestRunner.class)
+public class ImageStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private ImageStore store;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), ImageStore.IMAGES_DIR);
+        store = new ImageStore(directory);
+    }
+
+    @Test
+    public void putStoresImageUnderContentHash() throws IOException {
+        byte[] image = "image".getBytes(StandardCharsets.UTF_8);
+        String ref = store.put(image);
+        assertEquals(64, ref.length());
+        assertTrue(store.exists(ref));
+        assertArrayEquals(image, store.read(ref));
+    }
+
+    @Test
+    public void sameContentIsStoredOnce() throws IOException {
+        String first = store.put("image".getBytes(StandardCharsets.UTF_8));
+        String second = store.put("image".getBytes(StandardCharsets.UTF_8));
+        String other = store.put("other".getBytes(StandardCharsets.UTF_8));
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        String[] files = directory.list();
+        assertEquals(2, files == null ? 0 : files.length);
+    }
+
+    @Test
+    public void deleteRemovesImage() throws IOException {
+        String ref = store.put("image".getBytes(StandardCharsets.UTF_8));
+        assertTrue(store.delete(ref));
+        assertFalse(store.exists(ref));
+        assertFalse(store.exists(null));
+    }
+
+    @Test
+    public void sweepRemovesOnlyUnreferencedImages() throws IOException {
+        String used = store.put("used".getBytes(StandardCharsets.UTF_8));
+        String unused = store.put("unused".getBytes(StandardCharsets.UTF_8));
+        File leftover = new File(directory, "partial.tmp");
+        assertTrue(leftover.createNewFile());
+        long later = System.currentTimeMillis() + 1000;
+        assertEquals(2, store.sweep(Collections.singleton(used), later));
+        assertTrue(store.exists(used));
+        assertFalse(store.exists(unused));
+        assertFalse(leftover.exists());
+    }
+
+    @Test
+    public void sweepKeepsRecentlyStoredImages() throws IOException {
+        String fresh = store.put("fresh".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, store.sweep(Collections.emptySet()));
+        assertTrue(store.exists(fresh));
+    }
+
+    @Test
+    public void storingSameImageAgainProtectsItFromSweep() throws IOException {
+        byte[] image = "image".getBytes(StandardCharsets.UTF_8);
+        String ref = store.put(image);
+        long old = System.currentTimeMillis() - 2 * ImageStore.SWEEP_GRACE_MS;
+        assertTrue(store.file(ref).setLastModified(old));
+        store.put(image);
+        assertEquals(0, store.sweep(Collections.emptySet()));
+        assertTrue(store.exists(ref));
+    }
+}
@@ -0,0 +1,124 @@
+package pl.qprogramming.themplay.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@RunWith(RobolectricTestRunner.class)
+public class FileAppenderTest {
+    private static final long NEVER_MS = 60_000;
+    private static final long TIMEOUT_MS = 5_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private FileAppender appender;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "log.txt");
+    }
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.close(TIMEOUT_MS);
+        }
+    }
+
+    @Test
+    public void flushWritesAllAppendedLines() throws IOException {
+        appender = new FileAppender(file, 16, Long.MAX_VALUE, NEVER_MS);
+        appender.append('D', "Tag", "first", null);
+        appender.append('E', "Tag", "second", new IllegalStateException("broken"));
+
+        assertTrue(appender.flush(TIMEOUT_MS));
+
+        List<String> lines = lines(file);
+        assertTrue(lines.get(0).endsWith(" D/Tag: first"));
+        assertTrue(lines.get(1).endsWith(" E/Tag: second"));
+        assertTrue(lines.get(2).contains("IllegalStateException: broken"));
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutWaitingForInterval() throws Exception {
+        appender = new FileAppender(file, 2 * FileAppender.FLUSH_BATCH, Long.MAX_VALUE, NEVER_MS);
+        for (int i = 0; i < FileAppender.FLUSH_BATCH; i++) {
+            appender.append('D', "Tag", "line " + i, null);
+        }
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while ((!file.exists() || lines(file).size() < FileAppender.FLUSH_BATCH) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(FileAppender.FLUSH_BATCH, lines(file).size());
+    }
+
+    @Test
+    public void oldestLinesAreDroppedWhenBufferIsFull() throws IOException {
+        appender = new FileAppender(file, 4, Long.MAX_VALUE, NEVER_MS);
+        for (int i = 0; i < 10; i++) {
+            appender.append('I', "Tag", "line " + i, null);
+        }
+
+        assertTrue(appender.flush(TIMEOUT_MS));
+
+        List<String> lines = lines(file);
+        assertEquals(5, lines.size());
+        assertEquals("... 6 log lines dropped", lines.get(0));
+        assertTrue(lines.get(1).endsWith("line 6"));
+        assertTrue(lines.get(4).endsWith("line 9"));
+    }
+
+    @Test
+    public void fileIsRotatedOnceMaxSizeIsReached() throws IOException {
+        appender = new FileAppender(file, 16, 100, NEVER_MS);
+        for (int i = 0; i < 5; i++) {
+            appender.append('D', "Tag", "long enough line " + i, null);
+        }
+        assertTrue(appender.flush(TIMEOUT_MS));
+        appender.append('D', "Tag", "after rotation", null);
+        assertTrue(appender.flush(TIMEOUT_MS));
+
+        File old = new File(folder.getRoot(), "log.txt.old");
+        assertTrue(old.exists());
+        assertEquals(5, lines(old).size());
+        List<String> lines = lines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("after rotation"));
+    }
+
+    @Test
+    public void closeWritesPendingLinesAndIgnoresLaterOnes() throws IOException {
+        appender = new FileAppender(file, 16, Long.MAX_VALUE, NEVER_MS);
+        appender.append('W', "Tag", "pending", null);
+        appender.close(TIMEOUT_MS);
+        appender.append('W', "Tag", "too late", null);
+
+        List<String> lines = lines(file);
+        assertEquals(1, lines.size());
+        assertFalse(lines.get(0).contains("too late"));
+    }
+
+    private static List<String> lines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
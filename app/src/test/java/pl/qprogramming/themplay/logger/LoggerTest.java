@@ -0,0 +1,21 @@
+package pl.qprogramming.themplay.logger;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LoggerTest {
+
+    @Test
+    public void placeholdersAreReplacedInOrder() {
+        assertEquals("Song a.mp3 ended after 42 ms", Logger.format("Song {} ended after {} ms", "a.mp3", 42));
+    }
+
+    @Test
+    public void surplusPlaceholdersAndArgumentsAreKept() {
+        assertEquals("a and {}", Logger.format("{} and {}", "a"));
+        assertEquals("only a", Logger.format("only {}", "a", "b"));
+        assertEquals("null value", Logger.format("{} value", (Object) null));
+        assertEquals("no args {}", Logger.format("no args {}"));
+    }
+}
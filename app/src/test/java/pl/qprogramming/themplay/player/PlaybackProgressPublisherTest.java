@@ -0,0 +1,28 @@
+package pl.qprogramming.themplay.player;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PlaybackProgressPublisherTest {
+
+    @Test
+    public void intervalMovesProgressByOnePercent() {
+        assertEquals(1800, PlaybackProgressPublisher.intervalFor(180_000));
+    }
+
+    @Test
+    public void intervalIsClamped() {
+        assertEquals(PlaybackProgressPublisher.MIN_INTERVAL_MS, PlaybackProgressPublisher.intervalFor(10_000));
+        assertEquals(PlaybackProgressPublisher.MAX_INTERVAL_MS, PlaybackProgressPublisher.intervalFor(3_600_000));
+        assertEquals(PlaybackProgressPublisher.MIN_INTERVAL_MS, PlaybackProgressPublisher.intervalFor(-1));
+    }
+
+    @Test
+    public void percentageIsBounded() {
+        assertEquals(50, PlaybackProgressPublisher.percentage(90_000, 180_000));
+        assertEquals(100, PlaybackProgressPublisher.percentage(200_000, 180_000));
+        assertEquals(0, PlaybackProgressPublisher.percentage(-5, 180_000));
+        assertEquals(0, PlaybackProgressPublisher.percentage(1000, 0));
+    }
+}
@@ -0,0 +1,68 @@
+package pl.qprogramming.themplay.player.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FadeCurveTest {
+
+    private static final int STEPS = 1000;
+
+    @Test
+    public void equalPowerKeepsSummedPowerConstant() {
+        for (int i = 0; i <= STEPS; i++) {
+            float progress = (float) i / STEPS;
+            float in = FadeCurve.EQUAL_POWER.fadeIn(progress);
+            float out = FadeCurve.EQUAL_POWER.fadeOut(progress);
+            assertEquals("power at " + progress, 1.0, in * in + out * out, 0.005);
+        }
+    }
+
+    @Test
+    public void linearKeepsAmplitudeButDipsInPower() {
+        float in = FadeCurve.LINEAR.fadeIn(0.5f);
+        float out = FadeCurve.LINEAR.fadeOut(0.5f);
+        assertEquals(1.0, in + out, 0.001);
+        assertEquals(0.5, in * in + out * out, 0.005);
+    }
+
+    @Test
+    public void sCurveKeepsAmplitude() {
+        for (int i = 0; i <= STEPS; i++) {
+            float progress = (float) i / STEPS;
+            assertEquals(1.0, FadeCurve.S_CURVE.fadeIn(progress) + FadeCurve.S_CURVE.fadeOut(progress), 0.005);
+        }
+    }
+
+    @Test
+    public void allCurvesAreMonotonicWithExactEnds() {
+        for (FadeCurve curve : FadeCurve.values()) {
+            assertEquals(0f, curve.fadeIn(0f), 0f);
+            assertEquals(1f, curve.fadeIn(1f), 0f);
+            assertEquals(1f, curve.fadeOut(0f), 0f);
+            assertEquals(0f, curve.fadeOut(1f), 0f);
+            float previous = 0f;
+            for (int i = 0; i <= STEPS; i++) {
+                float gain = curve.fadeIn((float) i / STEPS);
+                assertTrue(curve + " not monotonic", gain >= previous);
+                previous = gain;
+            }
+        }
+    }
+
+    @Test
+    public void logarithmicIsLinearInDecibels() {
+        double quarter = 20 * Math.log10(FadeCurve.LOGARITHMIC.fadeIn(0.25f));
+        double half = 20 * Math.log10(FadeCurve.LOGARITHMIC.fadeIn(0.5f));
+        double threeQuarters = 20 * Math.log10(FadeCurve.LOGARITHMIC.fadeIn(0.75f));
+        assertEquals(half - quarter, threeQuarters - half, 0.1);
+    }
+
+    @Test
+    public void fromKeyFallsBackToEqualPower() {
+        assertEquals(FadeCurve.S_CURVE, FadeCurve.fromKey("s_curve"));
+        assertEquals(FadeCurve.EQUAL_POWER, FadeCurve.fromKey("unknown"));
+        assertEquals(FadeCurve.EQUAL_POWER, FadeCurve.fromKey(null));
+    }
+}
@@ -0,0 +1,77 @@
+package pl.qprogramming.themplay.player.audio;
+
+import static pl.qprogramming.themplay.player.audio.PcmGainKernelTest.BUFFER_BYTES;
+import static pl.qprogramming.themplay.player.audio.PcmGainKernelTest.LEGACY_GAIN;
+import static pl.qprogramming.themplay.player.audio.PcmGainKernelTest.legacyScale;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Prints samples/sec of the previous ShortBuffer based loop and the array kernel so both can be compared
+ * on the same machine. Not a part of regular test run, remove {@link Ignore} to run it.
+ */
+@Ignore("Benchmark, run manually")
+public class PcmGainKernelBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    public void samplesPerSecond() {
+        byte[] source = new byte[BUFFER_BYTES];
+        new Random(42).nextBytes(source);
+        ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+        ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+        byte[] scratch = new byte[BUFFER_BYTES];
+        LegacyVolume legacyVolume = new LegacyVolume();
+        // warm up both paths
+        runLegacy(source, input, legacyVolume, ITERATIONS / 4);
+        runKernel(source, input, output, scratch, ITERATIONS / 4);
+
+        long legacyNanos = runLegacy(source, input, legacyVolume, ITERATIONS);
+        long kernelNanos = runKernel(source, input, output, scratch, ITERATIONS);
+        long samples = (long) ITERATIONS * BUFFER_BYTES / 2;
+        System.out.printf(Locale.US, "legacy: %.1f Msamples/s, kernel: %.1f Msamples/s%n",
+                samples * 1000.0 / legacyNanos, samples * 1000.0 / kernelNanos);
+    }
+
+    private long runLegacy(byte[] source, ByteBuffer input, LegacyVolume volume, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            input.clear();
+            input.put(source).flip();
+            legacyScale(input, volume.get());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runKernel(byte[] source, ByteBuffer input, ByteBuffer output, byte[] scratch, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            input.clear();
+            input.put(source).flip();
+            output.clear();
+            int size = input.remaining();
+            input.get(scratch, 0, size);
+            PcmGainKernel.scalePcm16(scratch, size, LEGACY_GAIN);
+            output.put(scratch, 0, size);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Previous processor read volume through synchronized getter for every buffer
+     */
+    private static class LegacyVolume {
+        private final float volume = LEGACY_GAIN;
+
+        synchronized float get() {
+            return volume;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package pl.qprogramming.themplay.player.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Random;
+
+public class PcmGainKernelTest {
+
+    static final int BUFFER_BYTES = 8192;
+    static final float LEGACY_GAIN = 0.7f;
+
+    @Test
+    public void unityGainLeavesSamplesUntouched() {
+        byte[] data = pcm(1000, -1000, Short.MAX_VALUE, Short.MIN_VALUE);
+        byte[] expected = data.clone();
+        PcmGainKernel.scalePcm16(data, data.length, 1.0f);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void zeroGainSilences() {
+        byte[] data = pcm(1000, -1000, Short.MAX_VALUE, Short.MIN_VALUE);
+        PcmGainKernel.scalePcm16(data, data.length, 0f);
+        assertArrayEquals(pcm(0, 0, 0, 0), data);
+    }
+
+    @Test
+    public void halfGainScalesSamples() {
+        byte[] data = pcm(1000, -1000, 20000, -20000);
+        PcmGainKernel.scalePcm16(data, data.length, 0.5f);
+        assertArrayEquals(pcm(500, -500, 10000, -10000), data);
+    }
+
+    @Test
+    public void gainAboveUnitySaturatesInsteadOfWrapping() {
+        byte[] data = pcm(30000, -30000, 100);
+        PcmGainKernel.scalePcm16(data, data.length, 1.5f);
+        assertArrayEquals(pcm(Short.MAX_VALUE, Short.MIN_VALUE, 150), data);
+    }
+
+    @Test
+    public void frameGainsApplyToEveryChannelOfFrame() {
+        byte[] data = pcm(1000, -1000, 1000, -1000, 1000, -1000);
+        PcmGainKernel.scalePcm16(data, 3, 2, new float[]{0f, 0.5f, 1f});
+        assertArrayEquals(pcm(0, 0, 500, -500, 1000, -1000), data);
+    }
+
+    @Test
+    public void pcm24IsScaledAndSaturated() {
+        byte[] data = pcm24(4_000_000, -4_000_000, 8_000_000);
+        PcmGainKernel.scalePcm24(data, data.length, 0.5f);
+        assertArrayEquals(pcm24(2_000_000, -2_000_000, 4_000_000), data);
+        data = pcm24(8_000_000, -8_000_000);
+        PcmGainKernel.scalePcm24(data, data.length, 1.5f);
+        assertArrayEquals(pcm24((1 << 23) - 1, -(1 << 23)), data);
+    }
+
+    @Test
+    public void pcm32IsScaledAndSaturated() {
+        byte[] data = ints(1_000_000_000, -1_000_000_000);
+        PcmGainKernel.scalePcm32(data, data.length, 0.5f);
+        assertArrayEquals(ints(500_000_000, -500_000_000), data);
+        data = ints(2_000_000_000, -2_000_000_000);
+        PcmGainKernel.scalePcm32(data, 2, 1, new float[]{1.5f, 1.5f});
+        assertArrayEquals(ints(Integer.MAX_VALUE, Integer.MIN_VALUE), data);
+    }
+
+    @Test
+    public void floatIsScaled() {
+        byte[] data = ints(Float.floatToRawIntBits(0.8f), Float.floatToRawIntBits(-0.4f));
+        PcmGainKernel.scaleFloat(data, data.length, 0.5f);
+        assertArrayEquals(ints(Float.floatToRawIntBits(0.4f), Float.floatToRawIntBits(-0.2f)), data);
+    }
+
+    @Test
+    public void matchesLegacyShortBufferScaling() {
+        byte[] source = new byte[BUFFER_BYTES];
+        new Random(42).nextBytes(source);
+        ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+        input.put(source).flip();
+        ByteBuffer legacyOut = legacyScale(input, LEGACY_GAIN);
+        byte[] data = source.clone();
+        PcmGainKernel.scalePcm16(data, BUFFER_BYTES, LEGACY_GAIN);
+        // both paths must agree apart from legacy truncation and Q15 quantization of the gain
+        ShortBuffer legacyShorts = legacyOut.asShortBuffer();
+        ShortBuffer kernelShorts = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        while (legacyShorts.hasRemaining()) {
+            assertEquals(legacyShorts.get(), kernelShorts.get(), 2);
+        }
+    }
+
+    /**
+     * Mirrors the previous processor implementation: fresh buffer, ShortBuffer views and per sample get/put.
+     */
+    static ByteBuffer legacyScale(ByteBuffer inputBuffer, float volume) {
+        ByteBuffer out = ByteBuffer.allocate(inputBuffer.remaining()).order(ByteOrder.nativeOrder());
+        ShortBuffer in = inputBuffer.asShortBuffer();
+        ShortBuffer outShorts = out.asShortBuffer();
+        while (in.hasRemaining()) {
+            outShorts.put((short) (in.get() * volume));
+        }
+        inputBuffer.position(inputBuffer.limit());
+        return out;
+    }
+
+    private static byte[] pcm(int... samples) {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int sample : samples) {
+            buffer.putShort((short) sample);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] pcm24(int... samples) {
+        byte[] data = new byte[samples.length * 3];
+        for (int i = 0; i < samples.length; i++) {
+            data[i * 3] = (byte) samples[i];
+            data[i * 3 + 1] = (byte) (samples[i] >> 8);
+            data[i * 3 + 2] = (byte) (samples[i] >> 16);
+        }
+        return data;
+    }
+
+    private static byte[] ints(int... samples) {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int sample : samples) {
+            buffer.putInt(sample);
+        }
+        return buffer.array();
+    }
+}
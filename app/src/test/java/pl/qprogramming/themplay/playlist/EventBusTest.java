@@ -0,0 +1,125 @@
+package pl.qprogramming.themplay.playlist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+import pl.qprogramming.themplay.domain.Playlist;
+
+public class EventBusTest {
+
+    private final Queue<Runnable> dispatched = new ArrayDeque<>();
+    private final EventBus bus = new EventBus(dispatched::add);
+
+    @Test
+    public void eventsAreDeliveredLaterInOrderWithSamePayload() {
+        List<Event> received = new ArrayList<>();
+        bus.subscribe(received::add, EventType.PLAYLIST_NOTIFICATION_ADD, EventType.PLAYLIST_NOTIFICATION_DELETE);
+        Playlist playlist = Playlist.builder().name("Tavern").position(3).build();
+
+        bus.post(Event.of(EventType.PLAYLIST_NOTIFICATION_ADD, playlist));
+        bus.post(Event.of(EventType.PLAYLIST_NOTIFICATION_DELETE, playlist));
+        assertTrue(received.isEmpty());
+        drain();
+
+        assertEquals(2, received.size());
+        assertEquals(EventType.PLAYLIST_NOTIFICATION_ADD, received.get(0).getType());
+        assertEquals(EventType.PLAYLIST_NOTIFICATION_DELETE, received.get(1).getType());
+        assertEquals(3, received.get(0).getPosition());
+    }
+
+    @Test
+    public void eventKeepsPlaylistStateFromWhenItWasPosted() {
+        List<Event> received = new ArrayList<>();
+        bus.subscribe(received::add, EventType.PLAYLIST_NOTIFICATION_DELETE);
+        Playlist playlist = Playlist.builder().id(7L).name("Tavern").position(3).build();
+
+        bus.post(Event.of(EventType.PLAYLIST_NOTIFICATION_DELETE, playlist));
+        playlist.setName("Dungeon");
+        playlist.setPosition(0);
+        drain();
+
+        Event event = received.get(0);
+        assertEquals(Long.valueOf(7L), event.getPlaylistId());
+        assertEquals("Tavern", event.getPlaylistName());
+        assertEquals(3, event.getPosition());
+        assertNull(event.getPlaylist());
+    }
+
+    @Test
+    public void handedOverPlaylistIsPassedAsIs() {
+        List<Event> received = new ArrayList<>();
+        bus.subscribe(received::add, EventType.PLAYLIST_NOTIFICATION_ACTIVE);
+        Playlist playlist = Playlist.builder().id(7L).name("Tavern").build();
+
+        bus.post(Event.handOver(EventType.PLAYLIST_NOTIFICATION_ACTIVE, playlist));
+        drain();
+
+        assertSame(playlist, received.get(0).getPlaylist());
+        assertEquals(Long.valueOf(7L), received.get(0).getPlaylistId());
+    }
+
+    @Test
+    public void subscriberReceivesOnlyItsTypes() {
+        List<Event> received = new ArrayList<>();
+        bus.subscribe(received::add, EventType.PRESET_ACTIVATED);
+
+        bus.post(Event.of(EventType.PLAYBACK_NOTIFICATION_PLAY));
+        bus.post(Event.of(EventType.PRESET_ACTIVATED));
+        drain();
+
+        assertEquals(1, received.size());
+        assertEquals(-1, received.get(0).getPosition());
+    }
+
+    @Test
+    public void disposedSubscriberMissesPendingEvents() {
+        List<Event> received = new ArrayList<>();
+        Disposable subscription = bus.subscribe(received::add, EventType.PLAYBACK_NOTIFICATION_STOP);
+
+        bus.post(Event.of(EventType.PLAYBACK_NOTIFICATION_STOP, 0));
+        subscription.dispose();
+        drain();
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, bus.getMetrics().getEvents());
+    }
+
+    @Test
+    public void metricsCountEventsPerSecondAndLatency() {
+        EventBusMetrics metrics = new EventBusMetrics();
+        long start = TimeUnit.SECONDS.toNanos(100);
+        for (int i = 0; i < 10; i++) {
+            metrics.record(TimeUnit.MICROSECONDS.toNanos(100 + i * 100), TimeUnit.MICROSECONDS.toNanos(50),
+                    start + TimeUnit.MILLISECONDS.toNanos(i * 100));
+        }
+        // burst after a quiet second
+        for (int i = 0; i < 15; i++) {
+            metrics.record(0, 0, start + TimeUnit.SECONDS.toNanos(2) + i);
+        }
+
+        assertEquals(25, metrics.getEvents());
+        assertEquals(15, metrics.getPeakEventsPerSecond());
+        assertEquals(12.5, metrics.getEventsPerSecond(), 0.01);
+        assertEquals(1000, TimeUnit.NANOSECONDS.toMicros(metrics.getMaxLatencyNs()));
+        assertEquals(220, metrics.getAverageLatencyUs());
+        assertEquals(20, metrics.getAverageDispatchUs());
+    }
+
+    private void drain() {
+        Runnable next;
+        while ((next = dispatched.poll()) != null) {
+            next.run();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package pl.qprogramming.themplay.playlist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pl.qprogramming.themplay.domain.Song;
+
+public class PlaybackQueueTest {
+
+    @Test
+    public void nextAdvancesCursorUntilEnd() {
+        PlaybackQueue queue = new PlaybackQueue(createSongs(3));
+        queue.moveTo(0);
+        assertEquals(1L, (long) queue.next().getId());
+        assertEquals(2L, (long) queue.next().getId());
+        assertFalse(queue.hasNext());
+        assertNull(queue.next());
+        assertEquals(2, queue.getCursor());
+    }
+
+    @Test
+    public void previousWrapsAroundToLastSong() {
+        PlaybackQueue queue = new PlaybackQueue(createSongs(3));
+        queue.moveTo(0);
+        assertEquals(2L, (long) queue.previous().getId());
+        assertEquals(1L, (long) queue.previous().getId());
+    }
+
+    @Test
+    public void duplicatedSongDoesNotConfuseCursor() {
+        List<Song> songs = createSongs(3);
+        songs.add(songs.get(0));
+        PlaybackQueue queue = new PlaybackQueue(songs);
+        queue.moveTo(3);
+        assertFalse(queue.hasNext());
+        assertEquals(0, queue.indexOf(0L));
+        assertTrue(queue.moveTo(3, 0L));
+        assertFalse(queue.moveTo(2, 0L));
+    }
+
+    @Test
+    public void removingCurrentSongKeepsNextInPlace() {
+        List<Song> songs = createSongs(4);
+        PlaybackQueue queue = new PlaybackQueue(songs);
+        queue.moveTo(1);
+        assertTrue(queue.remove(songs.get(1)));
+        assertEquals(3, queue.size());
+        assertEquals(2L, (long) queue.next().getId());
+        assertEquals(2, queue.indexOf(3L));
+    }
+
+    @Test
+    public void nullSongsAreSkipped() {
+        PlaybackQueue queue = new PlaybackQueue(Arrays.asList(null, Song.builder().id(5L).filename("file5").build(), null));
+        assertEquals(1, queue.size());
+        assertTrue(queue.moveToId(5L));
+        assertEquals(PlaybackQueue.NO_SONG, queue.indexOf(6L));
+    }
+
+    private List<Song> createSongs(int count) {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            songs.add(Song.builder().id((long) i).filename("file" + i).build());
+        }
+        return songs;
+    }
+}
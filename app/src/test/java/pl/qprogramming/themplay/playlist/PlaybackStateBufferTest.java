@@ -0,0 +1,130 @@
+package pl.qprogramming.themplay.playlist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@RunWith(RobolectricTestRunner.class)
+public class PlaybackStateBufferTest {
+
+    private TestScheduler scheduler;
+    private List<Map<Long, Integer>> writtenPositions;
+    private List<Map<Long, PlaybackStateBuffer.Cursor>> writtenCursors;
+    private boolean failWrites;
+    private PlaybackStateBuffer buffer;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        writtenPositions = new ArrayList<>();
+        writtenCursors = new ArrayList<>();
+        buffer = new PlaybackStateBuffer((songPositions, cursors) -> {
+            if (failWrites) {
+                throw new IllegalStateException("Database closed");
+            }
+            writtenPositions.add(new HashMap<>(songPositions));
+            writtenCursors.add(new HashMap<>(cursors));
+        }, scheduler);
+    }
+
+    @Test
+    public void changesOfSameEntityAreCoalesced() {
+        buffer.recordSongPosition(1L, 1000);
+        buffer.recordSongPosition(1L, 2000);
+        buffer.recordCursor(10L, 1L, 0);
+        buffer.recordCursor(10L, 2L, 1);
+
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, writtenPositions.size());
+        assertEquals(Integer.valueOf(2000), writtenPositions.get(0).get(1L));
+        assertEquals(Long.valueOf(2L), writtenCursors.get(0).get(10L).getSongId());
+        assertEquals(1, writtenCursors.get(0).get(10L).getIndex());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    public void forgottenSongsAreNotWrittenBack() {
+        buffer.recordSongPosition(1L, 1000);
+        buffer.recordSongPosition(2L, 2000);
+        buffer.recordCursor(10L, 1L, 3);
+        buffer.recordCursor(11L, 2L, 0);
+
+        buffer.forgetSongs(Collections.singletonList(1L));
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, writtenPositions.get(0).size());
+        assertEquals(Integer.valueOf(2000), writtenPositions.get(0).get(2L));
+        assertFalse(writtenCursors.get(0).containsKey(10L));
+        assertEquals(Long.valueOf(2L), writtenCursors.get(0).get(11L).getSongId());
+    }
+
+    @Test
+    public void nothingIsWrittenBeforeFlushDelay() {
+        buffer.recordSongPosition(1L, 1000);
+
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS - 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(writtenPositions.isEmpty());
+        assertEquals(1, buffer.pendingCount());
+    }
+
+    @Test
+    public void flushWritesPendingChangesRightAway() {
+        buffer.recordSongPosition(1L, 1000);
+
+        buffer.flush().subscribe();
+        scheduler.triggerActions();
+
+        assertEquals(1, writtenPositions.size());
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        assertEquals(1, writtenPositions.size());
+    }
+
+    @Test
+    public void reachingPendingLimitFlushesWithoutDelay() {
+        for (long id = 0; id < PlaybackStateBuffer.MAX_PENDING; id++) {
+            buffer.recordSongPosition(id, 1000);
+        }
+
+        scheduler.triggerActions();
+
+        assertEquals(1, writtenPositions.size());
+        assertEquals(PlaybackStateBuffer.MAX_PENDING, writtenPositions.get(0).size());
+    }
+
+    @Test
+    public void failedWriteIsRetriedWithoutOverwritingNewerChanges() {
+        failWrites = true;
+        buffer.recordSongPosition(1L, 1000);
+        buffer.recordSongPosition(2L, 1000);
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        assertEquals(2, buffer.pendingCount());
+
+        failWrites = false;
+        buffer.recordSongPosition(1L, 5000);
+        scheduler.advanceTimeBy(PlaybackStateBuffer.FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, writtenPositions.size());
+        assertEquals(Integer.valueOf(5000), writtenPositions.get(0).get(1L));
+        assertEquals(Integer.valueOf(1000), writtenPositions.get(0).get(2L));
+    }
+}
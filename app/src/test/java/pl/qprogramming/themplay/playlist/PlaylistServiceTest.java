@@ -47,12 +47,15 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.reactivex.disposables.CompositeDisposable;
 import lombok.val;
 import pl.qprogramming.themplay.db.ThemplayDatabase;
 import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.PlaylistPosition;
+import pl.qprogramming.themplay.domain.PlaylistSummary;
 import pl.qprogramming.themplay.domain.Song;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNameExistsException;
 import pl.qprogramming.themplay.playlist.exceptions.PlaylistNotFoundException;
@@ -683,4 +686,45 @@ public class PlaylistServiceTest {
         assertEquals(dbError, errorResult.get());
         verify(mockPlaylistRepository).update(playlist);
     }
-}
\ No newline at end of file
+
+    // playlist summaries
+
+    @Test
+    public void observeSummariesByPresetName_emitsSummariesOfCurrentPreset() {
+        String testPresetName = "MyTestPreset";
+        val summary = new PlaylistSummary();
+        summary.setId(1L);
+        summary.setCurrentSongFilename("tavern.mp3");
+        when(mockSharedPreferences.getString(Property.CURRENT_PRESET, null)).thenReturn(testPresetName);
+        when(mockPlaylistRepository.observeSummariesByPreset(testPresetName)).thenReturn(Flowable.just(Collections.singletonList(summary)));
+
+        val testSubscriber = playlistService.observeSummariesByPresetName().test();
+
+        testSubscriber.assertNoErrors().assertValueCount(1);
+        assertEquals("tavern.mp3", testSubscriber.values().get(0).get(0).getCurrentSongFilename());
+        verify(mockPlaylistRepository, never()).findAllByPreset(anyString());
+    }
+
+    @Test
+    public void savePositions_updatesOnlyPositionsInNewOrder() {
+        val first = new PlaylistSummary();
+        first.setId(7L);
+        first.setPosition(1);
+        val second = new PlaylistSummary();
+        second.setId(3L);
+        second.setPosition(0);
+        when(mockPlaylistRepository.updatePositions(anyList())).thenReturn(Completable.complete());
+
+        playlistService.savePositions(Arrays.asList(first, second));
+
+        ArgumentCaptor<List<PlaylistPosition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockPlaylistRepository).updatePositions(captor.capture());
+        val positions = captor.getValue();
+        assertEquals(2, positions.size());
+        assertEquals(Long.valueOf(7L), positions.get(0).getId());
+        assertEquals(0, positions.get(0).getPosition());
+        assertEquals(Long.valueOf(3L), positions.get(1).getId());
+        assertEquals(1, positions.get(1).getPosition());
+        verify(mockPlaylistRepository, never()).updateAll(anyList());
+    }
+}
@@ -0,0 +1,114 @@
+package pl.qprogramming.themplay.playlist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.net.Uri;
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.schedulers.Schedulers;
+import lombok.val;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.repository.SongRepository;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@RunWith(RobolectricTestRunner.class)
+public class SongImporterTest {
+
+    private SongRepository songRepository;
+    private SongImporter importer;
+
+    @Before
+    public void setUp() {
+        songRepository = mock(SongRepository.class);
+        when(songRepository.insertIntoPlaylist(anyLong(), anyList())).thenAnswer(invocation -> {
+            List<Song> songs = invocation.getArgument(1);
+            for (int i = 0; i < songs.size(); i++) {
+                songs.get(i).setId((long) i + 1);
+            }
+            return songs.size() + 3;
+        });
+        importer = new SongImporter(uri -> {
+            val name = uri.getLastPathSegment();
+            if (name.startsWith("locked")) {
+                return null;
+            }
+            val mimeType = name.endsWith(".txt") ? "text/plain" : "audio/mpeg";
+            return new SongImporter.Metadata(name, 1000, mimeType, 100);
+        }, songRepository, Schedulers.trampoline());
+    }
+
+    @Test
+    public void progressIsReportedPerBatchAndSongsInsertedOnce() {
+        val uris = uris(SongImporter.BATCH_SIZE * 2 + 1, "song", ".mp3");
+
+        val progress = importer.importSongs(1L, uris).test().assertComplete().values();
+
+        assertEquals(4, progress.size());
+        assertEquals(SongImporter.BATCH_SIZE, progress.get(0).getProcessed());
+        assertFalse(progress.get(0).isDone());
+        assertEquals(uris.size(), progress.get(2).getProcessed());
+        val done = progress.get(3);
+        assertTrue(done.isDone());
+        assertEquals(uris.size(), done.getImported().size());
+        assertEquals(uris.size() + 3, done.getSongCount());
+        assertEquals(uris.size() * 100L, done.getBytes());
+        assertEquals(Long.valueOf(1L), done.getImported().get(0).getId());
+        assertEquals("song0.mp3", done.getImported().get(0).getFilename());
+        verify(songRepository, times(1)).insertIntoPlaylist(anyLong(), anyList());
+    }
+
+    @Test
+    public void unreadableAndNonAudioFilesAreSkipped() {
+        val uris = uris(2, "song", ".mp3");
+        uris.addAll(uris(1, "locked", ".mp3"));
+        uris.addAll(uris(1, "notes", ".txt"));
+
+        val progress = importer.importSongs(1L, uris).test().assertComplete().values();
+
+        val done = progress.get(progress.size() - 1);
+        assertEquals(2, done.getImported().size());
+        assertEquals(2, done.getSkipped());
+    }
+
+    @Test
+    public void nothingIsInsertedWhenAllFilesAreSkipped() {
+        val progress = importer.importSongs(1L, uris(2, "locked", ".mp3")).test().assertComplete().values();
+
+        assertTrue(progress.get(progress.size() - 1).getImported().isEmpty());
+        verify(songRepository, never()).insertIntoPlaylist(anyLong(), anyList());
+    }
+
+    @Test
+    public void audioMimeTypes() {
+        assertTrue(SongImporter.isAudio("audio/flac"));
+        assertTrue(SongImporter.isAudio("application/ogg"));
+        assertTrue(SongImporter.isAudio(null));
+        assertFalse(SongImporter.isAudio("image/png"));
+    }
+
+    private static List<Uri> uris(int count, String prefix, String extension) {
+        List<Uri> uris = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            uris.add(Uri.parse("content://test/" + prefix + i + extension));
+        }
+        return uris;
+    }
+}
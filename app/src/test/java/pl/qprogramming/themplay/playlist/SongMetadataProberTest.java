@@ -0,0 +1,76 @@
+package pl.qprogramming.themplay.playlist;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.Build;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.schedulers.Schedulers;
+import pl.qprogramming.themplay.domain.Song;
+import pl.qprogramming.themplay.domain.SongMetadata;
+import pl.qprogramming.themplay.repository.SongRepository;
+
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("unchecked")
+public class SongMetadataProberTest {
+
+    private SongRepository songRepository;
+    private SongMetadataProber prober;
+
+    @Before
+    public void setUp() {
+        songRepository = mock(SongRepository.class);
+        prober = new SongMetadataProber(song -> song.getFilename().endsWith(".mp3")
+                ? new SongMetadata(null, 180_000, 44100, 2, "audio/mpeg", 320_000)
+                : null, songRepository, Schedulers.trampoline());
+    }
+
+    @Test
+    public void pendingSongsAreProbedAndSavedPerBatch() {
+        Song readable = Song.builder().id(1L).filename("tavern.mp3").build();
+        Song broken = Song.builder().id(2L).filename("broken.bin").duration(5000).build();
+        when(songRepository.findWithoutMetadata(SongMetadataProber.BATCH_SIZE))
+                .thenReturn(List.of(readable, broken))
+                .thenReturn(Collections.emptyList());
+
+        prober.probePending().test().assertComplete();
+
+        ArgumentCaptor<List<SongMetadata>> captor = ArgumentCaptor.forClass(List.class);
+        verify(songRepository, times(1)).updateMetadata(captor.capture());
+        List<SongMetadata> saved = captor.getValue();
+        assertEquals(2, saved.size());
+        assertEquals(Long.valueOf(1L), saved.get(0).getId());
+        assertEquals(180_000, saved.get(0).getDuration());
+        assertEquals(44100, saved.get(0).getSampleRate());
+        assertEquals("audio/mpeg", saved.get(0).getEncoding());
+        assertEquals(Long.valueOf(2L), saved.get(1).getId());
+        assertEquals(5000, saved.get(1).getDuration());
+        assertEquals(Song.UNKNOWN_ENCODING, saved.get(1).getEncoding());
+    }
+
+    @Test
+    public void nothingIsSavedWithoutPendingSongs() {
+        when(songRepository.findWithoutMetadata(anyInt())).thenReturn(Collections.emptyList());
+
+        prober.probePending().test().assertComplete();
+
+        verify(songRepository, never()).updateMetadata(anyList());
+    }
+}
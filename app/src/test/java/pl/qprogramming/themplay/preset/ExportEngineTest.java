@@ -0,0 +1,232 @@
+package pl.qprogramming.themplay.preset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ExportEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ExportEngine.Progress> progress = new ArrayList<>();
+    private final List<String> failed = new ArrayList<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    @Test
+    public void sourcesAreWrittenInOrder() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(source("song" + i + ".mp3", 1000 + i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertTrue(pack(out, sources, () -> false));
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                names.add(entry.getName());
+                assertEquals(ZipEntry.STORED, entry.getMethod());
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals("song" + i + ".mp3", names.get(i));
+        }
+        assertEquals(0, open.get());
+    }
+
+    @Test
+    public void lastProgressReportsEverythingDone() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        sources.add(source("a.mp3", ZipEntryWriter.BUFFER_SIZE * 3));
+        sources.add(source("b.ogg", 500));
+
+        assertTrue(pack(new ByteArrayOutputStream(), sources, () -> false));
+
+        ExportEngine.Progress last = progress.get(progress.size() - 1);
+        assertEquals(2, last.getFiles());
+        assertEquals(2, last.getFilesDone());
+        assertEquals(ZipEntryWriter.BUFFER_SIZE * 3 + 500, last.getBytes());
+        assertEquals(last.getBytes(), last.getBytesDone());
+        assertEquals(100, last.getPercent());
+        assertEquals(0, last.getEtaMs());
+    }
+
+    @Test
+    public void unreadableSourceIsReportedAndSkipped() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        sources.add(source("a.mp3", 100));
+        sources.add(new TestSource("missing.mp3", new File(folder.getRoot(), "missing.mp3")));
+        sources.add(source("c.mp3", 100));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertTrue(pack(out, sources, () -> false));
+
+        assertEquals(List.of("missing.mp3"), failed);
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("a.mp3", in.getNextEntry().getName());
+            assertEquals("c.mp3", in.getNextEntry().getName());
+        }
+    }
+
+    @Test
+    public void cancelledExportStopsAndClosesFiles() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sources.add(source("song" + i + ".mp3", ZipEntryWriter.BUFFER_SIZE * 2));
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger chunks = new AtomicInteger();
+        // cancel while copying second chunk of first song
+        BooleanSupplier cancelAfterFirstChunk = () -> {
+            if (chunks.incrementAndGet() > 1) {
+                cancelled.set(true);
+            }
+            return cancelled.get();
+        };
+
+        assertFalse(pack(new ByteArrayOutputStream(), sources, cancelAfterFirstChunk));
+
+        assertTrue(cancelled.get());
+        assertEquals(0, open.get());
+    }
+
+    @Test
+    public void sharedContentIsPackedOnce() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        sources.add(source("Tavern/fiddle.mp3", 300, "fiddle"));
+        sources.add(source("Tavern/lute.mp3", 200, "lute"));
+        sources.add(source("Battle/fiddle.mp3", 300, "fiddle"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportEngine engine = engine(new ZipOutputStream(out), () -> false);
+        assertTrue(engine.run(sources));
+
+        assertEquals(1, engine.getSharedFiles());
+        assertEquals(300, engine.getSharedBytes());
+        assertEquals(500, progress.get(progress.size() - 1).getBytes());
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(SharedContent.ENTRY, in.getNextEntry().getName());
+            assertEquals(Map.of("Battle/fiddle.mp3", "Tavern/fiddle.mp3"), SharedContent.read(in));
+            assertEquals("Tavern/fiddle.mp3", in.getNextEntry().getName());
+            assertEquals("Tavern/lute.mp3", in.getNextEntry().getName());
+            assertNull(in.getNextEntry());
+        }
+    }
+
+    @Test
+    public void failedSharedContentIsReportedForEveryEntry() throws IOException {
+        List<ExportEngine.Source> sources = new ArrayList<>();
+        sources.add(new TestSource("Tavern/fiddle.mp3", new File(folder.getRoot(), "missing.mp3"), "fiddle"));
+        sources.add(new TestSource("Battle/fiddle.mp3", new File(folder.getRoot(), "missing.mp3"), "fiddle"));
+
+        assertTrue(pack(new ByteArrayOutputStream(), sources, () -> false));
+
+        assertEquals(List.of("Tavern/fiddle.mp3", "Battle/fiddle.mp3"), failed);
+    }
+
+    private boolean pack(ByteArrayOutputStream out, List<ExportEngine.Source> sources, BooleanSupplier cancelled) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        boolean completed = engine(zip, cancelled).run(sources);
+        // zip with entry cut short by cancel can't be finished
+        if (completed) {
+            zip.close();
+        }
+        return completed;
+    }
+
+    private ExportEngine engine(ZipOutputStream zip, BooleanSupplier cancelled) {
+        ZipEntryWriter writer = new ZipEntryWriter(zip, ZipEntryWriter.Mode.STORE_MEDIA);
+        return new ExportEngine(writer, 2, cancelled, new ExportEngine.Listener() {
+            @Override
+            public void onProgress(ExportEngine.Progress update) {
+                progress.add(update);
+            }
+
+            @Override
+            public void onError(ExportEngine.Source source, IOException e) {
+                failed.add(source.getEntryName());
+            }
+        });
+    }
+
+    private ExportEngine.Source source(String name, int size) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), new byte[size]);
+        return new TestSource(name, file, null);
+    }
+
+    private ExportEngine.Source source(String name, int size, String hash) throws IOException {
+        File file = folder.newFile(name.replace('/', '_'));
+        Files.write(file.toPath(), new byte[size]);
+        return new TestSource(name, file, hash);
+    }
+
+    private class TestSource implements ExportEngine.Source {
+        private final String name;
+        private final File file;
+        private final String hash;
+
+        TestSource(String name, File file) {
+            this(name, file, null);
+        }
+
+        TestSource(String name, File file, String hash) {
+            this.name = name;
+            this.file = file;
+            this.hash = hash;
+        }
+
+        @Override
+        public String contentHash() {
+            return hash;
+        }
+
+        @Override
+        public String getEntryName() {
+            return name;
+        }
+
+        @Override
+        public long length() {
+            return file.length();
+        }
+
+        @Override
+        public ExportEngine.Input open() throws IOException {
+            if (!file.exists()) {
+                throw new FileNotFoundException(file.getName());
+            }
+            FileInputStream stream = new FileInputStream(file);
+            open.incrementAndGet();
+            return new ExportEngine.Input(stream.getChannel(), true, () -> {
+                open.decrementAndGet();
+                stream.close();
+            });
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package pl.qprogramming.themplay.preset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import pl.qprogramming.themplay.domain.Playlist;
+import pl.qprogramming.themplay.domain.Song;
+
+public class PresetZipImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeStore store;
+    private File songsDir;
+    private File journalFile;
+    private byte[] archive;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new FakeStore();
+        songsDir = new File(folder.getRoot(), "songs");
+        journalFile = new File(folder.getRoot(), "import/archive.journal");
+        archive = zip(
+                "Tavern/background.jpg", "image",
+                "Tavern/fiddle.mp3", "fiddle",
+                "Tavern/lute.ogg", "lute",
+                "Battle/drums.mp3", "drums",
+                AsyncPlaylistZipPacker.MANIFEST, "\n-----------\nTavern\n- fiddle.mp3 (a)\n- lute.ogg (b)"
+                        + "\n-----------\nBattle\n- drums.mp3 (c)\n-----------\nSilence");
+    }
+
+    @Test
+    public void playlistsAreImportedWithSongsAndBackgrounds() throws IOException {
+        ImportResult result = importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+
+        assertFalse(result.isCancelled());
+        assertFalse(result.isResumed());
+        assertEquals("Campaign", result.getPresetName());
+        assertEquals(List.of("Campaign"), store.presets);
+        assertEquals(3, result.getPlaylists());
+        assertEquals(3, result.getSongs());
+
+        Playlist tavern = store.playlist("Tavern");
+        assertEquals("Campaign", tavern.getPreset());
+        assertEquals(0, tavern.getPosition());
+        assertEquals("ref:image", tavern.getBackgroundRef());
+        assertEquals(2, store.songs.get("Tavern").size());
+        Song fiddle = store.songs.get("Tavern").get(0);
+        assertEquals("fiddle.mp3", fiddle.getFilename());
+        assertArrayEquals("fiddle".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(new File(fiddle.getFilePath()).toPath()));
+        assertEquals("file://" + fiddle.getFilePath(), fiddle.getFileUri());
+
+        assertEquals(1, store.playlist("Battle").getPosition());
+        assertNull(store.playlist("Battle").getBackgroundRef());
+        // listed in manifest only
+        assertEquals(2, store.playlist("Silence").getPosition());
+        assertTrue(store.songs.get("Silence").isEmpty());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void takenPresetNameIsMadeUnique() throws IOException {
+        store.presets.add("Campaign");
+        store.presets.add("Campaign (2)");
+
+        ImportResult result = importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+
+        assertEquals("Campaign (3)", result.getPresetName());
+        assertEquals("Campaign (3)", store.playlist("Battle").getPreset());
+    }
+
+    @Test
+    public void interruptedImportResumesWhereItStopped() throws IOException {
+        store.failOnPlaylist = "Battle";
+        try {
+            importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+            fail("Import should be interrupted");
+        } catch (IllegalStateException e) {
+            // database went away while committing second playlist
+        }
+        assertTrue(journalFile.exists());
+        assertEquals(1, store.playlists.size());
+        File fiddle = new File(store.songs.get("Tavern").get(0).getFilePath());
+        long extractedAt = fiddle.lastModified() - 10_000;
+        assertTrue(fiddle.setLastModified(extractedAt));
+
+        store.failOnPlaylist = null;
+        ImportResult result = importArchive(new PresetZipImporter(songsDir, store), "Other name");
+
+        assertTrue(result.isResumed());
+        assertEquals("Campaign", result.getPresetName());
+        assertEquals(List.of("Campaign"), store.presets);
+        assertEquals(2, result.getPlaylists());
+        assertEquals(List.of("Tavern", "Battle", "Silence"), new ArrayList<>(store.playlists.keySet()));
+        // songs of committed playlist were not extracted again
+        assertEquals(extractedAt, fiddle.lastModified());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void cancelledImportKeepsJournal() throws IOException {
+        ImportResult result;
+        try (ImportJournal journal = new ImportJournal(journalFile)) {
+            result = new PresetZipImporter(songsDir, store).importPreset("Campaign", new ByteArrayInputStream(archive),
+                    archive.length, journal, () -> true, progress -> {
+                    });
+        }
+
+        assertTrue(result.isCancelled());
+        assertTrue(journalFile.exists());
+        assertTrue(store.playlists.isEmpty());
+
+        ImportResult resumed = importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+        assertTrue(resumed.isResumed());
+        assertEquals(3, resumed.getPlaylists());
+    }
+
+    @Test
+    public void sharedSongsPointToFileExtractedOnce() throws IOException {
+        archive = zip(
+                SharedContent.ENTRY, "Battle/fiddle.mp3\tTavern/fiddle.mp3\nEcho/fiddle.mp3\tTavern/fiddle.mp3\n",
+                "Tavern/fiddle.mp3", "fiddle",
+                "Battle/drums.mp3", "drums");
+
+        ImportResult result = importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+
+        assertEquals(3, result.getPlaylists());
+        assertEquals(4, result.getSongs());
+        String extracted = store.songs.get("Tavern").get(0).getFilePath();
+        Song shared = store.songs.get("Battle").get(1);
+        assertEquals("fiddle.mp3", shared.getFilename());
+        assertEquals(extracted, shared.getFilePath());
+        // playlist with shared songs only
+        assertEquals(2, store.playlist("Echo").getPosition());
+        assertEquals(extracted, store.songs.get("Echo").get(0).getFilePath());
+    }
+
+    @Test
+    public void playlistSplitAcrossArchiveIsRejected() throws IOException {
+        archive = zip(
+                "Tavern/fiddle.mp3", "fiddle",
+                "Battle/drums.mp3", "drums",
+                "Tavern/lute.ogg", "lute");
+        try {
+            importArchive(new PresetZipImporter(songsDir, store), "Campaign");
+            fail("Import should fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Tavern"));
+        }
+        assertTrue(journalFile.exists());
+    }
+
+    @Test
+    public void namesAreSafeForFileSystem() {
+        assertEquals("a_b_c.mp3", PresetZipImporter.safeName("a/b\\c.mp3"));
+        assertEquals("_..", PresetZipImporter.safeName(".."));
+        assertEquals(".._.._etc", PresetZipImporter.safeName("../../etc"));
+    }
+
+    private ImportResult importArchive(PresetZipImporter importer, String presetName) throws IOException {
+        try (ImportJournal journal = new ImportJournal(journalFile)) {
+            return importer.importPreset(presetName, new ByteArrayInputStream(archive), archive.length, journal,
+                    () -> false, progress -> {
+                    });
+        }
+    }
+
+    private static byte[] zip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static class FakeStore implements PresetZipImporter.Store {
+        private final List<String> presets = new ArrayList<>();
+        private final Map<String, Playlist> playlists = new LinkedHashMap<>();
+        private final Map<String, List<Song>> songs = new LinkedHashMap<>();
+        private String failOnPlaylist;
+
+        @Override
+        public boolean presetExists(String name) {
+            return presets.contains(name);
+        }
+
+        @Override
+        public void createPreset(String name) {
+            presets.add(name);
+        }
+
+        @Override
+        public void insertPlaylist(Playlist playlist, List<Song> playlistSongs) {
+            if (playlist.getName().equals(failOnPlaylist)) {
+                throw new IllegalStateException("Database closed");
+            }
+            playlists.put(playlist.getName(), playlist);
+            songs.put(playlist.getName(), new ArrayList<>(playlistSongs));
+        }
+
+        @Override
+        public String putImage(byte[] image) {
+            return "ref:" + new String(image, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String uriOf(File song) {
+            return "file://" + song.getAbsolutePath();
+        }
+
+        Playlist playlist(String name) {
+            return playlists.get(name);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pl.qprogramming.themplay.preset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ZipEntryWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compressedAudioIsStoredWithChecksum() throws IOException {
+        // larger than buffer, so that it's read in several chunks
+        byte[] song = randomBytes(ZipEntryWriter.BUFFER_SIZE * 2 + 123);
+        byte[] zip = pack(ZipEntryWriter.Mode.STORE_MEDIA, "Tavern/fiddle.mp3", song);
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry = in.getNextEntry();
+            assertEquals("Tavern/fiddle.mp3", entry.getName());
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertEquals(song.length, entry.getSize());
+            assertEquals(crc(song), entry.getCrc());
+            assertArrayEquals(song, readAll(in));
+            ZipEntry manifest = in.getNextEntry();
+            assertEquals(ZipEntry.DEFLATED, manifest.getMethod());
+            assertEquals("manifest", new String(readAll(in), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void everythingIsDeflatedInDeflateMode() throws IOException {
+        byte[] song = randomBytes(1000);
+        byte[] zip = pack(ZipEntryWriter.Mode.DEFLATE_ALL, "Tavern/fiddle.mp3", song);
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            assertEquals(ZipEntry.DEFLATED, in.getNextEntry().getMethod());
+            assertArrayEquals(song, readAll(in));
+        }
+    }
+
+    @Test
+    public void uncompressedFilesAreDeflated() throws IOException {
+        byte[] wave = new byte[4096];
+        byte[] zip = pack(ZipEntryWriter.Mode.STORE_MEDIA, "Tavern/rain.wav", wave);
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            assertEquals(ZipEntry.DEFLATED, in.getNextEntry().getMethod());
+            assertArrayEquals(wave, readAll(in));
+        }
+        assertTrue(zip.length < wave.length);
+    }
+
+    @Test
+    public void compressedMediaIsRecognizedByExtension() {
+        assertTrue(ZipEntryWriter.isCompressedMedia("a.MP3"));
+        assertTrue(ZipEntryWriter.isCompressedMedia("b.c.flac"));
+        assertFalse(ZipEntryWriter.isCompressedMedia("background.jpg"));
+        assertFalse(ZipEntryWriter.isCompressedMedia("noextension"));
+    }
+
+    private byte[] pack(ZipEntryWriter.Mode mode, String name, byte[] content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out); FileInputStream fis = new FileInputStream(file)) {
+            ZipEntryWriter writer = new ZipEntryWriter(zip, mode);
+            writer.writeFile(name, fis.getChannel(), true);
+            writer.writeBytes("manifest.txt", "manifest".getBytes(StandardCharsets.UTF_8));
+            assertEquals(content.length + 8, writer.getBytesWritten());
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static byte[] readAll(ZipInputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
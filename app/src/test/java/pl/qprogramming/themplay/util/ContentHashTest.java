@@ -0,0 +1,94 @@
+package pl.qprogramming.themplay.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class ContentHashTest {
+    private static final int LARGE = ContentHash.SAMPLE_SIZE * 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sameContentHasSameHash() throws IOException {
+        byte[] content = random(LARGE);
+
+        assertEquals(hash(file("a.mp3", content)), hash(file("b.mp3", content)));
+    }
+
+    @Test
+    public void changedTagsChangeHash() throws IOException {
+        byte[] content = random(LARGE);
+        byte[] retagged = content.clone();
+        retagged[retagged.length - 1]++;
+
+        assertNotEquals(hash(file("a.mp3", content)), hash(file("b.mp3", retagged)));
+    }
+
+    @Test
+    public void smallFileIsHashedWhole() throws IOException {
+        byte[] content = random(ContentHash.SAMPLE_SIZE * 2);
+        byte[] changed = content.clone();
+        changed[ContentHash.SAMPLE_SIZE + 1]++;
+
+        assertNotEquals(hash(file("a.mp3", content)), hash(file("b.mp3", changed)));
+    }
+
+    @Test
+    public void hashingLeavesPositionUntouched() throws IOException {
+        File file = file("a.mp3", random(LARGE));
+        try (FileInputStream in = new FileInputStream(file)) {
+            in.getChannel().position(10);
+            ContentHash.of(in.getChannel(), file.length());
+            assertEquals(10, in.getChannel().position());
+        }
+    }
+
+    @Test
+    public void cachedHashIsStaleOnceSizeChanges() {
+        assertTrue(ContentHash.isCurrent("abc", 100, 5000, 100, 5000));
+        assertFalse(ContentHash.isCurrent("abc", 100, 5000, 101, 5000));
+        assertFalse(ContentHash.isCurrent(null, 0, 0, 0, 0));
+    }
+
+    @Test
+    public void cachedHashIsStaleOnceModifiedWithSameSize() {
+        // e.g. tag edit fitting into padding
+        assertFalse(ContentHash.isCurrent("abc", 100, 5000, 100, 6000));
+    }
+
+    @Test
+    public void cachedHashIsNotTrustedWithoutModificationTime() {
+        assertFalse(ContentHash.isCurrent("abc", 100, 0, 100, 0));
+    }
+
+    private String hash(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return ContentHash.of(in.getChannel(), file.length());
+        }
+    }
+
+    private File file(String name, byte[] content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
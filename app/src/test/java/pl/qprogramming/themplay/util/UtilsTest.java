@@ -2,6 +2,7 @@ package pl.qprogramming.themplay.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static pl.qprogramming.themplay.util.Utils.createPlaylist;
 
 import org.junit.Test;
@@ -9,7 +10,14 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import pl.qprogramming.themplay.domain.Playlist;
 import pl.qprogramming.themplay.domain.Song;
@@ -18,6 +26,13 @@ import pl.qprogramming.themplay.util.Utils.VersionComparisonResult;
 @RunWith(RobolectricTestRunner.class)
 public class UtilsTest {
 
+    private static final int SHUFFLE_TRIALS = 24000;
+    private static final int PERMUTATIONS_OF_FOUR = 24;
+    /**
+     * Chi-square critical value for 23 degrees of freedom at p = 0.001
+     */
+    private static final double CHI_SQUARE_CRITICAL_23_DOF = 49.73;
+
     @Test
     public void testShufflePlaylist() {
         Playlist playlist = Playlist.builder().name("playlist").songs(createSongs()).build();
@@ -28,6 +43,90 @@ public class UtilsTest {
         assertEquals(0L, (long) playlist.getPlaylist().get(playlist.getPlaylist().size() - 1).getId());
     }
 
+    @Test
+    public void testShufflePlaylistWithoutCurrentSong() {
+        Playlist playlist = Playlist.builder().name("playlist").songs(createSongs()).build();
+        createPlaylist(playlist, true);
+        assertEquals(playlist.getSongs().size(), playlist.getPlaylist().size());
+        assertFalse(playlist.getPlaylist().contains(null));
+    }
+
+    @Test
+    public void testShufflePlaylistIsReproducibleWithSeed() {
+        Playlist first = Playlist.builder().name("playlist").songs(createSongs()).build();
+        Playlist second = Playlist.builder().name("playlist").songs(createSongs()).build();
+        createPlaylist(first, true, new ShuffleEngine(42));
+        createPlaylist(second, true, new ShuffleEngine(42));
+        assertEquals(first.getPlaylist(), second.getPlaylist());
+    }
+
+    @Test
+    public void shuffleProducesAllPermutationsUniformly() {
+        ShuffleEngine engine = new ShuffleEngine(7);
+        Map<List<Integer>, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SHUFFLE_TRIALS; i++) {
+            List<Integer> list = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
+            engine.shuffle(list);
+            counts.merge(list, 1, Integer::sum);
+        }
+        assertEquals(PERMUTATIONS_OF_FOUR, counts.size());
+        assertTrue(chiSquare(counts.values(), SHUFFLE_TRIALS) < CHI_SQUARE_CRITICAL_23_DOF);
+    }
+
+    @Test
+    public void lazyShuffleProducesAllPermutationsUniformly() {
+        ShuffleEngine engine = new ShuffleEngine(11);
+        List<Integer> source = Arrays.asList(0, 1, 2, 3);
+        Map<List<Integer>, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SHUFFLE_TRIALS; i++) {
+            List<Integer> drawn = new ArrayList<>();
+            Iterator<Integer> iterator = engine.lazyShuffle(source);
+            while (iterator.hasNext()) {
+                drawn.add(iterator.next());
+            }
+            counts.merge(drawn, 1, Integer::sum);
+        }
+        assertEquals(PERMUTATIONS_OF_FOUR, counts.size());
+        assertTrue(chiSquare(counts.values(), SHUFFLE_TRIALS) < CHI_SQUARE_CRITICAL_23_DOF);
+    }
+
+    @Test
+    public void lazyShuffleReturnsEveryElementOnce() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            source.add(i);
+        }
+        Set<Integer> drawn = new HashSet<>();
+        Iterator<Integer> iterator = new ShuffleEngine(3).lazyShuffle(source);
+        while (iterator.hasNext()) {
+            assertTrue(drawn.add(iterator.next()));
+        }
+        assertEquals(source.size(), drawn.size());
+    }
+
+    @Test
+    public void shuffleCanMoveLastSongToFront() {
+        ShuffleEngine engine = new ShuffleEngine(5);
+        int lastFirst = 0;
+        for (int i = 0; i < SHUFFLE_TRIALS; i++) {
+            List<Integer> list = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
+            engine.shuffle(list);
+            if (list.get(0) == 3) {
+                lastFirst++;
+            }
+        }
+        // expected 1/4 of trials
+        assertEquals(SHUFFLE_TRIALS / 4.0, lastFirst, SHUFFLE_TRIALS * 0.02);
+    }
+
+    private static double chiSquare(Collection<Integer> observed, int trials) {
+        double expected = (double) trials / PERMUTATIONS_OF_FOUR;
+        double sum = 0;
+        for (int count : observed) {
+            sum += (count - expected) * (count - expected) / expected;
+        }
+        return sum;
+    }
 
     private List<Song> createSongs() {
         List<Song> songs = new ArrayList<>();